@@ -0,0 +1,226 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools;
+
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache of the tools bundled in the plugin (HpToolsLauncher.exe, LRAnalysisLauncher.exe, HpToolsAborter.exe)
+ * on each node, under {@code <node root>/toolsCache/<tool name>/<sha-256 of the tool>}.
+ * A tool is transferred to a node once per plugin version, the builds copy the cached tool into their workspace
+ * after verifying its content hash.
+ */
+public final class AgentToolsCache {
+	private static final Logger logger = Logger.getLogger(AgentToolsCache.class.getName());
+	private static final String CACHE_FOLDER = "toolsCache";
+	private static final boolean DISABLED = Boolean.getBoolean(AgentToolsCache.class.getName() + ".disabled");
+
+	//content hashes of the tools, by the url of the resource (which changes with the plugin version)
+	private static final Map<String, String> resourceHashes = new ConcurrentHashMap<>();
+
+	private AgentToolsCache() {
+	}
+
+	/**
+	 * replaces {@code target.copyFrom(resource)} for the tools bundled in the plugin
+	 *
+	 * @param resource the tool, in the plugin resources
+	 * @param target   file of the tool in the workspace
+	 */
+	public static void install(URL resource, FilePath target) throws IOException, InterruptedException {
+		FilePath cacheRoot = DISABLED ? null : getCacheRoot(target);
+		if (cacheRoot == null) {
+			target.copyFrom(resource);
+			return;
+		}
+
+		String hash = getHash(resource);
+		FilePath entry = cacheRoot.child(target.getName()).child(hash).child(target.getName());
+		if (target.act(new CopyCallable(entry.getRemote(), null, hash))) {
+			return;
+		}
+
+		// not cached yet, or the cached file did not pass the verification
+		FilePath entryFolder = entry.getParent();
+		entryFolder.mkdirs();
+		FilePath download = entryFolder.createTempFile(target.getName(), ".tmp");
+		try {
+			download.copyFrom(resource);
+			if (!target.act(new CopyCallable(entry.getRemote(), download.getRemote(), hash))) {
+				throw new IOException("Failed to install " + target.getName() + " to " + target.getRemote());
+			}
+		} finally {
+			if (download.exists()) {
+				download.delete();
+			}
+		}
+	}
+
+	private static FilePath getCacheRoot(FilePath target) {
+		Computer computer = target.toComputer();
+		Node node = computer == null ? null : computer.getNode();
+		FilePath rootPath = node == null ? null : node.getRootPath();
+		return rootPath == null ? null : rootPath.child(CACHE_FOLDER);
+	}
+
+	private static String getHash(URL resource) throws IOException {
+		String key = resource.toExternalForm();
+		String hash = resourceHashes.get(key);
+		if (hash == null) {
+			try (InputStream is = resource.openStream()) {
+				hash = computeHash(is);
+			}
+			resourceHashes.put(key, hash);
+		}
+		return hash;
+	}
+
+	static String computeHash(InputStream is) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		byte[] buffer = new byte[64 * 1024];
+		try (DigestInputStream dis = new DigestInputStream(is, digest)) {
+			while (dis.read(buffer) != -1) {
+				// only digesting
+			}
+		}
+		return Util.toHexString(digest.digest());
+	}
+
+	static boolean isValid(Path file, String hash) throws IOException {
+		if (!Files.isRegularFile(file)) {
+			return false;
+		}
+		try (InputStream is = Files.newInputStream(file)) {
+			return hash.equals(computeHash(is));
+		}
+	}
+
+	/**
+	 * runs on the node of the workspace: commits a downloaded tool to the cache (if given),
+	 * then copies the verified cache entry into the workspace.
+	 * returns false when the cache entry is missing or corrupted
+	 */
+	static final class CopyCallable extends MasterToSlaveFileCallable<Boolean> {
+		private static final long serialVersionUID = 1L;
+		private final String entry;
+		private final String download;
+		private final String hash;
+
+		CopyCallable(String entry, String download, String hash) {
+			this.entry = entry;
+			this.download = download;
+			this.hash = hash;
+		}
+
+		@Override
+		public Boolean invoke(File target, VirtualChannel channel) throws IOException {
+			Path entryPath = Paths.get(entry);
+			if (download != null) {
+				commit(Paths.get(download), entryPath);
+			}
+			if (!isValid(entryPath, hash)) {
+				if (Files.exists(entryPath)) {
+					logger.warning("discarding the corrupted cached tool " + entryPath);
+					Files.deleteIfExists(entryPath);
+				}
+				return false;
+			}
+
+			// copied rather than linked: on Windows a running tool locks all the links of its file,
+			// which would keep the workspace and the cache entry from being deleted
+			Path targetPath = target.toPath();
+			if (isValid(targetPath, hash)) {
+				if (!Files.isSameFile(targetPath, entryPath)) {
+					return true;
+				}
+				// linked by a previous version of the plugin, Files.copy would leave the link
+				Files.delete(targetPath);
+			}
+			Files.createDirectories(targetPath.getParent());
+			Files.copy(entryPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+			return true;
+		}
+
+		private void commit(Path downloadPath, Path entryPath) throws IOException {
+			if (!isValid(downloadPath, hash)) {
+				throw new IOException("The transferred " + entryPath.getFileName() + " does not match the tool of the plugin");
+			}
+			try {
+				Files.move(downloadPath, entryPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				// another build committed it in the meantime, and may be running it
+				if (!isValid(entryPath, hash)) {
+					throw e;
+				}
+			}
+
+			// drop the versions of the tool of previous plugin versions
+			Path versionsFolder = entryPath.getParent().getParent();
+			try (DirectoryStream<Path> versions = Files.newDirectoryStream(versionsFolder)) {
+				for (Path version : versions) {
+					if (!version.getFileName().toString().equals(hash)) {
+						deleteQuietly(version);
+					}
+				}
+			}
+		}
+
+		private static void deleteQuietly(Path folder) {
+			try {
+				Util.deleteRecursive(folder.toFile());
+			} catch (IOException e) {
+				// still in use, dropped next time
+				logger.log(Level.FINE, "failed to delete " + folder, e);
+			}
+		}
+	}
+}
@@ -49,35 +49,35 @@ public class CommonUploadLogger implements Logger {
         failedEntityNames = new ArrayList<>();
     }
 
-    public void error(String message) {
+    public synchronized void error(String message) {
         errorCount++;
         storeError(message);
         message = ERR_PREFIX + message;
         log(message);
     }
 
-    public void info(String message) {
+    public synchronized void info(String message) {
         message = INFO_PREFIX + message;
         log(message);
     }
 
-    public void warn(String message) {
+    public synchronized void warn(String message) {
         message = WARN_PREFIX + message;
         log(message);
     }
 
     @Override
-    public void log(String message) {
+    public synchronized void log(String message) {
         if (printStream != null) {
             printStream.println(message);
         }
     }
 
-    public List<String> getFailedEntityNames() {
+    public synchronized List<String> getFailedEntityNames() {
         return failedEntityNames;
     }
 
-    public int getErrorCount() {
+    public synchronized int getErrorCount() {
         return errorCount;
     }
 
@@ -36,7 +36,12 @@ import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
 import org.apache.commons.lang3.StringEscapeUtils;
 
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public abstract class BasicPostEntityRequest {
@@ -45,22 +50,46 @@ public abstract class BasicPostEntityRequest {
     private static final String END = "</Title>";
     private static final String IGNORE_REQUIRED_FIELDS_VALIDATION = "X-QC-Ignore-Customizable-Required-Fields-Validation";
     private static final String X_XSRF_TOKEN = "X-XSRF-TOKEN";
+    /**
+     * Statuses with which ALM rejects a collection request as a whole, before touching any entity.
+     */
+    private static final List<Integer> BULK_NOT_SUPPORTED_STATUSES = Arrays.asList(
+            HttpURLConnection.HTTP_BAD_METHOD,
+            HttpURLConnection.HTTP_UNSUPPORTED_TYPE,
+            HttpURLConnection.HTTP_NOT_IMPLEMENTED);
 
     protected RestClient client;
     protected CommonUploadLogger logger;
     protected String operation;
+    protected boolean bulk;
 
     protected BasicPostEntityRequest(RestClient client, CommonUploadLogger logger, String operation) {
+        this(client, logger, operation, false);
+    }
+
+    /**
+     * @param bulk send a collection of entities in one call,
+     *             using ALM's "application/xml;type=collection" content type.
+     */
+    protected BasicPostEntityRequest(RestClient client, CommonUploadLogger logger, String operation, boolean bulk) {
         this.client = client;
         this.logger = logger;
         this.operation = operation;
+        this.bulk = bulk;
     }
 
     public abstract Map<String, String> perform(String restPrefix, Map<String, String> valueMap);
 
+    /**
+     * Send all entities in one call. Only for bulk requests.
+     * @return the entities returned by ALM in the order of valueMaps, null for each entity
+     * if the call failed or returned a partial result, or null if ALM doesn't support bulk requests.
+     */
+    public abstract List<Map<String, String>> perform(String restPrefix, List<Map<String, String>> valueMaps);
+
     protected Map<String, String> getHeaders() {
         Map<String, String> ret = new HashMap<String, String>();
-        ret.put(RESTConstants.CONTENT_TYPE, RESTConstants.APP_XML);
+        ret.put(RESTConstants.CONTENT_TYPE, bulk ? RESTConstants.APP_XML_BULK : RESTConstants.APP_XML);
         ret.put(RESTConstants.ACCEPT, RESTConstants.APP_XML);
         ret.put(IGNORE_REQUIRED_FIELDS_VALIDATION, "Y");
         ret.put(X_XSRF_TOKEN, client.getXsrfTokenValue());
@@ -74,6 +103,15 @@ public abstract class BasicPostEntityRequest {
         );
     }
 
+    private String findRestErrorMessage(String responseContent) {
+        int start = responseContent.indexOf(START);
+        int end = responseContent.indexOf(END);
+        if (start < 0 || end < start) {
+            return null;
+        }
+        return responseContent.substring(start + START.length(), end);
+    }
+
     protected byte[] getDataBytes(Map<String, String> valueMap) {
         StringBuilder builder = new StringBuilder("<Entity><Fields>");
         for (Map.Entry<String, String> entry : valueMap.entrySet()) {
@@ -84,6 +122,20 @@ public abstract class BasicPostEntityRequest {
         return builder.toString().getBytes();
     }
 
+    protected byte[] getDataBytes(List<Map<String, String>> valueMaps) {
+        StringBuilder builder = new StringBuilder("<Entities>");
+        for (Map<String, String> valueMap : valueMaps) {
+            builder.append("<Entity><Fields>");
+            for (Map.Entry<String, String> entry : valueMap.entrySet()) {
+                builder.append(RestXmlUtils.fieldXml(entry.getKey(),
+                        StringEscapeUtils.escapeHtml4(entry.getValue())));
+            }
+            builder.append("</Fields></Entity>");
+        }
+        builder.append("</Entities>");
+        return builder.toString().getBytes();
+    }
+
     private String getResultNameOrId(Map<String, String> result) {
         return result.get("name") != null ? result.get("name") : result.get("id");
     }
@@ -102,4 +154,40 @@ public abstract class BasicPostEntityRequest {
             return null;
         }
     }
+
+    /**
+     * A failed or partial bulk call may have changed some of the entities already,
+     * so only a call ALM refused to handle at all may be sent again entity by entity.
+     */
+    protected List<Map<String, String>> handleResult(Response response,
+                                                     List<Map<String, String>> valueMaps,
+                                                     String restPrefix) {
+        if (response.isOk() && !response.toString().equals("")) {
+            List<Map<String, String>> results = XPathUtils.toEntities(response.toString());
+            if (results.size() == valueMaps.size()) {
+                logger.info(String.format("%s %d entities success. %s", operation,
+                        results.size(), restPrefix));
+                return results;
+            }
+            logger.error(String.format("%s %d entities returned %d results. %s", operation,
+                    valueMaps.size(), results.size(), restPrefix));
+            return new ArrayList<>(Collections.<Map<String, String>>nCopies(valueMaps.size(), null));
+        }
+        // the transports set a failure for every error status, so the status alone tells a refused call
+        if (BULK_NOT_SUPPORTED_STATUSES.contains(response.getStatusCode())) {
+            logger.warn(String.format("%s %d entities in bulk is not supported. %s", operation,
+                    valueMaps.size(), restPrefix));
+            return null;
+        }
+        logger.error(String.format("%s %d entities in bulk failed. %s", operation,
+                valueMaps.size(), restPrefix));
+        if (response.getFailure() != null) {
+            logger.error(response.getFailure().toString());
+        }
+        String message = findRestErrorMessage(response.toString());
+        if (message != null) {
+            logger.error(message);
+        }
+        return new ArrayList<>(Collections.<Map<String, String>>nCopies(valueMaps.size(), null));
+    }
 }
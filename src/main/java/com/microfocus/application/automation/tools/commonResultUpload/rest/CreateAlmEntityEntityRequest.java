@@ -33,12 +33,17 @@ import com.microfocus.application.automation.tools.rest.RestClient;
 import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
 
+import java.util.List;
 import java.util.Map;
 
 public class CreateAlmEntityEntityRequest extends BasicPostEntityRequest {
 
     public CreateAlmEntityEntityRequest(RestClient client, CommonUploadLogger logger) {
-        super(client, logger, "Create");
+        this(client, logger, false);
+    }
+
+    public CreateAlmEntityEntityRequest(RestClient client, CommonUploadLogger logger, boolean bulk) {
+        super(client, logger, "Create", bulk);
     }
 
     @Override
@@ -51,4 +56,15 @@ public class CreateAlmEntityEntityRequest extends BasicPostEntityRequest {
                 ResourceAccessLevel.PROTECTED);
         return handleResult(response, valueMap, restPrefix);
     }
+
+    @Override
+    public List<Map<String, String>> perform(String restPrefix, List<Map<String, String>> valueMaps) {
+        String url = client.buildRestRequest(restPrefix);
+        Response response = client.httpPost(
+                url,
+                getDataBytes(valueMaps),
+                getHeaders(),
+                ResourceAccessLevel.PROTECTED);
+        return handleResult(response, valueMaps, restPrefix);
+    }
 }
@@ -35,6 +35,7 @@ import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class UpdateAlmEntityEntityRequest extends BasicPostEntityRequest {
@@ -42,7 +43,11 @@ public class UpdateAlmEntityEntityRequest extends BasicPostEntityRequest {
     private static final String X_XSRF_TOKEN = "X-XSRF-TOKEN";
 
     public UpdateAlmEntityEntityRequest(RestClient client, CommonUploadLogger logger) {
-        super(client, logger, "Update");
+        this(client, logger, false);
+    }
+
+    public UpdateAlmEntityEntityRequest(RestClient client, CommonUploadLogger logger, boolean bulk) {
+        super(client, logger, "Update", bulk);
     }
 
     @Override
@@ -56,8 +61,22 @@ public class UpdateAlmEntityEntityRequest extends BasicPostEntityRequest {
         return handleResult(response, valueMap, restPrefix);
     }
 
+    @Override
+    public List<Map<String, String>> perform(String restPrefix, List<Map<String, String>> valueMaps) {
+        String url = client.buildRestRequest(restPrefix);
+        Response response = client.httpPut(
+                url,
+                getDataBytes(valueMaps),
+                getHeaders(),
+                ResourceAccessLevel.PROTECTED);
+        return handleResult(response, valueMaps, restPrefix);
+    }
+
     @Override
     protected Map<String, String> getHeaders() {
+        if (bulk) {
+            return super.getHeaders();
+        }
         Map<String, String> ret = new HashMap<String, String>();
         ret.put(RESTConstants.CONTENT_TYPE, RESTConstants.APP_XML_BULK);
         ret.put(RESTConstants.ACCEPT, RESTConstants.APP_XML);
@@ -39,6 +39,11 @@ import java.util.Map;
 public class CriteriaTranslator {
 
     public static final String CRITERIA_PREFIX = "q|";
+    /**
+     * Max number of values put in one OR criteria, to keep the query url short.
+     */
+    public static final int MAX_OR_VALUES = 50;
+    private static final String OR = "%20OR%20";
 
     private CriteriaTranslator() {
 
@@ -84,4 +89,18 @@ public class CriteriaTranslator {
         }
         return sb.toString();
     }
+
+    /**
+     * Join values into one criteria value, like: 1 OR 2 OR 3
+     */
+    public static String getOrCriteria(List<String> values) {
+        StringBuilder sb = new StringBuilder();
+        for (String value : values) {
+            if (sb.length() > 0) {
+                sb.append(OR);
+            }
+            sb.append(value);
+        }
+        return sb.toString();
+    }
 }
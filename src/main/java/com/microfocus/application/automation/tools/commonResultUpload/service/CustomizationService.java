@@ -30,11 +30,9 @@ package com.microfocus.application.automation.tools.commonResultUpload.service;
 
 import com.microfocus.application.automation.tools.commonResultUpload.CommonUploadLogger;
 import com.microfocus.application.automation.tools.rest.RestClient;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
+import com.microfocus.application.automation.tools.sse.common.AlmEntityReader;
 import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -50,12 +48,14 @@ public class CustomizationService {
     private CommonUploadLogger logger;
     private Map<String, Map<String, String>> subtypeCache;
     private Map<String, Map<String, String>> fieldCache;
+    private Map<String, Boolean> versioningCache;
 
     public CustomizationService(RestClient client, CommonUploadLogger logger) {
         this.client = client;
         this.logger = logger;
         subtypeCache = new HashMap<>();
         fieldCache = new HashMap<>();
+        versioningCache = new HashMap<>();
     }
 
     public String getRunSubtypeIdByTestInstance(String testInstanceSubtypeId) {
@@ -92,7 +92,7 @@ public class CustomizationService {
                     ResourceAccessLevel.PROTECTED);
             if (response.isOk() && !response.toString().equals("")) {
                 logger.info(String.format("Get customization entity subtypes success. [%s]", entityName));
-                Map<String, String> customizationMap = XPathUtils.getEntitySubtypesMap(response.toString());
+                Map<String, String> customizationMap = AlmEntityReader.readAttributeMap(response.toString(), "type", "name", "id");
                 subtypeCache.put(entityName, customizationMap);
                 return customizationMap;
             } else {
@@ -120,7 +120,7 @@ public class CustomizationService {
                     ResourceAccessLevel.PROTECTED);
             if (response.isOk() && !response.toString().equals("")) {
                 logger.info(String.format("Get customization entity fields success. [%s]", entityName));
-                Map<String, String> entityFieldsMap = XPathUtils.getEntityFieldsMap(response.toString());
+                Map<String, String> entityFieldsMap = AlmEntityReader.readAttributeMap(response.toString(), "Field", "Label", "Name");
                 fieldCache.put(entityName, entityFieldsMap);
                 return entityFieldsMap;
             } else {
@@ -134,6 +134,15 @@ public class CustomizationService {
     }
 
     public boolean isVersioningEnabled(String entityName) {
+        Boolean versioningEnabled = versioningCache.get(entityName);
+        if (versioningEnabled == null) {
+            versioningEnabled = getVersioningEnabled(entityName);
+            versioningCache.put(entityName, versioningEnabled);
+        }
+        return versioningEnabled;
+    }
+
+    private boolean getVersioningEnabled(String entityName) {
         String suffix = String.format("customization/entities/%s", entityName);
         String url = client.buildRestRequest(suffix);
         Response response = client.httpGet(
@@ -143,9 +152,7 @@ public class CustomizationService {
                 ResourceAccessLevel.PROTECTED);
         if (response.isOk() && !response.toString().equals("")) {
             logger.log(String.format("INFO: -- Get Entity Resource Descriptor success. [%s]", entityName));
-            Document document = XPathUtils.getDocument(response.toString());
-            Element element = (Element) document.getElementsByTagName("SupportsVC").item(0);
-            return "true".equals(element.getTextContent());
+            return "true".equals(AlmEntityReader.readElementText(response.toString(), "SupportsVC"));
         } else {
             logger.log("ERR: Get entities failed from: " + url);
             logger.log("ERR: " + response.getFailure());
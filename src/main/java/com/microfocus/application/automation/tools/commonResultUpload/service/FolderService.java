@@ -32,6 +32,7 @@ import com.microfocus.application.automation.tools.results.service.AlmRestTool;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmCommonProperties;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,10 +43,23 @@ public class FolderService {
     private static final String FOLDER_SEPERATOR = "\\";
     private RestService restService;
 
+    // Both caches live as long as this service, which is one upload.
+    private Map<String, Map<String, String>> folderCache = new HashMap<>();
+    private Map<String, Map<String, Map<String, String>>> folderTreeCache = new HashMap<>();
+    private int folderCacheHits;
+    private int folderCacheMisses;
+    private int folderTreeCacheHits;
+    private int folderTreeCacheMisses;
+
     public FolderService(RestService restService) {
         this.restService = restService;
     }
 
+    public String getCacheStatistics() {
+        return String.format("Folder cache: %d hits, %d misses. Folder tree cache: %d hits, %d misses.",
+                folderCacheHits, folderCacheMisses, folderTreeCacheHits, folderTreeCacheMisses);
+    }
+
     public Map<String, String> createOrFindPath(String prefix, String parentId, String path) {
         List<Map<String, String>> folders = new ArrayList<Map<String, String>>();
         StringTokenizer tokenizer = new StringTokenizer(path, FOLDER_SEPERATOR);
@@ -65,15 +79,27 @@ public class FolderService {
     }
 
     public Map<String, String> createFolder(String prefix, String parentId, String folderName) {
+        String key = String.format("%s|%s|%s", prefix, parentId, folderName);
+        Map<String, String> folder = folderCache.get(key);
+        if (folder != null) {
+            folderCacheHits++;
+            return folder;
+        }
+        folderCacheMisses++;
+
         Map<String, String> existsFolder = checkFolderExits(prefix, parentId, folderName);
         if (existsFolder == null) {
             existsFolder = new HashMap<>();
             existsFolder.put(AlmCommonProperties.PARENT_ID, parentId);
             existsFolder.put(AlmCommonProperties.NAME, folderName);
-            return restService.create(prefix, existsFolder);
+            folder = restService.create(prefix, existsFolder);
         } else {
-            return existsFolder;
+            folder = existsFolder;
+        }
+        if (folder != null) {
+            folderCache.put(key, folder);
         }
+        return folder;
     }
 
     public Map<String, String> checkFolderExits(String prefix, String parentId, String folderName) {
@@ -93,47 +119,129 @@ public class FolderService {
         return restService.get(null, prefix, query);
     }
 
+    /**
+     * Find an entity by name under the folder or its sub folders.
+     * The folder tree is listed once and later lookups are answered from the cache.
+     */
     public Map<String, String> findEntityInFolder(
             Map<String, String> testFolder,
             Map<String, String> test,
             String entityPrefix,
             String folderPrefix,
             String[] queryFields) {
-        List<Map<String, String>> foundTests = new ArrayList<>();
+        Map<String, Map<String, String>> entities = findEntitiesInFolderTree(
+                testFolder, entityPrefix, folderPrefix, queryFields);
+        return entities == null ? null : entities.get(test.get(AlmCommonProperties.NAME));
+    }
+
+    /**
+     * Get the entities under a folder and all its sub folders with a few paged queries.
+     * An entity in a folder wins over the one with the same name in its sub folders,
+     * and earlier sub folders win over later ones.
+     * The result is cached for the whole upload, callers add the entities they create to it.
+     * @return entities by name, or null if any query failed.
+     */
+    public Map<String, Map<String, String>> findEntitiesInFolderTree(
+            Map<String, String> folder,
+            String entityPrefix,
+            String folderPrefix,
+            String[] queryFields) {
+        String key = String.format("%s|%s|%s", entityPrefix, folder.get(AlmCommonProperties.ID),
+                String.join(",", queryFields));
+        Map<String, Map<String, String>> entities = folderTreeCache.get(key);
+        if (entities != null) {
+            folderTreeCacheHits++;
+            return entities;
+        }
+        folderTreeCacheMisses++;
+        entities = listEntitiesInFolderTree(folder, entityPrefix, folderPrefix, queryFields);
+        if (entities != null) {
+            folderTreeCache.put(key, entities);
+        }
+        return entities;
+    }
 
-        // Make criteria fields.
-        test.put(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.PARENT_ID,
-                testFolder.get(AlmCommonProperties.ID));
-        test.put(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.NAME,
-                test.get(AlmCommonProperties.NAME));
+    private Map<String, Map<String, String>> listEntitiesInFolderTree(
+            Map<String, String> folder,
+            String entityPrefix,
+            String folderPrefix,
+            String[] queryFields) {
+        List<String> folderIds = getFolderTreeIds(folderPrefix, folder.get(AlmCommonProperties.ID));
+        if (folderIds == null) {
+            return null;
+        }
+        Map<String, Integer> folderOrder = new HashMap<>();
+        for (int i = 0; i < folderIds.size(); i++) {
+            folderOrder.put(folderIds.get(i), i);
+        }
 
-        findEntityInFolderAndSub(foundTests, test, entityPrefix, folderPrefix, queryFields);
-        return foundTests.size() > 0 ? foundTests.get(0) : null;
+        List<String> fields = new ArrayList<>(Arrays.asList(queryFields));
+        if (!fields.contains(AlmCommonProperties.PARENT_ID)) {
+            fields.add(AlmCommonProperties.PARENT_ID);
+        }
+        Map<String, Map<String, String>> found = new HashMap<>();
+        for (int i = 0; i < folderIds.size(); i += CriteriaTranslator.MAX_OR_VALUES) {
+            List<String> ids = folderIds.subList(i, Math.min(i + CriteriaTranslator.MAX_OR_VALUES, folderIds.size()));
+            List<Map<String, String>> entities = restService.getAll(entityPrefix, String.format(
+                    "fields=%s&query={parent-id[%s]}",
+                    String.join(",", fields),
+                    CriteriaTranslator.getOrCriteria(ids)));
+            if (entities == null) {
+                return null;
+            }
+            for (Map<String, String> entity : entities) {
+                Map<String, String> exists = found.get(entity.get(AlmCommonProperties.NAME));
+                if (exists == null || folderOrder.get(entity.get(AlmCommonProperties.PARENT_ID))
+                        < folderOrder.get(exists.get(AlmCommonProperties.PARENT_ID))) {
+                    found.put(entity.get(AlmCommonProperties.NAME), entity);
+                }
+            }
+        }
+        return found;
     }
 
-    private void findEntityInFolderAndSub(List<Map<String, String>> foundTests,
-                                          Map<String, String> test, String entityPrefix,
-                                          String folderPrefix, String[] queryFields) {
-        List<Map<String, String>> existTests = restService.get(null,
-                entityPrefix, CriteriaTranslator.getCriteriaString(queryFields, test));
-
-        if (existTests == null || existTests.size() == 0) {
-            // Not in current folder, find in sub folders
-            List<Map<String, String>> subFolders =
-                    getSubFolders(folderPrefix, test.get(AlmCommonProperties.PARENT_ID));
-
-            if (subFolders != null) {
-                for (Map<String, String> subfolder : subFolders) {
-                    // Make criteria fields.
-                    test.put(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.PARENT_ID,
-                            subfolder.get(AlmCommonProperties.ID));
-                    test.put(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.NAME,
-                            test.get(AlmCommonProperties.NAME));
-                    findEntityInFolderAndSub(foundTests, test, entityPrefix, folderPrefix, queryFields);
+    /**
+     * Get ids of a folder and all its sub folders, in the order findEntityInFolder visits them.
+     * Sub folders are fetched a level at a time instead of a folder at a time.
+     */
+    private List<String> getFolderTreeIds(String folderPrefix, String folderId) {
+        Map<String, List<String>> subFolderIds = new HashMap<>();
+        List<String> level = new ArrayList<>();
+        level.add(folderId);
+        while (!level.isEmpty()) {
+            List<String> nextLevel = new ArrayList<>();
+            for (int i = 0; i < level.size(); i += CriteriaTranslator.MAX_OR_VALUES) {
+                List<String> ids = level.subList(i, Math.min(i + CriteriaTranslator.MAX_OR_VALUES, level.size()));
+                List<Map<String, String>> subFolders = restService.getAll(folderPrefix, String.format(
+                        "fields=id,name,parent-id&query={parent-id[%s]}",
+                        CriteriaTranslator.getOrCriteria(ids)));
+                if (subFolders == null) {
+                    return null;
+                }
+                for (Map<String, String> subFolder : subFolders) {
+                    String parentId = subFolder.get(AlmCommonProperties.PARENT_ID);
+                    if (!subFolderIds.containsKey(parentId)) {
+                        subFolderIds.put(parentId, new ArrayList<String>());
+                    }
+                    subFolderIds.get(parentId).add(subFolder.get(AlmCommonProperties.ID));
+                    nextLevel.add(subFolder.get(AlmCommonProperties.ID));
                 }
             }
-        } else {
-            foundTests.addAll(existTests);
+            level = nextLevel;
+        }
+
+        List<String> folderIds = new ArrayList<>();
+        addFolderIds(folderIds, subFolderIds, folderId);
+        return folderIds;
+    }
+
+    private void addFolderIds(List<String> folderIds, Map<String, List<String>> subFolderIds, String folderId) {
+        folderIds.add(folderId);
+        List<String> subIds = subFolderIds.get(folderId);
+        if (subIds != null) {
+            for (String subId : subIds) {
+                addFolderIds(folderIds, subFolderIds, subId);
+            }
         }
     }
 }
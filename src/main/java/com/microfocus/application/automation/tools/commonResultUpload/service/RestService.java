@@ -29,7 +29,9 @@
 package com.microfocus.application.automation.tools.commonResultUpload.service;
 
 import com.microfocus.application.automation.tools.common.SSEException;
+import com.microfocus.application.automation.tools.common.utils.ThreadPools;
 import com.microfocus.application.automation.tools.commonResultUpload.CommonUploadLogger;
+import com.microfocus.application.automation.tools.commonResultUpload.rest.BasicPostEntityRequest;
 import com.microfocus.application.automation.tools.commonResultUpload.rest.CreateAlmEntityEntityRequest;
 import com.microfocus.application.automation.tools.commonResultUpload.rest.GetAlmEntityRequest;
 import com.microfocus.application.automation.tools.commonResultUpload.rest.UpdateAlmEntityEntityRequest;
@@ -43,23 +45,51 @@ import org.w3c.dom.NodeList;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class RestService {
 
+    /**
+     * Number of entities fetched or sent in one request.
+     */
+    public static final int DEFAULT_PAGE_SIZE =
+            Integer.getInteger(RestService.class.getName() + ".pageSize", 100);
+    /**
+     * Number of bulk requests which may be sent to ALM at the same time.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS =
+            Integer.getInteger(RestService.class.getName() + ".maxInFlightRequests", 4);
+
     private RestClient restClient;
     private CreateAlmEntityEntityRequest createAlmEntityRequest;
     private GetAlmEntityRequest getAlmEntityRequest;
     private UpdateAlmEntityEntityRequest updateAlmEntityRequest;
+    private CreateAlmEntityEntityRequest createAlmEntitiesBulkRequest;
+    private UpdateAlmEntityEntityRequest updateAlmEntitiesBulkRequest;
     private UDFTranslator udt;
     private CommonUploadLogger logger;
+    private int pageSize;
+    private int maxInFlightRequests;
 
     public RestService(RestClient restClient, CommonUploadLogger logger, UDFTranslator udt) {
+        this(restClient, logger, udt, DEFAULT_PAGE_SIZE, DEFAULT_MAX_IN_FLIGHT_REQUESTS);
+    }
+
+    public RestService(RestClient restClient, CommonUploadLogger logger, UDFTranslator udt,
+                       int pageSize, int maxInFlightRequests) {
         this.restClient = restClient;
         this.logger = logger;
         createAlmEntityRequest = new CreateAlmEntityEntityRequest(restClient, logger);
         getAlmEntityRequest = new GetAlmEntityRequest(restClient, logger);
         updateAlmEntityRequest = new UpdateAlmEntityEntityRequest(restClient, logger);
+        createAlmEntitiesBulkRequest = new CreateAlmEntityEntityRequest(restClient, logger, true);
+        updateAlmEntitiesBulkRequest = new UpdateAlmEntityEntityRequest(restClient, logger, true);
         this.udt = udt;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxInFlightRequests = Math.max(1, maxInFlightRequests);
     }
 
     public Map<String, String> create(String restPrefix, Map<String, String> valueMap) {
@@ -76,6 +106,107 @@ public class RestService {
         return updateAlmEntityRequest.perform(restPrefix, valueMap);
     }
 
+    /**
+     * Get all entities matching the query, one page at a time.
+     * @return all found entities, or null if any page could not be fetched.
+     */
+    public List<Map<String, String>> getAll(String restPrefix, String queryString) {
+        List<Map<String, String>> all = new ArrayList<>();
+        int startIndex = 1;
+        while (true) {
+            List<Map<String, String>> page = get(null, restPrefix,
+                    String.format("%s&page-size=%d&start-index=%d", queryString, pageSize, startIndex));
+            if (page == null) {
+                return null;
+            }
+            all.addAll(page);
+            if (page.size() < pageSize) {
+                return all;
+            }
+            startIndex += page.size();
+        }
+    }
+
+    /**
+     * Create entities with the bulk endpoint, a page at a time.
+     * A page is sent entity by entity only if ALM doesn't support bulk requests. A page which
+     * failed or was created partially is never sent again, so no entity is created twice.
+     * @return created entities in the order of valueMaps, null for an entity which failed.
+     */
+    public List<Map<String, String>> createBulk(String restPrefix, List<Map<String, String>> valueMaps) {
+        for (Map<String, String> valueMap : valueMaps) {
+            udt.translate(restPrefix, valueMap);
+        }
+        return performInPages(restPrefix, valueMaps, createAlmEntitiesBulkRequest, createAlmEntityRequest);
+    }
+
+    /**
+     * Update entities with the bulk endpoint, a page at a time.
+     * @return updated entities in the order of valueMaps, null for an entity which failed.
+     */
+    public List<Map<String, String>> updateBulk(String restPrefix, List<Map<String, String>> valueMaps) {
+        for (Map<String, String> valueMap : valueMaps) {
+            udt.translate(restPrefix, valueMap);
+        }
+        return performInPages(restPrefix, valueMaps, updateAlmEntitiesBulkRequest, updateAlmEntityRequest);
+    }
+
+    private List<Map<String, String>> performInPages(final String restPrefix,
+                                                     List<Map<String, String>> valueMaps,
+                                                     final BasicPostEntityRequest bulkRequest,
+                                                     final BasicPostEntityRequest singleRequest) {
+        List<List<Map<String, String>>> pages = new ArrayList<>();
+        for (int i = 0; i < valueMaps.size(); i += pageSize) {
+            pages.add(valueMaps.subList(i, Math.min(i + pageSize, valueMaps.size())));
+        }
+
+        List<Map<String, String>> results = new ArrayList<>(valueMaps.size());
+        if (pages.size() <= 1 || maxInFlightRequests <= 1) {
+            for (List<Map<String, String>> page : pages) {
+                results.addAll(performPage(restPrefix, page, bulkRequest, singleRequest));
+            }
+            return results;
+        }
+
+        ExecutorService executor = ThreadPools.newFixedThreadPool(Math.min(maxInFlightRequests, pages.size()), "ALM bulk requests");
+        try {
+            List<Future<List<Map<String, String>>>> futures = new ArrayList<>();
+            for (final List<Map<String, String>> page : pages) {
+                futures.add(executor.submit(new Callable<List<Map<String, String>>>() {
+                    @Override
+                    public List<Map<String, String>> call() {
+                        return performPage(restPrefix, page, bulkRequest, singleRequest);
+                    }
+                }));
+            }
+            for (Future<List<Map<String, String>>> future : futures) {
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SSEException(e);
+        } catch (ExecutionException e) {
+            throw new SSEException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    private List<Map<String, String>> performPage(String restPrefix,
+                                                  List<Map<String, String>> page,
+                                                  BasicPostEntityRequest bulkRequest,
+                                                  BasicPostEntityRequest singleRequest) {
+        List<Map<String, String>> results = page.size() > 1 ? bulkRequest.perform(restPrefix, page) : null;
+        if (results == null) {
+            results = new ArrayList<>(page.size());
+            for (Map<String, String> valueMap : page) {
+                results.add(singleRequest.perform(restPrefix, valueMap));
+            }
+        }
+        return results;
+    }
+
     public List<String> getDomains() {
         String url = restClient.getServerUrl();
         if (!url.endsWith("/")) {
@@ -38,9 +38,11 @@ import com.microfocus.application.automation.tools.results.service.almentities.I
 import org.apache.commons.lang.StringUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Base64Encoder;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.microfocus.application.automation.tools.commonResultUpload.ParamConstant.ACTUAL_USER;
@@ -67,9 +69,13 @@ public class RunUploader {
         this.runStatusMapping = runStatusMapping;
     }
 
-    public void upload(Map<String, String> testset, Map<String, String> test,
-                       Map<String, String> testconfig, Map<String, String> testinstance,
-                       Map<String, String> run) {
+    /**
+     * Set relations and calculated values of a run.
+     * @return false if the run should not be uploaded.
+     */
+    public boolean prepare(Map<String, String> testset, Map<String, String> test,
+                           Map<String, String> testconfig, Map<String, String> testinstance,
+                           Map<String, String> run) {
         // Set relations
         run.put(AlmRun.RUN_CONFIG_ID, testconfig.get(AlmCommonProperties.ID));
         run.put(AlmRun.RUN_CYCLE_ID, testset.get(AlmCommonProperties.ID));
@@ -87,41 +93,53 @@ public class RunUploader {
             run.put(AlmRun.RUN_DETAIL, convertDetail(run.get(AlmRun.RUN_DETAIL)));
         }
 
-        if (!shouldProceedVersionForRun(test, run)) {
+        return shouldProceedVersionForRun(test, run);
+    }
+
+    /**
+     * Create prepared runs in pages, then update their status.
+     */
+    public void upload(List<Map<String, String>> runs) {
+        if (runs.isEmpty()) {
             return;
         }
-
-        // Update test instance status
-        if (StringUtils.isNotEmpty(run.get(AlmRun.RUN_STATUS))) {
-            String runstatus = getRunStatus(run.get(AlmRun.RUN_STATUS));
+        List<String> runStatuses = new ArrayList<>();
+        for (Map<String, String> run : runs) {
             // Create a run without status
-            run.remove(AlmRun.RUN_STATUS);
-            Map<String, String> createdRun = restService.create(RUN_PREFIX, run);
-
-            // Update status of the run
-            Map<String, String> updateRun = new HashMap<>();
-            updateRun.put(AlmCommonProperties.ID, createdRun.get(AlmCommonProperties.ID));
-            updateRun.put(AlmRun.RUN_STATUS, runstatus);
-
-            // Retry update run status 3 times. For some ALM server may has limited DB connections then the update may fail.
-            // Added here because only here uses RestService.update.
-            // Otherwise the retry could be in RestService.update or UpdateAlmEntityEntityRequest.perform
-            // depends on whether the result would be changed if update multiple times.
-            // But this should be fixed at ALM server side to larger the connection number I think.
-
-            Map<String, String> updateResult = restService.update(RUN_PREFIX, updateRun);
-            if (updateResult == null) {
-                for (int i = 0; i < 3; i++) {
-                    if (updateResult == null) {
-                        updateResult = restService.update(RUN_PREFIX, updateRun);
-                    } else {
-                        break;
-                    }
-                }
+            if (StringUtils.isNotEmpty(run.get(AlmRun.RUN_STATUS))) {
+                runStatuses.add(getRunStatus(run.get(AlmRun.RUN_STATUS)));
+                run.remove(AlmRun.RUN_STATUS);
+            } else {
+                runStatuses.add(null);
+            }
+        }
+        List<Map<String, String>> createdRuns = restService.createBulk(RUN_PREFIX, runs);
+
+        // Update test instance status by updating status of the runs
+        List<Map<String, String>> updateRuns = new ArrayList<>();
+        for (int i = 0; i < createdRuns.size(); i++) {
+            if (createdRuns.get(i) != null && runStatuses.get(i) != null) {
+                Map<String, String> updateRun = new HashMap<>();
+                updateRun.put(AlmCommonProperties.ID, createdRuns.get(i).get(AlmCommonProperties.ID));
+                updateRun.put(AlmRun.RUN_STATUS, runStatuses.get(i));
+                updateRuns.add(updateRun);
             }
+        }
 
-        } else {
-            restService.create(RUN_PREFIX, run);
+        // Retry update run status 3 times. For some ALM server may has limited DB connections then the update may fail.
+        // Added here because only here uses RestService.updateBulk.
+        // Otherwise the retry could be in RestService.updateBulk or UpdateAlmEntityEntityRequest.perform
+        // depends on whether the result would be changed if update multiple times.
+        // But this should be fixed at ALM server side to larger the connection number I think.
+        for (int i = 0; i < 4 && !updateRuns.isEmpty(); i++) {
+            List<Map<String, String>> updateResults = restService.updateBulk(RUN_PREFIX, updateRuns);
+            List<Map<String, String>> failedRuns = new ArrayList<>();
+            for (int j = 0; j < updateResults.size(); j++) {
+                if (updateResults.get(j) == null) {
+                    failedRuns.add(updateRuns.get(j));
+                }
+            }
+            updateRuns = failedRuns;
         }
     }
 
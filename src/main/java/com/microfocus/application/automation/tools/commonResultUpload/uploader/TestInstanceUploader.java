@@ -29,6 +29,7 @@
 package com.microfocus.application.automation.tools.commonResultUpload.uploader;
 
 import com.microfocus.application.automation.tools.commonResultUpload.CommonUploadLogger;
+import com.microfocus.application.automation.tools.commonResultUpload.service.CriteriaTranslator;
 import com.microfocus.application.automation.tools.commonResultUpload.service.CustomizationService;
 import com.microfocus.application.automation.tools.commonResultUpload.service.RestService;
 import com.microfocus.application.automation.tools.commonResultUpload.xmlreader.model.XmlResultEntity;
@@ -36,7 +37,9 @@ import com.microfocus.application.automation.tools.results.service.almentities.A
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTest;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTestInstance;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -63,29 +66,75 @@ public class TestInstanceUploader {
         this.customizationService = customizationService;
     }
 
-    public void upload(Map<String, String> testset, XmlResultEntity xmlResultEntity) {
-        Map<String, String> test = xmlResultEntity.getValueMap();
-        Map<String, String> testconfig = getMainTestConfig(test);
-        Map<String, String> testinstance;
-
-        if (testconfig != null) {
-            List<Map<String, String>> testInstances = getExistTestInstances(testset, test, testconfig);
-            if (testInstances != null) {
-                if (testInstances.size() == 0) {
-                    testinstance = buildNewTestInstance(testset, test, testconfig);
-                    testinstance.putAll(restService.create(TEST_INSTANCE_PREFIX, testinstance));
-                } else {
-                    testinstance = testInstances.get(0);
-                }
-                // Upload run
-                if (xmlResultEntity.getSubEntities().size() > 0) {
-                    runUploader.upload(testset, test, testconfig, testinstance,
-                            xmlResultEntity.getSubEntities().get(0).getValueMap());
-                } else {
-                    logger.info("No run is found for test: " + test.get("name"));
+    public void upload(Map<String, String> testset, List<XmlResultEntity> xmlResultEntities) {
+        if (xmlResultEntities.isEmpty()) {
+            return;
+        }
+        List<String> testIds = new ArrayList<>();
+        for (XmlResultEntity xmlResultEntity : xmlResultEntities) {
+            String testId = xmlResultEntity.getValueMap().get(AlmCommonProperties.ID);
+            if (!testIds.contains(testId)) {
+                testIds.add(testId);
+            }
+        }
+
+        Map<String, Map<String, String>> testconfigs = getMainTestConfigs(testIds);
+        if (testconfigs == null) {
+            return;
+        }
+        Map<String, Map<String, String>> testinstances = getExistTestInstances(testset, testIds);
+        if (testinstances == null) {
+            return;
+        }
+
+        // Create the missing test instances together
+        Map<String, Map<String, String>> testinstancesToCreate = new LinkedHashMap<>();
+        for (XmlResultEntity xmlResultEntity : xmlResultEntities) {
+            Map<String, String> test = xmlResultEntity.getValueMap();
+            Map<String, String> testconfig = testconfigs.get(test.get(AlmCommonProperties.ID));
+            if (testconfig == null) {
+                continue;
+            }
+            String key = getTestInstanceKey(testconfig.get(AlmCommonProperties.ID),
+                    test.get(AlmCommonProperties.ID));
+            if (!testinstances.containsKey(key) && !testinstancesToCreate.containsKey(key)) {
+                testinstancesToCreate.put(key, buildNewTestInstance(testset, test, testconfig));
+            }
+        }
+        List<Map<String, String>> createdTestinstances = restService.createBulk(TEST_INSTANCE_PREFIX,
+                new ArrayList<>(testinstancesToCreate.values()));
+        int i = 0;
+        for (Map.Entry<String, Map<String, String>> entry : testinstancesToCreate.entrySet()) {
+            Map<String, String> createdTestinstance = createdTestinstances.get(i++);
+            if (createdTestinstance != null) {
+                entry.getValue().putAll(createdTestinstance);
+                testinstances.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        // Upload runs
+        List<Map<String, String>> runs = new ArrayList<>();
+        for (XmlResultEntity xmlResultEntity : xmlResultEntities) {
+            Map<String, String> test = xmlResultEntity.getValueMap();
+            Map<String, String> testconfig = testconfigs.get(test.get(AlmCommonProperties.ID));
+            if (testconfig == null) {
+                continue;
+            }
+            Map<String, String> testinstance = testinstances.get(getTestInstanceKey(
+                    testconfig.get(AlmCommonProperties.ID), test.get(AlmCommonProperties.ID)));
+            if (testinstance == null) {
+                continue;
+            }
+            if (xmlResultEntity.getSubEntities().size() > 0) {
+                Map<String, String> run = xmlResultEntity.getSubEntities().get(0).getValueMap();
+                if (runUploader.prepare(testset, test, testconfig, testinstance, run)) {
+                    runs.add(run);
                 }
+            } else {
+                logger.info("No run is found for test: " + test.get("name"));
             }
         }
+        runUploader.upload(runs);
     }
 
     private Map<String, String> buildNewTestInstance(
@@ -106,26 +155,58 @@ public class TestInstanceUploader {
         return testinstance;
     }
 
-    private Map<String, String> getMainTestConfig(Map<String, String> test) {
-        String queryString = String.format("query={parent-id[%s]}&fields=id,name",
-                String.valueOf(test.get(AlmCommonProperties.ID)));
-        List<Map<String, String>> testconfigs = restService.get(null, TEST_CONFIG_PREFIX, queryString);
-        if (testconfigs != null && testconfigs.size() > 0) {
-            return testconfigs.get(0);
-        } else {
-            return null;
+    /**
+     * @return the first test config of each test, by test id.
+     */
+    private Map<String, Map<String, String>> getMainTestConfigs(List<String> testIds) {
+        Map<String, Map<String, String>> testconfigs = new HashMap<>();
+        for (int i = 0; i < testIds.size(); i += CriteriaTranslator.MAX_OR_VALUES) {
+            String queryString = String.format("query={parent-id[%s]}&fields=id,name,parent-id",
+                    CriteriaTranslator.getOrCriteria(
+                            testIds.subList(i, Math.min(i + CriteriaTranslator.MAX_OR_VALUES, testIds.size()))));
+            List<Map<String, String>> found = restService.getAll(TEST_CONFIG_PREFIX, queryString);
+            if (found == null) {
+                return null;
+            }
+            for (Map<String, String> testconfig : found) {
+                if (!testconfigs.containsKey(testconfig.get(AlmCommonProperties.PARENT_ID))) {
+                    testconfigs.put(testconfig.get(AlmCommonProperties.PARENT_ID), testconfig);
+                }
+            }
         }
+        return testconfigs;
     }
 
-    private List<Map<String, String>> getExistTestInstances(
+    /**
+     * @return exist test instances of the tests in the test set, by test config id and test id.
+     */
+    private Map<String, Map<String, String>> getExistTestInstances(
             Map<String, String> testset,
-            Map<String, String> test,
-            Map<String, String> testconfig) {
-        String queryString = String.format(
-                "query={cycle-id[%s];test-config-id[%s];test-id[%s]}&fields=id,name,subtype-id",
-                String.valueOf(testset.get(AlmCommonProperties.ID)),
-                String.valueOf(testconfig.get(AlmCommonProperties.ID)),
-                String.valueOf(test.get(AlmCommonProperties.ID)));
-        return restService.get(null, TEST_INSTANCE_PREFIX, queryString);
+            List<String> testIds) {
+        Map<String, Map<String, String>> testinstances = new HashMap<>();
+        for (int i = 0; i < testIds.size(); i += CriteriaTranslator.MAX_OR_VALUES) {
+            String queryString = String.format(
+                    "query={cycle-id[%s];test-id[%s]}&fields=id,name,subtype-id,test-config-id,test-id",
+                    String.valueOf(testset.get(AlmCommonProperties.ID)),
+                    CriteriaTranslator.getOrCriteria(
+                            testIds.subList(i, Math.min(i + CriteriaTranslator.MAX_OR_VALUES, testIds.size()))));
+            List<Map<String, String>> found = restService.getAll(TEST_INSTANCE_PREFIX, queryString);
+            if (found == null) {
+                return null;
+            }
+            for (Map<String, String> testinstance : found) {
+                String key = getTestInstanceKey(
+                        testinstance.get(AlmTestInstance.TEST_INSTANCE_CONFIG_ID),
+                        testinstance.get(AlmTestInstance.TEST_INSTANCE_TEST_ID));
+                if (!testinstances.containsKey(key)) {
+                    testinstances.put(key, testinstance);
+                }
+            }
+        }
+        return testinstances;
+    }
+
+    private static String getTestInstanceKey(String testconfigId, String testId) {
+        return testconfigId + "|" + testId;
     }
 }
@@ -39,6 +39,8 @@ import com.microfocus.application.automation.tools.results.service.almentities.A
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import org.apache.commons.lang.StringUtils;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -77,63 +79,126 @@ public class TestUploader {
 
     public void upload(Map<String, String> testset, List<XmlResultEntity> xmlResultEntities) {
         logger.info("Test upload start.");
+        // Tests found or created, in the same order as xmlResultEntities
+        List<Map<String, String>> newTests;
+
+        if (!StringUtils.isEmpty(params.get(ALM_TEST_FOLDER))) {
+            // Create or find a exists folder
+            Map<String, String> folder = folderService.createOrFindPath(
+                    TEST_FOLDERS_REST_PREFIX, "2", params.get(ALM_TEST_FOLDER));
+            if (folder == null) {
+                return;
+            }
+            newTests = findOrCreateTestsInFolder(folder, xmlResultEntities);
+            if (newTests == null) {
+                return;
+            }
+        } else {
+            // If no path was specified, put tests under root
+            List<Map<String, String>> tests = new ArrayList<>();
+            for (XmlResultEntity xmlResultEntity : xmlResultEntities) {
+                Map<String, String> test = xmlResultEntity.getValueMap();
+                test.put(AlmCommonProperties.PARENT_ID, "0");
+                tests.add(test);
+            }
+            newTests = restService.createBulk(TEST_REST_PREFIX, tests);
+        }
+
+        refreshVersionNumbersForVC(newTests);
+
+        // upload test instances
+        List<XmlResultEntity> uploadedEntities = new ArrayList<>();
+        for (int i = 0; i < xmlResultEntities.size(); i++) {
+            Map<String, String> newTest = newTests.get(i);
+            if (newTest != null) {
+                xmlResultEntities.get(i).getValueMap().putAll(newTest);
+                uploadedEntities.add(xmlResultEntities.get(i));
+            }
+        }
+        testInstanceUploader.upload(testset, uploadedEntities);
+    }
+
+    private List<Map<String, String>> findOrCreateTestsInFolder(Map<String, String> folder,
+                                                                List<XmlResultEntity> xmlResultEntities) {
+        // Find exists tests under folder
+        Map<String, Map<String, String>> existsTests = folderService.findEntitiesInFolderTree(folder,
+                TEST_REST_PREFIX, TEST_FOLDERS_REST_PREFIX,
+                new String[]{"id", "name", SUB_TYPE_ID, VC_VERSION_NUMBER});
+        if (existsTests == null) {
+            return null;
+        }
+
+        // If not, create the test under the folder. Results with the same name share one test.
+        Map<String, Map<String, String>> testsToCreate = new LinkedHashMap<>();
         for (XmlResultEntity xmlResultEntity : xmlResultEntities) {
             Map<String, String> test = xmlResultEntity.getValueMap();
-            Map<String, String> newTest;
-
-            if (!StringUtils.isEmpty(params.get(ALM_TEST_FOLDER))) {
-                // Create or find a exists folder
-                Map<String, String> folder = folderService.createOrFindPath(
-                        TEST_FOLDERS_REST_PREFIX, "2", params.get(ALM_TEST_FOLDER));
-                if (folder == null) {
-                    continue;
-                }
+            String name = test.get(AlmCommonProperties.NAME);
+            if (!existsTests.containsKey(name) && !testsToCreate.containsKey(name)) {
+                test.put(AlmCommonProperties.PARENT_ID, folder.get(AlmCommonProperties.ID));
+                testsToCreate.put(name, test);
+            }
+        }
+        List<Map<String, String>> createdTests = restService.createBulk(TEST_REST_PREFIX,
+                new ArrayList<>(testsToCreate.values()));
+        // Created tests go into the cached folder listing, so later test sets find them
+        int i = 0;
+        for (String name : testsToCreate.keySet()) {
+            Map<String, String> createdTest = createdTests.get(i++);
+            if (createdTest != null) {
+                existsTests.put(name, createdTest);
+            }
+        }
 
-                // Find exists test under folder
-                Map<String, String> existsTest = folderService.findEntityInFolder(folder, test,
-                        TEST_REST_PREFIX, TEST_FOLDERS_REST_PREFIX,
-                        new String[]{"id", "name", SUB_TYPE_ID, VC_VERSION_NUMBER});
-                if (existsTest != null) {
-                    newTest = existsTest;
-                } else {
-                    // If not, create the test under the folder
-                    test.put(AlmCommonProperties.PARENT_ID, folder.get(AlmCommonProperties.ID));
-                    newTest = restService.create(TEST_REST_PREFIX, test);
-                }
-            } else {
-                // If no path was specified, put test under root
-                test.put(AlmCommonProperties.PARENT_ID, "0");
-                newTest = restService.create(TEST_REST_PREFIX, test);
+        List<Map<String, String>> newTests = new ArrayList<>();
+        for (XmlResultEntity xmlResultEntity : xmlResultEntities) {
+            newTests.add(existsTests.get(xmlResultEntity.getValueMap().get(AlmCommonProperties.NAME)));
+        }
+        return newTests;
+    }
+
+    private void refreshVersionNumbersForVC(List<Map<String, String>> newTests) {
+        Map<String, Map<String, String>> testsToRefresh = new LinkedHashMap<>();
+        for (Map<String, String> newTest : newTests) {
+            if (newTest != null && isVersionSupported(newTest)
+                    && StringUtils.isEmpty(newTest.get(VC_VERSION_NUMBER))) {
+                testsToRefresh.put(newTest.get(AlmCommonProperties.ID), newTest);
             }
+        }
+        if (testsToRefresh.isEmpty() || !customizationService.isVersioningEnabled(
+                CustomizationService.TEST_ENTITY_NAME)) {
+            return;
+        }
+
+        for (String id : testsToRefresh.keySet()) {
+            versionControlService.refreshEntityVersion(TEST_REST_PREFIX, id);
+        }
 
-            if (newTest == null) {
+        // Read the refreshed version numbers back with a few queries
+        List<String> ids = new ArrayList<>(testsToRefresh.keySet());
+        for (int i = 0; i < ids.size(); i += CriteriaTranslator.MAX_OR_VALUES) {
+            List<Map<String, String>> refreshedTests = restService.getAll(TEST_REST_PREFIX, String.format(
+                    "fields=id,name,%s,%s&query={id[%s]}", SUB_TYPE_ID, VC_VERSION_NUMBER,
+                    CriteriaTranslator.getOrCriteria(
+                            ids.subList(i, Math.min(i + CriteriaTranslator.MAX_OR_VALUES, ids.size())))));
+            if (refreshedTests == null) {
                 continue;
-            } else {
-                // upload test instance
-                getVersionNumberForVC(newTest);
-                test.putAll(newTest);
-                testInstanceUploader.upload(testset, xmlResultEntity);
+            }
+            for (Map<String, String> refreshedTest : refreshedTests) {
+                Map<String, String> newTest = testsToRefresh.get(refreshedTest.get(AlmCommonProperties.ID));
+                if (newTest != null) {
+                    newTest.putAll(refreshedTest);
+                }
             }
         }
     }
 
-    private void getVersionNumberForVC(Map<String, String> newTest) {
+    private boolean isVersionSupported(Map<String, String> newTest) {
         // Some test type doesn't have version support
         for (String noVersionTest : NO_VERSION_TESTS) {
-            if (newTest.get(SUB_TYPE_ID).equals(noVersionTest)) {
-                return;
+            if (noVersionTest.equals(newTest.get(SUB_TYPE_ID))) {
+                return false;
             }
         }
-
-        boolean versioningEnabled = customizationService.isVersioningEnabled(
-                CustomizationService.TEST_ENTITY_NAME);
-        if (versioningEnabled && StringUtils.isEmpty(newTest.get(VC_VERSION_NUMBER))) {
-            versionControlService.refreshEntityVersion(TEST_REST_PREFIX,
-                    newTest.get(AlmCommonProperties.ID));
-
-            newTest.putAll(restService.get(newTest.get(AlmCommonProperties.ID),
-                    TEST_REST_PREFIX, CriteriaTranslator.getCriteriaString(
-                            new String[]{"id", "name", SUB_TYPE_ID, VC_VERSION_NUMBER}, newTest)).get(0));
-        }
+        return true;
     }
 }
@@ -101,6 +101,8 @@ public class Uploader {
             AlmRestTool almRestTool = new AlmRestTool(restClient, logger);
             params.put(ACTUAL_USER, almRestTool.getActualUsername());
             testSetUploader.upload(xmlResultEntities);
+            logger.info(fs.getCacheStatistics());
+            logger.info(restClient.getMetrics().getSummary());
         } else {
             logger.error("Login failed.");
         }
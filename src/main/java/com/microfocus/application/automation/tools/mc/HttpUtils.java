@@ -36,12 +36,19 @@ import java.net.*;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class HttpUtils {
 
+    private static final Logger LOGGER = Logger.getLogger(HttpUtils.class.getName());
+
     public static final String POST = "POST";
     public static final String GET = "GET";
 
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+    private static final int UPLOAD_PROGRESS_STEP = 10;
+
     private HttpUtils() {
 
     }
@@ -58,6 +65,63 @@ public class HttpUtils {
         return response;
     }
 
+    /**
+     * posts the file as multipart form data, streamed from the disk to the connection in fixed length mode,
+     * so the content of the file is never held in memory
+     * @param logger gets the progress of the upload, may be null
+     * @throws FileNotFoundException when the file does not exist, connection errors are logged and give a null response like in post
+     */
+    public static HttpResponse postFile(ProxyInfo proxyInfo, String url, Map<String, String> headers, File file, PrintStream logger) throws FileNotFoundException {
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+
+        HttpResponse response = null;
+        try {
+            byte[] head = ("\r\n------" + Constants.BOUNDARYSTR + "\r\n" +
+                    "Content-Disposition: form-data; name=\"file\"; filename=\"" + file.getName() + "\"\r\n" +
+                    "Content-Type: application/octet-stream\r\n\r\n").getBytes();
+            byte[] tail = ("\r\n------" + Constants.BOUNDARYSTR + "--\r\n").getBytes();
+            long fileLength = file.length();
+
+            HttpURLConnection connection = (HttpURLConnection) openConnection(proxyInfo, new URL(url));
+            connection.setRequestMethod(POST);
+            setConnectionHeaders(connection, headers);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(head.length + fileLength + tail.length);
+
+            try (OutputStream out = connection.getOutputStream();
+                 InputStream in = new FileInputStream(file)) {
+                out.write(head);
+                byte[] buffer = new byte[UPLOAD_BUFFER_SIZE];
+                long sent = 0;
+                long reported = 0;
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    sent += read;
+                    long percent = fileLength == 0 ? 100 : sent * 100 / fileLength;
+                    if (logger != null && percent >= reported + UPLOAD_PROGRESS_STEP) {
+                        reported = percent - percent % UPLOAD_PROGRESS_STEP;
+                        logger.println(String.format("uploaded %d%% of %s (%d of %d MB)", reported, file.getName(), sent >> 20, fileLength >> 20));
+                    }
+                }
+                out.write(tail);
+                out.flush();
+            }
+
+            response = readResponse(connection);
+            connection.disconnect();
+        } catch (Exception e) {
+            if (logger != null) {
+                logger.println(String.format("upload of %s failed: %s", file.getName(), e));
+            } else {
+                LOGGER.log(Level.WARNING, "upload of " + file.getName() + " failed", e);
+            }
+        }
+        return response;
+    }
+
     public static HttpResponse get(ProxyInfo proxyInfo, String url, Map<String, String> headers, String queryString) {
 
         HttpResponse response = null;
@@ -71,8 +135,6 @@ public class HttpUtils {
 
 
     private static HttpResponse doHttp(ProxyInfo proxyInfo, String requestMethod, String connectionUrl, String queryString, Map<String, String> headers, byte[] data) throws IOException {
-        HttpResponse response = new HttpResponse();
-
         if ((queryString != null) && !queryString.isEmpty()) {
             connectionUrl += "?" + queryString;
         }
@@ -100,6 +162,15 @@ public class HttpUtils {
 
         connection.connect();
 
+        HttpResponse response = readResponse(connection);
+
+        connection.disconnect();
+
+        return response;
+    }
+
+    private static HttpResponse readResponse(HttpURLConnection connection) throws IOException {
+        HttpResponse response = new HttpResponse();
 
         int responseCode = connection.getResponseCode();
 
@@ -110,9 +181,6 @@ public class HttpUtils {
             response.setHeaders(headerFields);
             response.setJsonObject(jsonObject);
         }
-
-        connection.disconnect();
-
         return response;
     }
 
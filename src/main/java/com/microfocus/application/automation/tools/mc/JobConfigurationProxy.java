@@ -33,9 +33,10 @@ import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
 import net.minidev.json.JSONValue;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -120,39 +121,33 @@ public class JobConfigurationProxy {
     //upload app to MC
     public JSONObject upload(String mcUrl, String mcUserName, String mcPassword, String mcTenantId,
                              String proxyAddress, String proxyUsername, String proxyPassword, String appPath) throws Exception {
+        return upload(mcUrl, mcUserName, mcPassword, mcTenantId, proxyAddress, proxyUsername, proxyPassword, appPath, null);
+    }
+
+    //upload app to MC, the app is streamed from the disk and the progress is printed to the logger (may be null)
+    public JSONObject upload(String mcUrl, String mcUserName, String mcPassword, String mcTenantId,
+                             String proxyAddress, String proxyUsername, String proxyPassword, String appPath, PrintStream logger) throws IOException {
+        if (!new File(appPath).isFile()) {
+            throw new FileNotFoundException(appPath);
+        }
+        JSONObject loginJson = loginToMC(mcUrl, mcUserName, mcPassword, mcTenantId, proxyAddress, proxyUsername, proxyPassword);
+        return upload(mcUrl, loginJson, proxyAddress, proxyUsername, proxyPassword, appPath, logger);
+    }
+
+    //upload app to MC with the session of a previous login, so several apps can be uploaded with one login
+    public JSONObject upload(String mcUrl, JSONObject loginJson, String proxyAddress, String proxyUsername, String proxyPassword,
+                             String appPath, PrintStream logger) throws IOException {
 
         JSONObject json = null;
         String hp4mSecret = null;
         String jsessionId = null;
 
         File appFile = new File(appPath);
-
-        String uploadUrl = mcUrl + Constants.APP_UPLOAD;
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-
-        StringBuffer content = new StringBuffer();
-        content.append("\r\n").append("------").append(Constants.BOUNDARYSTR).append("\r\n");
-        content.append("Content-Disposition: form-data; name=\"file\"; filename=\"" + appFile.getName() + "\"\r\n");
-        content.append("Content-Type: application/octet-stream\r\n\r\n");
-
-        outputStream.write(content.toString().getBytes());
-
-        FileInputStream in = new FileInputStream(appFile);
-        byte[] b = new byte[1024];
-        int i = 0;
-        while ((i = in.read(b)) != -1) {
-            outputStream.write(b, 0, i);
+        if (!appFile.isFile()) {
+            throw new FileNotFoundException(appPath);
         }
-        in.close();
-
-        outputStream.write(("\r\n------" + Constants.BOUNDARYSTR + "--\r\n").getBytes());
 
-        byte[] bytes = outputStream.toByteArray();
-
-        outputStream.close();
-
-        JSONObject loginJson = loginToMC(mcUrl, mcUserName, mcPassword, mcTenantId, proxyAddress, proxyUsername, proxyPassword);
+        String uploadUrl = mcUrl + Constants.APP_UPLOAD;
 
         if (loginJson != null) {
             hp4mSecret = (String) loginJson.get(Constants.LOGIN_SECRET);
@@ -165,7 +160,7 @@ public class JobConfigurationProxy {
         headers.put(Constants.FILENAME, appFile.getName());
 
         HttpUtils.ProxyInfo proxyInfo = HttpUtils.setProxyCfg(proxyAddress, proxyUsername, proxyPassword);
-        HttpResponse response = HttpUtils.post(proxyInfo, uploadUrl, headers, bytes);
+        HttpResponse response = HttpUtils.postFile(proxyInfo, uploadUrl, headers, appFile, logger);
 
         if (response != null && response.getJsonObject() != null) {
             json = response.getJsonObject();
@@ -28,13 +28,16 @@
 
 package com.microfocus.application.automation.tools.model;
 
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
 
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class CdaDetails {
+public class CdaDetails implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     private final String _deploymentAction;
     private final String _deployedEnvironmentName;
@@ -34,20 +34,35 @@ import net.sf.json.JSONSerializer;
 import org.apache.commons.io.IOUtils;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by benmeior on 11/21/2016
  *
  * Base implementation of ResultQueue: backed up by FileObjectQueue, persisted
+ *
+ * The file queue can only be read and removed from its head, so the items are mirrored in memory together with
+ * their processing state. This lets several consumers work on different items, and lets a failed item wait
+ * for its retry without blocking the items behind it.
  */
 
 public abstract class AbstractResultQueueImpl implements ResultQueue {
 
 	private static final int RETRIES = 3;
+	private static final long RETRY_BACKOFF = TimeUnit.SECONDS.toMillis(
+			Long.getLong(AbstractResultQueueImpl.class.getName() + ".retryBackoffSeconds", 30));
+	private static final long MAX_RETRY_BACKOFF = TimeUnit.MINUTES.toMillis(
+			Long.getLong(AbstractResultQueueImpl.class.getName() + ".maxRetryBackoffMinutes", 30));
 	private final int MAX_RETRIES;
 
 	private FileObjectQueue<QueueItem> queue;
 
+	// same items and order as the file queue
+	private final LinkedList<Entry> entries = new LinkedList<>();
+	private int doneCount;
+	private long nextSeq;
+
 	private QueueItem currentItem;
 
 	public AbstractResultQueueImpl() {
@@ -58,14 +73,22 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 		this.MAX_RETRIES = maxRetries;
 	}
 
-	protected void init(File queueFile) throws IOException {
+	protected synchronized void init(File queueFile) throws IOException {
 		queue = new FileObjectQueue<>(queueFile, new JsonConverter());
+		// rotate the file once to read all the items; adding before removing never leaves an item only in memory
+		for (int i = queue.size(); i > 0; i--) {
+			QueueItem item = queue.peek();
+			queue.add(item);
+			queue.remove();
+			entries.add(new Entry(item, nextSeq++));
+		}
 	}
 
 	@Override
 	public synchronized QueueItem peekFirst() {
 		if (currentItem == null) {
-			currentItem = queue.peek();
+			List<QueueItem> items = peekBatch(1);
+			currentItem = items.isEmpty() ? null : items.get(0);
 		}
 		return currentItem;
 	}
@@ -73,17 +96,9 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 	@Override
 	public synchronized boolean failed() {
 		if (currentItem != null) {
-			boolean retry;
-			if (++currentItem.failCount <= MAX_RETRIES) {
-				queue.add(currentItem);
-				retry = true;
-			} else {
-				retry = false;
-			}
-
-			remove();
-
-			return retry;
+			QueueItem item = currentItem;
+			currentItem = null;
+			return failed(item);
 		} else {
 			throw new IllegalStateException("no outstanding item");
 		}
@@ -92,37 +107,138 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 	@Override
 	public synchronized void remove() {
 		if (currentItem != null) {
-			queue.remove();
+			QueueItem item = currentItem;
 			currentItem = null;
+			remove(item);
 		} else {
 			throw new IllegalStateException("no outstanding item");
 		}
 	}
 
+	@Override
+	public synchronized List<QueueItem> peekBatch(int max) {
+		List<Entry> ordered = new ArrayList<>(entries);
+		ordered.sort(Comparator.comparingLong((Entry entry) -> entry.item.enqueueTime).thenComparingLong(entry -> entry.seq));
+
+		List<QueueItem> ret = new ArrayList<>();
+		Set<String> busyProjects = new HashSet<>();
+		long now = System.currentTimeMillis();
+		for (Entry entry : ordered) {
+			if (ret.size() >= max) {
+				break;
+			}
+			if (entry.done) {
+				continue;
+			}
+			if (!entry.inProgress && entry.retryTime <= now && !busyProjects.contains(entry.item.projectName)) {
+				entry.inProgress = true;
+				ret.add(entry.item);
+			}
+			busyProjects.add(entry.item.projectName);
+		}
+		return ret;
+	}
+
+	@Override
+	public synchronized boolean failed(QueueItem item) {
+		Entry entry = findOutstanding(item);
+		if (entry == null) {
+			return false;
+		}
+		boolean retry;
+		if (++item.failCount <= MAX_RETRIES) {
+			entry.inProgress = false;
+			entry.retryTime = System.currentTimeMillis() + getRetryBackoff(item.failCount);
+			retry = true;
+		} else {
+			markDone(entry);
+			retry = false;
+		}
+		compact();
+		return retry;
+	}
+
+	@Override
+	public synchronized void remove(QueueItem item) {
+		Entry entry = findOutstanding(item);
+		if (entry != null) {
+			markDone(entry);
+			compact();
+		}
+	}
+
+	@Override
+	public synchronized void release(QueueItem item) {
+		Entry entry = findOutstanding(item);
+		if (entry != null) {
+			entry.inProgress = false;
+			compact();
+		}
+	}
+
 	@Override
 	public synchronized void add(String projectName, int buildNumber) {
-		queue.add(new QueueItem(projectName, buildNumber));
+		add(new QueueItem(projectName, buildNumber));
 	}
 
 	@Override
 	public synchronized void add(String projectName, String type, int buildNumber) {
-		queue.add(new QueueItem(projectName, type, buildNumber));
+		add(new QueueItem(projectName, type, buildNumber));
 	}
 
 	@Override
 	public synchronized void add(String projectName, int buildNumber, String workspace) {
-		queue.add(new QueueItem(projectName, buildNumber, workspace));
+		add(new QueueItem(projectName, buildNumber, workspace));
 	}
 
 	@Override
 	public synchronized void add(String instanceId, String projectName, int buildNumber, String workspace) {
 		QueueItem item = new QueueItem(projectName, buildNumber, workspace);
 		item.setInstanceId(instanceId);
+		add(item);
+	}
+
+	private void add(QueueItem item) {
 		queue.add(item);
+		entries.add(new Entry(item, nextSeq++));
 	}
 
-	public int size() {
-		return queue.size();
+	/**
+	 * @return number of items not completed yet
+	 */
+	public synchronized int size() {
+		return entries.size() - doneCount;
+	}
+
+	/**
+	 * Queue depth and age of the oldest item
+	 */
+	public synchronized Map<String, Object> getMetrics() {
+		int inProgress = 0;
+		int waitingForRetry = 0;
+		long oldest = Long.MAX_VALUE;
+		long now = System.currentTimeMillis();
+		for (Entry entry : entries) {
+			if (entry.done) {
+				continue;
+			}
+			if (entry.inProgress) {
+				inProgress++;
+			} else if (entry.retryTime > now) {
+				waitingForRetry++;
+			}
+			oldest = Math.min(oldest, entry.item.enqueueTime);
+		}
+
+		Map<String, Object> ret = new LinkedHashMap<>();
+		ret.put("size", entries.size() - doneCount);
+		ret.put("inProgress", inProgress);
+		ret.put("waitingForRetry", waitingForRetry);
+		if (oldest != Long.MAX_VALUE) {
+			ret.put("oldestItemTime", new Date(oldest));
+			ret.put("oldestItemAgeSeconds", TimeUnit.MILLISECONDS.toSeconds(now - oldest));
+		}
+		return ret;
 	}
 
 	@Override
@@ -130,6 +246,8 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 		while (queue.size() > 0) {
 			queue.remove();
 		}
+		entries.clear();
+		doneCount = 0;
 		currentItem = null;
 	}
 
@@ -140,9 +258,69 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 		}
 	}
 
+	private Entry findOutstanding(QueueItem item) {
+		for (Entry entry : entries) {
+			if (entry.item == item) {
+				return entry.done ? null : entry;
+			}
+		}
+		// the queue was cleared while the item was processed
+		return null;
+	}
+
+	private void markDone(Entry entry) {
+		entry.done = true;
+		entry.inProgress = false;
+		doneCount++;
+	}
+
+	private static long getRetryBackoff(int failCount) {
+		return Math.min(MAX_RETRY_BACKOFF, RETRY_BACKOFF << Math.min(failCount - 1, 20));
+	}
+
+	/**
+	 * Removes the completed items from the head of the file. An item waiting for its retry is moved from the head
+	 * to the tail, which persists its fail count and lets the completed items behind it be removed.
+	 */
+	private void compact() {
+		int rotations = entries.size();
+		while (!entries.isEmpty()) {
+			Entry head = entries.getFirst();
+			if (head.done) {
+				queue.remove();
+				entries.removeFirst();
+				doneCount--;
+			} else if (!head.inProgress && rotations-- > 0
+					&& (doneCount > 0 || head.persistedFailCount != head.item.failCount)) {
+				queue.add(head.item);
+				queue.remove();
+				head.persistedFailCount = head.item.failCount;
+				entries.addLast(entries.removeFirst());
+			} else {
+				break;
+			}
+		}
+	}
+
+	private static final class Entry {
+		private final QueueItem item;
+		private final long seq;
+		private int persistedFailCount;
+		private boolean inProgress;
+		private boolean done;
+		private long retryTime;
+
+		private Entry(QueueItem item, long seq) {
+			this.item = item;
+			this.seq = seq;
+			this.persistedFailCount = item.failCount;
+		}
+	}
+
 	private static class JsonConverter implements FileObjectQueue.Converter<QueueItem> {
 
 		public static final String INSTANCE_ID = "instanceId";
+		public static final String TIME = "time";
 
 		@Override
 		public QueueItem from(byte[] bytes) throws IOException {
@@ -175,6 +353,9 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 			if (json.containsKey(INSTANCE_ID)) {
 				queueItem.setInstanceId(json.getString(INSTANCE_ID));
 			}
+			if (json.containsKey(TIME)) {
+				queueItem.enqueueTime = json.getLong(TIME);
+			}
 			return queueItem;
 		}
 
@@ -186,6 +367,7 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 			json.put("workspace", item.workspace);
 			json.put("type", item.type);
             json.put(INSTANCE_ID, item.instanceId);
+			json.put(TIME, item.enqueueTime);
 			return json;
 		}
 	}
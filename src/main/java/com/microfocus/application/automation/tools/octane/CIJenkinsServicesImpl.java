@@ -60,6 +60,7 @@ import com.hp.octane.integrations.services.configurationparameters.UftTestRunner
 import com.hp.octane.integrations.services.configurationparameters.factory.ConfigurationParameterFactory;
 import com.microfocus.application.automation.tools.model.OctaneServerSettingsModel;
 import com.microfocus.application.automation.tools.octane.configuration.*;
+import com.microfocus.application.automation.tools.octane.events.OctaneEventDispatcher;
 import com.microfocus.application.automation.tools.octane.executor.ExecutorConnectivityService;
 import com.microfocus.application.automation.tools.octane.executor.TestExecutionJobCreatorService;
 import com.microfocus.application.automation.tools.octane.executor.UftJobRecognizer;
@@ -807,7 +808,7 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
 	}
 
 	public static void publishEventToRelevantClients(CIEvent event) {
-		OctaneSDK.getClients().forEach(c->c.getEventsService().publishEvent(event));
+		OctaneEventDispatcher.dispatch(event);
 	}
 
 	@Override
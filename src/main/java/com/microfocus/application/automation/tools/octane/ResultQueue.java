@@ -29,6 +29,7 @@
 package com.microfocus.application.automation.tools.octane;
 
 import java.io.Serializable;
+import java.util.List;
 
 @SuppressWarnings("squid:S2039")
 public interface ResultQueue {
@@ -39,6 +40,26 @@ public interface ResultQueue {
 
 	void remove();
 
+	/**
+	 * Hands out up to max items that are ready to be processed, without removing them.
+	 * Items of the same project are handed out one at a time, in the order they were added.
+	 * Each returned item must be completed with {@link #remove(QueueItem)} or {@link #failed(QueueItem)},
+	 * or handed back with {@link #release(QueueItem)} if it was not processed.
+	 */
+	List<QueueItem> peekBatch(int max);
+
+	/**
+	 * @return true if the item will be retried, false if it exceeded the retries and was dropped
+	 */
+	boolean failed(QueueItem item);
+
+	void remove(QueueItem item);
+
+	/**
+	 * Hands an item that was not processed back to the queue, without counting a failure
+	 */
+	void release(QueueItem item);
+
 	void add(String projectName, int buildNumber);
 
 	void add(String projectName, String type, int buildNumber);
@@ -59,6 +80,7 @@ public interface ResultQueue {
 		int buildNumber;
 		String workspace;
 		int failCount;
+		long enqueueTime = System.currentTimeMillis();
 
 		public void setInstanceId(String instanceId) {
 			this.instanceId = instanceId;
@@ -122,5 +144,9 @@ public interface ResultQueue {
 		public String getWorkspace() {
 			return workspace;
 		}
+
+		public long getEnqueueTime() {
+			return enqueueTime;
+		}
 	}
 }
@@ -34,6 +34,7 @@ import com.microfocus.application.automation.tools.octane.Messages;
 import com.microfocus.application.automation.tools.octane.actions.coverage.CoveragePublisherAction;
 import com.microfocus.application.automation.tools.octane.actions.coverage.CoverageService;
 import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
+import com.microfocus.application.automation.tools.octane.tests.build.WorkspaceFilesIndex;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
@@ -52,6 +53,8 @@ import org.kohsuke.stapler.QueryParameter;
 import javax.annotation.Nonnull;
 import javax.servlet.ServletException;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -59,7 +62,7 @@ import java.util.List;
  * the reports that matches a specified regular expression path, are copied to
  * the build folder for future upload.
  */
-public class CoveragePublisher extends Recorder implements SimpleBuildStep {
+public class CoveragePublisher extends Recorder implements SimpleBuildStep, WorkspaceFilesIndex.PatternsProvider {
 	private final String jacocoPathPattern;
 	private final String lcovPathPattern;
 
@@ -94,6 +97,11 @@ public class CoveragePublisher extends Recorder implements SimpleBuildStep {
 		return lcovPathPattern;
 	}
 
+	@Override
+	public Collection<String> getResultFilePatterns() {
+		return Arrays.asList(jacocoPathPattern, lcovPathPattern);
+	}
+
 	/**
 	 * this is where we build the project. this method is being called when we run the build
 	 *
@@ -126,6 +134,11 @@ public class CoveragePublisher extends Recorder implements SimpleBuildStep {
 	public boolean perform(Run build, TaskListener listener) {
 		CoveragePublisherAction action = new CoveragePublisherAction(build, listener);
 		build.addAction(action);
+		FilePath workspace = BuildHandlerUtils.getWorkspace(build);
+		if (workspace != null) {
+			// pipelines have no publishers list, both patterns are still looked up in one walk of the workspace
+			WorkspaceFilesIndex.get(build, workspace).register(getResultFilePatterns());
+		}
 
 		List<String> jacocoReportFileNames = action.copyCoverageReportsToBuildFolder(jacocoPathPattern, CoverageService.Jacoco.JACOCO_DEFAULT_FILE_NAME);
 		List<String> lcovReportFileNames = action.copyCoverageReportsToBuildFolder(lcovPathPattern, CoverageService.Lcov.LCOV_DEFAULT_FILE_NAME);
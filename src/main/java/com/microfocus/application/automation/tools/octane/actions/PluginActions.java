@@ -33,6 +33,9 @@ import com.hp.octane.integrations.OctaneSDK;
 import com.hp.octane.integrations.dto.general.CIServerInfo;
 import com.microfocus.application.automation.tools.octane.CIJenkinsServicesImpl;
 import com.microfocus.application.automation.tools.octane.configuration.ConfigurationService;
+import com.microfocus.application.automation.tools.octane.events.OctaneEventDispatcher;
+import com.microfocus.application.automation.tools.octane.executor.UftTestDiscoveryDispatcher;
+import com.microfocus.application.automation.tools.octane.model.CIEventCausesFactory;
 import hudson.Extension;
 import hudson.model.RootAction;
 import jenkins.model.Jenkins;
@@ -139,6 +142,7 @@ public class PluginActions implements RootAction {
                         addMetrics(client.getMetrics(), "client", confJson);
                         addMetrics(client.getBridgeService().getMetrics(), "taskPollingService", confJson);
                         addMetrics(client.getEventsService().getMetrics(), "eventsService", confJson);
+                        addMetrics(OctaneEventDispatcher.getMetrics(client), "eventDispatcher", confJson);
                         addMetrics(client.getTestsService().getMetrics(), "testsService", confJson);
                         addMetrics(client.getLogsService().getMetrics(), "buildLogsService", confJson);
                         addMetrics(client.getVulnerabilitiesService().getMetrics(), "vulnerabilitiesService", confJson);
@@ -153,7 +157,10 @@ public class PluginActions implements RootAction {
                         allMetricsJson.put(client.getConfigurationService().getConfiguration().getLocationForLog(), confJson);
                     }
             );
+            addMetrics(CIEventCausesFactory.getCacheMetrics(), "causesCache", allMetricsJson);
             result.put("metrics", allMetricsJson);
+            Jenkins.get().getExtensionList(UftTestDiscoveryDispatcher.class).forEach(
+                    dispatcher -> addMetrics(dispatcher.getQueueMetrics(), "uftTestDiscoveryQueue", result));
         }
 
         return result;
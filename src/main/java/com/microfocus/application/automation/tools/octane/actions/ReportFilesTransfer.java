@@ -0,0 +1,105 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.actions;
+
+import hudson.FilePath;
+import hudson.Util;
+import hudson.util.DirScanner;
+import hudson.util.FileVisitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies report files from the workspace, that may be on an agent, to the build folder.
+ * All the files are sent in one gzip compressed tar stream and are written to disk as they arrive,
+ * so their content is never held in memory as a whole.
+ */
+public final class ReportFilesTransfer {
+
+	private ReportFilesTransfer() {
+	}
+
+	/**
+	 * @param workspace   workspace of the build
+	 * @param files       path relative to the workspace of each file to copy, mapped to its target file
+	 * @param stagingRoot folder on the master the files are first extracted to, a temporary sub folder of it is used
+	 */
+	public static void copy(FilePath workspace, Map<String, File> files, File stagingRoot) throws IOException, InterruptedException {
+		if (files.isEmpty()) {
+			return;
+		}
+
+		File staging = Files.createTempDirectory(stagingRoot.toPath(), "report-transfer").toFile();
+		try {
+			workspace.copyRecursiveTo(new FileListScanner(files.keySet()), new FilePath(staging), "report files");
+			for (Map.Entry<String, File> file : files.entrySet()) {
+				File copied = new File(staging, toTarPath(file.getKey()));
+				if (!copied.isFile()) {
+					throw new IOException("Report file " + file.getKey() + " was not copied from the workspace");
+				}
+				Files.move(copied.toPath(), file.getValue().toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Util.deleteRecursive(staging);
+		}
+	}
+
+	private static String toTarPath(String relativePath) {
+		return relativePath.replace('\\', '/');
+	}
+
+	/**
+	 * Visits exactly the given files, file names are not interpreted as ant patterns
+	 */
+	private static final class FileListScanner extends DirScanner {
+		private static final long serialVersionUID = 1L;
+		private final List<String> files;
+
+		private FileListScanner(Iterable<String> files) {
+			this.files = new ArrayList<>();
+			files.forEach(this.files::add);
+		}
+
+		@Override
+		public void scan(File dir, FileVisitor visitor) throws IOException {
+			for (String file : files) {
+				File f = new File(dir, file);
+				if (f.isFile()) {
+					visitor.visit(f, toTarPath(file));
+				}
+			}
+		}
+	}
+}
@@ -34,8 +34,10 @@ import hudson.model.*;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * this action initiate a copy of all coverage reports from workspace to build folder.
@@ -60,16 +62,18 @@ public class CoveragePublisherAction implements Action {
 		if (workspace != null) {
 			try {
 				CoverageService.log("start copying coverage report to build folder, using file patten of " + filePattern);
-				String[] files = CoverageService.getCoverageFiles(workspace, filePattern);
+				String[] files = CoverageService.getCoverageFiles(build, workspace, filePattern);
 				List<String> matchingReportFiles = filterFilesByFileExtension(files);
 				int index = 0;
 
+				Map<String, File> targetReportFiles = new LinkedHashMap<>();
 				for (String fileName : matchingReportFiles) {
-					File resultFile = new File(workspace.child(fileName).toURI());
 					String nextOutputFilename = CoverageService.getCoverageReportFileName(index++, defaultFileName);
-					result.add(nextOutputFilename);
-					File targetReportFile = new File(build.getRootDir(), nextOutputFilename);
-					CoverageService.copyCoverageFile(resultFile, targetReportFile, workspace);
+					targetReportFiles.put(fileName, new File(build.getRootDir(), nextOutputFilename));
+				}
+				CoverageService.copyCoverageFiles(targetReportFiles, build.getRootDir(), workspace);
+				for (File targetReportFile : targetReportFiles.values()) {
+					result.add(targetReportFile.getName());
 				}
 
 				if (result.isEmpty()) {
@@ -28,18 +28,16 @@
 
 package com.microfocus.application.automation.tools.octane.actions.coverage;
 
+import com.microfocus.application.automation.tools.octane.actions.ReportFilesTransfer;
+import com.microfocus.application.automation.tools.octane.tests.build.WorkspaceFilesIndex;
 import hudson.FilePath;
-import hudson.Util;
+import hudson.model.Run;
 import hudson.model.TaskListener;
-import hudson.remoting.VirtualChannel;
-import jenkins.MasterToSlaveFileCallable;
-import org.apache.tools.ant.DirectoryScanner;
-import org.apache.tools.ant.types.FileSet;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * Helper Service for coverage publisher
@@ -67,36 +65,40 @@ public class CoverageService {
         return COVERAGE_REPORT_FILE_NAME_PREFIX + index + "-" + fileSuffix;
     }
 
-    public static String[] getCoverageFiles(final FilePath workspace, String glob) throws IOException, InterruptedException {
+    /**
+     * looks the pattern up in the workspace files index of the build, and skips the corrupted files
+     */
+    public static String[] getCoverageFiles(final Run<?, ?> run, final FilePath workspace, String glob) throws IOException, InterruptedException {
         log(String.format("Looking for files that match the pattern %s in root directory %s", glob, workspace.getName()));
-        return workspace.act(new ResultFilesCallable(glob));
+        WorkspaceFilesIndex index = WorkspaceFilesIndex.get(run, workspace);
+        return Arrays.stream(index.getFiles(glob))
+                .filter(fileName -> validateFile(index.getFileSize(fileName)))
+                .toArray(String[]::new);
     }
 
-    public static void copyCoverageFile(File resultFile, File targetReportFile, final FilePath workspace) throws IOException, InterruptedException {
-        log(String.format("Copying %s to %s", resultFile.getPath(), targetReportFile));
-
-        byte[] content = workspace.act(new FileContentCallable(resultFile));
-
-        if (validateContent(content)) {
-            log("Got coverage file content");
-
-            try (FileOutputStream os = new FileOutputStream(targetReportFile)) {
-                os.write(content);
-            }
-            log(String.format("coverage file copied successfully to %s", targetReportFile.getPath()));
-        } else {
-            log("coverage file content corrupted, failed to copy the file to target destination");
+    /**
+     * copies all the coverage files in one compressed transfer
+     * @param workspace of the build
+     * @param files path relative to the workspace of each coverage file, mapped to its target report file
+     * @param stagingRoot folder on the master the files are first extracted to
+     */
+    public static void copyCoverageFiles(Map<String, File> files, File stagingRoot, final FilePath workspace) throws IOException, InterruptedException {
+        for (Map.Entry<String, File> file : files.entrySet()) {
+            log(String.format("Copying %s to %s", file.getKey(), file.getValue()));
         }
+
+        ReportFilesTransfer.copy(workspace, files, stagingRoot);
+        log(String.format("%d coverage files copied successfully to %s", files.size(), stagingRoot.getPath()));
     }
 
     /**
      * most of the validations will be done in octane side
      * this is a place holder to do more validations if needed
-     * @param content of the file
+     * @param fileSize size of the coverage file, as found on the machine of the workspace
      * @return status
      */
-    private static boolean validateContent(byte[] content) {
-        return content.length > 0;
+    private static boolean validateFile(long fileSize) {
+        return fileSize > 0;
     }
 
     public static void log(final String message) {
@@ -109,35 +111,4 @@ public class CoverageService {
         listener = l;
     }
 
-    /**
-     * this class searched for files that match specific pattern
-     */
-    private static final class ResultFilesCallable extends MasterToSlaveFileCallable<String[]> {
-        private final String glob;
-
-        private ResultFilesCallable(String glob) {
-            this.glob = glob;
-        }
-
-        @Override
-        public String[] invoke(File rootDir, VirtualChannel channel) throws IOException {
-            FileSet fs = Util.createFileSet(rootDir, glob);
-            DirectoryScanner ds = fs.getDirectoryScanner();
-            return ds.getIncludedFiles();
-        }
-    }
-
-    private static final class FileContentCallable extends MasterToSlaveFileCallable<byte[]> {
-        private final File file;
-
-        private FileContentCallable(File file) {
-            this.file = file;
-        }
-
-        @Override
-        public byte[] invoke(File rootDir, VirtualChannel channel) throws IOException {
-            return Files.readAllBytes(file.toPath());
-        }
-    }
-
 }
@@ -29,18 +29,20 @@
 package com.microfocus.application.automation.tools.octane.actions.cucumber;
 
 import com.microfocus.application.automation.tools.octane.Messages;
+import com.microfocus.application.automation.tools.octane.actions.ReportFilesTransfer;
+import com.microfocus.application.automation.tools.octane.tests.build.WorkspaceFilesIndex;
 import hudson.FilePath;
-import hudson.Util;
+import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.remoting.VirtualChannel;
 import jenkins.MasterToSlaveFileCallable;
-import org.apache.tools.ant.DirectoryScanner;
-import org.apache.tools.ant.types.FileSet;
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Helper Service for Gherkin results
@@ -57,41 +59,58 @@ public class CucumberResultsService {
         return GHERKIN_NGA_RESULTS + index + ".xml";
     }
 
-    public static String[] getCucumberResultFiles(final FilePath workspace, String glob) throws IOException, InterruptedException {
+    public static String getGlobOrDefault(String glob) {
+        return glob == null || glob.isEmpty() ? DEFAULT_GLOB : glob;
+    }
+
+    public static String[] getCucumberResultFiles(final Run<?, ?> run, final FilePath workspace, String glob) throws IOException, InterruptedException {
         if (glob == null || glob.isEmpty()) {
             glob = DEFAULT_GLOB;
             log(Messages.CucumberResultsActionEmptyConfiguration(), glob);
         }
 
         log("Looking for files that match the pattern %s in root directory %s", glob, workspace.getName());
-        return workspace.act(new ResultFilesCallable(glob));
+        String[] files = WorkspaceFilesIndex.get(run, workspace).getFiles(glob);
+        if (files.length > 0) {
+            workspace.act(new ValidateResultFilesCallable(files));
+        }
+        return files;
     }
 
-    public static void copyResultFile(File resultFile, File destinationFolder, final FilePath workspace) throws IOException, InterruptedException {
-        File existingReportFile;
+    /**
+     * copies all the result files to the destination folder in one compressed transfer,
+     * each one gets the next free Gherkin result file name
+     * @param resultFiles paths relative to the workspace
+     */
+    public static void copyResultFiles(String[] resultFiles, File destinationFolder, final FilePath workspace) throws IOException, InterruptedException {
+        Map<String, File> files = new LinkedHashMap<>();
         int existingResultIndex = -1;
+        for (String resultFile : resultFiles) {
+            File existingReportFile;
 
-        log("Copying %s to %s", resultFile.getPath(), destinationFolder.getPath());
-
-        do {
-            existingReportFile = new File(destinationFolder, getGherkinResultFileName(++existingResultIndex));
-        } while (existingReportFile.exists());
-        log("New file name on destination will be %s", existingReportFile.getPath());
+            log("Copying %s to %s", resultFile, destinationFolder.getPath());
 
-        byte[] content = workspace.act(new FileContentCallable(resultFile));
-        log("Got result file content");
-
-        validateContent(content);
-
-        File target = existingReportFile;
-        try (FileOutputStream os = new FileOutputStream(target)) {
-            os.write(content);
+            do {
+                existingReportFile = new File(destinationFolder, getGherkinResultFileName(++existingResultIndex));
+            } while (existingReportFile.exists());
+            log("New file name on destination will be %s", existingReportFile.getPath());
+            files.put(resultFile, existingReportFile);
         }
-        log("Result file copied to %s", target.getPath());
+
+        ReportFilesTransfer.copy(workspace, files, destinationFolder);
+        log("%s result files copied to %s", String.valueOf(files.size()), destinationFolder.getPath());
     }
 
-    private static void validateContent(byte[] content) {
-        String contentStr = new String(content, 0, Math.min(content.length , 2000));
+    private static void validateFile(File file) throws IOException {
+        byte[] content = new byte[2000];
+        int length = 0;
+        try (InputStream is = new FileInputStream(file)) {
+            int read;
+            while (length < content.length && (read = is.read(content, length, content.length - length)) > 0) {
+                length += read;
+            }
+        }
+        String contentStr = new String(content, 0, length);
         //Heuristic validation. we don't check the whole file structure here - we should be quick.
         if(!contentStr.contains("<features")) {
             throw new IllegalArgumentException("The file is not Octane Gherkin results file");
@@ -109,31 +128,20 @@ public class CucumberResultsService {
         listener = l;
     }
 
-    private static final class ResultFilesCallable extends MasterToSlaveFileCallable<String[]> {
-        private final String glob;
-
-        private ResultFilesCallable(String glob) {
-            this.glob = glob;
-        }
-
-        @Override
-        public String[] invoke(File rootDir, VirtualChannel channel) throws IOException {
-            FileSet fs = Util.createFileSet(rootDir, glob);
-            DirectoryScanner ds = fs.getDirectoryScanner();
-            return ds.getIncludedFiles();
-        }
-    }
-
-    private static final class FileContentCallable extends MasterToSlaveFileCallable<byte[]> {
-        private final File file;
+    private static final class ValidateResultFilesCallable extends MasterToSlaveFileCallable<Void> {
+        private final String[] files;
 
-        private FileContentCallable(File file) {
-            this.file = file;
+        private ValidateResultFilesCallable(String[] files) {
+            this.files = files;
         }
 
         @Override
-        public byte[] invoke(File rootDir, VirtualChannel channel) throws IOException {
-            return Files.readAllBytes(file.toPath());
+        public Void invoke(File rootDir, VirtualChannel channel) throws IOException {
+            // validated before the copy so that no file is transferred when one of them is not a result file
+            for (String file : files) {
+                validateFile(new File(rootDir, file));
+            }
+            return null;
         }
     }
 
@@ -32,8 +32,6 @@ import com.microfocus.application.automation.tools.octane.Messages;
 import hudson.FilePath;
 import hudson.model.*;
 
-import java.io.File;
-
 /**
  * Created by franksha on 07/12/2016.
  */
@@ -50,13 +48,10 @@ public class CucumberTestResultsAction implements Action {
     public boolean copyResultsToBuildFolder(FilePath workspace) {
         try {
             CucumberResultsService.log(Messages.CucumberResultsActionCollecting());
-            String[] files = CucumberResultsService.getCucumberResultFiles(workspace, glob);
+            String[] files = CucumberResultsService.getCucumberResultFiles(build, workspace, glob);
             boolean found = files.length > 0;
 
-            for (String fileName : files) {
-                File resultFile = new File(workspace.child(fileName).toURI());
-                CucumberResultsService.copyResultFile(resultFile, build.getRootDir(), workspace);
-            }
+            CucumberResultsService.copyResultFiles(files, build.getRootDir(), workspace);
 
             if (!found && build.getResult() != Result.FAILURE) {
                 // most likely a configuration error in the job - e.g. false pattern to match the cucumber result files
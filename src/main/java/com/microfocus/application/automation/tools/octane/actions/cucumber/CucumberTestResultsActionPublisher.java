@@ -29,6 +29,7 @@
 package com.microfocus.application.automation.tools.octane.actions.cucumber;
 
 import com.microfocus.application.automation.tools.octane.Messages;
+import com.microfocus.application.automation.tools.octane.tests.build.WorkspaceFilesIndex;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
@@ -50,11 +51,13 @@ import org.kohsuke.stapler.QueryParameter;
 import javax.annotation.Nonnull;
 import javax.servlet.ServletException;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Created by franksha on 07/12/2016.
  */
-public class CucumberTestResultsActionPublisher extends Recorder implements SimpleBuildStep {
+public class CucumberTestResultsActionPublisher extends Recorder implements SimpleBuildStep, WorkspaceFilesIndex.PatternsProvider {
 
     private final String glob;
 
@@ -72,6 +75,11 @@ public class CucumberTestResultsActionPublisher extends Recorder implements Simp
         return glob;
     }
 
+    @Override
+    public Collection<String> getResultFilePatterns() {
+        return Collections.singletonList(CucumberResultsService.getGlobOrDefault(glob));
+    }
+
     @Override
     public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace, @Nonnull Launcher launcher, @Nonnull TaskListener taskListener) throws InterruptedException, IOException {
         CucumberTestResultsAction action = new CucumberTestResultsAction(run, glob, taskListener);
@@ -36,7 +36,6 @@ import com.hp.octane.integrations.dto.events.CIEventType;
 import com.hp.octane.integrations.dto.events.PhaseType;
 import com.hp.octane.integrations.dto.pipelines.PipelineNode;
 import com.hp.octane.integrations.dto.pipelines.PipelinePhase;
-import com.microfocus.application.automation.tools.octane.CIJenkinsServicesImpl;
 import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
 import com.microfocus.application.automation.tools.octane.model.CIEventCausesFactory;
 import com.microfocus.application.automation.tools.octane.model.processors.parameters.ParameterProcessors;
@@ -80,25 +79,28 @@ public final class AbstractBuildListenerOctaneImpl extends RunListener<AbstractB
 	}
 
 	private void publishStartEvent(AbstractBuild build) {
+		CIEvent event = prepareStartEvent(build);
+		if (event != null) {
+			OctaneEventDispatcher.dispatchAfter(build.getExternalizableId(), event, startEvent -> {
+				enrichEvent(build, startEvent);
+				startEvent.setPhaseType(isInternal(build) ? PhaseType.INTERNAL : PhaseType.POST);
+			});
+		}
+	}
+
+	//  only what is cheap to read is taken on the listener thread, the rest is added by enrichEvent on a processing thread
+	private CIEvent prepareStartEvent(AbstractBuild build) {
 		try {
-			CIEvent event = dtoFactory.newDTO(CIEvent.class)
+			return dtoFactory.newDTO(CIEvent.class)
 					.setEventType(CIEventType.STARTED)
 					.setProject(BuildHandlerUtils.getJobCiId(build))
 					.setProjectDisplayName(BuildHandlerUtils.translateFullDisplayName(build.getParent().getFullDisplayName()))
 					.setBuildCiId(BuildHandlerUtils.getBuildCiId(build))
 					.setNumber(String.valueOf(build.getNumber()))
-					.setStartTime(build.getStartTimeInMillis())
-					.setEstimatedDuration(build.getEstimatedDuration())
-					.setCauses(CIEventCausesFactory.processCauses(build))
-					.setParameters(ParameterProcessors.getInstances(build));
-			if (isInternal(build)) {
-				event.setPhaseType(PhaseType.INTERNAL);
-			} else {
-				event.setPhaseType(PhaseType.POST);
-			}
-			CIJenkinsServicesImpl.publishEventToRelevantClients(event);
+					.setStartTime(build.getStartTimeInMillis());
 		} catch (Throwable throwable) {
 			logger.error("failed to build and/or dispatch STARTED event for " + build, throwable);
+			return null;
 		}
 	}
 
@@ -107,35 +109,47 @@ public final class AbstractBuildListenerOctaneImpl extends RunListener<AbstractB
 		if(!OctaneSDK.hasClients()){
 			return;
 		}
-		publishFinishEvent(build);
-		BuildLogHelper.enqueueBuildLog(build);
+		CIEvent event = prepareFinishEvent(build);
+		if (event != null) {
+			OctaneEventDispatcher.dispatchAfter(build.getExternalizableId(), event, finishEvent -> {
+				enrichEvent(build, finishEvent);
+				CommonOriginRevision commonOriginRevision = getCommonOriginRevision(build);
+				if (commonOriginRevision != null) {
+					finishEvent
+							.setCommonHashId(commonOriginRevision.revision)
+							.setBranchName(commonOriginRevision.branch);
+				}
+				finishEvent.setTestResultExpected(testListener.processBuild(build));
+				BuildLogHelper.enqueueBuildLog(build);
+			});
+		}
 	}
 
-	private void publishFinishEvent(AbstractBuild build) {
+	private CIEvent prepareFinishEvent(AbstractBuild build) {
 		try {
-			boolean hasTests = testListener.processBuild(build);
-			CIEvent event = dtoFactory.newDTO(CIEvent.class)
+			return dtoFactory.newDTO(CIEvent.class)
 					.setEventType(CIEventType.FINISHED)
 					.setProject(BuildHandlerUtils.getJobCiId(build))
 					.setProjectDisplayName((BuildHandlerUtils.translateFullDisplayName(build.getParent().getFullDisplayName())))
 					.setBuildCiId(BuildHandlerUtils.getBuildCiId(build))
 					.setNumber(String.valueOf(build.getNumber()))
 					.setStartTime(build.getStartTimeInMillis())
-					.setEstimatedDuration(build.getEstimatedDuration())
-					.setCauses(CIEventCausesFactory.processCauses(build))
-					.setParameters(ParameterProcessors.getInstances(build))
 					.setResult(BuildHandlerUtils.translateRunResult(build))
-					.setDuration(build.getDuration())
-					.setTestResultExpected(hasTests);
-			CommonOriginRevision commonOriginRevision = getCommonOriginRevision(build);
-			if (commonOriginRevision != null) {
-				event
-						.setCommonHashId(commonOriginRevision.revision)
-						.setBranchName(commonOriginRevision.branch);
-			}
-			CIJenkinsServicesImpl.publishEventToRelevantClients(event);
+					.setDuration(build.getDuration());
 		} catch (Throwable throwable) {
 			logger.error("failed to build and/or dispatch FINISHED event for " + build, throwable);
+			return null;
+		}
+	}
+
+	private void enrichEvent(AbstractBuild build, CIEvent event) {
+		try {
+			event
+					.setEstimatedDuration(build.getEstimatedDuration())
+					.setCauses(CIEventCausesFactory.processCauses(build))
+					.setParameters(ParameterProcessors.getInstances(build));
+		} catch (Throwable throwable) {
+			logger.error("failed to complete " + event.getEventType() + " event for " + build, throwable);
 		}
 	}
 
@@ -83,7 +83,7 @@ public class GlobalEventsListenerOctaneImpl extends ItemListener {
 						.setEventType(CIEventType.DELETED)
 						.setProject(JobProcessorFactory.getFlowProcessor((WorkflowJob) item).getTranslatedJobName());
 
-				OctaneSDK.getClients().forEach(client -> client.getEventsService().publishEvent(event));
+				CIJenkinsServicesImpl.publishEventToRelevantClients(event);
 			}
 		} catch (Throwable throwable) {
 			logger.error("failed to build and/or dispatch DELETED event for " + item, throwable);
@@ -92,6 +92,7 @@ public class GlobalEventsListenerOctaneImpl extends ItemListener {
 
 	@Override
 	public void onBeforeShutdown() {
+		OctaneEventDispatcher.stop();
 		OctaneSDK.getClients().forEach(OctaneSDK::removeClient);
 		UftTestDiscoveryDispatcher dispatcher = Jenkins.get().getExtensionList(UftTestDiscoveryDispatcher.class).get(0);
 		dispatcher.close();
@@ -0,0 +1,338 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+
+package com.microfocus.application.automation.tools.octane.events;
+
+import com.hp.octane.integrations.OctaneClient;
+import com.hp.octane.integrations.OctaneSDK;
+import com.hp.octane.integrations.dto.events.CIEvent;
+import com.hp.octane.integrations.dto.events.CIEventType;
+import com.microfocus.application.automation.tools.common.utils.ThreadPools;
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Dispatches CI events to the Octane clients off the listener threads.
+ * Listeners take a snapshot of the state of the run when they are called, and hand it over together with the work
+ * that completes the event (causes, parameters, test results, build log). That work runs on a small pool of processing threads:
+ * the events of one build are completed and dispatched in order, the events of different builds do not wait for each other.
+ * The completed event is then published by every client's own dispatcher thread.
+ * A stage STARTED event that is still waiting when its FINISHED event arrives shortly after is dropped,
+ * the FINISHED event carries the start time and duration of the stage.
+ */
+public final class OctaneEventDispatcher {
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(OctaneEventDispatcher.class);
+
+	private static final int QUEUE_CAPACITY = Integer.getInteger(OctaneEventDispatcher.class.getName() + ".queueCapacity", 10000);
+	private static final long COALESCE_WINDOW = Long.getLong(OctaneEventDispatcher.class.getName() + ".coalesceWindow", 50);
+	private static final int PROCESSOR_THREADS = Integer.getInteger(OctaneEventDispatcher.class.getName() + ".processorThreads", 4);
+	private static final long IDLE_POLL_SECONDS = 5;
+
+	private static final Map<String, ClientDispatcher> dispatchers = new ConcurrentHashMap<>();
+	private static final EventProcessor processor = new EventProcessor(PROCESSOR_THREADS, OctaneEventDispatcher::dispatch);
+
+	private OctaneEventDispatcher() {
+		//for code climate
+	}
+
+	/**
+	 * Dispatches an event to all clients
+	 */
+	public static void dispatch(CIEvent event) {
+		dispatch(null, event);
+	}
+
+	/**
+	 * Dispatches an event to all clients
+	 *
+	 * @param coalescingKey identifies the STARTED/FINISHED pair the event belongs to, null if the event should never be coalesced
+	 * @param event         the event, built on the caller thread
+	 */
+	public static void dispatch(String coalescingKey, CIEvent event) {
+		dispatch(new PendingEvent(coalescingKey, event));
+	}
+
+	/**
+	 * Completes the event on a processing thread, then dispatches it to all clients.
+	 * Events of the same build dispatched this way keep their order.
+	 *
+	 * @param buildKey   identifies the build the event belongs to
+	 * @param event      snapshot of the run, taken on the caller thread
+	 * @param enrichment completes the event, e.g. with the causes or the outcome of the test results processing
+	 */
+	public static void dispatchAfter(String buildKey, CIEvent event, Consumer<CIEvent> enrichment) {
+		dispatchAfter(buildKey, null, event, enrichment);
+	}
+
+	/**
+	 * Completes the event on a processing thread, then dispatches it to all clients.
+	 * Events of the same build dispatched this way keep their order.
+	 *
+	 * @param buildKey      identifies the build the event belongs to
+	 * @param coalescingKey identifies the STARTED/FINISHED pair the event belongs to, null if the event should never be coalesced
+	 * @param event         snapshot of the run, taken on the caller thread
+	 * @param enrichment    completes the event, e.g. with the causes or the outcome of the test results processing
+	 */
+	public static void dispatchAfter(String buildKey, String coalescingKey, CIEvent event, Consumer<CIEvent> enrichment) {
+		processor.process(buildKey, new PendingEvent(coalescingKey, event), enrichment);
+	}
+
+	private static void dispatch(PendingEvent pendingEvent) {
+		OctaneSDK.getClients().forEach(client ->
+				dispatchers.computeIfAbsent(client.getInstanceId(), id -> new ClientDispatcher(client, QUEUE_CAPACITY, COALESCE_WINDOW)).enqueue(pendingEvent));
+	}
+
+	/**
+	 * Processes and publishes all waiting events and stops the processing and dispatcher threads
+	 */
+	public static void stop() {
+		processor.stop();
+		dispatchers.values().forEach(ClientDispatcher::stop);
+		dispatchers.clear();
+	}
+
+	public static Map<String, Object> getMetrics(OctaneClient client) {
+		ClientDispatcher dispatcher = dispatchers.get(client.getInstanceId());
+		return dispatcher != null ? dispatcher.getMetrics() : new LinkedHashMap<>();
+	}
+
+	static final class PendingEvent {
+		private final String coalescingKey;
+		private final CIEvent event;
+		private final long enqueueTime = System.currentTimeMillis();
+
+		PendingEvent(String coalescingKey, CIEvent event) {
+			this.coalescingKey = coalescingKey;
+			this.event = event;
+		}
+	}
+
+	/**
+	 * Runs the enrichment of the events on a bounded pool, one event of a build at a time.
+	 * The waiting events of a build are kept in its own queue, the pool queue holds at most one task per build,
+	 * and a build with many waiting events hands its thread back to the pool after each one.
+	 */
+	static final class EventProcessor {
+		private final ExecutorService pool;
+		private final Consumer<PendingEvent> dispatch;
+		private final Map<String, Queue<Runnable>> waitingTasks = new HashMap<>();
+
+		EventProcessor(int threads, Consumer<PendingEvent> dispatch) {
+			this.pool = ThreadPools.newFixedThreadPool(threads, "Octane event processor");
+			this.dispatch = dispatch;
+		}
+
+		void process(String buildKey, PendingEvent pendingEvent, Consumer<CIEvent> enrichment) {
+			Runnable task = () -> {
+				try {
+					enrichment.accept(pendingEvent.event);
+				} catch (Throwable throwable) {
+					logger.error("failed to process the build of " + pendingEvent.event.getEventType() + " event", throwable);
+				}
+				dispatch.accept(pendingEvent);
+			};
+			synchronized (waitingTasks) {
+				Queue<Runnable> tasks = waitingTasks.get(buildKey);
+				if (tasks != null) {
+					//an earlier event of the build is being processed, this one follows it
+					tasks.add(task);
+					return;
+				}
+				waitingTasks.put(buildKey, new ArrayDeque<>());
+			}
+			execute(buildKey, task);
+		}
+
+		private void execute(String buildKey, Runnable task) {
+			try {
+				pool.execute(() -> runAndContinue(buildKey, task));
+			} catch (RejectedExecutionException e) {
+				//never lose events: once the processor is stopped the processing runs on the caller thread
+				runAndContinue(buildKey, task);
+			}
+		}
+
+		private void runAndContinue(String buildKey, Runnable task) {
+			task.run();
+			Runnable next;
+			synchronized (waitingTasks) {
+				next = waitingTasks.get(buildKey).poll();
+				if (next == null) {
+					waitingTasks.remove(buildKey);
+				}
+			}
+			if (next != null) {
+				execute(buildKey, next);
+			}
+		}
+
+		void stop() {
+			pool.shutdown();
+			try {
+				if (!pool.awaitTermination(IDLE_POLL_SECONDS, TimeUnit.SECONDS)) {
+					logger.warn("build processing did not complete before shutdown");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	static final class ClientDispatcher implements Runnable {
+		private static final PendingEvent WAKE_UP = new PendingEvent(null, null);
+
+		private final OctaneClient client;
+		private final long coalesceWindow;
+		private final BlockingQueue<PendingEvent> queue;
+		private final Map<String, PendingEvent> waitingStartEvents = new ConcurrentHashMap<>();
+		private final Thread worker;
+		private volatile boolean stopped;
+
+		private final AtomicLong dispatched = new AtomicLong();
+		private final AtomicLong coalesced = new AtomicLong();
+		private final AtomicLong publishedInline = new AtomicLong();
+		private volatile long lastLag;
+		private volatile long maxLag;
+
+		ClientDispatcher(OctaneClient client, int queueCapacity, long coalesceWindow) {
+			this.client = client;
+			this.coalesceWindow = coalesceWindow;
+			this.queue = new LinkedBlockingQueue<>(queueCapacity);
+			this.worker = ThreadPools.threadFactory("Octane event dispatcher - " + client.getInstanceId()).newThread(this);
+			this.worker.start();
+		}
+
+		void enqueue(PendingEvent pendingEvent) {
+			if (pendingEvent.coalescingKey != null) {
+				if (CIEventType.STARTED.equals(pendingEvent.event.getEventType())) {
+					waitingStartEvents.put(pendingEvent.coalescingKey, pendingEvent);
+				} else if (CIEventType.FINISHED.equals(pendingEvent.event.getEventType())) {
+					PendingEvent startEvent = waitingStartEvents.remove(pendingEvent.coalescingKey);
+					if (startEvent != null && pendingEvent.enqueueTime - startEvent.enqueueTime <= coalesceWindow && queue.remove(startEvent)) {
+						coalesced.incrementAndGet();
+					}
+				}
+			}
+
+			synchronized (this) {
+				if (!stopped && queue.offer(pendingEvent)) {
+					return;
+				}
+			}
+			//never lose events: when the queue is full or the dispatcher is stopped publish on the caller thread
+			publishedInline.incrementAndGet();
+			publish(pendingEvent);
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (!stopped) {
+					PendingEvent pendingEvent = queue.poll(IDLE_POLL_SECONDS, TimeUnit.SECONDS);
+					if (pendingEvent == WAKE_UP) {
+						continue;
+					}
+					if (pendingEvent != null) {
+						publish(pendingEvent);
+					} else if (!OctaneSDK.getClients().contains(client)) {
+						dispatchers.remove(client.getInstanceId(), this);
+						break;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			synchronized (this) {
+				stopped = true;
+			}
+			drain();
+		}
+
+		void stop() {
+			synchronized (this) {
+				stopped = true;
+			}
+			//wakes up an idle worker; a busy one sees the stop after its current event, which is not interrupted
+			queue.offer(WAKE_UP);
+			try {
+				worker.join(TimeUnit.SECONDS.toMillis(IDLE_POLL_SECONDS));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void drain() {
+			PendingEvent pendingEvent;
+			while ((pendingEvent = queue.poll()) != null) {
+				if (pendingEvent != WAKE_UP) {
+					publish(pendingEvent);
+				}
+			}
+		}
+
+		private void publish(PendingEvent pendingEvent) {
+			if (pendingEvent.coalescingKey != null) {
+				waitingStartEvents.remove(pendingEvent.coalescingKey, pendingEvent);
+			}
+			try {
+				client.getEventsService().publishEvent(pendingEvent.event);
+				dispatched.incrementAndGet();
+			} catch (Throwable throwable) {
+				logger.error("failed to publish " + pendingEvent.event.getEventType() + " event to " + client.getInstanceId(), throwable);
+			}
+			lastLag = System.currentTimeMillis() - pendingEvent.enqueueTime;
+			maxLag = Math.max(maxLag, lastLag);
+		}
+
+		Map<String, Object> getMetrics() {
+			Map<String, Object> map = new LinkedHashMap<>();
+			map.put("queueSize", queue.size());
+			map.put("dispatchedEvents", dispatched.get());
+			map.put("coalescedEvents", coalesced.get());
+			map.put("publishedInlineEvents", publishedInline.get());
+			map.put("lastLagMillis", lastLag);
+			map.put("maxLagMillis", maxLag);
+			return map;
+		}
+	}
+}
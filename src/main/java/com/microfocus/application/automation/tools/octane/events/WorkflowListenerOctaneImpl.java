@@ -38,7 +38,6 @@ import com.hp.octane.integrations.dto.events.CIEventType;
 import com.hp.octane.integrations.dto.events.MultiBranchType;
 import com.hp.octane.integrations.dto.events.PhaseType;
 import com.hp.octane.integrations.dto.snapshots.CIBuildResult;
-import com.microfocus.application.automation.tools.octane.CIJenkinsServicesImpl;
 import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
 import com.microfocus.application.automation.tools.octane.model.CIEventCausesFactory;
 import com.microfocus.application.automation.tools.octane.model.processors.parameters.ParameterProcessors;
@@ -88,12 +87,12 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 			return;
 		}
 		try {
+			BuildHandlerUtils.indexWorkspaceNode(flowNode);
 			if (BuildHandlerUtils.isWorkflowStartNode(flowNode)) {
 				sendPipelineStartedEvent(flowNode);
 			} else if (BuildHandlerUtils.isWorkflowEndNode(flowNode)) {
 				WorkflowRun parentRun = BuildHandlerUtils.extractParentRun(flowNode);
 				sendPipelineFinishedEvent(parentRun);
-				BuildLogHelper.enqueueBuildLog(parentRun);
 			} else if (BuildHandlerUtils.isStageStartNode(flowNode)) {
 				sendStageStartedEvent((StepStartNode) flowNode);
 			} else if (BuildHandlerUtils.isStageEndNode(flowNode)) {
@@ -115,28 +114,42 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 			workflowJobStarted.add(buildKey);
 		}
 
+		//causes and parameters are read off the CPS VM thread
+		OctaneEventDispatcher.dispatchAfter(parentRun.getExternalizableId(), preparePipelineStartedEvent(parentRun), startedEvent -> {
+			enrichEvent(parentRun, startedEvent);
+			if (isInternal(startedEvent.getCauses())) {
+				startedEvent.setPhaseType(PhaseType.INTERNAL);
+			}
+		});
+	}
+
+	private CIEvent preparePipelineStartedEvent(WorkflowRun parentRun) {
 		CIEvent event = dtoFactory.newDTO(CIEvent.class)
 				.setEventType(CIEventType.STARTED)
 				.setProjectDisplayName(BuildHandlerUtils.translateFullDisplayName(parentRun.getParent().getFullDisplayName()))
 				.setProject(BuildHandlerUtils.getJobCiId(parentRun))
 				.setBuildCiId(BuildHandlerUtils.getBuildCiId(parentRun))
 				.setNumber(String.valueOf(parentRun.getNumber()))
-				.setParameters(ParameterProcessors.getInstances(parentRun))
-				.setStartTime(parentRun.getStartTimeInMillis())
-				.setEstimatedDuration(parentRun.getEstimatedDuration())
-				.setCauses(CIEventCausesFactory.processCauses(parentRun));
+				.setStartTime(parentRun.getStartTimeInMillis());
 
-		if(isInternal(event.getCauses())){
-			event.setPhaseType(PhaseType.INTERNAL);
-		}
 		if (parentRun.getParent().getParent().getClass().getName().equals(JobProcessorFactory.WORKFLOW_MULTI_BRANCH_JOB_NAME)) {
 			event
 					.setParentCiId(BuildHandlerUtils.translateFolderJobName(parentRun.getParent().getParent().getFullName()))
 					.setMultiBranchType(MultiBranchType.MULTI_BRANCH_CHILD)
 					.setProjectDisplayName(BuildHandlerUtils.translateFullDisplayName(parentRun.getParent().getFullDisplayName()));
 		}
+		return event;
+	}
 
-		CIJenkinsServicesImpl.publishEventToRelevantClients(event);
+	private void enrichEvent(WorkflowRun parentRun, CIEvent event) {
+		try {
+			event
+					.setEstimatedDuration(parentRun.getEstimatedDuration())
+					.setParameters(ParameterProcessors.getInstances(parentRun))
+					.setCauses(CIEventCausesFactory.processCauses(parentRun));
+		} catch (Throwable throwable) {
+			logger.error("failed to complete " + event.getEventType() + " event for " + parentRun, throwable);
+		}
 	}
 
 	private boolean isInternal(List<CIEventCause> causes) {
@@ -156,38 +169,44 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 
 	private void sendPipelineFinishedEvent(WorkflowRun parentRun) {
 		workflowJobStarted.remove(getBuildKey(parentRun));
-		boolean hasTests = testListener.processBuild(parentRun);
+		//causes, parameters, test results and the build log are processed off the CPS VM thread
+		OctaneEventDispatcher.dispatchAfter(parentRun.getExternalizableId(), preparePipelineFinishedEvent(parentRun), finishedEvent -> {
+			enrichEvent(parentRun, finishedEvent);
+			finishedEvent.setTestResultExpected(testListener.processBuild(parentRun));
+			BuildLogHelper.enqueueBuildLog(parentRun);
+		});
+	}
 
-		CIEvent event = dtoFactory.newDTO(CIEvent.class)
+	private CIEvent preparePipelineFinishedEvent(WorkflowRun parentRun) {
+		return dtoFactory.newDTO(CIEvent.class)
 				.setEventType(CIEventType.FINISHED)
 				.setProject(BuildHandlerUtils.getJobCiId(parentRun))
 				.setBuildCiId(BuildHandlerUtils.getBuildCiId(parentRun))
 				.setNumber(String.valueOf(parentRun.getNumber()))
-				.setParameters(ParameterProcessors.getInstances(parentRun))
 				.setStartTime(parentRun.getStartTimeInMillis())
-				.setEstimatedDuration(parentRun.getEstimatedDuration())
 				.setDuration(parentRun.getDuration())
-				.setResult(BuildHandlerUtils.translateRunResult(parentRun))
-				.setCauses(CIEventCausesFactory.processCauses(parentRun))
-				.setTestResultExpected(hasTests);
-		CIJenkinsServicesImpl.publishEventToRelevantClients(event);
+				.setResult(BuildHandlerUtils.translateRunResult(parentRun));
 	}
 
 	private void sendStageStartedEvent(StepStartNode stepStartNode) {
 		logger.debug("node " + stepStartNode + " detected as Stage Start node");
-		CIEvent event = prepareStageEvent(stepStartNode).setEventType(CIEventType.STARTED);
-		CIJenkinsServicesImpl.publishEventToRelevantClients(event);
+		dispatchStageEvent(stepStartNode, prepareStageEvent(stepStartNode).setEventType(CIEventType.STARTED));
 	}
 
 	private void sendStageFinishedEvent(StepEndNode stepEndNode) {
 		logger.debug("node " + stepEndNode + " detected as Stage End node");
 		StepStartNode stepStartNode = stepEndNode.getStartNode();
-		CIEvent event = prepareStageEvent(stepStartNode)
+		dispatchStageEvent(stepStartNode, prepareStageEvent(stepStartNode)
 				.setEventType(CIEventType.FINISHED)
 				.setDuration(TimingAction.getStartTime(stepEndNode) - TimingAction.getStartTime(stepStartNode))
-				.setResult(extractFlowNodeResult(stepEndNode));
+				.setResult(extractFlowNodeResult(stepEndNode)));
+	}
 
-		CIJenkinsServicesImpl.publishEventToRelevantClients(event);
+	//stage events are kept in order with the events of their pipeline run, their causes are read off the CPS VM thread
+	private void dispatchStageEvent(StepStartNode stepStartNode, CIEvent event) {
+		String runKey = BuildHandlerUtils.extractParentRun(stepStartNode).getExternalizableId();
+		OctaneEventDispatcher.dispatchAfter(runKey, runKey + "#" + stepStartNode.getId(), event,
+				stageEvent -> stageEvent.setCauses(CIEventCausesFactory.processCauses(stepStartNode)));
 	}
 
 	private CIEvent prepareStageEvent(StepStartNode stepStartNode) {
@@ -198,8 +217,7 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 				.setProject(stepStartNode.getDisplayName())
 				.setBuildCiId(BuildHandlerUtils.getBuildCiId(parentRun))
 				.setNumber(String.valueOf(parentRun.getNumber()))
-				.setStartTime(TimingAction.getStartTime(stepStartNode))
-				.setCauses(CIEventCausesFactory.processCauses(stepStartNode));
+				.setStartTime(TimingAction.getStartTime(stepStartNode));
 	}
 
 	private CIBuildResult extractFlowNodeResult(FlowNode node) {
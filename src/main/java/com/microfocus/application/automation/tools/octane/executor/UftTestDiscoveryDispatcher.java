@@ -38,6 +38,7 @@ import com.hp.octane.integrations.services.entities.EntitiesService;
 import com.hp.octane.integrations.uft.UftTestDispatchUtils;
 import com.hp.octane.integrations.uft.items.*;
 import com.hp.octane.integrations.utils.SdkStringUtils;
+import com.microfocus.application.automation.tools.common.utils.ThreadPools;
 import com.microfocus.application.automation.tools.octane.ResultQueue;
 import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
 import com.microfocus.application.automation.tools.octane.tests.AbstractSafeLoggingAsyncPeriodWork;
@@ -45,12 +46,17 @@ import hudson.Extension;
 import hudson.model.AbstractBuild;
 import hudson.model.Job;
 import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import jenkins.model.Jenkins;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.HttpStatus;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -64,7 +70,8 @@ import java.util.concurrent.TimeUnit;
 public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWork {
     private final static Logger logger = SDKBasedLoggerProvider.getLogger(UftTestDiscoveryDispatcher.class);
 
-    private final static int MAX_DISPATCH_TRIALS = 5;
+    private static final int WORKERS = Integer.getInteger(UftTestDiscoveryDispatcher.class.getName() + ".workers", 4);
+    private static final int BATCH_SIZE_PER_WORKER = 5;
     private static final String OCTANE_VERSION_SUPPORTING_TEST_RENAME = "12.60.3";
 
     private UftTestDiscoveryQueue queue;
@@ -81,7 +88,7 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
             return;
         }
 
-        if (queue.peekFirst() == null) {
+        if (queue.size() == 0) {
             return;
         }
 
@@ -92,44 +99,96 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
             return;
         }
 
-        ResultQueue.QueueItem item = null;
-        try {
-            while ((item = queue.peekFirst()) != null) {
+        // items waiting for a retry are not handed out, so this ends once every ready item was dispatched
+        List<ResultQueue.QueueItem> items;
+        while (!stopped && !(items = queue.peekBatch(WORKERS * BATCH_SIZE_PER_WORKER)).isEmpty()) {
+            if (!dispatchBatch(items)) {
+                return;
+            }
+        }
+    }
 
-                Job project = (Job) Jenkins.get().getItemByFullName(item.getProjectName());
-                if (project == null) {
-                    logger.warn("Project [" + item.getProjectName() + "] no longer exists, pending discovered tests can't be submitted");
-                    queue.remove();
-                    continue;
-                }
+    /**
+     * A batch holds at most one item of each job, so its items can be dispatched concurrently
+     *
+     * @return false if the dispatching was interrupted
+     */
+    private boolean dispatchBatch(List<ResultQueue.QueueItem> items) {
+        if (WORKERS <= 1 || items.size() == 1) {
+            items.forEach(this::dispatchItem);
+            return true;
+        }
 
-                AbstractBuild build = (AbstractBuild) project.getBuildByNumber(item.getBuildNumber());
-                if (build == null) {
-                    logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer exists, pending discovered tests can't be submitted");
-                    queue.remove();
-                    continue;
+        ExecutorService executor = ThreadPools.newFixedThreadPool(Math.min(WORKERS, items.size()), "UFT test discovery dispatcher");
+        Map<ResultQueue.QueueItem, Future<?>> futures = new LinkedHashMap<>();
+        try {
+            for (ResultQueue.QueueItem item : items) {
+                futures.put(item, executor.submit(() -> {
+                    try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+                        dispatchItem(item);
+                    }
+                }));
+            }
+            for (Map.Entry<ResultQueue.QueueItem, Future<?>> future : futures.entrySet()) {
+                try {
+                    future.getValue().get();
+                } catch (ExecutionException e) {
+                    // dispatchItem completes its item, unless it failed before getting to it
+                    logger.error("Failed to dispatch discovered UFT tests of [" + future.getKey().getProjectName() + "#" + future.getKey().getBuildNumber() + "] : " + e.getCause().getMessage());
+                    queue.failed(future.getKey());
                 }
-
-                UftTestDiscoveryResult result = UFTTestDetectionService.readDetectionResults(build);
-                if (result == null) {
-                    logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer contains valid detection result file");
-                    queue.remove();
-                    continue;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // the items that were not dispatched yet are handed out again by the next run
+            List<Runnable> notStarted = executor.shutdownNow();
+            for (Map.Entry<ResultQueue.QueueItem, Future<?>> future : futures.entrySet()) {
+                if (notStarted.contains(future.getValue())) {
+                    queue.release(future.getKey());
                 }
+            }
+            return false;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-                OctaneClient client;
-                try {
-                    client = OctaneSDK.getClientByInstanceId(result.getConfigurationId());
-                } catch (Exception e) {
-                    logger.error("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] does not have valid configuration " + result.getConfigurationId() + " : " + e.getMessage());
-                    queue.remove();
-                    continue;
-                }
+    private void dispatchItem(ResultQueue.QueueItem item) {
+        try {
+            Job project = (Job) Jenkins.get().getItemByFullName(item.getProjectName());
+            if (project == null) {
+                logger.warn("Project [" + item.getProjectName() + "] no longer exists, pending discovered tests can't be submitted");
+                queue.remove(item);
+                return;
+            }
+
+            AbstractBuild build = (AbstractBuild) project.getBuildByNumber(item.getBuildNumber());
+            if (build == null) {
+                logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer exists, pending discovered tests can't be submitted");
+                queue.remove(item);
+                return;
+            }
 
-                logger.warn("Persistence [" + item.getProjectName() + "#" + item.getBuildNumber() + "]");
-                dispatchDetectionResults(item, client.getEntitiesService(), result, build);
-                queue.remove();
+            UftTestDiscoveryResult result = UFTTestDetectionService.readDetectionResults(build);
+            if (result == null) {
+                logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer contains valid detection result file");
+                queue.remove(item);
+                return;
             }
+
+            OctaneClient client;
+            try {
+                client = OctaneSDK.getClientByInstanceId(result.getConfigurationId());
+            } catch (Exception e) {
+                logger.error("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] does not have valid configuration " + result.getConfigurationId() + " : " + e.getMessage());
+                queue.remove(item);
+                return;
+            }
+
+            logger.warn("Persistence [" + item.getProjectName() + "#" + item.getBuildNumber() + "]");
+            dispatchDetectionResults(item, client.getEntitiesService(), result, build);
+            queue.remove(item);
         } catch (OctaneRestException e) {
             String reasonDesc = StringUtils.isNotEmpty(e.getData().getDescriptionTranslated()) ? e.getData().getDescriptionTranslated() : e.getData().getDescription();
             if (e.getResponseStatus() == HttpStatus.SC_FORBIDDEN) {
@@ -137,18 +196,23 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
             } else {
                 logger.error("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "]  : " + reasonDesc);
             }
-            queue.remove();
+            queue.remove(item);
         } catch (Exception e) {
-            if (item != null) {
-                item.incrementFailCount();
-                if (item.incrementFailCount() > MAX_DISPATCH_TRIALS) {
-                    queue.remove();
-                    logger.error("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "]  after " + MAX_DISPATCH_TRIALS + " trials");
-                }
+            if (queue.failed(item)) {
+                logger.warn("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "], will retry : " + e.getMessage());
+            } else {
+                logger.error("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "]  after " + UftTestDiscoveryQueue.MAX_DISPATCH_TRIALS + " retries");
             }
         }
     }
 
+    /**
+     * Depth and age of the discovery queue, for the plugin status metrics
+     */
+    public Map<String, Object> getQueueMetrics() {
+        return queue == null ? Collections.emptyMap() : queue.getMetrics();
+    }
+
     public void close() {
         logger.info("stopping the UFT dispatcher and closing its queue");
         stopped = true;
@@ -39,7 +39,10 @@ import java.io.IOException;
  */
 public class UftTestDiscoveryQueue extends AbstractResultQueueImpl {
 
+    static final int MAX_DISPATCH_TRIALS = 5;
+
     public UftTestDiscoveryQueue() throws IOException {
+        super(MAX_DISPATCH_TRIALS);
         File queueFile = new File(Jenkins.getInstanceOrNull().getRootDir(), "octane-uft-tests-queue.dat");
         init(queueFile);
     }
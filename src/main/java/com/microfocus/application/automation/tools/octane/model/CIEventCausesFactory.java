@@ -34,9 +34,11 @@ import com.hp.octane.integrations.dto.causes.CIEventCauseType;
 import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
 import com.microfocus.application.automation.tools.octane.model.processors.projects.JobProcessorFactory;
 import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
+import hudson.Extension;
 import hudson.model.Cause;
 import hudson.model.InvisibleAction;
 import hudson.model.Run;
+import hudson.model.listeners.RunListener;
 import hudson.triggers.SCMTrigger;
 import hudson.triggers.TimerTrigger;
 import org.apache.logging.log4j.Logger;
@@ -49,9 +51,11 @@ import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Causes Factory is a collection of static stateless methods to extract/traverse/transform causes chains of the runs
+ * Causes Factory is a collection of static methods to extract/traverse/transform causes chains of the runs
+ * Chains are cached until the run is deleted, or until they are evicted by the chains of newer runs
  * User: gullery
  * Date: 20/10/14
  */
@@ -60,6 +64,18 @@ public final class CIEventCausesFactory {
 	private static final Logger logger = SDKBasedLoggerProvider.getLogger(CIEventCausesFactory.class);
 	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
 
+	//  causes chains of runs (and of their flow nodes) are requested again for each event, test/log enqueue and stage,
+	//  up to the FINISHED event sent after the run completed; they do not change once computed, so they are kept until the run is deleted
+	private static final int CACHE_SIZE = Integer.getInteger(CIEventCausesFactory.class.getName() + ".cacheSize", 1000);
+	private static final Map<String, List<CIEventCause>> causesCache = new LinkedHashMap<String, List<CIEventCause>>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, List<CIEventCause>> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+	private static final AtomicLong cacheHits = new AtomicLong();
+	private static final AtomicLong cacheMisses = new AtomicLong();
+
 	private CIEventCausesFactory() {
 	}
 
@@ -68,6 +84,30 @@ public final class CIEventCausesFactory {
 			throw new IllegalArgumentException("run MUST NOT be null");
 		}
 
+		String cacheKey = run.getExternalizableId();
+		List<CIEventCause> cached = getCached(cacheKey);
+		if (cached != null) {
+			return cached;
+		}
+		List<CIEventCause> causes = calculateCauses(run);
+		putCached(cacheKey, causes);
+		return causes;
+	}
+
+	/**
+	 * @return number of causes chains served from the cache (graph walks avoided) and number of chains calculated
+	 */
+	public static Map<String, Object> getCacheMetrics() {
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		synchronized (causesCache) {
+			metrics.put("cachedChains", causesCache.size());
+		}
+		metrics.put("cacheHits", cacheHits.get());
+		metrics.put("cacheMisses", cacheMisses.get());
+		return metrics;
+	}
+
+	private static List<CIEventCause> calculateCauses(Run<?, ?> run) {
 		Map<String, CIEventCause> result = new LinkedHashMap();//LinkedHashMap - save order of insertion
 		List<Cause> causes = run.getCauses();
 		CIEventCause tmpResultCause;
@@ -126,11 +166,49 @@ public final class CIEventCausesFactory {
 	}
 
 	public static List<CIEventCause> processCauses(FlowNode flowNode) {
+		WorkflowRun parentRun = BuildHandlerUtils.extractParentRun(flowNode);
+		String cacheKey = getFlowNodeCacheKey(parentRun, flowNode);
+		List<CIEventCause> cached = getCached(cacheKey);
+		if (cached != null) {
+			return cached;
+		}
 		List<CIEventCause> causes = new LinkedList<>();
 		processCauses(flowNode, causes, new LinkedHashSet<>());
+		putCached(cacheKey, causes);
 		return causes;
 	}
 
+	private static String getFlowNodeCacheKey(Run<?, ?> run, FlowNode flowNode) {
+		return run.getExternalizableId() + "#" + flowNode.getId();
+	}
+
+	private static List<CIEventCause> getCached(String cacheKey) {
+		List<CIEventCause> cached;
+		synchronized (causesCache) {
+			cached = causesCache.get(cacheKey);
+		}
+		if (cached == null) {
+			cacheMisses.incrementAndGet();
+			return null;
+		}
+		cacheHits.incrementAndGet();
+		return new ArrayList<>(cached);
+	}
+
+	private static void putCached(String cacheKey, List<CIEventCause> causes) {
+		synchronized (causesCache) {
+			causesCache.put(cacheKey, new ArrayList<>(causes));
+		}
+	}
+
+	private static void invalidate(Run<?, ?> run) {
+		String runKey = run.getExternalizableId();
+		String flowNodeKeyPrefix = runKey + "#";
+		synchronized (causesCache) {
+			causesCache.keySet().removeIf(key -> key.equals(runKey) || key.startsWith(flowNodeKeyPrefix));
+		}
+	}
+
 	private static void processCauses(FlowNode flowNode, List<CIEventCause> causes, Set<FlowNode> startStagesToSkip) {
 		//  we reached the start of the flow - add WorkflowRun as an initial UPSTREAM cause
 		if (flowNode.getParents().isEmpty()) {
@@ -216,6 +294,18 @@ public final class CIEventCausesFactory {
 		return result;
 	}
 
+	/**
+	 * Drops the cached causes chains of a run once it is deleted.
+	 */
+	@Extension
+	public static class RunListenerImpl extends RunListener<Run> {
+
+		@Override
+		public void onDeleted(Run run) {
+			invalidate(run);
+		}
+	}
+
 	private final static class OctaneParentNodeAction extends InvisibleAction {
 		private final String parentFlowNodeId;
 
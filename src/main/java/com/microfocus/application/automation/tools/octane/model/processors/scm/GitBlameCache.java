@@ -0,0 +1,83 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model.processors.scm;
+
+import com.hp.octane.integrations.dto.scm.impl.RevisionsMap;
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Blame data of files at HEAD, per repository of the agent JVM the line enricher runs on.
+ * A file is blamed again only when its content (blob) at that path changes.
+ */
+final class GitBlameCache {
+	private static final int MAX_REPOSITORIES = Integer.getInteger(GitBlameCache.class.getName() + ".maxRepositories", 50);
+	private static final int MAX_FILES = Integer.getInteger(GitBlameCache.class.getName() + ".maxFilesPerRepository", 5000);
+	private static final Map<String, GitBlameCache> caches = new LinkedHashMap<String, GitBlameCache>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, GitBlameCache> eldest) {
+			return size() > MAX_REPOSITORIES;
+		}
+	};
+
+	private final Map<String, RevisionsMap> blames = new LinkedHashMap<String, RevisionsMap>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, RevisionsMap> eldest) {
+			return size() > MAX_FILES;
+		}
+	};
+
+	private GitBlameCache() {
+	}
+
+	static GitBlameCache forRepository(File repoDir) {
+		synchronized (caches) {
+			return caches.computeIfAbsent(repoDir.getAbsolutePath(), key -> new GitBlameCache());
+		}
+	}
+
+	RevisionsMap get(String filePath, ObjectId blobId) {
+		synchronized (blames) {
+			return blames.get(toKey(filePath, blobId));
+		}
+	}
+
+	void put(String filePath, ObjectId blobId, RevisionsMap revisionsMap) {
+		synchronized (blames) {
+			blames.put(toKey(filePath, blobId), revisionsMap);
+		}
+	}
+
+	private static String toKey(String filePath, ObjectId blobId) {
+		return blobId.name() + ":" + filePath;
+	}
+}
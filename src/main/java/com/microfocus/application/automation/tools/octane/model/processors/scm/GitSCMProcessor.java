@@ -33,6 +33,7 @@ import com.hp.octane.integrations.dto.scm.*;
 import com.hp.octane.integrations.dto.scm.impl.LineRange;
 import com.hp.octane.integrations.dto.scm.impl.RevisionsMap;
 import com.hp.octane.integrations.dto.scm.impl.SCMFileBlameImpl;
+import com.microfocus.application.automation.tools.common.utils.ThreadPools;
 import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
 import hudson.FilePath;
 import hudson.model.*;
@@ -66,6 +67,8 @@ import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
 import org.eclipse.jgit.util.io.DisabledOutputStream;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
@@ -73,6 +76,11 @@ import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Created by gullery on 31/03/2015.
@@ -82,6 +90,10 @@ class GitSCMProcessor implements SCMProcessor {
 	private static final Logger logger = SDKBasedLoggerProvider.getLogger(GitSCMProcessor.class);
 	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
 	private static final String MASTER = "refs/remotes/origin/master";
+	// budget of the line enricher on the agent, files beyond it get no blame data
+	private static final int LINE_ENRICHER_THREADS = Integer.getInteger(GitSCMProcessor.class.getName() + ".lineEnricherThreads", 4);
+	private static final int MAX_BLAME_FILES = Integer.getInteger(GitSCMProcessor.class.getName() + ".maxBlameFiles", 2000);
+	private static final long LINE_ENRICHER_TIMEOUT_SECONDS = Long.getLong(GitSCMProcessor.class.getName() + ".lineEnricherTimeoutSeconds", 600);
 
 	@Override
 	public SCMData getSCMData(AbstractBuild build, SCM scm) {
@@ -347,17 +359,23 @@ class GitSCMProcessor implements SCMProcessor {
 	}
 
 	/*line enricher running on the same jenkins node that the job is running in it*/
-	private static final class LineEnricherCallable extends MasterToSlaveFileCallable<SCMData> {
+	static final class LineEnricherCallable extends MasterToSlaveFileCallable<SCMData> {
 		private final String checkoutDir;
 		private final SCMData scmData;
+		private final int threads;
+		private final int maxBlameFiles;
+		private final long timeoutMillis;
 
-		private LineEnricherCallable(String checkoutDir, SCMData scmData) {
+		LineEnricherCallable(String checkoutDir, SCMData scmData) {
 			this.checkoutDir = checkoutDir;
 			this.scmData = scmData;
+			this.threads = Math.max(1, LINE_ENRICHER_THREADS);
+			this.maxBlameFiles = MAX_BLAME_FILES;
+			this.timeoutMillis = TimeUnit.SECONDS.toMillis(LINE_ENRICHER_TIMEOUT_SECONDS);
 		}
 
 		@Override
-		public SCMData invoke(File rootDir, VirtualChannel channel) throws IOException {
+		public SCMData invoke(File rootDir, VirtualChannel channel) throws IOException, InterruptedException {
 			File repoDir = new File(rootDir, checkoutDir + File.separator + ".git");
 			try (Git git = Git.open(repoDir);
 			     Repository repo = git.getRepository()) {
@@ -365,62 +383,213 @@ class GitSCMProcessor implements SCMProcessor {
 					return null;
 				}
 
-				try (RevWalk rw = new RevWalk(repo);
-				     DiffFormatter df = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
-					df.setDiffComparator(RawTextComparator.DEFAULT);
-					df.setRepository(repo);
-					df.setDetectRenames(true);
-
+				// blame and diff of each file / commit are independent, the repository object database is shared by the workers
+				long deadline = System.currentTimeMillis() + timeoutMillis;
+				ExecutorService executor = ThreadPools.newFixedThreadPool(threads, "Octane line enricher");
+				try {
+					List<Future<List<FileDiff>>> diffs = new ArrayList<>();
+					for (SCMCommit curCommit : scmData.getCommits()) {
+						diffs.add(executor.submit(() -> getFileDiffs(repo, curCommit.getRevId())));
+					}
 					//add blame data to scm data
-					Set<String> committedFiles = getAddedOrEditedFiles(scmData);
-					List<SCMFileBlame> fileBlameList = getBlameData(repo, committedFiles);
+					List<Future<SCMFileBlame>> blames = submitBlames(executor, repo, repoDir, getAddedOrEditedFiles(scmData), maxBlameFiles);
+
+					int skipped = 0;
+					Failures failures = new Failures();
+					List<SCMFileBlame> fileBlameList = new ArrayList<>();
+					for (Future<SCMFileBlame> blame : blames) {
+						SCMFileBlame fileBlame = getResult(blame, deadline, failures);
+						if (fileBlame != null) {
+							fileBlameList.add(fileBlame);
+						} else if (blame.isCancelled()) {
+							skipped++;
+						}
+					}
 					scmData.setFileBlameList(fileBlameList);
 
+					Iterator<Future<List<FileDiff>>> diff = diffs.iterator();
 					for (SCMCommit curCommit : scmData.getCommits()) {
-						Map<String, SCMChange> fileChanges = new HashMap<>();
-						curCommit.getChanges().forEach(change -> fileChanges.put(change.getFile(), change));
-						RevCommit commit = rw.parseCommit(repo.resolve(curCommit.getRevId())); // Any ref will work here (HEAD, a sha1, tag, branch)
-						RevCommit parent = rw.parseCommit(commit.getParent(0).getId());
-
-						List<DiffEntry> diffs = df.scan(parent.getTree(), commit.getTree());
-						// FOR EACH FILE
-						for (DiffEntry diff : diffs) { // each file change will be in seperate diff
-							EditList fileEdits = df.toFileHeader(diff).toEditList();
-							switch (diff.getChangeType()) {
-								case ADD:
-									// old path == null, need to use new path
-									handleAddLinesDiff(fileEdits, fileChanges.get(diff.getNewPath()));
-									break;
-								case COPY:
-									// need to validate this type
-									handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
-									break;
-								case DELETE:
-									// new path == null, need to use old path
-									handleDeleteLinesDiff(fileEdits, fileChanges.get(diff.getOldPath()));
-									break;
-								case MODIFY:
-									handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
-									break;
-								case RENAME:
-									// enrich delete event with 'rename to' data
-									SCMChange deletedChange = fileChanges.get(diff.getOldPath());
-									SCMChange newRenamedFile = fileChanges.get(diff.getNewPath());
-									deletedChange.setRenamedToFile(newRenamedFile.getFile());
-									// handle changes
-									handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
-									break;
-								default:
-									break;
-							}
+						Future<List<FileDiff>> future = diff.next();
+						List<FileDiff> fileDiffs = getResult(future, deadline, failures);
+						if (fileDiffs != null) {
+							applyFileDiffs(curCommit, fileDiffs);
+						} else if (future.isCancelled()) {
+							skipped++;
 						}
 					}
+					if (skipped > 0) {
+						logger.warn("Line enricher: time budget of " + TimeUnit.MILLISECONDS.toSeconds(timeoutMillis) + " seconds exceeded, " + skipped + " files/commits were not enriched");
+					}
+					if (failures.count > 0) {
+						logger.error("Line enricher: failed to get blame or diff data from git for " + failures.count + " files/commits, first failure:", failures.first);
+					}
 					return scmData;
+				} finally {
+					executor.shutdownNow();
 				}
 			}
 		}
 	}
 
+	/**
+	 * Blame of a file at HEAD is taken from the agent's cache as long as the file content did not change
+	 */
+	private static List<Future<SCMFileBlame>> submitBlames(ExecutorService executor, Repository repo, File repoDir, Set<String> files, int maxBlameFiles) throws IOException {
+		List<Future<SCMFileBlame>> ret = new ArrayList<>();
+		ObjectId commitID = repo.resolve(Constants.HEAD);
+		if (commitID == null || files.isEmpty()) {
+			return ret;
+		}
+
+		List<String> filesToBlame = new ArrayList<>(files);
+		Collections.sort(filesToBlame);
+		if (filesToBlame.size() > maxBlameFiles) {
+			logger.warn("Line enricher: " + filesToBlame.size() + " files were changed, blame data is collected for the first " + maxBlameFiles + " only");
+			filesToBlame = filesToBlame.subList(0, maxBlameFiles);
+		}
+
+		Map<String, ObjectId> blobIds = getBlobIds(repo, commitID, filesToBlame);
+		GitBlameCache cache = GitBlameCache.forRepository(repoDir);
+		for (String filePath : filesToBlame) {
+			ObjectId blobId = blobIds.get(filePath);
+			if (blobId == null) {
+				// not in HEAD, nothing to blame
+				continue;
+			}
+			ret.add(executor.submit(() -> getBlameData(repo, commitID, filePath, blobId, cache)));
+		}
+		return ret;
+	}
+
+	private static Map<String, ObjectId> getBlobIds(Repository repo, ObjectId commitID, Collection<String> files) throws IOException {
+		Map<String, ObjectId> ret = new HashMap<>();
+		try (RevWalk rw = new RevWalk(repo);
+		     TreeWalk tw = new TreeWalk(repo)) {
+			tw.addTree(rw.parseCommit(commitID).getTree());
+			tw.setRecursive(true);
+			tw.setFilter(PathFilterGroup.createFromStrings(files));
+			while (tw.next()) {
+				ret.put(tw.getPathString(), tw.getObjectId(0));
+			}
+		}
+		return ret;
+	}
+
+	private static SCMFileBlame getBlameData(Repository repo, ObjectId commitID, String filePath, ObjectId blobId, GitBlameCache cache) throws GitAPIException {
+		RevisionsMap revisionsMap = cache.get(filePath, blobId);
+		if (revisionsMap == null) {
+			BlameCommand blamer = new BlameCommand(repo);
+			blamer.setStartCommit(commitID);
+			blamer.setFilePath(filePath);
+			BlameResult blameResult = blamer.call();
+			if (blameResult == null) {
+				return null;
+			}
+			RawText rawText = blameResult.getResultContents();
+			int fileSize = rawText.size();
+
+			revisionsMap = new RevisionsMap();
+
+			if (fileSize > 0) {
+				String startRangeRevision = blameResult.getSourceCommit(0).getName();
+				int startRange = 1;
+				for (int i = 1; i < fileSize; i++) {
+					String currentRevision = blameResult.getSourceCommit(i).getName();
+					if (!currentRevision.equals(startRangeRevision)) {
+						LineRange range = new LineRange(startRange, i);//line numbers starting from 1 not from 0.
+						revisionsMap.addRangeToRevision(startRangeRevision, range);
+						startRange = i + 1;
+						startRangeRevision = currentRevision;
+					}
+				}
+			}
+			cache.put(filePath, blobId, revisionsMap);
+		}
+		return new SCMFileBlameImpl(filePath, revisionsMap);
+	}
+
+	private static List<FileDiff> getFileDiffs(Repository repo, String revId) throws IOException {
+		try (RevWalk rw = new RevWalk(repo);
+		     DiffFormatter df = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+			df.setDiffComparator(RawTextComparator.DEFAULT);
+			df.setRepository(repo);
+			df.setDetectRenames(true);
+
+			RevCommit commit = rw.parseCommit(repo.resolve(revId)); // Any ref will work here (HEAD, a sha1, tag, branch)
+			RevCommit parent = rw.parseCommit(commit.getParent(0).getId());
+
+			List<FileDiff> ret = new ArrayList<>();
+			// each file change will be in seperate diff
+			for (DiffEntry diff : df.scan(parent.getTree(), commit.getTree())) {
+				ret.add(new FileDiff(diff, df.toFileHeader(diff).toEditList()));
+			}
+			return ret;
+		}
+	}
+
+	private static void applyFileDiffs(SCMCommit curCommit, List<FileDiff> fileDiffs) {
+		Map<String, SCMChange> fileChanges = new HashMap<>();
+		curCommit.getChanges().forEach(change -> fileChanges.put(change.getFile(), change));
+		// FOR EACH FILE
+		for (FileDiff fileDiff : fileDiffs) {
+			DiffEntry diff = fileDiff.diff;
+			EditList fileEdits = fileDiff.edits;
+			switch (diff.getChangeType()) {
+				case ADD:
+					// old path == null, need to use new path
+					handleAddLinesDiff(fileEdits, fileChanges.get(diff.getNewPath()));
+					break;
+				case COPY:
+					// need to validate this type
+					handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
+					break;
+				case DELETE:
+					// new path == null, need to use old path
+					handleDeleteLinesDiff(fileEdits, fileChanges.get(diff.getOldPath()));
+					break;
+				case MODIFY:
+					handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
+					break;
+				case RENAME:
+					// enrich delete event with 'rename to' data
+					SCMChange deletedChange = fileChanges.get(diff.getOldPath());
+					SCMChange newRenamedFile = fileChanges.get(diff.getNewPath());
+					deletedChange.setRenamedToFile(newRenamedFile.getFile());
+					// handle changes
+					handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	/**
+	 * @return null if the task failed (then it is added to the failures) or did not complete within the time budget (then it is cancelled)
+	 */
+	private static <T> T getResult(Future<T> future, long deadline, Failures failures) throws InterruptedException {
+		try {
+			return future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+		} catch (ExecutionException e) {
+			failures.add(e.getCause());
+		}
+		return null;
+	}
+
+	//  failed blames and diffs of a build, logged once for the build
+	private static final class Failures {
+		private int count;
+		private Throwable first;
+
+		private void add(Throwable failure) {
+			if (count++ == 0) {
+				first = failure;
+			}
+		}
+	}
+
 	private static Set<String> getAddedOrEditedFiles(SCMData scmData) {
 		Set<String> filesCommittedInPPR = new HashSet<>();
 		for (SCMCommit curCommit : scmData.getCommits()) {
@@ -429,45 +598,14 @@ class GitSCMProcessor implements SCMProcessor {
 		return filesCommittedInPPR;
 	}
 
-	private static List<SCMFileBlame> getBlameData(Repository repo, Set<String> files) {
-		BlameCommand blamer = new BlameCommand(repo);
-		List<SCMFileBlame> fileBlameList = new ArrayList<>();
-		ObjectId commitID;
-		try {
-			commitID = repo.resolve(Constants.HEAD);
-			for (String filePath : files) {
-				blamer.setStartCommit(commitID);
-				blamer.setFilePath(filePath);
-				BlameResult blameResult = blamer.call();
-				if (blameResult == null) {
-					continue;
-				}
-				RawText rawText = blameResult.getResultContents();
-				int fileSize = rawText.size();
-
-				RevisionsMap revisionsMap = new RevisionsMap();
-
-				if (fileSize > 0) {
-					String startRangeRevision = blameResult.getSourceCommit(0).getName();
-					int startRange = 1;
-					for (int i = 1; i < fileSize; i++) {
-						String currentRevision = blameResult.getSourceCommit(i).getName();
-						if (!currentRevision.equals(startRangeRevision)) {
-							LineRange range = new LineRange(startRange, i);//line numbers starting from 1 not from 0.
-							revisionsMap.addRangeToRevision(startRangeRevision, range);
-							startRange = i + 1;
-							startRangeRevision = currentRevision;
-						}
-					}
-				}
-				fileBlameList.add(new SCMFileBlameImpl(filePath, revisionsMap));
-			}
-		} catch (IOException e) {
-			logger.error("failed to resolve repo head", e);
-		} catch (GitAPIException e) {
-			logger.error("failed to get blame result from git", e);
+	private static final class FileDiff {
+		private final DiffEntry diff;
+		private final EditList edits;
+
+		private FileDiff(DiffEntry diff, EditList edits) {
+			this.diff = diff;
+			this.edits = edits;
 		}
-		return fileBlameList;
 	}
 
 	private static void handleModifyDiff(EditList fileEdits, SCMChange scmChange) {
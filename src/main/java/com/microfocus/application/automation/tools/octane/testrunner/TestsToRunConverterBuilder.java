@@ -34,6 +34,7 @@ import com.hp.octane.integrations.executor.TestsToRunFramework;
 import com.hp.octane.integrations.executor.converters.MbtTest;
 import com.hp.octane.integrations.executor.converters.MfUftConverter;
 import com.hp.octane.integrations.utils.SdkStringUtils;
+import com.microfocus.application.automation.tools.AgentToolsCache;
 import com.microfocus.application.automation.tools.AlmToolsUtils;
 import com.microfocus.application.automation.tools.model.TestsFramework;
 import com.microfocus.application.automation.tools.octane.configuration.ConfigurationValidator;
@@ -242,13 +243,9 @@ public class TestsToRunConverterBuilder extends Builder implements SimpleBuildSt
             propsFileName.copyFrom(propsStream);
             printToConsole(listener, "MBT props file saved to " + propsFileName.getRemote());
 
-            // Copy the script to the project workspace
-            if (!cmdLineExe.exists()) {
-                cmdLineExe.copyFrom(cmdExeUrl);
-                printToConsole(listener, "HPToolLauncher copied to " + cmdLineExe.getRemote());
-            } else {
-                printToConsole(listener, "HPToolLauncher already exist in " + cmdLineExe.getRemote());
-            }
+            // Copy the script to the project workspace, an existing copy is replaced if it is not the one of this plugin version
+            AgentToolsCache.install(cmdExeUrl, cmdLineExe);
+            printToConsole(listener, "HPToolLauncher installed in " + cmdLineExe.getRemote());
 
         } catch (IOException | InterruptedException e) {
             build.setResult(Result.FAILURE);
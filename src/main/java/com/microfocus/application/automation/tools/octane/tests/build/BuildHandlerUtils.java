@@ -104,17 +104,24 @@ public class BuildHandlerUtils {
 		if (run instanceof WorkflowRun) {
 			FlowExecution fe = ((WorkflowRun) run).getExecution();
 			if (fe != null) {
-				FlowGraphWalker w = new FlowGraphWalker(fe);
-				for (FlowNode n : w) {
-					WorkspaceAction action = n.getAction(WorkspaceAction.class);
-					if (action != null) {
-						FilePath workspace = action.getWorkspace();
-						if (workspace == null) {
-							workspace = handleWorkspaceActionWithoutWorkspace(action);
+				WorkspaceAction action = lookupIndexedWorkspaceAction(run, fe);
+				if (action == null) {
+					//  runs that predate the index - walk the flow graph
+					FlowGraphWalker w = new FlowGraphWalker(fe);
+					for (FlowNode n : w) {
+						action = n.getAction(WorkspaceAction.class);
+						if (action != null) {
+							break;
 						}
-						return workspace;
 					}
 				}
+				if (action != null) {
+					FilePath workspace = action.getWorkspace();
+					if (workspace == null) {
+						workspace = handleWorkspaceActionWithoutWorkspace(action);
+					}
+					return workspace;
+				}
 			}
 		}
 
@@ -122,6 +129,60 @@ public class BuildHandlerUtils {
 		return null;
 	}
 
+	/**
+	 * records the flow node that allocated a workspace, if the new head (or its parent) is such node.
+	 * the run is saved with each recorded node, so that the index is complete after a restart of Jenkins
+	 */
+	public static void indexWorkspaceNode(FlowNode flowNode) {
+		FlowNode workspaceNode = flowNode.getAction(WorkspaceAction.class) != null ? flowNode : null;
+		if (workspaceNode == null) {
+			for (FlowNode parent : flowNode.getParents()) {
+				if (parent.getAction(WorkspaceAction.class) != null) {
+					workspaceNode = parent;
+					break;
+				}
+			}
+		}
+		if (workspaceNode != null) {
+			WorkflowRun run = extractParentRun(workspaceNode);
+			synchronized (run) {
+				WorkspaceNodesAction action = run.getAction(WorkspaceNodesAction.class);
+				if (action == null) {
+					action = new WorkspaceNodesAction();
+					run.addAction(action);
+				}
+				if (action.addFlowNodeId(workspaceNode.getId())) {
+					try {
+						run.save();
+					} catch (IOException ioe) {
+						logger.warn("failed to save the workspace nodes of " + run + " : " + ioe.getMessage());
+					}
+				}
+			}
+		}
+	}
+
+	//  the latest allocated workspace is the one found first when walking the graph from its heads
+	static WorkspaceAction lookupIndexedWorkspaceAction(Run<?, ?> run, FlowExecution fe) {
+		WorkspaceNodesAction index = run.getAction(WorkspaceNodesAction.class);
+		if (index == null) {
+			return null;
+		}
+		List<String> flowNodeIds = index.getFlowNodeIds();
+		for (int i = flowNodeIds.size() - 1; i >= 0; i--) {
+			try {
+				FlowNode node = fe.getNode(flowNodeIds.get(i));
+				WorkspaceAction action = node != null ? node.getAction(WorkspaceAction.class) : null;
+				if (action != null) {
+					return action;
+				}
+			} catch (IOException ioe) {
+				logger.warn("failed to load flow node " + flowNodeIds.get(i) + " of " + run + " : " + ioe.getMessage());
+			}
+		}
+		return null;
+	}
+
 	private static FilePath handleWorkspaceActionWithoutWorkspace(WorkspaceAction action) {
 		logger.error("Found WorkspaceAction without workspace");
 		logger.warn("Node getPath = " + action.getPath());
@@ -0,0 +1,315 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.build;
+
+import hudson.FilePath;
+import hudson.model.AbstractBuild;
+import hudson.model.Run;
+import hudson.remoting.VirtualChannel;
+import hudson.tasks.junit.JUnitResultArchiver;
+import jenkins.MasterToSlaveFileCallable;
+import org.apache.commons.lang.StringUtils;
+import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.types.selectors.SelectorUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * Result files in the workspace of a build, matched against the result file patterns of all the Octane publishers
+ * and test extensions of the build in a single walk of the workspace on the agent.
+ * Publishers and extensions that run later in the same build look up their pattern instead of scanning the workspace again.
+ * The walk records the modification time of the folders it entered and of the files it matched:
+ * before an index is used again these are checked on the agent, and the workspace is walked again if any changed,
+ * since a file created, deleted or renamed in between changes the modification time of its folder.
+ */
+public final class WorkspaceFilesIndex {
+	private static final int CACHE_SIZE = Integer.getInteger(WorkspaceFilesIndex.class.getName() + ".cacheSize", 100);
+	private static final Map<String, WorkspaceFilesIndex> indexes = new LinkedHashMap<String, WorkspaceFilesIndex>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, WorkspaceFilesIndex> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private final FilePath workspace;
+	private final Set<String> registeredPatterns;
+	private final Map<String, String[]> files = new HashMap<>();
+	private final Map<String, Long> fileSizes = new HashMap<>();
+	private final Map<String, Long> modificationTimes = new HashMap<>();
+	// the workspace may have changed since the index was last checked
+	private boolean checked;
+
+	/**
+	 * Publisher that looks up its result files in the index, its patterns are indexed with the ones of the other publishers
+	 */
+	public interface PatternsProvider {
+		Collection<String> getResultFilePatterns();
+	}
+
+	private WorkspaceFilesIndex(FilePath workspace, Set<String> registeredPatterns) {
+		this.workspace = workspace;
+		this.registeredPatterns = registeredPatterns;
+	}
+
+	/**
+	 * @return index of the workspace of the build; the caller is checked against the current content of the workspace on its first lookup
+	 */
+	public static WorkspaceFilesIndex get(Run<?, ?> run, FilePath workspace) {
+		String key = run.getExternalizableId() + "@" + workspace.getRemote();
+		WorkspaceFilesIndex index;
+		synchronized (indexes) {
+			index = indexes.get(key);
+			if (index == null || !index.workspace.equals(workspace)) {
+				index = new WorkspaceFilesIndex(workspace, getRegisteredPatterns(run));
+				indexes.put(key, index);
+			}
+		}
+		synchronized (index) {
+			index.checked = false;
+		}
+		return index;
+	}
+
+	/**
+	 * Patterns that are not known from the job configuration (pipelines), to be indexed in the same walk
+	 */
+	public synchronized void register(Collection<String> patterns) {
+		for (String pattern : patterns) {
+			if (StringUtils.isNotBlank(pattern)) {
+				registeredPatterns.add(pattern);
+			}
+		}
+	}
+
+	/**
+	 * @param pattern ant pattern(s), comma separated, as for {@link hudson.Util#createFileSet(File, String)}
+	 * @return paths relative to the workspace of the matching files
+	 */
+	public synchronized String[] getFiles(String pattern) throws IOException, InterruptedException {
+		if (!checked && !files.isEmpty() && !workspace.act(new CheckCallable(modificationTimes))) {
+			files.clear();
+		}
+		checked = true;
+		String[] ret = files.get(pattern);
+		if (ret == null) {
+			// the patterns found so far are walked again too, so that all of them stay consistent with the recorded modification times
+			Set<String> patterns = new LinkedHashSet<>(registeredPatterns);
+			patterns.addAll(files.keySet());
+			patterns.add(pattern);
+			IndexResult result = workspace.act(new IndexCallable(patterns));
+			files.clear();
+			files.putAll(result.files);
+			fileSizes.clear();
+			fileSizes.putAll(result.fileSizes);
+			modificationTimes.clear();
+			modificationTimes.putAll(result.modificationTimes);
+			ret = files.get(pattern);
+		}
+		return ret.clone();
+	}
+
+	/**
+	 * @return size of a file returned by {@link #getFiles(String)}, -1 for other files
+	 */
+	public synchronized long getFileSize(String file) {
+		Long size = fileSizes.get(file);
+		return size == null ? -1 : size;
+	}
+
+	private static Set<String> getRegisteredPatterns(Run<?, ?> run) {
+		Set<String> ret = new LinkedHashSet<>();
+		if (run instanceof AbstractBuild) {
+			for (Object publisher : ((AbstractBuild<?, ?>) run).getProject().getPublishersList()) {
+				if (publisher instanceof PatternsProvider) {
+					ret.addAll(((PatternsProvider) publisher).getResultFilePatterns());
+				} else if ("hudson.tasks.junit.JUnitResultArchiver".equals(publisher.getClass().getName())) {
+					// used to detect TestNG results
+					ret.add(((JUnitResultArchiver) publisher).getTestResults());
+				}
+			}
+		}
+		ret.removeIf(StringUtils::isBlank);
+		return ret;
+	}
+
+	private static long getModificationTime(Path path) {
+		try {
+			return Files.getLastModifiedTime(path).toMillis();
+		} catch (IOException e) {
+			// deleted, or never existed
+			return -1;
+		}
+	}
+
+	static final class IndexResult implements Serializable {
+		private static final long serialVersionUID = 1L;
+		final HashMap<String, String[]> files = new HashMap<>();
+		final HashMap<String, Long> fileSizes = new HashMap<>();
+		// of the root, the folders entered and the files matched, relative to the workspace
+		final HashMap<String, Long> modificationTimes = new HashMap<>();
+	}
+
+	/**
+	 * Tells whether the folders and files recorded by the last walk are unchanged
+	 */
+	static final class CheckCallable extends MasterToSlaveFileCallable<Boolean> {
+		private static final long serialVersionUID = 1L;
+		private final HashMap<String, Long> modificationTimes;
+
+		CheckCallable(Map<String, Long> modificationTimes) {
+			this.modificationTimes = new HashMap<>(modificationTimes);
+		}
+
+		@Override
+		public Boolean invoke(File rootDir, VirtualChannel channel) {
+			Path root = rootDir.toPath();
+			for (Map.Entry<String, Long> modificationTime : modificationTimes.entrySet()) {
+				if (getModificationTime(root.resolve(modificationTime.getKey())) != modificationTime.getValue()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Matches the files the same way as an ant DirectoryScanner created by {@link hudson.Util#createFileSet(File, String)},
+	 * skipping the folders that can not hold any matching file
+	 */
+	static final class IndexCallable extends MasterToSlaveFileCallable<IndexResult> {
+		private static final long serialVersionUID = 1L;
+		private final List<String> patterns;
+
+		IndexCallable(Collection<String> patterns) {
+			this.patterns = new ArrayList<>(patterns);
+		}
+
+		@Override
+		public IndexResult invoke(File rootDir, VirtualChannel channel) throws IOException {
+			Map<String, List<String>> includes = new LinkedHashMap<>();
+			Map<String, List<String>> matches = new HashMap<>();
+			for (String pattern : patterns) {
+				List<String> patternIncludes = new ArrayList<>();
+				StringTokenizer tokens = new StringTokenizer(pattern, ",");
+				while (tokens.hasMoreTokens()) {
+					patternIncludes.add(normalize(tokens.nextToken().trim()));
+				}
+				includes.put(pattern, patternIncludes);
+				matches.put(pattern, new ArrayList<>());
+			}
+			List<String> excludes = new ArrayList<>();
+			for (String exclude : DirectoryScanner.getDefaultExcludes()) {
+				excludes.add(normalize(exclude));
+			}
+
+			IndexResult ret = new IndexResult();
+			Path root = rootDir.toPath();
+			ret.modificationTimes.put("", getModificationTime(root));
+			if (Files.isDirectory(root)) {
+				Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+					@Override
+					public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+						if (dir.equals(root)) {
+							return FileVisitResult.CONTINUE;
+						}
+						String relativePath = root.relativize(dir).toString();
+						if (matchesAny(excludes, relativePath) || !couldHoldIncluded(includes.values(), relativePath)) {
+							return FileVisitResult.SKIP_SUBTREE;
+						}
+						ret.modificationTimes.put(relativePath, attrs.lastModifiedTime().toMillis());
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+						String relativePath = root.relativize(file).toString();
+						if (matchesAny(excludes, relativePath)) {
+							return FileVisitResult.CONTINUE;
+						}
+						for (Map.Entry<String, List<String>> pattern : includes.entrySet()) {
+							if (matchesAny(pattern.getValue(), relativePath)) {
+								matches.get(pattern.getKey()).add(relativePath);
+								ret.fileSizes.put(relativePath, attrs.size());
+								ret.modificationTimes.put(relativePath, attrs.lastModifiedTime().toMillis());
+							}
+						}
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFileFailed(Path file, IOException exc) {
+						// unreadable file or symbolic link loop
+						return FileVisitResult.CONTINUE;
+					}
+				});
+			}
+			for (Map.Entry<String, List<String>> match : matches.entrySet()) {
+				ret.files.put(match.getKey(), match.getValue().toArray(new String[0]));
+			}
+			return ret;
+		}
+
+		private static String normalize(String pattern) {
+			String ret = pattern.replace('/', File.separatorChar).replace('\\', File.separatorChar);
+			if (ret.endsWith(File.separator)) {
+				ret += "**";
+			}
+			return ret;
+		}
+
+		private static boolean matchesAny(Collection<String> patterns, String path) {
+			for (String pattern : patterns) {
+				if (SelectorUtils.matchPath(pattern, path, true)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static boolean couldHoldIncluded(Collection<List<String>> includes, String dir) {
+			for (List<String> patternIncludes : includes) {
+				for (String include : patternIncludes) {
+					if (SelectorUtils.matchPatternStart(include, dir, true)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -29,6 +29,7 @@
 package com.microfocus.application.automation.tools.octane.tests.detection;
 
 import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
+import com.microfocus.application.automation.tools.octane.tests.build.WorkspaceFilesIndex;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Util;
@@ -61,6 +62,7 @@ public class TestNGExtension extends ResultFieldsDetectionExtension {
 			"target/surefire-reports/" + TESTNG_RESULT_FILE,
 			"target/failsafe-reports/" + TESTNG_RESULT_FILE
 	);
+	private static final String SUPPORTED_REPORT_FILES_PATTERN = String.join(",", supportedReportFileLocations);
 
 	@Override
 	public ResultFields detect(final Run build) throws IOException, InterruptedException {
@@ -73,7 +75,10 @@ public class TestNGExtension extends ResultFieldsDetectionExtension {
 			if ("hudson.tasks.junit.JUnitResultArchiver".equals(publisher.getClass().getName())) {
 				JUnitResultArchiver junit = (JUnitResultArchiver) publisher;
 				String testResultsPattern = junit.getTestResults();
-				if (BuildHandlerUtils.getWorkspace(build).act(new TestNgResultsFileFinder(testResultsPattern))) {
+				FilePath workspace = BuildHandlerUtils.getWorkspace(build);
+				//the junit result files are indexed with the result files of the other publishers
+				String[] includedFiles = WorkspaceFilesIndex.get(build, workspace).getFiles(testResultsPattern);
+				if (includedFiles.length > 0 && workspace.act(new TestNgResultsFileFinder(includedFiles))) {
 					return new ResultFields(TESTNG, null, null);
 				}
 			}
@@ -100,19 +105,27 @@ public class TestNGExtension extends ResultFieldsDetectionExtension {
 	boolean findTestNgResultsFile(MavenBuild mavenBuild) throws IOException, InterruptedException {
 		AbstractTestResultAction action = mavenBuild.getAction(AbstractTestResultAction.class);
 		//try finding only if the maven build includes tests
-		return action != null && mavenBuild.getWorkspace().act(new TestNgResultsFileMavenFinder());
+		return action != null && WorkspaceFilesIndex.get(mavenBuild, mavenBuild.getWorkspace()).getFiles(SUPPORTED_REPORT_FILES_PATTERN).length > 0;
 	}
 
 	public static class TestNgResultsFileFinder implements FilePath.FileCallable<Boolean> {
 
 		private String testResultsPattern;
+		private String[] includedFiles;
 
 		public TestNgResultsFileFinder(String testResultsPattern) {
 			this.testResultsPattern = testResultsPattern;
 		}
 
+		public TestNgResultsFileFinder(String[] includedFiles) {
+			this.includedFiles = includedFiles;
+		}
+
 		@Override
 		public Boolean invoke(File workspace, VirtualChannel virtualChannel) throws IOException, InterruptedException {
+			if (includedFiles != null) {
+				return findTestNgResultsFile(workspace, includedFiles);
+			}
 			FileSet fs = Util.createFileSet(workspace, testResultsPattern);
 			DirectoryScanner ds = fs.getDirectoryScanner();
 			String[] includedFiles = ds.getIncludedFiles();
@@ -145,23 +158,4 @@ public class TestNGExtension extends ResultFieldsDetectionExtension {
 			return false;
 		}
 	}
-
-	public static class TestNgResultsFileMavenFinder implements FilePath.FileCallable<Boolean> {
-
-		@Override
-		public Boolean invoke(File workspace, VirtualChannel virtualChannel) {
-			for (String locationInWorkspace : supportedReportFileLocations) {
-				File reportFile = new File(workspace, locationInWorkspace);
-				if (reportFile.exists()) {
-					return true;
-				}
-			}
-			return false;
-		}
-
-		@Override
-		public void checkRoles(RoleChecker roleChecker) throws SecurityException {
-			roleChecker.check(this, Role.UNKNOWN);
-		}
-	}
 }
\ No newline at end of file
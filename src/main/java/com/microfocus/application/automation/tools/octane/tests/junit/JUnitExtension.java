@@ -29,6 +29,7 @@
 package com.microfocus.application.automation.tools.octane.tests.junit;
 
 import com.google.inject.Inject;
+import com.hp.octane.integrations.testresults.XmlWritableTestResult;
 import com.microfocus.application.automation.tools.octane.actions.cucumber.CucumberTestResultsAction;
 import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
 import com.microfocus.application.automation.tools.octane.executor.CheckOutSubDirEnvContributor;
@@ -41,7 +42,6 @@ import com.microfocus.application.automation.tools.octane.tests.build.BuildHandl
 import com.microfocus.application.automation.tools.octane.tests.detection.MFToolsDetectionExtension;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFields;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFieldsDetectionService;
-import com.microfocus.application.automation.tools.octane.tests.impl.ObjectStreamIterator;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.maven.MavenBuild;
@@ -75,6 +75,7 @@ public class JUnitExtension extends OctaneTestsExtension {
 	private static Logger logger = SDKBasedLoggerProvider.getLogger(JUnitExtension.class);
 
 	private static final String JUNIT_RESULT_XML = "junitResult.xml"; // NON-NLS
+	// results are no longer staged in a temp file, the prefix is kept to clean up files left by earlier versions
 	public static final String TEMP_TEST_RESULTS_FILE_NAME_PREFIX = "GetJUnitTestResults";
 	private static final String TEST_RESULT_NAME_REGEX_PATTERN_PARAMETER_NAME = "octane_test_result_name_run_regex_pattern";
 
@@ -112,15 +113,11 @@ public class JUnitExtension extends OctaneTestsExtension {
 			if(hpRunnerType.equals(HPRunnerType.UFT) || hpRunnerType.equals(HPRunnerType.UFT_MBT)){
 				getResultsOnMaster = true;
 			}
-			FilePath filePath;
-			if (getResultsOnMaster) {
-				filePath = (new GetJUnitTestResults(run, hpRunnerType, Collections.singletonList(resultFile), false, jenkinsRootUrl)).invoke(null, null);
-			} else {
-				filePath = workspace.act(new GetJUnitTestResults(run, hpRunnerType, Collections.singletonList(resultFile), false, jenkinsRootUrl));
-			}
+			JUnitTestResults testResults = new JUnitTestResults(run, hpRunnerType, Collections.singletonList(resultFile), false, jenkinsRootUrl);
+			testResults.resolveResultFiles(getResultsOnMaster);
 
 			ResultFields detectedFields = getResultFields(run);
-			return new TestResultContainer(new ObjectStreamIterator<>(filePath), detectedFields);
+			return new TestResultContainer(testResults, detectedFields);
 		} else {
 			//avoid java.lang.NoClassDefFoundError when maven plugin is not present
 			if ("hudson.maven.MavenModuleSetBuild".equals(run.getClass().getName())) {
@@ -140,8 +137,9 @@ public class JUnitExtension extends OctaneTestsExtension {
 				}
 				if (!resultFiles.isEmpty()) {
 					ResultFields detectedFields = getResultFields(run);
-					FilePath filePath = BuildHandlerUtils.getWorkspace(run).act(new GetJUnitTestResults(run, HPRunnerType.NONE, resultFiles, false, jenkinsRootUrl));
-					return new TestResultContainer(new ObjectStreamIterator<>(filePath), detectedFields);
+					JUnitTestResults testResults = new JUnitTestResults(run, HPRunnerType.NONE, resultFiles, false, jenkinsRootUrl);
+					testResults.resolveResultFiles(false);
+					return new TestResultContainer(testResults, detectedFields);
 				}
 			}
 			logger.debug("No JUnit result report found");
@@ -153,14 +151,17 @@ public class JUnitExtension extends OctaneTestsExtension {
 		return resultFieldsDetectionService.getDetectedFields(build);
 	}
 
-	private static class GetJUnitTestResults implements FilePath.FileCallable<FilePath> {
+	/**
+	 * Streams junitResult.xml reports from the build directory straight into test results, one report at a time.
+	 * Only the details that need the workspace are resolved on the agent, in a single call per build.
+	 */
+	private static class JUnitTestResults implements Iterator<XmlWritableTestResult> {
 
 		private final List<FilePath> reports;
 		private final String jobName;
 		private final String buildId;
 		private final String jenkinsRootUrl;
 		private final HPRunnerType hpRunnerType;
-		private FilePath filePath;
 		private List<ModuleDetection> moduleDetection;
 		private long buildStarted;
 		private FilePath workspace;
@@ -168,13 +169,15 @@ public class JUnitExtension extends OctaneTestsExtension {
 		private String sharedCheckOutDirectory;
 		private Pattern testParserRegEx;
 
-		//this class is run on master and JUnitXmlIterator is runnning on slave.
-		//this object pass some master2slave data
+		//extra runner specific data used by JUnitXmlIterator
 		private Object additionalContext;
 
-		public GetJUnitTestResults(Run<?, ?> build, HPRunnerType hpRunnerType, List<FilePath> reports, boolean stripPackageAndClass, String jenkinsRootUrl) throws IOException, InterruptedException {
+		private Map<String, ResultFileInfo> resultFiles;
+		private int nextReport;
+		private JUnitXmlIterator current;
+
+		public JUnitTestResults(Run<?, ?> build, HPRunnerType hpRunnerType, List<FilePath> reports, boolean stripPackageAndClass, String jenkinsRootUrl) throws IOException, InterruptedException {
 			this.reports = reports;
-			this.filePath = new FilePath(build.getRootDir()).createTempFile(TEMP_TEST_RESULTS_FILE_NAME_PREFIX, null);
 			this.buildStarted = build.getStartTimeInMillis();
 			this.workspace = BuildHandlerUtils.getWorkspace(build);
 			this.stripPackageAndClass = stripPackageAndClass;
@@ -240,26 +243,87 @@ public class JUnitExtension extends OctaneTestsExtension {
 
 		}
 
-		@Override
-		public FilePath invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
-			OutputStream os = filePath.write();
-			BufferedOutputStream bos = new BufferedOutputStream(os);
-			ObjectOutputStream oos = new ObjectOutputStream(bos);
+		/**
+		 * Resolves modules and report urls of all report files referenced from the reports, on the agent unless
+		 * the results are processed on master.
+		 */
+		void resolveResultFiles(boolean onMaster) throws IOException, InterruptedException {
+			Set<String> paths = new HashSet<>();
+			for (FilePath report : reports) {
+				try (InputStream in = report.read()) {
+					paths.addAll(JUnitXmlIterator.readResultFilePaths(in));
+				} catch (XMLStreamException e) {
+					throw new IOException(e);
+				}
+			}
+
+			ResolveResultFiles resolver = new ResolveResultFiles(paths, moduleDetection, hpRunnerType);
+			resultFiles = onMaster ? resolver.invoke(null, null) : workspace.act(resolver);
+		}
 
+		@Override
+		public boolean hasNext() {
 			try {
-				for (FilePath report : reports) {
-					JUnitXmlIterator iterator = new JUnitXmlIterator(report.read(), moduleDetection, workspace, sharedCheckOutDirectory, jobName, buildId, buildStarted, stripPackageAndClass, hpRunnerType, jenkinsRootUrl, additionalContext,testParserRegEx);
-					while (iterator.hasNext()) {
-						oos.writeObject(iterator.next());
+				while (current == null || !current.hasNext()) {
+					if (nextReport >= reports.size()) {
+						return false;
 					}
+					FilePath report = reports.get(nextReport++);
+					current = new JUnitXmlIterator(report.read(), resultFiles, workspace, sharedCheckOutDirectory, jobName, buildId, buildStarted, stripPackageAndClass, hpRunnerType, jenkinsRootUrl, additionalContext, testParserRegEx);
 				}
-			} catch (XMLStreamException e) {
-				throw new IOException(e);
+				return true;
+			} catch (XMLStreamException | IOException e) {
+				throw new IllegalStateException("Failed to read JUnit results", e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while reading JUnit results", e);
 			}
-			os.flush();
+		}
 
-			oos.close();
-			return filePath;
+		@Override
+		public XmlWritableTestResult next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			try {
+				return current.next();
+			} catch (XMLStreamException | IOException e) {
+				throw new IllegalStateException("Failed to read JUnit results", e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while reading JUnit results", e);
+			}
+		}
+	}
+
+	private static class ResolveResultFiles implements FilePath.FileCallable<HashMap<String, ResultFileInfo>> {
+
+		private final Set<String> paths;
+		private final List<ModuleDetection> moduleDetection;
+		private final HPRunnerType hpRunnerType;
+
+		ResolveResultFiles(Set<String> paths, List<ModuleDetection> moduleDetection, HPRunnerType hpRunnerType) {
+			this.paths = paths;
+			this.moduleDetection = moduleDetection;
+			this.hpRunnerType = hpRunnerType;
+		}
+
+		@Override
+		public HashMap<String, ResultFileInfo> invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+			HashMap<String, ResultFileInfo> result = new HashMap<>();
+			for (String path : paths) {
+				String moduleName = null;
+				for (ModuleDetection detection : moduleDetection) {
+					moduleName = detection.getModule(new FilePath(new File(path)));
+					if (moduleName != null) {
+						break;
+					}
+				}
+				String reportUrl = HPRunnerType.StormRunnerLoad.equals(hpRunnerType) ?
+						JUnitXmlIterator.tryGetStormRunnerReportURLFromJunitFile(path) : null;
+				result.put(path, new ResultFileInfo(moduleName, reportUrl));
+			}
+			return result;
 		}
 
 		@Override
@@ -41,7 +41,9 @@ import hudson.FilePath;
 import org.apache.commons.lang.StringUtils;
 import org.apache.logging.log4j.Logger;
 
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.Characters;
 import javax.xml.stream.events.EndElement;
 import javax.xml.stream.events.StartElement;
@@ -53,8 +55,11 @@ import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.text.ParseException;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -83,7 +88,7 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 	private String externalURL;
 	private String uftResultFilePath;
 	private String description;
-	private List<ModuleDetection> moduleDetection;
+	private Map<String, ResultFileInfo> resultFiles;
 	private String jenkinsRootUrl;
 	private String sharedCheckOutDirectory;
 	private Object additionalContext;
@@ -92,10 +97,10 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 	private Pattern testParserRegEx;
 	private String externalRunId;
 
-	public JUnitXmlIterator(InputStream read, List<ModuleDetection> moduleDetection, FilePath workspace, String sharedCheckOutDirectory, String jobName, String buildId, long buildStarted, boolean stripPackageAndClass, HPRunnerType hpRunnerType, String jenkinsRootUrl, Object additionalContext,Pattern testParserRegEx) throws XMLStreamException {
+	public JUnitXmlIterator(InputStream read, Map<String, ResultFileInfo> resultFiles, FilePath workspace, String sharedCheckOutDirectory, String jobName, String buildId, long buildStarted, boolean stripPackageAndClass, HPRunnerType hpRunnerType, String jenkinsRootUrl, Object additionalContext,Pattern testParserRegEx) throws XMLStreamException {
 		super(read);
 		this.stripPackageAndClass = stripPackageAndClass;
-		this.moduleDetection = moduleDetection;
+		this.resultFiles = resultFiles;
 		this.workspace = workspace;
 		this.sharedCheckOutDirectory = sharedCheckOutDirectory;
 		this.buildId = buildId;
@@ -122,19 +127,34 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 		return 0;
 	}
 
+	/**
+	 * Collects the report file paths referenced from a junitResult.xml, without building any test results.
+	 * Used to resolve the workspace dependent details of all report files in one agent call.
+	 */
+	public static Set<String> readResultFilePaths(InputStream read) throws XMLStreamException {
+		Set<String> paths = new HashSet<>();
+		XMLStreamReader reader = createXmlInputFactory().createXMLStreamReader(read);
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT && "file".equals(reader.getLocalName())) { // NON-NLS
+					paths.add(reader.getElementText());
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return paths;
+	}
+
 	@Override
 	protected void onEvent(XMLEvent event) throws XMLStreamException, IOException, InterruptedException {
 		if (event instanceof StartElement) {
 			StartElement element = (StartElement) event;
 			String localName = element.getName().getLocalPart();
 			if ("file".equals(localName)) {  // NON-NLS
-				filePath = readNextValue();
-				for (ModuleDetection detection : moduleDetection) {
-					moduleNameFromFile = moduleName = detection.getModule(new FilePath(new File(filePath)));
-					if (moduleName != null) {
-						break;
-					}
-				}
+				filePath = reader.getElementText();
+				ResultFileInfo resultFile = resultFiles.get(filePath);
+				moduleNameFromFile = moduleName = resultFile != null ? resultFile.getModuleName() : "";
 			} else if ("id".equals(localName)) {
 				id = readNextValue();
 			} else if ("case".equals(localName)) { // NON-NLS
@@ -244,7 +264,8 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 				} else if (hpRunnerType.equals(HPRunnerType.PerformanceCenter)) {
 					externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/artifact/performanceTestsReports/pcRun/Report.html";
 				} else if (hpRunnerType.equals(HPRunnerType.StormRunnerLoad)) {
-					externalURL = tryGetStormRunnerReportURLFromJunitFile(filePath);
+					ResultFileInfo resultFile = resultFiles.get(filePath);
+					externalURL = resultFile != null ? resultFile.getStormRunnerReportUrl() : "";
 					if (StringUtils.isEmpty(externalURL) && additionalContext != null && additionalContext instanceof Collection) {
 						externalURL = tryGetStormRunnerReportURLFromLog((Collection) additionalContext);
 					}
@@ -337,7 +358,7 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 		return "";
 	}
 
-	private static String tryGetStormRunnerReportURLFromJunitFile(String path) {
+	static String tryGetStormRunnerReportURLFromJunitFile(String path) {
 		try {
 			String srUrl = null;
 			File srReport = new File(path);
@@ -26,59 +26,30 @@
  * ___________________________________________________________________
  */
 
-package com.microfocus.application.automation.tools.octane.tests.impl;
 
-import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
-import hudson.FilePath;
-import org.apache.logging.log4j.Logger;
+package com.microfocus.application.automation.tools.octane.tests.junit;
 
-import java.io.BufferedInputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.io.Serializable;
 
-public class ObjectStreamIterator<E> implements Iterator<E> {
-    private static Logger logger = SDKBasedLoggerProvider.getLogger(ObjectStreamIterator.class);
-
-    private ObjectInputStream ois;
-    private E next;
+/**
+ * Workspace dependent details of one test report file referenced from junitResult.xml.
+ * Resolved on the agent in a single call for all report files of a build.
+ */
+public class ResultFileInfo implements Serializable {
 
-    public ObjectStreamIterator(FilePath filePath) throws IOException, InterruptedException {
-        this.ois = new ObjectInputStream(new BufferedInputStream(filePath.read()));
-    }
+    private final String moduleName;
+    private final String stormRunnerReportUrl;
 
-    @Override
-    public boolean hasNext() {
-        if (next != null) {
-            return true;
-        }
-        try {
-            next = (E) ois.readObject();
-            return true;
-        } catch (Throwable e) {
-            try {
-                ois.close();
-            } catch (IOException ioe) {
-                logger.error("Failed to close the stream", ioe); // NON-NLS
-            }
-            return false;
-        }
+    public ResultFileInfo(String moduleName, String stormRunnerReportUrl) {
+        this.moduleName = moduleName;
+        this.stormRunnerReportUrl = stormRunnerReportUrl;
     }
 
-    @Override
-    public E next() {
-        if (hasNext()) {
-            E value = next;
-            next = null;
-            return value;
-        } else {
-            throw new NoSuchElementException();
-        }
+    public String getModuleName() {
+        return moduleName;
     }
 
-    @Override
-    public void remove() {
-        throw new UnsupportedOperationException();
+    public String getStormRunnerReportUrl() {
+        return stormRunnerReportUrl;
     }
 }
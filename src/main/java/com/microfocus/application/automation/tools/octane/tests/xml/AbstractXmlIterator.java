@@ -98,7 +98,7 @@ public abstract class AbstractXmlIterator<E> {
         }
     }
 
-    private static XMLInputFactory createXmlInputFactory() {
+    protected static XMLInputFactory createXmlInputFactory() {
         XMLInputFactory xmlFactory = XMLInputFactory.newInstance();
         xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
         xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
@@ -35,6 +35,7 @@
 package com.microfocus.application.automation.tools.pc;
 
 import com.cloudbees.plugins.credentials.common.UsernamePasswordCredentials;
+import com.microfocus.application.automation.tools.pc.helper.AdaptivePollingInterval;
 import com.microfocus.application.automation.tools.pc.helper.DateFormatter;
 import com.microfocus.application.automation.tools.run.PcBuilder;
 import hudson.FilePath;
@@ -49,24 +50,32 @@ import java.util.*;
 
 import hudson.console.HyperlinkNote;
 import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpResponse;
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.HttpRequestBase;
 
 import com.microfocus.adm.performancecenter.plugins.common.pcentities.*;
 import com.microfocus.adm.performancecenter.plugins.common.rest.PcRestProxy;
 
 public class PcClient {
 
+    // each of waiting for the trend report to start publishing the run and to finish it
+    private static final long TREND_REPORT_TIMEOUT = 10 * 60 * 1000;
+    private static final long TREND_REPORT_MIN_POLLING_INTERVAL = 2000;
+
     private PcModel model;
     private PcRestProxy restProxy;
+    private Session session = new Session();
+    // resolved from the run when the client is created, so that logging in again never depends on another build
+    private UsernamePasswordCredentials credentials;
     private boolean loggedIn;
     private PrintStream logger;
     private DateFormatter dateFormatter = new DateFormatter("");
 
-    public PcClient(PcModel pcModel, PrintStream logger) {
+    public PcClient(PcModel pcModel, PrintStream logger, UsernamePasswordCredentials credentials, UsernamePasswordCredentials usernamePCPasswordCredentialsForProxy) {
         try {
             model = pcModel;
-            String credentialsProxyId = model.getCredentialsProxyId(true);
-            UsernamePasswordCredentials usernamePCPasswordCredentialsForProxy = PcBuilder.getCredentialsId(credentialsProxyId);
+            this.credentials = credentials;
             String proxyOutUser = (usernamePCPasswordCredentialsForProxy == null || model.getProxyOutURL(true).isEmpty()) ? "" : usernamePCPasswordCredentialsForProxy.getUsername();
             String proxyOutPassword= (usernamePCPasswordCredentialsForProxy == null || model.getProxyOutURL(true).isEmpty()) ? "" : usernamePCPasswordCredentialsForProxy.getPassword().getPlainText();
             if(model.getProxyOutURL(true) != null && !model.getProxyOutURL(true).isEmpty()) {
@@ -78,7 +87,7 @@ public class PcClient {
                         logger.println(String.format("%s - %s %s.", dateFormatter.getDate(), Messages.UsingProxyCredentialsConfiguration(), proxyOutUser));
                 }
             }
-            restProxy = new PcRestProxy(model.isHTTPSProtocol(), model.getPcServerName(true), model.isAuthenticateWithToken(), model.getAlmDomain(true), model.getAlmProject(true), model.getProxyOutURL(true),proxyOutUser,proxyOutPassword);
+            restProxy = new SessionRestProxy(session, model.isHTTPSProtocol(), model.getPcServerName(true), model.isAuthenticateWithToken(), model.getAlmDomain(true), model.getAlmProject(true), model.getProxyOutURL(true),proxyOutUser,proxyOutPassword);
             this.logger = logger;
         }catch (PcException e){
             logger.println(String.format("%s - %s", dateFormatter.getDate(), e.getMessage()));
@@ -87,26 +96,62 @@ public class PcClient {
     }
 
     public <T extends PcRestProxy> PcClient(PcModel pcModel, PrintStream logger, T proxy) {
+        this(pcModel, logger, proxy, null);
+    }
+
+    public <T extends PcRestProxy> PcClient(PcModel pcModel, PrintStream logger, T proxy, UsernamePasswordCredentials credentials) {
         model = pcModel;
         restProxy = proxy;
         this.logger = logger;
+        this.credentials = credentials;
+    }
+
+    /**
+     * @return client of the given model sharing the session of this client, to run another test on the same LRE server
+     */
+    public PcClient withModel(PcModel pcModel) {
+        PcClient client = new PcClient(pcModel, logger, restProxy, credentials);
+        client.session = session;
+        client.loggedIn = loggedIn;
+        return client;
+    }
+
+    // session of the LRE server shared by the clients of withModel: the proxy is not thread safe,
+    // so the requests of these clients are sent one at a time while holding the session
+    private static final class Session {
+        // successful logins, to log in again only once after a failure seen by several clients
+        private int logins;
+    }
+
+    // sends each request while holding the session, so that the response of a download
+    // is read without blocking the requests of the other clients of the session
+    private static final class SessionRestProxy extends PcRestProxy {
+
+        private final Session session;
+
+        private SessionRestProxy(Session session, String webProtocol, String pcServerName, boolean authenticateWithToken, String almDomain, String almProject,
+                                 String proxyOutURL, String proxyUser, String proxyPassword) throws PcException {
+            super(webProtocol, pcServerName, authenticateWithToken, almDomain, almProject, proxyOutURL, proxyUser, proxyPassword);
+            this.session = session;
+        }
+
+        @Override
+        protected HttpResponse executeRequest(HttpRequestBase request) throws PcException, ClientProtocolException, IOException {
+            synchronized (session) {
+                return super.executeRequest(request);
+            }
+        }
     }
 
     public boolean login() {
         try {
-            String credentialsId = model.getCredentialsId(true);
-            UsernamePasswordCredentials usernamePCPasswordCredentials = PcBuilder.getCredentialsId(credentialsId);
-            if(usernamePCPasswordCredentials != null) {
+            if(credentials != null) {
                 if(model.getCredentialsId().startsWith("$"))
                     logger.println(String.format("%s - %s", dateFormatter.getDate(), Messages.UsingPCCredentialsBuildParameters()));
                 else
                     logger.println(String.format("%s - %s", dateFormatter.getDate(), Messages.UsingPCCredentialsConfiguration()));
-                logger.println(String.format("%s - %s\n[LRE Server='%s://%s/loadtest/%s', %s='%s']", dateFormatter.getDate(), Messages.TryingToLogin(), model.isHTTPSProtocol(), restProxy.GetPcServer(), restProxy.GetTenant(), model.isAuthenticateWithToken() ? "ClientIdKey" : "User", usernamePCPasswordCredentials.getUsername()));
-                loggedIn = restProxy.authenticate(usernamePCPasswordCredentials.getUsername(), usernamePCPasswordCredentials.getPassword().getPlainText());
-            }
-            else {
-                logger.println(String.format("%s - %s\n[LRE Server='%s://%s/loadtest/%s', %s='%s']", dateFormatter.getDate(), Messages.TryingToLogin(), model.isHTTPSProtocol(), restProxy.GetPcServer(), restProxy.GetTenant(), model.isAuthenticateWithToken() ? "ClientIdKey" : "User", PcBuilder.usernamePCPasswordCredentials.getUsername()));
-                loggedIn = restProxy.authenticate(PcBuilder.usernamePCPasswordCredentials.getUsername(), PcBuilder.usernamePCPasswordCredentials.getPassword().getPlainText());
+                logger.println(String.format("%s - %s\n[LRE Server='%s://%s/loadtest/%s', %s='%s']", dateFormatter.getDate(), Messages.TryingToLogin(), model.isHTTPSProtocol(), restProxy.GetPcServer(), restProxy.GetTenant(), model.isAuthenticateWithToken() ? "ClientIdKey" : "User", credentials.getUsername()));
+                loggedIn = authenticate(credentials);
             }
         } catch (PcException e) {
             logger.println(String.format("%s - %s", dateFormatter.getDate(), e.getMessage()));
@@ -117,6 +162,39 @@ public class PcClient {
         return loggedIn;
     }
 
+    private boolean authenticate(UsernamePasswordCredentials credentials) throws PcException, IOException {
+        synchronized (session) {
+            boolean authenticated = restProxy.authenticate(credentials.getUsername(), credentials.getPassword().getPlainText());
+            if (authenticated)
+                session.logins++;
+            return authenticated;
+        }
+    }
+
+    /**
+     * @return number of successful logins to the session of this client, see {@link #loginAgain(int)}
+     */
+    int getLogins() {
+        synchronized (session) {
+            return session.logins;
+        }
+    }
+
+    /**
+     * Logs in again after a request failed, unless another client of the session already did since then.
+     *
+     * @param logins number of logins to the session before the failed request
+     */
+    boolean loginAgain(int logins) {
+        synchronized (session) {
+            if (session.logins != logins) {
+                loggedIn = true;
+                return true;
+            }
+            return login();
+        }
+    }
+
     public boolean isLoggedIn() {
 
         return loggedIn;
@@ -153,11 +231,13 @@ public class PcClient {
                 Messages.UseVUDS(), model.isVudsMode()));
         PcRunResponse response = null;
         try {
-            response = restProxy.startRun(testID,
-                    testInstance,
-                    model.getTimeslotDuration(),
-                    model.getPostRunAction().getValue(),
-                    model.isVudsMode());
+            synchronized (session) {
+                response = restProxy.startRun(testID,
+                        testInstance,
+                        model.getTimeslotDuration(),
+                        model.getPostRunAction().getValue(),
+                        model.isVudsMode());
+            }
             logger.println(String.format("%s - %s (TestID: %s, RunID: %s, TimeslotID: %s)", dateFormatter.getDate(), Messages.RunStarted(),
                     response.getTestID(), response.getID(), response.getTimeslotID()));
             return response.getID();
@@ -196,11 +276,13 @@ public class PcClient {
                 }
 
                 try {
-                    response = restProxy.startRun(testID,
-                            testInstance,
-                            model.getTimeslotDuration(),
-                            model.getPostRunAction().getValue(),
-                            model.isVudsMode());
+                    synchronized (session) {
+                        response = restProxy.startRun(testID,
+                                testInstance,
+                                model.getTimeslotDuration(),
+                                model.getPostRunAction().getValue(),
+                                model.isVudsMode());
+                    }
                 } catch (NumberFormatException|ClientProtocolException|PcException ex) {
                     logger.println(String.format("%s -%s. %s: %s",
                             dateFormatter.getDate(),
@@ -250,7 +332,9 @@ public class PcClient {
                     Messages.SearchingTestInstance()));
             PcTestInstances pcTestInstances = null;
             try {
-                pcTestInstances = restProxy.getTestInstancesByTestId(testID);
+                synchronized (session) {
+                    pcTestInstances = restProxy.getTestInstancesByTestId(testID);
+                }
             } catch (PcException ex) {
                 logger.println(String.format("%s - getTestInstancesByTestId %s. Error: %s",
                         dateFormatter.getDate(),
@@ -275,7 +359,10 @@ public class PcClient {
                         dateFormatter.getDate(),
                         Messages.SearchingAvailableTestSet()));
                 // Get a random TestSet
-                PcTestSets pcTestSets = restProxy.GetAllTestSets();
+                PcTestSets pcTestSets;
+                synchronized (session) {
+                    pcTestSets = restProxy.GetAllTestSets();
+                }
                 if (pcTestSets !=null && pcTestSets.getPcTestSetsList() !=null){
                     PcTestSet pcTestSet = pcTestSets.getPcTestSetsList().get(pcTestSets.getPcTestSetsList().size()-1);
                     int testSetID = pcTestSet.getTestSetID();
@@ -284,7 +371,9 @@ public class PcClient {
                             Messages.CreatingNewTestInstance(),
                             testID,
                             testSetID));
-                    testInstanceID = restProxy.createTestInstance(testID,testSetID);
+                    synchronized (session) {
+                        testInstanceID = restProxy.createTestInstance(testID, testSetID);
+                    }
                     logger.println(String.format("%s - %s: %s",
                             dateFormatter.getDate(),
                             Messages.TestInstanceCreatedSuccessfully(),
@@ -316,7 +405,10 @@ public class PcClient {
                 Messages.PleaseTurnAutomaticTrendOn() + "\n" +
                 Messages.PleaseTurnAutomaticTrendOnAlternative();
         if (("ASSOCIATED").equals(model.getAddRunToTrendReport()) && model.getPostRunAction() != PostRunAction.DO_NOTHING) {
-            PcTest pcTest = restProxy.getTestData(Integer.parseInt(model.getTestId(true)));
+            PcTest pcTest;
+            synchronized (session) {
+                pcTest = restProxy.getTestData(Integer.parseInt(model.getTestId(true)));
+            }
             //if the trend report ID is parametrized
             if(!model.getTrendReportId().startsWith("$")) {
                 if (pcTest.getTrendReportId() > -1)
@@ -343,7 +435,10 @@ public class PcClient {
     public String getTestName()  throws IOException, PcException{
 
         try {
-            PcTest pcTest = restProxy.getTestData(Integer.parseInt(model.getTestId(true)));
+            PcTest pcTest;
+            synchronized (session) {
+                pcTest = restProxy.getTestData(Integer.parseInt(model.getTestId(true)));
+            }
             return pcTest.getTestName();
         } catch (IOException|PcException ex) {
             logger.println(String.format("%s - getTestData %s (testId : %s)", dateFormatter.getDate(), Messages.Failure(), model.getTestId(true)));
@@ -357,6 +452,18 @@ public class PcClient {
     }
 
     public PcRunResponse waitForRunCompletion(int runId, int interval) throws InterruptedException, ClientProtocolException, PcException, IOException {
+        PcRunMonitor monitor = createRunMonitor(runId, interval);
+        for (long delay = monitor.poll(); delay >= 0; delay = monitor.poll()) {
+            Thread.sleep(delay);
+        }
+        return monitor.getResponse();
+    }
+
+    /**
+     * @param interval minimum delay between two polls, in milliseconds; the delay grows while the state of the run does not change
+     * @return monitor of the run until the state matching the post run action of the model
+     */
+    public PcRunMonitor createRunMonitor(int runId, int interval) {
         RunState state = RunState.UNDEFINED;
         switch (model.getPostRunAction()) {
             case DO_NOTHING:
@@ -369,79 +476,20 @@ public class PcClient {
                 state = RunState.FINISHED;
                 break;
         }
-        return waitForRunState(runId, state, interval);
+        return new PcRunMonitor(this, runId, state, interval, logger);
     }
 
-
-    private PcRunResponse waitForRunState(int runId, RunState completionState, int interval) throws InterruptedException,
-            ClientProtocolException, PcException, IOException {
-
-        int counter = 0;
-        RunState[] states = {RunState.BEFORE_COLLATING_RESULTS,RunState.BEFORE_CREATING_ANALYSIS_DATA};
-        PcRunResponse response = null;
-        RunState lastState = RunState.UNDEFINED;
-        int threeStrikes = 3;
-        do {
-            try {
-
-                if (threeStrikes < 3) {
-                    logger.println(String.format("%s - Cannot get response from LRE about the state of the Run (ID=%s) %s time(s) consecutively",
-                            dateFormatter.getDate(),
-                            runId,
-                            (3 - threeStrikes)));
-                    if(threeStrikes==0) {
-                        logger.println(String.format("%s - %s: %s",
-                                dateFormatter.getDate(),
-                                Messages.StoppingMonitoringOnRun(),
-                                runId));
-                        break;
-                    }
-                    Thread.sleep(2000);
-                    login();
-                }
-                response = restProxy.getRunData(runId);
-                RunState currentState = RunState.get(response.getRunState());
-                if (lastState.ordinal() < currentState.ordinal()) {
-                    lastState = currentState;
-                    logger.println(String.format("%s - RunID: %s - State = %s",
-                            dateFormatter.getDate(),
-                            runId,
-                            currentState.value()));
-                }
-
-                // In case we are in state before collate or before analyze, we will wait 1 minute for the state to change otherwise we exit
-                // because the user probably stopped the run from LRE or timeslot has reached the end.
-                if (Arrays.asList(states).contains(currentState)) {
-                    counter++;
-                    Thread.sleep(1000);
-                    if (counter > 60) {
-                        logger.println(String.format("%s - Run ID: %s  - %s = %s",
-                                dateFormatter.getDate(),
-                                runId,
-                                Messages.StoppedFromPC(),
-                                currentState.value()));
-                        break;
-                    }
-                } else {
-                    counter = 0;
-                    Thread.sleep(interval);
-                }
-                threeStrikes = 3;
-            }
-            catch(InterruptedException e)
-            {
-                throw e;
-            }
-            catch(PcException e)
-            {
-                threeStrikes--;
-            }
-        } while (lastState.ordinal() < completionState.ordinal());
-        return response;
+    PcRunResponse getRunData(int runId) throws PcException, IOException {
+        synchronized (session) {
+            return restProxy.getRunData(runId);
+        }
     }
 
     public FilePath publishRunReport(int runId, String reportDirectory) throws IOException, PcException, InterruptedException {
-        PcRunResults runResultsList = restProxy.getRunResults(runId);
+        PcRunResults runResultsList;
+        synchronized (session) {
+            runResultsList = restProxy.getRunResults(runId);
+        }
         if (runResultsList.getResultsList() != null){
             for (PcRunResult result : runResultsList.getResultsList()) {
                 if (result.getName().equals(PcBuilder.pcReportArchiveName)) {
@@ -449,6 +497,7 @@ public class PcClient {
                     dir.mkdirs();
                     String reportArchiveFullPath = dir.getCanonicalPath() + IOUtils.DIR_SEPARATOR + PcBuilder.pcReportArchiveName;
                     logger.println(String.format("%s - %s", dateFormatter.getDate(), Messages.PublishingAnalysisReport()));
+                    // the archive is read without holding the session, see SessionRestProxy
                     restProxy.GetRunResultData(runId, result.getID(), reportArchiveFullPath);
                     FilePath fp = new FilePath(new File(reportArchiveFullPath));
                     fp.unzip(fp.getParent());
@@ -469,7 +518,9 @@ public class PcClient {
 
         boolean logoutSucceeded = false;
         try {
-            logoutSucceeded = restProxy.logout();
+            synchronized (session) {
+                logoutSucceeded = restProxy.logout();
+            }
             loggedIn = !logoutSucceeded;
         } catch (PcException e) {
             logger.println(String.format("%s - %s",
@@ -488,7 +539,9 @@ public class PcClient {
         boolean stopRunSucceeded = false;
         try {
             logger.println(String.format("%s - %s", dateFormatter.getDate(), Messages.StoppingRun()));
-            stopRunSucceeded = restProxy.stopRun(runId, "stop");
+            synchronized (session) {
+                stopRunSucceeded = restProxy.stopRun(runId, "stop");
+            }
         } catch (PcException e) {
             logger.println(String.format("%s - %s", dateFormatter.getDate(), e.getMessage()));
         } catch (Exception e) {
@@ -500,7 +553,9 @@ public class PcClient {
 
     public PcRunEventLog getRunEventLog(int runId){
         try {
-            return restProxy.getRunEventLog(runId);
+            synchronized (session) {
+                return restProxy.getRunEventLog(runId);
+            }
         } catch (PcException e) {
             logger.println(String.format("%s - %s",
                     dateFormatter.getDate(),
@@ -522,7 +577,9 @@ public class PcClient {
                 runId,
                 trendReportId));
         try {
-            restProxy.updateTrendReport(trendReportId, trRequest);
+            synchronized (session) {
+                restProxy.updateTrendReport(trendReportId, trRequest);
+            }
             logger.println(String.format("%s - %s: %s %s: %s",
                     dateFormatter.getDate(),
                     Messages.PublishingRun(),
@@ -544,57 +601,64 @@ public class PcClient {
 
     public void waitForRunToPublishOnTrendReport(int runId, String trendReportId) throws PcException,IOException,InterruptedException{
 
-        ArrayList<PcTrendedRun> trendReportMetaDataResultsList;
-        boolean publishEnded = false;
-        int counterPublishStarted = 0;
-        int counterPublishNotStarted = 0;
-        boolean resultNotFound = true;
-
-        do {
-            trendReportMetaDataResultsList = restProxy.getTrendReportMetaData(trendReportId);
+        AdaptivePollingInterval interval = new AdaptivePollingInterval(TREND_REPORT_MIN_POLLING_INTERVAL);
+        long waitingSince = System.currentTimeMillis();
+        long publishingSince = -1;
+        long minutesWaited = 0;
+        String lastState = null;
 
+        while (true) {
+            ArrayList<PcTrendedRun> trendReportMetaDataResultsList;
+            synchronized (session) {
+                trendReportMetaDataResultsList = restProxy.getTrendReportMetaData(trendReportId);
+            }
             if (trendReportMetaDataResultsList.isEmpty())  break;
 
+            PcTrendedRun trendedRun = null;
             for (PcTrendedRun result : trendReportMetaDataResultsList) {
-                resultNotFound = result.getRunID() != runId;
-                if (resultNotFound) continue;
+                if (result.getRunID() == runId) {
+                    trendedRun = result;
+                    break;
+                }
+            }
 
-                if (result.getState().equals(PcBuilder.TRENDED) || result.getState().equals(PcBuilder.ERROR)){
-                    publishEnded = true;
+            long now = System.currentTimeMillis();
+            if (trendedRun != null) {
+                if (trendedRun.getState().equals(PcBuilder.TRENDED) || trendedRun.getState().equals(PcBuilder.ERROR)) {
                     logger.println(String.format("%s - Run: %s %s: %s",
                             dateFormatter.getDate(),
                             runId,
                             Messages.PublishingStatus(),
-                            result.getState()));
+                            trendedRun.getState()));
                     break;
-                } else {
-                    Thread.sleep(5000);
-                    counterPublishStarted++;
-                    if(counterPublishStarted >= 120){
-                        String msg = String.format("%s: %s",
-                                Messages.Error(),
-                                Messages.PublishingEndTimeout());
-                        throw new PcException(msg);
-                    }
                 }
-             }
-             if (!publishEnded && resultNotFound) {
-                Thread.sleep(5000);
-                 counterPublishNotStarted++;
-                 if(counterPublishNotStarted >= 120){ //waiting 10 minutes for timeout
-                     String msg = String.format("%s",
-                             Messages.PublishingStartTimeout());
-                     throw new PcException(msg);
-                 } else if (counterPublishNotStarted % 12 == 0){ //warning every minute until timeout
-                     logger.println(String.format("%s - %s. %s: %s ... ",
-                             dateFormatter.getDate(),
-                             Messages.WaitingForTrendReportToStart(),
-                             Messages.MinutesUntilTimeout(),
-                             10 - (counterPublishNotStarted / 12)
-                     ));
-                 }
+                if (publishingSince < 0) {
+                    publishingSince = now;
+                } else if (now - publishingSince >= TREND_REPORT_TIMEOUT) {
+                    String msg = String.format("%s: %s",
+                            Messages.Error(),
+                            Messages.PublishingEndTimeout());
+                    throw new PcException(msg);
+                }
+            } else if (now - waitingSince >= TREND_REPORT_TIMEOUT) {
+                String msg = String.format("%s",
+                        Messages.PublishingStartTimeout());
+                throw new PcException(msg);
+            } else if ((now - waitingSince) / 60000 > minutesWaited) { //warning every minute until timeout
+                minutesWaited = (now - waitingSince) / 60000;
+                logger.println(String.format("%s - %s. %s: %s ... ",
+                        dateFormatter.getDate(),
+                        Messages.WaitingForTrendReportToStart(),
+                        Messages.MinutesUntilTimeout(),
+                        TREND_REPORT_TIMEOUT / 60000 - minutesWaited
+                ));
             }
-        } while (!publishEnded && counterPublishStarted < 120 && counterPublishNotStarted < 120);
+
+            String state = trendedRun == null ? null : trendedRun.getState();
+            boolean changed = !Objects.equals(state, lastState);
+            lastState = state;
+            Thread.sleep(interval.next(changed, false));
+        }
     }
 
     public boolean downloadTrendReportAsPdf(String trendReportId, String directory) throws PcException {
@@ -606,14 +670,16 @@ public class PcClient {
                     Messages.DownloadingTrendReport(),
                     trendReportId,
                     Messages.InPDFFormat()));
-            InputStream in = restProxy.getTrendingPDF(trendReportId);
             File dir = new File(directory);
             if(!dir.exists()){
                 dir.mkdirs();
             }
             String filePath = directory + IOUtils.DIR_SEPARATOR + "trendReport" + trendReportId + ".pdf";
             Path destination = Paths.get(filePath);
-            Files.copy(in, destination, StandardCopyOption.REPLACE_EXISTING);
+            // the PDF is read without holding the session, see SessionRestProxy
+            try (InputStream in = restProxy.getTrendingPDF(trendReportId)) {
+                Files.copy(in, destination, StandardCopyOption.REPLACE_EXISTING);
+            }
             logger.println(String.format("%s - %s: %s %s",
                     dateFormatter.getDate(),
                     Messages.TrendReport(),
@@ -657,7 +723,10 @@ public class PcClient {
 
 
 
-            TrendReportTransactionDataRoot res = restProxy.getTrendReportByXML(trendReportId, runId);
+            TrendReportTransactionDataRoot res;
+            synchronized (session) {
+                res = restProxy.getTrendReportByXML(trendReportId, runId);
+            }
 
 //            java.lang.reflect.Method rootMethod =  res.getClass().getMethod("getTrendReport" + dataType.toString() + "DataRowsList");
 //            ArrayList<Object> RowsListObj = (ArrayList<Object>) rootMethod.invoke(res);
@@ -0,0 +1,155 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcException;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcRunResponse;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.RunState;
+import com.microfocus.application.automation.tools.pc.helper.AdaptivePollingInterval;
+import com.microfocus.application.automation.tools.pc.helper.DateFormatter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Follows the state of a LRE run one poll at a time, so the polls can be scheduled
+ * without holding a thread between them ({@link PcClient#waitForRunCompletion(int, int)} just sleeps in between).
+ */
+public class PcRunMonitor {
+
+    // states in which the run waits for collate or analyze; if the state does not change within a minute,
+    // the run was probably stopped from LRE or the timeslot has reached its end
+    private static final List<RunState> WAITING_STATES = Arrays.asList(RunState.BEFORE_COLLATING_RESULTS, RunState.BEFORE_CREATING_ANALYSIS_DATA);
+    private static final long WAITING_TIMEOUT = 60 * 1000;
+    private static final int MAX_FAILED_POLLS = 3;
+    private static final long FAILED_POLL_DELAY = 2000;
+
+    private final PcClient client;
+    private final int runId;
+    private final RunState completionState;
+    private final AdaptivePollingInterval interval;
+    private final long waitingTimeout;
+    private final PrintStream logger;
+    private final DateFormatter dateFormatter = new DateFormatter("");
+
+    private RunState lastState = RunState.UNDEFINED;
+    private PcRunResponse response;
+    private int failedPolls;
+    // logins to the session of the client before the last failed poll
+    private int loginsBeforeFailure;
+    private long waitingSince = -1;
+
+    PcRunMonitor(PcClient client, int runId, RunState completionState, long minInterval, PrintStream logger) {
+        this(client, runId, completionState, minInterval, WAITING_TIMEOUT, logger);
+    }
+
+    PcRunMonitor(PcClient client, int runId, RunState completionState, long minInterval, long waitingTimeout, PrintStream logger) {
+        this.client = client;
+        this.runId = runId;
+        this.completionState = completionState;
+        this.interval = new AdaptivePollingInterval(minInterval);
+        this.waitingTimeout = waitingTimeout;
+        this.logger = logger;
+    }
+
+    /**
+     * polls the state of the run once
+     *
+     * @return delay in milliseconds until the next poll, or -1 when the run reached the completion state
+     * or its monitoring stopped
+     */
+    public long poll() throws IOException {
+        if (failedPolls > 0) {
+            // the clients of the other runs of the session may have seen the same failure
+            client.loginAgain(loginsBeforeFailure);
+        }
+        int logins = client.getLogins();
+        try {
+            response = client.getRunData(runId);
+        } catch (PcException e) {
+            failedPolls++;
+            loginsBeforeFailure = logins;
+            logger.println(String.format("%s - Cannot get response from LRE about the state of the Run (ID=%s) %s time(s) consecutively",
+                    dateFormatter.getDate(),
+                    runId,
+                    failedPolls));
+            if (failedPolls >= MAX_FAILED_POLLS) {
+                logger.println(String.format("%s - %s: %s",
+                        dateFormatter.getDate(),
+                        Messages.StoppingMonitoringOnRun(),
+                        runId));
+                return -1;
+            }
+            return FAILED_POLL_DELAY;
+        }
+        failedPolls = 0;
+
+        RunState currentState = RunState.get(response.getRunState());
+        boolean changed = lastState.ordinal() < currentState.ordinal();
+        if (changed) {
+            lastState = currentState;
+            logger.println(String.format("%s - RunID: %s - State = %s",
+                    dateFormatter.getDate(),
+                    runId,
+                    currentState.value()));
+        }
+        if (lastState.ordinal() >= completionState.ordinal()) {
+            return -1;
+        }
+
+        boolean waiting = WAITING_STATES.contains(currentState);
+        if (!waiting) {
+            waitingSince = -1;
+        } else if (waitingSince < 0) {
+            waitingSince = System.currentTimeMillis();
+        } else if (System.currentTimeMillis() - waitingSince > waitingTimeout) {
+            logger.println(String.format("%s - Run ID: %s  - %s = %s",
+                    dateFormatter.getDate(),
+                    runId,
+                    Messages.StoppedFromPC(),
+                    currentState.value()));
+            return -1;
+        }
+        // a waiting run is expected to move on soon
+        return interval.next(changed, waiting);
+    }
+
+    /**
+     * @return the last state of the run received from LRE, null if none was received
+     */
+    public PcRunResponse getResponse() {
+        return response;
+    }
+
+    public int getRunId() {
+        return runId;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc.helper;
+
+import java.util.Random;
+
+/**
+ * Delay between two polls of LRE: grows exponentially while the polled state does not change,
+ * drops to the minimum when it changes or when a change is expected soon, and is randomized
+ * so that the builds polling the same server do not poll it in lockstep.
+ */
+public class AdaptivePollingInterval {
+
+    public static final long MAX_INTERVAL = Long.getLong(AdaptivePollingInterval.class.getName() + ".maxIntervalSeconds", 60) * 1000;
+    private static final long FAST_INTERVAL = 1000;
+    private static final double BACKOFF = 1.5;
+    private static final double JITTER = 0.2;
+
+    private final long minInterval;
+    private final long maxInterval;
+    private final Random random;
+    private long interval;
+
+    public AdaptivePollingInterval(long minInterval) {
+        this(minInterval, Math.max(minInterval, MAX_INTERVAL), new Random());
+    }
+
+    public AdaptivePollingInterval(long minInterval, long maxInterval, Random random) {
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.random = random;
+        this.interval = minInterval;
+    }
+
+    /**
+     * @param changed  the state changed since the previous poll
+     * @param imminent the state is expected to change soon
+     * @return delay until the next poll, in milliseconds
+     */
+    public long next(boolean changed, boolean imminent) {
+        if (imminent) {
+            interval = Math.min(minInterval, FAST_INTERVAL);
+        } else if (changed) {
+            interval = minInterval;
+        } else {
+            interval = Math.min(maxInterval, Math.max(interval + 1, (long) (interval * BACKOFF)));
+        }
+        long jitter = (long) (interval * JITTER * (2 * random.nextDouble() - 1));
+        return Math.max(1, interval + jitter);
+    }
+}
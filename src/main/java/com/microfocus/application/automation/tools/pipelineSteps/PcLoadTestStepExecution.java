@@ -0,0 +1,283 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+
+package com.microfocus.application.automation.tools.pipelineSteps;
+
+import com.microfocus.application.automation.tools.common.utils.ThreadPools;
+import com.microfocus.application.automation.tools.pc.PcClient;
+import com.microfocus.application.automation.tools.pc.PcRunMonitor;
+import com.microfocus.application.automation.tools.run.PcBuilder;
+import com.microfocus.application.automation.tools.sse.result.model.junit.Testsuites;
+import hudson.AbortException;
+import hudson.FilePath;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import jenkins.util.Timer;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepExecutionImpl;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the LRE load test without holding a thread while the test runs:
+ * the shared {@link Timer} only schedules the next poll, the delay between two polls growing while the state of the run
+ * does not change, and the requests to LRE run on the threads of this step.
+ * The builder is saved with the build once the run is started, so the run is followed again after a controller restart.
+ */
+public class PcLoadTestStepExecution extends AbstractStepExecutionImpl {
+
+    private static final long serialVersionUID = 2L;
+    private static final Logger LOGGER = Logger.getLogger(PcLoadTestStepExecution.class.getName());
+    private static final int MIN_POLLING_INTERVAL = 5000;
+    // starting the run, polling and publishing the reports block on LRE, waiting for the trend report takes minutes
+    private static final ExecutorService executor = ThreadPools.newCachedThreadPool("LRE load test step");
+
+    @Inject
+    private transient PcLoadTestStep step;
+
+    private transient volatile PcBuilder pcBuilder;
+    private transient volatile PcClient pcClient;
+    private transient PcRunMonitor monitor;
+    private transient volatile Future<?> task;
+    private transient volatile boolean stopped;
+
+    public PcLoadTestStepExecution() {
+    }
+
+    PcLoadTestStepExecution(StepContext context, PcLoadTestStep step) {
+        super(context);
+        this.step = step;
+    }
+
+    @Override
+    public boolean start() throws Exception {
+        pcBuilder = step.getPcBuilder();
+        // the runs of several tests are only followed by the pcBuild step
+        if (pcBuilder.getTestId().contains(","))
+            throw new AbortException(String.format("The pcLoadTest step runs a single test, use the pcBuild step to run the tests %s",
+                    pcBuilder.getTestId()));
+        task = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                startRun();
+            }
+        });
+        return false;
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        resume();
+    }
+
+    void resume() {
+        task = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                resumeRun();
+            }
+        });
+    }
+
+    @Override
+    public void stop(Throwable cause) throws Exception {
+        stopped = true;
+        Future<?> current = task;
+        if (current != null) {
+            current.cancel(false);
+        }
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                abortRun();
+            }
+        });
+        getContext().onFailure(cause);
+    }
+
+    private void startRun() {
+        try {
+            Run<?, ?> build = getContext().get(Run.class);
+            pcClient = createPcClient(build);
+            if (!pcBuilder.startRun(pcClient, build)) {
+                finish(null);
+                return;
+            }
+            saveRunState(build);
+            if (stopped) {
+                // stopped while the run was starting
+                abortRun();
+                return;
+            }
+            monitor = pcClient.createRunMonitor(pcBuilder.getRunId(), MIN_POLLING_INTERVAL);
+            poll();
+        } catch (Exception e) {
+            failRun(e);
+        }
+    }
+
+    private void resumeRun() {
+        try {
+            Run<?, ?> build = getContext().get(Run.class);
+            PcRunStateAction state = build.getAction(PcRunStateAction.class);
+            PcBuilder builder = state != null ? state.getBuilder(getContext().get(FlowNode.class).getId()) : null;
+            if (builder == null) {
+                getContext().onFailure(new AbortException("The LRE run was not started before the restart, it can not be resumed"));
+                return;
+            }
+            pcBuilder = builder;
+            pcClient = createPcClient(build);
+            if (!pcBuilder.resumeRun(pcClient, build)) {
+                finish(null);
+                return;
+            }
+            monitor = pcClient.createRunMonitor(pcBuilder.getRunId(), MIN_POLLING_INTERVAL);
+            poll();
+        } catch (Exception e) {
+            failRun(e);
+        }
+    }
+
+    private void schedulePoll(long delay) {
+        if (stopped) {
+            return;
+        }
+        task = Timer.get().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (!stopped) {
+                    task = executor.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            poll();
+                        }
+                    });
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        if (stopped) {
+            return;
+        }
+        try {
+            long delay = monitor.poll();
+            if (delay < 0) {
+                finish(pcBuilder.completeRun(pcClient, getContext().get(Run.class), monitor.getResponse()));
+            } else {
+                schedulePoll(delay);
+            }
+        } catch (Exception e) {
+            failRun(e);
+        }
+    }
+
+    private void abortRun() {
+        PcClient client = pcClient;
+        if (client == null) {
+            return;
+        }
+        try {
+            Run<?, ?> build = getContext().get(Run.class);
+            pcBuilder.abortRun(client, build);
+            clearRunState(build);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to stop LRE run " + pcBuilder.getRunId(), e);
+        } finally {
+            client.logout();
+        }
+    }
+
+    private void failRun(Exception cause) {
+        if (stopped) {
+            return;
+        }
+        try {
+            getContext().get(TaskListener.class).getLogger().println(cause.getMessage());
+            finish(null);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to complete LRE load test step", e);
+            getContext().onFailure(e);
+        }
+    }
+
+    private void finish(Testsuites testsuites) throws Exception {
+        if (stopped) {
+            return;
+        }
+        if (pcClient != null) {
+            pcClient.logout();
+        }
+        Run<?, ?> build = getContext().get(Run.class);
+        pcBuilder.publishRunResults(build, getContext().get(FilePath.class), testsuites);
+        clearRunState(build);
+        getContext().onSuccess(null);
+    }
+
+    PcClient createPcClient(Run<?, ?> build) throws IOException, InterruptedException {
+        return pcBuilder.createPcClient(build, getContext().get(TaskListener.class));
+    }
+
+    private void saveRunState(Run<?, ?> build) throws IOException, InterruptedException {
+        String flowNodeId = getContext().get(FlowNode.class).getId();
+        synchronized (build) {
+            PcRunStateAction state = build.getAction(PcRunStateAction.class);
+            if (state == null) {
+                state = new PcRunStateAction();
+                build.addAction(state);
+            }
+            state.put(flowNodeId, pcBuilder);
+            build.save();
+        }
+    }
+
+    private void clearRunState(Run<?, ?> build) {
+        PcRunStateAction state = build.getAction(PcRunStateAction.class);
+        if (state == null) {
+            return;
+        }
+        try {
+            synchronized (build) {
+                state.remove(getContext().get(FlowNode.class).getId());
+                build.save();
+            }
+        } catch (IOException | InterruptedException e) {
+            LOGGER.log(Level.WARNING, "Failed to clear LRE run state of " + build.getExternalizableId(), e);
+        }
+    }
+}
@@ -25,60 +25,313 @@
  *
  * ___________________________________________________________________
  */
-
 package com.microfocus.application.automation.tools.pipelineSteps;
 
+import com.microfocus.application.automation.tools.common.utils.ThreadPools;
+import com.microfocus.application.automation.tools.model.CdaDetails;
 import com.microfocus.application.automation.tools.results.RunResultRecorder;
 import com.microfocus.application.automation.tools.run.RunFromFileBuilder;
 import com.microfocus.application.automation.tools.run.SseBuilder;
+import com.microfocus.application.automation.tools.sse.SSEBuilderPerformer;
+import com.microfocus.application.automation.tools.sse.result.model.junit.Testsuites;
+import hudson.AbortException;
 import hudson.FilePath;
 import hudson.Launcher;
+import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.TaskListener;
-import org.jenkinsci.plugins.workflow.steps.AbstractSynchronousNonBlockingStepExecution;
-import org.jenkinsci.plugins.workflow.steps.StepContextParameter;
+import hudson.util.VariableResolver;
+import jenkins.util.Timer;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepExecutionImpl;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
 import org.apache.commons.lang.StringUtils;
 import javax.inject.Inject;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
-public class SseBuilderPublishResultStepExecution extends AbstractSynchronousNonBlockingStepExecution<Void> {
+/**
+ * Runs the ALM Lab Management test set without holding a thread while ALM executes it:
+ * the shared {@link Timer} only schedules the next poll, the requests to ALM run on the threads of this step,
+ * and the run id is saved with the build so polling resumes after a controller restart.
+ */
+public class SseBuilderPublishResultStepExecution extends AbstractStepExecutionImpl {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
+    private static final Logger LOGGER = Logger.getLogger(SseBuilderPublishResultStepExecution.class.getName());
+    // ALM authentication, starting the run, polling and publishing the results block on ALM
+    private static final ExecutorService executor = ThreadPools.newCachedThreadPool("ALM Lab Management step");
 
     @Inject
     private transient SseBuildAndPublishStep step;
 
-    @StepContextParameter
-    private transient TaskListener listener;
+    // step configuration, kept to rebuild the builder on resume; credentials are resolved again from credentialsId
+    private String almServerName;
+    private String almProject;
+    private String credentialsId;
+    private String clientType;
+    private String almDomain;
+    private String runType;
+    private String almEntityId;
+    private String timeslotDuration;
+    private String description;
+    private String postRunAction;
+    private String environmentConfigurationId;
+    private CdaDetails cdaDetails;
+    private String archiveTestResultsMode;
+
+    private transient SseBuilder sseBuilder;
+    private transient volatile SSEBuilderPerformer performer;
+    private transient volatile Future<?> task;
+    private transient volatile boolean stopped;
+
+    public SseBuilderPublishResultStepExecution() {
+    }
+
+    SseBuilderPublishResultStepExecution(StepContext context, SseBuildAndPublishStep step) {
+        super(context);
+        this.step = step;
+    }
 
-    @StepContextParameter
-    private transient FilePath ws;
+    @Override
+    public boolean start() throws Exception {
+        getContext().get(TaskListener.class).getLogger().println("Execute tests using ALM Lab Management");
 
-    @StepContextParameter
-    private transient Run build;
+        almServerName = step.getAlmServerName();
+        almProject = step.getAlmProject();
+        credentialsId = step.getCredentialsId();
+        clientType = step.getClientType();
+        almDomain = step.getAlmDomain();
+        runType = step.getRunType();
+        almEntityId = step.getAlmEntityId();
+        timeslotDuration = step.getTimeslotDuration();
+        description = step.getDescription();
+        postRunAction = step.getPostRunAction();
+        environmentConfigurationId = step.getEnvironmentConfigurationId();
+        cdaDetails = step.getCdaDetails();
+        archiveTestResultsMode = step.getArchiveTestResultsMode();
 
-    @StepContextParameter
-    private transient Launcher launcher;
+        task = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                startRun(false);
+            }
+        });
+        return false;
+    }
 
     @Override
-    protected Void run() throws Exception {
-        listener.getLogger().println("Execute tests using ALM Lab Management");
+    public void onResume() {
+        super.onResume();
+        resume();
+    }
+
+    void resume() {
+        task = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                startRun(true);
+            }
+        });
+    }
+
+    @Override
+    public void stop(Throwable cause) throws Exception {
+        stopped = true;
+        Future<?> current = task;
+        if (current != null) {
+            current.cancel(false);
+        }
+
+        Run<?, ?> build = getContext().get(Run.class);
+        PrintStream logger = getContext().get(TaskListener.class).getLogger();
+        try {
+            SSEBuilderPerformer runPerformer = performer;
+            if (runPerformer != null) {
+                runPerformer.stop();
+            }
+        } catch (Exception e) {
+            logger.println(String.format("Failed to stop BVS. Exception: %s", e.getMessage()));
+        }
+        build.setResult(Result.ABORTED);
+        clearRunState(build);
+        getContext().onFailure(cause);
+    }
+
+    private void startRun(boolean resume) {
+        try {
+            Run<?, ?> build = getContext().get(Run.class);
+            TaskListener listener = getContext().get(TaskListener.class);
+            PrintStream logger = listener.getLogger();
+            String flowNodeId = getContext().get(FlowNode.class).getId();
+
+            String runId = null;
+            String timeslotId = null;
+            if (resume) {
+                SseRunStateAction state = build.getAction(SseRunStateAction.class);
+                runId = state != null ? state.getRunId(flowNodeId) : null;
+                timeslotId = state != null ? state.getTimeslotId(flowNodeId) : null;
+                if (runId == null) {
+                    getContext().onFailure(new AbortException("The ALM run was not started before the restart, it can not be resumed"));
+                    return;
+                }
+            }
+
+            sseBuilder = createSseBuilder();
+            SSEBuilderPerformer runPerformer = createPerformer();
+            performer = runPerformer;
+            VariableResolver<String> varResolver = new VariableResolver.ByMap<String>(build.getEnvironment(listener));
+            com.microfocus.application.automation.tools.sse.sdk.Logger sseLogger = SseBuilder.toSseLogger(logger);
+
+            boolean started = resume
+                    ? runPerformer.resumeRun(sseBuilder.createSseModel(build, logger), sseLogger, varResolver, runId, timeslotId)
+                    : runPerformer.startRun(sseBuilder.createSseModel(build, logger), sseLogger, varResolver);
+            if (!started) {
+                finish(null);
+                return;
+            }
+            // saved once the run id is known and again with the timeslot id resolved by preparePoll
+            saveRunState(build, flowNodeId, runPerformer);
+            if (runPerformer.preparePoll()) {
+                saveRunState(build, flowNodeId, runPerformer);
+                schedulePoll();
+            } else {
+                finish(null);
+            }
+        } catch (Exception e) {
+            failRun(e);
+        }
+    }
+
+    private void schedulePoll() {
+        if (stopped) {
+            return;
+        }
+        task = Timer.get().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (!stopped) {
+                    task = executor.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            poll();
+                        }
+                    });
+                }
+            }
+        }, performer.getPollInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        if (stopped) {
+            return;
+        }
+        try {
+            switch (performer.pollOnce()) {
+                case RUNNING:
+                    schedulePoll();
+                    break;
+                case FINISHED:
+                    finish(performer.publishResults());
+                    break;
+                default:
+                    finish(null);
+            }
+        } catch (Exception e) {
+            failRun(e);
+        }
+    }
 
-        SseBuilder sseBuilder = step.getSseBuilder();
-        RunResultRecorder runResultRecorder = step.getRunResultRecorder();
+    private void failRun(Exception cause) {
+        if (stopped) {
+            return;
+        }
+        try {
+            getContext().get(Run.class).setResult(Result.FAILURE);
+            getContext().get(TaskListener.class).getLogger().println(String.format("Failed to execute test, Exception: %s", cause.getMessage()));
+            finish(null);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to complete ALM Lab Management step", e);
+            getContext().onFailure(e);
+        }
+    }
 
-        String archiveTestResultsMode = runResultRecorder.getResultsPublisherModel().getArchiveTestResultsMode();
+    private void finish(Testsuites testsuites) throws IOException, InterruptedException {
+        if (stopped) {
+            return;
+        }
+        Run<?, ?> build = getContext().get(Run.class);
+        TaskListener listener = getContext().get(TaskListener.class);
+        FilePath ws = getContext().get(FilePath.class);
+        Launcher launcher = getContext().get(Launcher.class);
 
-        sseBuilder.perform(build, ws, launcher, listener);
+        SseBuilder.printRequestMetrics(performer, listener.getLogger());
+        sseBuilder.publishRunResults(build, ws, testsuites, listener.getLogger());
 
         if (StringUtils.isNotBlank(archiveTestResultsMode)) {
-            listener.getLogger().println("Publish tests result");
+            if (ws == null || launcher == null) {
+                listener.getLogger().println("Tests result can only be published when the step runs inside a node block");
+            } else {
+                listener.getLogger().println("Publish tests result");
 
-            HashMap<String, String> resultFilename = new HashMap<String, String>(0);
-            resultFilename.put(RunFromFileBuilder.class.getName(), sseBuilder.getRunResultsFileName());
+                HashMap<String, String> resultFilename = new HashMap<String, String>(0);
+                resultFilename.put(RunFromFileBuilder.class.getName(), sseBuilder.getRunResultsFileName());
 
-            runResultRecorder.pipelinePerform(build, ws, launcher, listener, resultFilename);
+                new RunResultRecorder(archiveTestResultsMode).pipelinePerform(build, ws, launcher, listener, resultFilename);
+            }
+        }
+        clearRunState(build);
+        getContext().onSuccess(null);
+    }
+
+    SseBuilder createSseBuilder() {
+        SseBuilder builder = new SseBuilder(almServerName,
+                almProject,
+                credentialsId,
+                clientType,
+                almDomain,
+                runType,
+                almEntityId,
+                timeslotDuration);
+        builder.setDescription(description);
+        builder.setPostRunAction(postRunAction);
+        builder.setEnvironmentConfigurationId(environmentConfigurationId);
+        builder.setCdaDetails(cdaDetails);
+        return builder;
+    }
+
+    SSEBuilderPerformer createPerformer() {
+        return new SSEBuilderPerformer();
+    }
+
+    private void saveRunState(Run<?, ?> build, String flowNodeId, SSEBuilderPerformer runPerformer) throws IOException {
+        synchronized (build) {
+            SseRunStateAction state = build.getAction(SseRunStateAction.class);
+            if (state == null) {
+                state = new SseRunStateAction();
+                build.addAction(state);
+            }
+            state.put(flowNodeId, runPerformer.getRunId(), runPerformer.getTimeslotId());
+            build.save();
+        }
+    }
+
+    private void clearRunState(Run<?, ?> build) {
+        SseRunStateAction state = build.getAction(SseRunStateAction.class);
+        if (state == null) {
+            return;
+        }
+        try {
+            state.remove(getContext().get(FlowNode.class).getId());
+            build.save();
+        } catch (IOException | InterruptedException e) {
+            LOGGER.log(Level.WARNING, "Failed to clear ALM run state of " + build.getExternalizableId(), e);
         }
-        return null;
     }
 }
@@ -0,0 +1,61 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+package com.microfocus.application.automation.tools.pipelineSteps;
+
+import hudson.model.InvisibleAction;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ALM run and timeslot ids of the sseBuildAndPublish steps currently running in a build, keyed by flow node id.
+ * Saved with the build as soon as the ALM run is started, so polling can resume after a controller restart.
+ */
+public class SseRunStateAction extends InvisibleAction {
+
+    private final Map<String, String> runIds = new HashMap<>();
+    private final Map<String, String> timeslotIds = new HashMap<>();
+
+    public synchronized void put(String flowNodeId, String runId, String timeslotId) {
+        runIds.put(flowNodeId, runId);
+        timeslotIds.put(flowNodeId, timeslotId);
+    }
+
+    public synchronized void remove(String flowNodeId) {
+        runIds.remove(flowNodeId);
+        timeslotIds.remove(flowNodeId);
+    }
+
+    public synchronized String getRunId(String flowNodeId) {
+        return runIds.get(flowNodeId);
+    }
+
+    public synchronized String getTimeslotId(String flowNodeId) {
+        return timeslotIds.get(flowNodeId);
+    }
+}
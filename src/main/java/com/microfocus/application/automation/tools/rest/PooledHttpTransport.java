@@ -0,0 +1,212 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import com.microfocus.application.automation.tools.sse.sdk.ResponseBodyConsumer;
+import hudson.ProxyConfiguration;
+import jenkins.model.Jenkins;
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Sends requests through one Apache HttpClient shared by all rest clients, so connections (and TLS sessions)
+ * to the ALM server are kept alive and reused between requests. Responses are gzip decompressed transparently.
+ * Certificates and host names are not verified, same as for {@link UrlConnectionTransport}.
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+    private static final int MAX_CONNECTIONS =
+            Integer.getInteger(PooledHttpTransport.class.getName() + ".maxConnections", 50);
+    private static final int MAX_CONNECTIONS_PER_ROUTE =
+            Integer.getInteger(PooledHttpTransport.class.getName() + ".maxConnectionsPerRoute", 20);
+    private static final int IDLE_TIMEOUT_SECONDS =
+            Integer.getInteger(PooledHttpTransport.class.getName() + ".idleTimeoutSeconds", 60);
+
+    private static volatile CloseableHttpClient httpClient;
+
+    @Override
+    public Response execute(
+            String method,
+            String url,
+            Map<String, String> headers,
+            byte[] data,
+            ResponseBodyConsumer bodyConsumer) throws IOException {
+
+        RequestBuilder request = RequestBuilder.create(method).setUri(url);
+        if (headers != null) {
+            for (Entry<String, String> header : headers.entrySet()) {
+                request.addHeader(header.getKey(), header.getValue());
+            }
+        }
+        if (data != null && data.length > 0) {
+            request.setEntity(new ByteArrayEntity(data));
+        }
+        HttpClientContext context = HttpClientContext.create();
+        configureProxy(new URL(url), request, context);
+
+        try (CloseableHttpResponse httpResponse = getHttpClient().execute(request.build(), context)) {
+            Response ret = new Response();
+            int statusCode = httpResponse.getStatusLine().getStatusCode();
+            ret.setStatusCode(statusCode);
+            ret.setHeaders(toHeaderFields(httpResponse.getAllHeaders()));
+            if (statusCode >= 400) {
+                // same failure HttpURLConnection reports, callers log it
+                ret.setFailure(new IOException(String.format(
+                        "Server returned HTTP response code: %d for URL: %s",
+                        statusCode,
+                        url)));
+            }
+
+            HttpEntity entity = httpResponse.getEntity();
+            if (entity == null) {
+                ret.setData(new byte[0]);
+            } else if (bodyConsumer != null && ret.getFailure() == null) {
+                try (InputStream body = entity.getContent()) {
+                    bodyConsumer.consume(body);
+                }
+                ret.setData(new byte[0]);
+            } else {
+                ret.setData(EntityUtils.toByteArray(entity));
+            }
+
+            return ret;
+        }
+    }
+
+    private static Map<String, List<String>> toHeaderFields(Header[] headers) {
+
+        Map<String, List<String>> ret = new LinkedHashMap<String, List<String>>();
+        for (Header header : headers) {
+            List<String> values = ret.get(header.getName());
+            if (values == null) {
+                values = new ArrayList<String>(1);
+                ret.put(header.getName(), values);
+            }
+            values.add(header.getValue());
+        }
+
+        return ret;
+    }
+
+    private static void configureProxy(URL url, RequestBuilder request, HttpClientContext context) {
+
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        ProxyConfiguration proxyConfiguration = jenkins == null ? null : jenkins.proxy;
+        if (proxyConfiguration == null) {
+            return;
+        }
+        Proxy proxy = proxyConfiguration.createProxy(url.getHost());
+        if (proxy.type() != Proxy.Type.HTTP || !(proxy.address() instanceof InetSocketAddress)) {
+            return;
+        }
+        InetSocketAddress address = (InetSocketAddress) proxy.address();
+        HttpHost proxyHost = new HttpHost(address.getHostString(), address.getPort());
+        request.setConfig(RequestConfig.custom().setProxy(proxyHost).build());
+        if (StringUtils.isNotBlank(proxyConfiguration.getUserName())) {
+            CredentialsProvider credentials = new BasicCredentialsProvider();
+            credentials.setCredentials(
+                    new AuthScope(proxyHost),
+                    new UsernamePasswordCredentials(proxyConfiguration.getUserName(), proxyConfiguration.getPassword()));
+            context.setCredentialsProvider(credentials);
+        }
+    }
+
+    private static CloseableHttpClient getHttpClient() {
+
+        CloseableHttpClient ret = httpClient;
+        if (ret == null) {
+            synchronized (PooledHttpTransport.class) {
+                ret = httpClient;
+                if (ret == null) {
+                    ret = createHttpClient();
+                    httpClient = ret;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private static CloseableHttpClient createHttpClient() {
+
+        // RestClient installs the trust all socket factory and host name verifier as the defaults
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(
+                        HttpsURLConnection.getDefaultSSLSocketFactory(),
+                        HttpsURLConnection.getDefaultHostnameVerifier()))
+                .build();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry);
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                // cookies are kept per rest client, not per connection pool
+                .disableCookieManagement()
+                .evictExpiredConnections()
+                .evictIdleConnections(IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .build();
+    }
+}
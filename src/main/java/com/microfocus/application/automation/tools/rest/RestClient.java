@@ -28,20 +28,15 @@
 
 package com.microfocus.application.automation.tools.rest;
 
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
@@ -54,7 +49,8 @@ import com.microfocus.application.automation.tools.common.SSEException;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
-import hudson.ProxyConfiguration;
+import com.microfocus.application.automation.tools.sse.sdk.ResponseBodyConsumer;
+import org.apache.commons.io.input.CountingInputStream;
 
 import com.microfocus.application.automation.tools.sse.sdk.HttpRequestDecorator;
 
@@ -69,11 +65,15 @@ import com.microfocus.adm.performancecenter.plugins.common.rest.RESTConstants;
 public class RestClient implements Client {
 
     private final String _serverUrl;
-    protected Map<String, String> _cookies = new HashMap<String, String>();
+    protected Map<String, String> _cookies = new ConcurrentHashMap<String, String>();
     private final String _restPrefix;
     private final String _webuiPrefix;
     private final String _username;
     private final String XSRF_TOKEN_VALUE;
+    private final HttpTransport _transport;
+    private final RestClientMetrics _metrics = new RestClientMetrics();
+
+    private static final String TRANSPORT = System.getProperty(RestClient.class.getName() + ".transport", "pooled");
 
     /**
      * Configure SSL context for the client.
@@ -122,6 +122,14 @@ public class RestClient implements Client {
      */
     public RestClient(String url, String domain, String project, String username) {
 
+        this(url, domain, project, username, createTransport());
+    }
+
+    /**
+     * Constructor for setting rest client properties and the transport sending its requests.
+     */
+    public RestClient(String url, String domain, String project, String username, HttpTransport transport) {
+
         if (!url.endsWith("/")) {
             url = String.format("%s/", url);
         }
@@ -136,6 +144,23 @@ public class RestClient implements Client {
 
         XSRF_TOKEN_VALUE = UUID.randomUUID().toString();
         _cookies.put("XSRF-TOKEN", XSRF_TOKEN_VALUE);
+        _transport = transport;
+    }
+
+    /**
+     * Pooled keep-alive connections unless the transport system property is set to "urlconnection"
+     */
+    private static HttpTransport createTransport() {
+        return "urlconnection".equalsIgnoreCase(TRANSPORT)
+                ? new UrlConnectionTransport()
+                : new PooledHttpTransport();
+    }
+
+    /**
+     * Count, latency and bytes of the requests sent by this client, per endpoint
+     */
+    public RestClientMetrics getMetrics() {
+        return _metrics;
     }
 
     public String getXsrfTokenValue() {
@@ -180,7 +205,28 @@ public class RestClient implements Client {
 
         Response ret = null;
         try {
-            ret = doHttp(RESTConstants.GET, url, queryString, null, headers, resourceAccessLevel);
+            ret = doHttp(RESTConstants.GET, url, queryString, null, headers, resourceAccessLevel, null);
+        } catch (Exception cause) {
+            throw new SSEException(cause);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Http get request, a successful response body is streamed to the body consumer instead of kept in the response
+     */
+    @Override
+    public Response httpGet(
+            String url,
+            String queryString,
+            Map<String, String> headers,
+            ResourceAccessLevel resourceAccessLevel,
+            ResponseBodyConsumer bodyConsumer) {
+
+        Response ret = null;
+        try {
+            ret = doHttp(RESTConstants.GET, url, queryString, null, headers, resourceAccessLevel, bodyConsumer);
         } catch (Exception cause) {
             throw new SSEException(cause);
         }
@@ -200,7 +246,7 @@ public class RestClient implements Client {
 
         Response ret = null;
         try {
-            ret = doHttp(RESTConstants.POST, url, null, data, headers, resourceAccessLevel);
+            ret = doHttp(RESTConstants.POST, url, null, data, headers, resourceAccessLevel, null);
         } catch (Exception cause) {
             throw new SSEException(cause);
         }
@@ -220,7 +266,7 @@ public class RestClient implements Client {
 
         Response ret = null;
         try {
-            ret = doHttp(RESTConstants.PUT, url, null, data, headers, resourceAccessLevel);
+            ret = doHttp(RESTConstants.PUT, url, null, data, headers, resourceAccessLevel, null);
         } catch (Exception cause) {
             throw new SSEException(cause);
         }
@@ -256,17 +302,29 @@ public class RestClient implements Client {
             String queryString,
             byte[] data,
             Map<String, String> headers,
-            ResourceAccessLevel resourceAccessLevel) {
+            ResourceAccessLevel resourceAccessLevel,
+            ResponseBodyConsumer bodyConsumer) {
 
         Response ret;
+        String path = url;
         if ((queryString != null) && !queryString.isEmpty()) {
             url += "?" + queryString;
         }
+        final CountingInputStream[] streamedBody = new CountingInputStream[1];
+        ResponseBodyConsumer countingBodyConsumer = null;
+        if (bodyConsumer != null) {
+            countingBodyConsumer = body -> {
+                streamedBody[0] = new CountingInputStream(body);
+                bodyConsumer.consume(streamedBody[0]);
+            };
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        long received = 0;
         try {
-            HttpURLConnection connection = (HttpURLConnection)ProxyConfiguration.open(new URL(url));
-            connection.setRequestMethod(type);
-
+            // set all cookies for request, explicit headers may override them
             Map<String, String> decoratedHeaders = new HashMap<String, String>();
+            decoratedHeaders.put(RESTConstants.COOKIE, getCookiesString());
             if (headers != null) {
                 decoratedHeaders.putAll(headers);
             }
@@ -276,108 +334,42 @@ public class RestClient implements Client {
                     getUsername(),
                     resourceAccessLevel);
 
-            prepareHttpRequest(connection, decoratedHeaders, data);
-            connection.connect();
-            ret = retrieveHtmlResponse(connection);
+            ret = _transport.execute(type, url, decoratedHeaders, data, countingBodyConsumer);
+            received = ret.getData() == null ? 0 : ret.getData().length;
+            if (streamedBody[0] != null) {
+                received += streamedBody[0].getByteCount();
+            }
+            failed = !ret.isOk();
             updateCookies(ret);
         } catch (Exception cause) {
             throw new SSEException(cause);
+        } finally {
+            _metrics.record(
+                    type,
+                    getEndpointPath(path),
+                    System.nanoTime() - start,
+                    data == null ? 0 : data.length,
+                    received,
+                    failed);
         }
 
         return ret;
     }
 
     /**
-     * Prepare http request
+     * Path of the url for the request metrics, without the server, domain and project
      */
-    private void prepareHttpRequest(
-            HttpURLConnection connnection,
-            Map<String, String> headers,
-            byte[] bytes) {
-
-        // set all cookies for request
-        connnection.setRequestProperty(RESTConstants.COOKIE, getCookiesString());
+    private String getEndpointPath(String url) {
 
-        setConnectionHeaders(connnection, headers);
-
-        setConnectionData(connnection, bytes);
-    }
-
-    /**
-     * Set connection data
-     */
-    private void setConnectionData(HttpURLConnection connnection, byte[] bytes) {
-
-        if (bytes != null && bytes.length > 0) {
-            connnection.setDoOutput(true);
-            try {
-                OutputStream out = connnection.getOutputStream();
-                out.write(bytes);
-                out.flush();
-                out.close();
-            } catch (Exception cause) {
-                throw new SSEException(cause);
-            }
+        String ret = url;
+        int queryIndex = ret.indexOf('?');
+        if (queryIndex >= 0) {
+            ret = ret.substring(0, queryIndex);
         }
-    }
-
-    /**
-     * Set connection headers
-     */
-    private void setConnectionHeaders(HttpURLConnection connnection, Map<String, String> headers) {
-
-        if (headers != null) {
-            Iterator<Entry<String, String>> headersIterator = headers.entrySet().iterator();
-            while (headersIterator.hasNext()) {
-                Entry<String, String> header = headersIterator.next();
-                connnection.setRequestProperty(header.getKey(), header.getValue());
-            }
-        }
-    }
-
-    /**
-     * Retrieve Html Response
-     * @param connection
-     *            that is already connected to its url with an http request, and that should contain
-     *            a response for us to retrieve
-     * @return a response from the server to the previously submitted http request
-     */
-    private Response retrieveHtmlResponse(HttpURLConnection connection) {
-
-        Response ret = new Response();
-
-        try {
-            ret.setStatusCode(connection.getResponseCode());
-            ret.setHeaders(connection.getHeaderFields());
-        } catch (Exception cause) {
-            throw new SSEException(cause);
-        }
-
-        InputStream inputStream;
-        // select the source of the input bytes, first try 'regular' input
-        try {
-            inputStream = connection.getInputStream();
-        }
-        // if the connection to the server somehow failed, for example 404 or 500,
-        // con.getInputStream() will throw an exception, which we'll keep.
-        // we'll also store the body of the exception page, in the response data. */
-        catch (Exception e) {
-            inputStream = connection.getErrorStream();
-            ret.setFailure(e);
-        }
-
-        // this takes data from the previously set stream (error or input)
-        // and stores it in a byte[] inside the response
-        ByteArrayOutputStream container = new ByteArrayOutputStream();
-        byte[] buf = new byte[1024];
-        int read;
-        try {
-            while ((read = inputStream.read(buf, 0, 1024)) > 0) {
-                container.write(buf, 0, read);
-            }
-            ret.setData(container.toByteArray());
-        } catch (Exception ex) {
-            throw new SSEException(ex);
+        if (ret.startsWith(_restPrefix)) {
+            ret = "rest" + ret.substring(_restPrefix.length());
+        } else if (ret.startsWith(_serverUrl)) {
+            ret = ret.substring(_serverUrl.length());
         }
 
         return ret;
@@ -0,0 +1,117 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Request count, latency and bytes per endpoint of a {@link RestClient}.
+ * Endpoints are the request method and path, with numeric path segments replaced by {id}.
+ */
+public class RestClientMetrics {
+
+    private static final int MAX_ENDPOINTS = 200;
+    private static final String OTHER_ENDPOINTS = "(other)";
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    void record(String method, String path, long nanos, long bytesSent, long bytesReceived, boolean failed) {
+        String endpoint = method + " " + ID_SEGMENT.matcher(path).replaceAll("/{id}");
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        if (metrics == null) {
+            if (endpoints.size() >= MAX_ENDPOINTS) {
+                endpoint = OTHER_ENDPOINTS;
+            }
+            metrics = endpoints.computeIfAbsent(endpoint, key -> new EndpointMetrics());
+        }
+        metrics.record(nanos, bytesSent, bytesReceived, failed);
+    }
+
+    public long getRequestCount() {
+        long ret = 0;
+        for (EndpointMetrics metrics : endpoints.values()) {
+            ret += metrics.requests.sum();
+        }
+        return ret;
+    }
+
+    /**
+     * One line per endpoint, the slowest (by total time) first.
+     */
+    public String getSummary() {
+        List<Map.Entry<String, EndpointMetrics>> entries = new ArrayList<>(endpoints.entrySet());
+        Collections.sort(entries, Comparator.comparingLong(
+                (Map.Entry<String, EndpointMetrics> entry) -> entry.getValue().totalNanos.sum()).reversed());
+
+        StringBuilder ret = new StringBuilder(String.format("ALM REST requests: %d", getRequestCount()));
+        for (Map.Entry<String, EndpointMetrics> entry : entries) {
+            EndpointMetrics metrics = entry.getValue();
+            long requests = metrics.requests.sum();
+            ret.append(String.format("%n  %s: %d requests (%d failed), avg %d ms, max %d ms, sent %d KB, received %d KB",
+                    entry.getKey(),
+                    requests,
+                    metrics.failures.sum(),
+                    requests == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(metrics.totalNanos.sum() / requests),
+                    TimeUnit.NANOSECONDS.toMillis(metrics.maxNanos.get()),
+                    metrics.bytesSent.sum() / 1024,
+                    metrics.bytesReceived.sum() / 1024));
+        }
+        return ret.toString();
+    }
+
+    private static final class EndpointMetrics {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+
+        private void record(long nanos, long sent, long received, boolean failed) {
+            requests.increment();
+            if (failed) {
+                failures.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            bytesSent.add(sent);
+            bytesReceived.add(received);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.microfocus.application.automation.tools.common.SSEException;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import com.microfocus.application.automation.tools.sse.sdk.ResponseBodyConsumer;
+import hudson.ProxyConfiguration;
+
+/**
+ * Opens a new {@link HttpURLConnection} per request, through the Jenkins proxy configuration.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    @Override
+    public Response execute(
+            String method,
+            String url,
+            Map<String, String> headers,
+            byte[] data,
+            ResponseBodyConsumer bodyConsumer) throws IOException {
+
+        HttpURLConnection connection = (HttpURLConnection) ProxyConfiguration.open(new URL(url));
+        connection.setRequestMethod(method);
+        setConnectionHeaders(connection, headers);
+        setConnectionData(connection, data);
+        connection.connect();
+
+        return retrieveHtmlResponse(connection, bodyConsumer);
+    }
+
+    /**
+     * Set connection data
+     */
+    private void setConnectionData(HttpURLConnection connnection, byte[] bytes) {
+
+        if (bytes != null && bytes.length > 0) {
+            connnection.setDoOutput(true);
+            try {
+                OutputStream out = connnection.getOutputStream();
+                out.write(bytes);
+                out.flush();
+                out.close();
+            } catch (Exception cause) {
+                throw new SSEException(cause);
+            }
+        }
+    }
+
+    /**
+     * Set connection headers
+     */
+    private void setConnectionHeaders(HttpURLConnection connnection, Map<String, String> headers) {
+
+        if (headers != null) {
+            for (Entry<String, String> header : headers.entrySet()) {
+                connnection.setRequestProperty(header.getKey(), header.getValue());
+            }
+        }
+    }
+
+    /**
+     * Retrieve Html Response
+     * @param connection
+     *            that is already connected to its url with an http request, and that should contain
+     *            a response for us to retrieve
+     * @return a response from the server to the previously submitted http request
+     */
+    private Response retrieveHtmlResponse(HttpURLConnection connection, ResponseBodyConsumer bodyConsumer) throws IOException {
+
+        Response ret = new Response();
+
+        try {
+            ret.setStatusCode(connection.getResponseCode());
+            ret.setHeaders(connection.getHeaderFields());
+        } catch (Exception cause) {
+            throw new SSEException(cause);
+        }
+
+        InputStream inputStream;
+        // select the source of the input bytes, first try 'regular' input
+        try {
+            inputStream = connection.getInputStream();
+        }
+        // if the connection to the server somehow failed, for example 404 or 500,
+        // con.getInputStream() will throw an exception, which we'll keep.
+        // we'll also store the body of the exception page, in the response data. */
+        catch (Exception e) {
+            inputStream = connection.getErrorStream();
+            ret.setFailure(e);
+        }
+        if (inputStream == null) {
+            inputStream = new ByteArrayInputStream(new byte[0]);
+        }
+
+        try {
+            if (bodyConsumer != null && ret.getFailure() == null) {
+                bodyConsumer.consume(inputStream);
+                ret.setData(new byte[0]);
+            } else {
+                // this takes data from the previously set stream (error or input)
+                // and stores it in a byte[] inside the response
+                ByteArrayOutputStream container = new ByteArrayOutputStream();
+                byte[] buf = new byte[1024];
+                int read;
+                while ((read = inputStream.read(buf, 0, 1024)) > 0) {
+                    container.write(buf, 0, read);
+                }
+                ret.setData(container.toByteArray());
+            }
+        } finally {
+            inputStream.close();
+        }
+
+        return ret;
+    }
+}
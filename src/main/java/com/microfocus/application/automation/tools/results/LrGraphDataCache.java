@@ -0,0 +1,121 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.results.projectparser.performance.ProjectLrResults;
+import hudson.model.Job;
+import hudson.model.Run;
+import net.sf.json.JSONObject;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the project performance report data so that it is computed once per trend state
+ * instead of on every page view. Entries are keyed by the job, its last completed build and
+ * the trend index version, so any new, deleted or re-indexed build naturally invalidates them.
+ */
+final class LrGraphDataCache {
+
+    private static final int MAX_PROJECT_RESULTS = 32;
+    private static final int MAX_GRAPHS = 256;
+
+    private static final Map<String, ProjectTrend> PROJECT_RESULTS = createLruMap(MAX_PROJECT_RESULTS);
+    private static final Map<String, JSONObject> GRAPHS = createLruMap(MAX_GRAPHS);
+
+    private LrGraphDataCache() {
+    }
+
+    /**
+     * Gets the key identifying the current trend state of a job.
+     *
+     * @param job the job
+     * @return the trend key
+     */
+    static String getTrendKey(Job<?, ?> job) {
+        Run<?, ?> lastCompletedBuild = job.getLastCompletedBuild();
+        return job.getFullName() + '#' + (lastCompletedBuild == null ? 0 : lastCompletedBuild.getNumber()) + '#' +
+                PerformanceTrendIndex.getVersion(job);
+    }
+
+    /**
+     * Gets the key of the graphs of one scenario.
+     *
+     * @param trendKey        the job trend key
+     * @param scenarioName    the scenario name
+     * @param topTransactions the number of transactions kept in the transaction graphs
+     * @param maxBuilds       the number of builds kept on the graphs x axis
+     * @return the graph key
+     */
+    static String getGraphKey(String trendKey, String scenarioName, int topTransactions, int maxBuilds) {
+        return trendKey + '#' + scenarioName + '#' + topTransactions + '#' + maxBuilds;
+    }
+
+    static ProjectTrend getProjectResults(String trendKey) {
+        return PROJECT_RESULTS.get(trendKey);
+    }
+
+    static void putProjectResults(String trendKey, ProjectLrResults projectResults, List<Integer> workedBuilds) {
+        PROJECT_RESULTS.put(trendKey, new ProjectTrend(projectResults, workedBuilds));
+    }
+
+    static JSONObject getGraphs(String graphKey) {
+        return GRAPHS.get(graphKey);
+    }
+
+    static void putGraphs(String graphKey, JSONObject graphs) {
+        GRAPHS.put(graphKey, graphs);
+    }
+
+    /**
+     * The project results of one trend state and the builds they were joined from.
+     */
+    static final class ProjectTrend {
+        final ProjectLrResults projectResults;
+        final List<Integer> workedBuilds;
+
+        ProjectTrend(ProjectLrResults projectResults, List<Integer> workedBuilds) {
+            this.projectResults = projectResults;
+            this.workedBuilds = Collections.unmodifiableList(workedBuilds);
+        }
+    }
+
+    private static <V> Map<String, V> createLruMap(final int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<String, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+}
@@ -37,8 +37,11 @@ import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -86,6 +89,10 @@ public final class LrGraphUtils {
                     "acceptable minimum and maximum transaction performance time ranges defined for your " +
                     "system.";
     public static final String SERIES = "series";
+    /**
+     * Number of series left out of a graph by {@link #limitGraph(JSONObject, int, int)}.
+     */
+    private static final String HIDDEN_SERIES = "hiddenSeries";
 
     private LrGraphUtils() {
     }
@@ -517,4 +524,86 @@ public final class LrGraphUtils {
         durationSummary.put("AvgDuration", scenarioDurationAverage);
         scenarioStats.put("AvgScenarioDuration", durationSummary);
     }
+
+    /**
+     * Limits every graph of a scenario, see {@link #limitGraph(JSONObject, int, int)}.
+     *
+     * @param scenarioGraphData the scenario graphs
+     * @param topSeries         number of series to keep in multi series graphs, 0 to keep all of them
+     * @param maxPoints         number of builds to keep on the x axis, 0 to keep all of them
+     */
+    static void limitGraphs(JSONObject scenarioGraphData, int topSeries, int maxPoints) {
+        for (Object graphName : scenarioGraphData.keySet()) {
+            limitGraph(scenarioGraphData.getJSONObject((String) graphName), topSeries, maxPoints);
+        }
+    }
+
+    /**
+     * Keeps the series with the highest values of a graph and downsamples its builds axis.
+     * Downsampling keeps the first and the last build and evenly spaced builds in between.
+     *
+     * @param graphDataSet the graph data set, modified in place
+     * @param topSeries    number of series to keep, 0 to keep all of them
+     * @param maxPoints    number of builds to keep on the x axis, 0 to keep all of them
+     */
+    static void limitGraph(JSONObject graphDataSet, int topSeries, int maxPoints) {
+        JSONArray series = graphDataSet.getJSONArray(SERIES);
+        if (topSeries > 0 && series.size() > topSeries) {
+            List<JSONObject> namedSeries = new ArrayList<JSONObject>();
+            for (Object dataset : series) {
+                if (dataset instanceof JSONObject) {
+                    namedSeries.add((JSONObject) dataset);
+                }
+            }
+            if (namedSeries.size() == series.size()) {
+                Collections.sort(namedSeries, new Comparator<JSONObject>() {
+                    @Override
+                    public int compare(JSONObject o1, JSONObject o2) {
+                        return Double.compare(maxValue(o2.getJSONArray("data")), maxValue(o1.getJSONArray("data")));
+                    }
+                });
+                JSONArray topDatasets = new JSONArray();
+                topDatasets.addAll(namedSeries.subList(0, topSeries));
+                graphDataSet.put(SERIES, topDatasets);
+                graphDataSet.put(HIDDEN_SERIES, series.size() - topSeries);
+                series = topDatasets;
+            }
+        }
+
+        JSONArray labels = graphDataSet.getJSONArray(LABELS);
+        if (maxPoints > 1 && labels.size() > maxPoints) {
+            int[] keptIndexes = new int[maxPoints];
+            for (int i = 0; i < maxPoints; i++) {
+                keptIndexes[i] = (int) Math.round((double) i * (labels.size() - 1) / (maxPoints - 1));
+            }
+            graphDataSet.put(LABELS, sample(labels, keptIndexes));
+            for (int i = 0; i < series.size(); i++) {
+                Object dataset = series.get(i);
+                if (dataset instanceof JSONObject) {
+                    JSONObject namedDataset = (JSONObject) dataset;
+                    namedDataset.put("data", sample(namedDataset.getJSONArray("data"), keptIndexes));
+                } else if (dataset instanceof JSONArray) {
+                    series.set(i, sample((JSONArray) dataset, keptIndexes));
+                }
+            }
+        }
+    }
+
+    private static JSONArray sample(JSONArray values, int[] keptIndexes) {
+        JSONArray sampled = new JSONArray();
+        for (int index : keptIndexes) {
+            sampled.add(index < values.size() ? values.get(index) : null);
+        }
+        return sampled;
+    }
+
+    private static double maxValue(JSONArray data) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (Object value : data) {
+            if (value instanceof Number) {
+                max = Math.max(max, ((Number) value).doubleValue());
+            }
+        }
+        return max;
+    }
 }
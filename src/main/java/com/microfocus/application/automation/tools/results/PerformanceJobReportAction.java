@@ -30,25 +30,47 @@ package com.microfocus.application.automation.tools.results;
 
 import com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult;
 import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResultsStore;
 import hudson.model.Action;
 import hudson.model.InvisibleAction;
 import hudson.model.Run;
+import jenkins.model.RunAction2;
 import jenkins.tasks.SimpleBuildStep;
 import net.minidev.json.JSONObject;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 
 /**
- * Holds LoadRunner infomation on a specific Job Run / Build
+ * Holds LoadRunner infomation on a specific Job Run / Build.
+ * The results themselves are kept in a compact side file in the build directory ({@link #RESULTS_FILE_NAME})
+ * and are only loaded when the performance views need them.
  */
-public class PerformanceJobReportAction extends InvisibleAction implements SimpleBuildStep.LastBuildAction {
+public class PerformanceJobReportAction extends InvisibleAction
+        implements SimpleBuildStep.LastBuildAction, RunAction2 {
 
-    private Run<?, ?> build;
+    /**
+     * Name of the LR results file in the build directory.
+     */
+    static final String RESULTS_FILE_NAME = "lrJobResults.bin";
+
+    private static final Logger LOGGER = Logger.getLogger(PerformanceJobReportAction.class.getName());
+
+    private transient Run<?, ?> build;
     private JSONObject jobDataSet;
+    /**
+     * Only set for builds recorded before the results were moved to {@link #RESULTS_FILE_NAME},
+     * or if that file could not be written. Migrated on first access.
+     */
     private LrJobResults _resultFiles;
+    private transient SoftReference<LrJobResults> cachedResults;
 
     /**
      * Instantiates a new Performance job report action.
@@ -58,7 +80,7 @@ public class PerformanceJobReportAction extends InvisibleAction implements Simpl
      */
     public PerformanceJobReportAction(Run<?, ?> build, LrJobResults resultFiles) {
         this.build = build;
-        this._resultFiles = resultFiles;
+        store(resultFiles);
     }
 
     /**
@@ -66,21 +88,91 @@ public class PerformanceJobReportAction extends InvisibleAction implements Simpl
      *
      * @param resultFiles the result files
      */
-    public void mergeResults(LrJobResults resultFiles)
+    public synchronized void mergeResults(LrJobResults resultFiles)
     {
+        LrJobResults mergedResults = getLrResultBuildDataset();
+        if (mergedResults == null) {
+            // writing only the new results would overwrite the ones that can not be read
+            LOGGER.log(Level.WARNING, "LoadRunner results of {0} can not be read, new results are not merged into them", build);
+            return;
+        }
         for(JobLrScenarioResult scenarioResult : resultFiles.getLrScenarioResults().values())
         {
-            this._resultFiles.addScenario(scenarioResult);
+            mergedResults.addScenario(scenarioResult);
         }
+        store(mergedResults);
     }
 
     /**
      * Gets lr result build dataset.
      *
-     * @return the lr result build dataset
+     * @return the lr result build dataset, or null if the results file of the build can not be read
+     */
+    public synchronized LrJobResults getLrResultBuildDataset() {
+        if (_resultFiles != null) {
+            return migrateLegacyResults();
+        }
+        LrJobResults results = cachedResults == null ? null : cachedResults.get();
+        if (results == null) {
+            File resultsFile = new File(build.getRootDir(), RESULTS_FILE_NAME);
+            if (!resultsFile.exists()) {
+                results = new LrJobResults();
+            } else {
+                results = readResults(resultsFile);
+                if (results == null) {
+                    // not cached, the next access reads the file again
+                    return null;
+                }
+            }
+            cachedResults = new SoftReference<LrJobResults>(results);
+        }
+        return results;
+    }
+
+    /**
+     * Reads the LR results of a build directly from its directory, without loading the build record.
+     *
+     * @param buildDir the build directory
+     * @return the results, or null if the build has no results file (yet) or it can not be read
      */
-    public LrJobResults getLrResultBuildDataset() {
-        return _resultFiles;
+    static LrJobResults readResults(File buildDir, int buildNumber) {
+        File resultsFile = new File(new File(buildDir, String.valueOf(buildNumber)), RESULTS_FILE_NAME);
+        return resultsFile.exists() ? readResults(resultsFile) : null;
+    }
+
+    private static LrJobResults readResults(File resultsFile) {
+        try {
+            return LrJobResultsStore.read(resultsFile);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to read LoadRunner results " + resultsFile, e);
+            return null;
+        }
+    }
+
+    private LrJobResults migrateLegacyResults() {
+        LrJobResults results = _resultFiles;
+        if (build != null && store(results)) {
+            try {
+                build.save();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to save " + build + " after migrating its LoadRunner results", e);
+            }
+        }
+        return results;
+    }
+
+    private boolean store(LrJobResults results) {
+        cachedResults = new SoftReference<LrJobResults>(results);
+        try {
+            LrJobResultsStore.write(new File(build.getRootDir(), RESULTS_FILE_NAME), results);
+            _resultFiles = null;
+            return true;
+        } catch (IOException e) {
+            // keep the results in the build record rather than losing them
+            LOGGER.log(Level.WARNING, "Failed to write LoadRunner results of " + build, e);
+            _resultFiles = results;
+            return false;
+        }
     }
 
     /**
@@ -93,6 +185,15 @@ public class PerformanceJobReportAction extends InvisibleAction implements Simpl
         return jobDataSet;
     }
 
+    @Override
+    public void onAttached(Run<?, ?> r) {
+        this.build = r;
+    }
+
+    @Override
+    public void onLoad(Run<?, ?> r) {
+        this.build = r;
+    }
 
     @Override
     public Collection<? extends Action> getProjectActions() {
@@ -39,13 +39,16 @@ import com.microfocus.application.automation.tools.results.projectparser.perform
 import com.microfocus.application.automation.tools.results.projectparser.performance.TimeRangeResult;
 import com.microfocus.application.automation.tools.results.projectparser.performance.WholeRunResult;
 import hudson.model.Action;
+import hudson.model.Item;
 import hudson.model.Job;
-import hudson.model.Run;
-import hudson.util.RunList;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
+import org.kohsuke.stapler.interceptor.RequirePOST;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -69,15 +72,16 @@ public class PerformanceProjectAction implements Action {
      */
     private static final Logger LOGGER = Logger
             .getLogger(PerformanceProjectAction.class.getName());
-    private static final int MAX_DISPLAY_BUILDS = 20;
+    static final int MAX_DISPLAY_BUILDS = 20;
     /**
      * The Current project.
      */
     public final Job<?, ?> currentProject;
     private ArrayList<LrJobResults> jobLrResults;
-    private int lastBuildId = -1;
-    private ArrayList<Integer> _workedBuilds;
+    private List<Integer> _workedBuilds;
     private ProjectLrResults _projectResult;
+    // trend key the project result was built for
+    private String _projectResultKey;
     private Collection<Action> projectActions;
 
 
@@ -107,6 +111,7 @@ public class PerformanceProjectAction implements Action {
     @JavaScriptMethod
     public JSONArray getScenarioList() {
         JSONArray scenarioList = new JSONArray();
+        updateDataIfNeeded(LrGraphDataCache.getTrendKey(currentProject));
         for (String scenarioName : _projectResult.getScenarioResults().keySet()) {
             JSONObject scenario = new JSONObject();
             scenario.put("ScenarioName", scenarioName);
@@ -129,42 +134,81 @@ public class PerformanceProjectAction implements Action {
             return new JSONObject();
         }
 
+        String trendKey = LrGraphDataCache.getTrendKey(currentProject);
+        updateDataIfNeeded(trendKey);
+        for (String scenarioName : _projectResult.getScenarioResults().keySet()) {
+            projectDataSet.put(scenarioName, getScenarioGraphData(trendKey, scenarioName, 0, 0));
+        }
+        return projectDataSet;
+    }
+
+    /**
+     * Gets the graph data of a single scenario.
+     * The data is cached until a build completes or the trend index changes.
+     *
+     * @param scenarioName    the scenario name
+     * @param topTransactions the number of transactions (with the highest response times) to keep in the
+     *                        transaction graphs, 0 to keep all of them
+     * @param maxBuilds       the number of builds to keep on the graphs, 0 to keep all of them
+     * @return the scenario graph data
+     */
+    @JavaScriptMethod
+    public JSONObject getScenarioGraphData(String scenarioName, int topTransactions, int maxBuilds) {
+        return getScenarioGraphData(LrGraphDataCache.getTrendKey(currentProject), scenarioName, topTransactions,
+                maxBuilds);
+    }
+
+    private JSONObject getScenarioGraphData(String trendKey, String scenarioName, int topTransactions,
+                                            int maxBuilds) {
+        String graphKey = LrGraphDataCache.getGraphKey(trendKey, scenarioName, topTransactions, maxBuilds);
+        JSONObject scenarioData = LrGraphDataCache.getGraphs(graphKey);
+        if (scenarioData != null) {
+            return scenarioData;
+        }
 
-        for (SortedMap.Entry<String, LrProjectScenarioResults> scenarioResults : _projectResult.getScenarioResults()
-                .entrySet()) {
+        updateDataIfNeeded(trendKey);
+        LrProjectScenarioResults scenarioResults = _projectResult.getScenarioResults().get(scenarioName);
+        if (scenarioResults == null) {
+            return new JSONObject();
+        }
+        scenarioData = constructScenarioData(
+                new AbstractMap.SimpleEntry<String, LrProjectScenarioResults>(scenarioName, scenarioResults),
+                topTransactions, maxBuilds);
+        LrGraphDataCache.putGraphs(graphKey, scenarioData);
+        return scenarioData;
+    }
 
-            JSONObject scenarioData = new JSONObject();
-            JSONObject scenarioStats = new JSONObject();
-            //            LrGraphUtils
-            //                    .constructVuserSummary(scenarioResults.getValue().getvUserSummary(), scenarioStats, _workedBuilds
-            //                            .size());
-            //            LrGraphUtils.constructDurationSummary(scenarioResults.getValue().getDurationData(), scenarioStats);
-            //            LrGraphUtils.constructConnectionSummary(scenarioResults.getValue().getMaxConnectionsCount(), scenarioStats);
-            //            LrGraphUtils.constructTransactionSummary(scenarioResults.getValue().getTransactionSum(), scenarioStats,
-            //                    _workedBuilds.size());
+    private static JSONObject constructScenarioData(Map.Entry<String, LrProjectScenarioResults> scenarioResults,
+                                                    int topTransactions, int maxBuilds) {
+        JSONObject scenarioData = new JSONObject();
+        JSONObject scenarioStats = new JSONObject();
+        //            LrGraphUtils
+        //                    .constructVuserSummary(scenarioResults.getValue().getvUserSummary(), scenarioStats, _workedBuilds
+        //                            .size());
+        //            LrGraphUtils.constructDurationSummary(scenarioResults.getValue().getDurationData(), scenarioStats);
+        //            LrGraphUtils.constructConnectionSummary(scenarioResults.getValue().getMaxConnectionsCount(), scenarioStats);
+        //            LrGraphUtils.constructTransactionSummary(scenarioResults.getValue().getTransactionSum(), scenarioStats,
+        //                    _workedBuilds.size());
 
 
-            scenarioData.put("scenarioStats", scenarioStats);
+        scenarioData.put("scenarioStats", scenarioStats);
 
-            JSONObject scenarioGraphData = new JSONObject();
-            //Scenario data graphs
+        JSONObject scenarioGraphData = new JSONObject();
+        //Scenario data graphs
 //            LrGraphUtils.constructVuserGraph(scenarioResults, scenarioGraphData);
 //            LrGraphUtils.constructConnectionsGraph(scenarioResults, scenarioGraphData);
-            //Scenario SLA graphs
-            LrGraphUtils.constructTotalHitsGraph(scenarioResults, scenarioGraphData);
-            LrGraphUtils.constructAvgHitsGraph(scenarioResults, scenarioGraphData);
-            LrGraphUtils.constructTotalThroughputGraph(scenarioResults, scenarioGraphData);
-            LrGraphUtils.constructAverageThroughput(scenarioResults, scenarioGraphData);
-            LrGraphUtils.constructErrorGraph(scenarioResults, scenarioGraphData);
-            LrGraphUtils.constructAvgTransactionGraph(scenarioResults, scenarioGraphData);
-            LrGraphUtils.constructPercentileTransactionGraph(scenarioResults, scenarioGraphData);
-
-            scenarioData.put("scenarioData", scenarioGraphData);
-
-            String scenarioName = scenarioResults.getKey();
-            projectDataSet.put(scenarioName, scenarioData);
-        }
-        return projectDataSet;
+        //Scenario SLA graphs
+        LrGraphUtils.constructTotalHitsGraph(scenarioResults, scenarioGraphData);
+        LrGraphUtils.constructAvgHitsGraph(scenarioResults, scenarioGraphData);
+        LrGraphUtils.constructTotalThroughputGraph(scenarioResults, scenarioGraphData);
+        LrGraphUtils.constructAverageThroughput(scenarioResults, scenarioGraphData);
+        LrGraphUtils.constructErrorGraph(scenarioResults, scenarioGraphData);
+        LrGraphUtils.constructAvgTransactionGraph(scenarioResults, scenarioGraphData);
+        LrGraphUtils.constructPercentileTransactionGraph(scenarioResults, scenarioGraphData);
+        LrGraphUtils.limitGraphs(scenarioGraphData, topTransactions, maxBuilds);
+
+        scenarioData.put("scenarioData", scenarioGraphData);
+        return scenarioData;
     }
 
 
@@ -216,82 +260,97 @@ public class PerformanceProjectAction implements Action {
      * @return the boolean
      */
     boolean isVisible() {
-        List<? extends Run<?, ?>> builds = currentProject.getBuilds();
-        for (Run run : builds) {
-            if (run.getAction(PerformanceJobReportAction.class) != null) {
-                return true;
-            }
-        }
-        return false;
+        return !PerformanceTrendIndex.load(currentProject).isEmpty();
     }
 
     /**
      * Gets updated data.
+     * The trend is read from the job {@link PerformanceTrendIndex}, so only the displayed builds are loaded.
      */
-    public synchronized void getUpdatedData() {
-        if (!isUpdateDataNeeded()) {
-            return;
-        }
-
-        this._projectResult = new ProjectLrResults();
+    public void getUpdatedData() {
+        updateData(LrGraphDataCache.getTrendKey(currentProject));
+    }
 
-        _workedBuilds = new ArrayList<Integer>();
+    private void updateDataIfNeeded(String trendKey) {
+        // a completed or re-indexed build changes the trend key
+        if (_projectResult == null || !trendKey.equals(_projectResultKey)) {
+            updateData(trendKey);
+        }
+    }
 
-        RunList<? extends Run> projectBuilds = currentProject.getBuilds();
+    private synchronized void updateData(String trendKey) {
+        LrGraphDataCache.ProjectTrend cachedTrend = LrGraphDataCache.getProjectResults(trendKey);
+        if (cachedTrend != null) {
+            this._workedBuilds = cachedTrend.workedBuilds;
+            this._projectResult = cachedTrend.projectResults;
+            this._projectResultKey = trendKey;
+            return;
+        }
 
-        // updateLastBuild();
+        ProjectLrResults projectResult = new ProjectLrResults();
+        ArrayList<Integer> workedBuilds = new ArrayList<Integer>();
 
-        for (Run run : projectBuilds) {
-            PerformanceJobReportAction performanceJobReportAction = run.getAction(PerformanceJobReportAction.class);
-            if (performanceJobReportAction == null) {
+        for (PerformanceTrendIndex.Entry entry : PerformanceTrendIndex.load(currentProject).getEntries()) {
+            int runNumber = entry.getBuildNumber();
+            if (workedBuilds.contains(runNumber)) {
                 continue;
             }
-            if (run.isBuilding()) {
-                continue;
-            }
-
-            int runNumber = run.getNumber();
-            if (_workedBuilds.contains(runNumber)) {
+            LrJobResults jobLrResult = entry.getResults(currentProject);
+            if (jobLrResult == null) {
                 continue;
             }
+            workedBuilds.add(runNumber);
+            joinBuildResults(projectResult, runNumber, jobLrResult);
+        }
 
+        this._workedBuilds = workedBuilds;
+        this._projectResult = projectResult;
+        this._projectResultKey = trendKey;
+        LrGraphDataCache.putProjectResults(trendKey, projectResult, workedBuilds);
+    }
 
+    /**
+     * Rebuilds the job performance trend index from the build history.
+     *
+     * @return redirect to the report page
+     */
+    @RequirePOST
+    public HttpResponse doRebuildTrendIndex() {
+        currentProject.checkPermission(Item.CONFIGURE);
+        PerformanceTrendIndex.rebuild(currentProject);
+        return HttpResponses.redirectToDot();
+    }
 
-            _workedBuilds.add(runNumber);
-            LrJobResults jobLrResult = performanceJobReportAction.getLrResultBuildDataset();
-
-            // get all the ran scenario results from this run and insert them into the project
-            for (Map.Entry<String, JobLrScenarioResult> runResult : jobLrResult.getLrScenarioResults().entrySet()) {
-                // add the scenario if it's the first time it's ran in this build (allows scenarios to be also added
-                // at diffrent time)
-                if (!_projectResult.getScenarioResults().containsKey(runResult.getKey())) {
-                    _projectResult.addScenario(new LrProjectScenarioResults(runResult.getKey()));
-                }
-                // Join the SLA rule results
-                LrProjectScenarioResults lrProjectScenarioResults =
-                        _projectResult.getScenarioResults().get(runResult.getKey());
-                if(lrProjectScenarioResults.getBuildCount() > MAX_DISPLAY_BUILDS)
-                {
-                    continue;
-                }
-                lrProjectScenarioResults.incBuildCount();
-                JobLrScenarioResult scenarioRunResult = runResult.getValue();
-                for (GoalResult goalResult : scenarioRunResult.scenarioSlaResults) {
-                    scenarioGoalResult(runNumber, lrProjectScenarioResults, goalResult);
-                }
-
-                // Join sceanrio stats
-                joinSceanrioConnectionsStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
-                joinVUserScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
-                joinTransactionScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
-                joinDurationStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
-
+    private static void joinBuildResults(ProjectLrResults projectResult, int runNumber, LrJobResults jobLrResult) {
+        // get all the ran scenario results from this run and insert them into the project
+        for (Map.Entry<String, JobLrScenarioResult> runResult : jobLrResult.getLrScenarioResults().entrySet()) {
+            // add the scenario if it's the first time it's ran in this build (allows scenarios to be also added
+            // at diffrent time)
+            if (!projectResult.getScenarioResults().containsKey(runResult.getKey())) {
+                projectResult.addScenario(new LrProjectScenarioResults(runResult.getKey()));
+            }
+            // Join the SLA rule results
+            LrProjectScenarioResults lrProjectScenarioResults =
+                    projectResult.getScenarioResults().get(runResult.getKey());
+            if(lrProjectScenarioResults.getBuildCount() >= MAX_DISPLAY_BUILDS)
+            {
+                continue;
+            }
+            lrProjectScenarioResults.incBuildCount();
+            JobLrScenarioResult scenarioRunResult = runResult.getValue();
+            for (GoalResult goalResult : scenarioRunResult.scenarioSlaResults) {
+                scenarioGoalResult(runNumber, lrProjectScenarioResults, goalResult);
             }
 
+            // Join sceanrio stats
+            joinSceanrioConnectionsStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
+            joinVUserScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
+            joinTransactionScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
+            joinDurationStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
         }
     }
 
-    private void joinDurationStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+    private static void joinDurationStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
                                    JobLrScenarioResult scenarioRunResult) {
         long scenarioConnectionMax = scenarioRunResult.getScenarioDuration();
         if (scenarioConnectionMax != DEFAULT_SCENARIO_DURATION) {
@@ -299,7 +358,7 @@ public class PerformanceProjectAction implements Action {
         }
     }
 
-    private void joinTransactionScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+    private static void joinTransactionScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
                                               JobLrScenarioResult scenarioRunResult) {
         SortedMap<Integer, TreeMap<String, TreeMap<String, Integer>>> projectTransactionPerRun =
                 lrProjectScenarioResults.getTransactionPerRun();
@@ -348,7 +407,7 @@ public class PerformanceProjectAction implements Action {
         }
     }
 
-    private void joinVUserScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+    private static void joinVUserScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
                                         JobLrScenarioResult scenarioRunResult) {
         SortedMap<Integer, TreeMap<String, Integer>> vUserPerRun = lrProjectScenarioResults.getvUserPerRun();
         if (scenarioRunResult.vUserSum != null && !scenarioRunResult.vUserSum.isEmpty()) {
@@ -368,7 +427,7 @@ public class PerformanceProjectAction implements Action {
         }
     }
 
-    private void joinSceanrioConnectionsStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+    private static void joinSceanrioConnectionsStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
                                               JobLrScenarioResult scenarioRunResult) {
         int scenarioConnectionMax = scenarioRunResult.getConnectionMax();
         if (scenarioConnectionMax != DEFAULT_CONNECTION_MAX) {
@@ -429,20 +488,6 @@ public class PerformanceProjectAction implements Action {
         }
     }
 
-    private boolean isUpdateDataNeeded() {
-//        final Run<?, ?> lastBuild = currentProject.getLastBuild();
-//        if (null == lastBuild) {
-//            return false;
-//        }
-//
-//        int latestBuildNumber = lastBuild.getNumber();
-//        if (latestBuildNumber == lastBuildId) {
-//            return true;
-//        }
-
-        return true;
-    }
-
 //    @Override
 //    public Collection<? extends Action> getProjectActions() {
 //        this.projectActions.add(this);
@@ -0,0 +1,310 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per job index of the LoadRunner results used by the project performance report.
+ * The index is persisted next to the job configuration and is appended to as builds complete,
+ * so the report never has to walk and load the whole build history.
+ * Only the builds that still contribute to the displayed trend are kept in the index, their results are read
+ * from the build results files.
+ */
+public class PerformanceTrendIndex {
+
+    /**
+     * Name of the index file in the job root directory.
+     */
+    static final String INDEX_FILE_NAME = "lrPerformanceTrend.xml";
+
+    private static final Logger LOGGER = Logger.getLogger(PerformanceTrendIndex.class.getName());
+
+    /**
+     * Guards read-modify-write cycles on the index files.
+     */
+    private static final Object WRITE_LOCK = new Object();
+
+    /**
+     * Index entries, newest build first.
+     */
+    private List<Entry> entries = new ArrayList<Entry>();
+
+    /**
+     * Gets the index entries, newest build first.
+     *
+     * @return the entries
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Is empty boolean.
+     *
+     * @return true if no build in the index has LoadRunner results
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Loads the index of the given job, building it from the build history if it does not exist yet.
+     *
+     * @param job the job
+     * @return the index
+     */
+    public static PerformanceTrendIndex load(Job<?, ?> job) {
+        XmlFile indexFile = getIndexFile(job);
+        if (indexFile.exists()) {
+            try {
+                PerformanceTrendIndex index = (PerformanceTrendIndex) indexFile.read();
+                if (index.isValid()) {
+                    return index;
+                }
+                LOGGER.log(Level.INFO, "Performance trend index " + indexFile + " has an older format, rebuilding it");
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to read performance trend index " + indexFile + ", rebuilding it", e);
+            }
+        }
+        return rebuild(job);
+    }
+
+    /**
+     * Rebuilds the index of the given job from scratch by walking its build history.
+     *
+     * @param job the job
+     * @return the rebuilt index
+     */
+    public static PerformanceTrendIndex rebuild(Job<?, ?> job) {
+        synchronized (WRITE_LOCK) {
+            PerformanceTrendIndex index = new PerformanceTrendIndex();
+            for (Run<?, ?> run : job.getBuilds()) {
+                if (run.isBuilding()) {
+                    continue;
+                }
+                PerformanceJobReportAction action = run.getAction(PerformanceJobReportAction.class);
+                LrJobResults results = action == null ? null : action.getLrResultBuildDataset();
+                if (results != null) {
+                    index.entries.add(new Entry(run.getNumber(), results));
+                }
+            }
+            index.prune();
+            index.save(job);
+            return index;
+        }
+    }
+
+    /**
+     * Adds (or replaces) the results of a completed build in the index of its job.
+     *
+     * @param run the completed run
+     */
+    public static void append(Run<?, ?> run) {
+        PerformanceJobReportAction action = run.getAction(PerformanceJobReportAction.class);
+        LrJobResults results = action == null ? null : action.getLrResultBuildDataset();
+        if (results == null) {
+            return;
+        }
+        synchronized (WRITE_LOCK) {
+            Job<?, ?> job = run.getParent();
+            // a missing index (first LR build or an upgraded plugin) is migrated from the build history
+            PerformanceTrendIndex index = load(job);
+            index.removeEntry(run.getNumber());
+            index.entries.add(new Entry(run.getNumber(), results));
+            Collections.sort(index.entries, (e1, e2) -> Integer.compare(e2.buildNumber, e1.buildNumber));
+            index.prune();
+            index.save(job);
+        }
+    }
+
+    /**
+     * Removes a deleted build from the index of its job.
+     *
+     * @param run the deleted run
+     */
+    public static void remove(Run<?, ?> run) {
+        synchronized (WRITE_LOCK) {
+            Job<?, ?> job = run.getParent();
+            if (!getIndexFile(job).exists()) {
+                return;
+            }
+            PerformanceTrendIndex index = load(job);
+            if (index.removeEntry(run.getNumber())) {
+                index.save(job);
+            }
+        }
+    }
+
+    private boolean isValid() {
+        if (entries == null) {
+            return false;
+        }
+        for (Entry entry : entries) {
+            if (entry.scenarioNames == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean removeEntry(int buildNumber) {
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext(); ) {
+            if (it.next().buildNumber == buildNumber) {
+                it.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops the entries that no longer contribute any scenario to the displayed trend,
+     * i.e. builds older than the last {@link PerformanceProjectAction#MAX_DISPLAY_BUILDS} runs of every scenario.
+     */
+    private void prune() {
+        Map<String, Integer> scenarioBuildCount = new HashMap<String, Integer>();
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            boolean contributes = false;
+            for (String scenarioName : entry.scenarioNames) {
+                Integer count = scenarioBuildCount.get(scenarioName);
+                int current = count == null ? 0 : count;
+                if (current < PerformanceProjectAction.MAX_DISPLAY_BUILDS) {
+                    scenarioBuildCount.put(scenarioName, current + 1);
+                    contributes = true;
+                }
+            }
+            if (!contributes) {
+                it.remove();
+            }
+        }
+    }
+
+    private void save(Job<?, ?> job) {
+        XmlFile indexFile = getIndexFile(job);
+        try {
+            indexFile.write(this);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save performance trend index " + indexFile, e);
+        }
+    }
+
+    /**
+     * Gets a value that changes every time the index of the job is written.
+     *
+     * @param job the job
+     * @return the index version, 0 if the job has no index yet
+     */
+    static long getVersion(Job<?, ?> job) {
+        File file = getIndexFile(job).getFile();
+        return file.lastModified() * 31 + file.length();
+    }
+
+    private static XmlFile getIndexFile(Job<?, ?> job) {
+        return new XmlFile(Run.XSTREAM2, new File(job.getRootDir(), INDEX_FILE_NAME));
+    }
+
+    /**
+     * A build with LoadRunner results and the scenarios it ran.
+     */
+    public static class Entry {
+        private final int buildNumber;
+        private final List<String> scenarioNames;
+
+        /**
+         * Instantiates a new Entry.
+         *
+         * @param buildNumber the build number
+         * @param results     the build LR results
+         */
+        public Entry(int buildNumber, LrJobResults results) {
+            this.buildNumber = buildNumber;
+            this.scenarioNames = new ArrayList<String>(results.getLrScenarioResults().keySet());
+        }
+
+        public int getBuildNumber() {
+            return buildNumber;
+        }
+
+        /**
+         * Gets the build LR results, read from the build results file when it exists.
+         *
+         * @param job the job of the build
+         * @return the results, or null if the build no longer exists
+         */
+        public LrJobResults getResults(Job<?, ?> job) {
+            LrJobResults results = PerformanceJobReportAction.readResults(job.getBuildDir(), buildNumber);
+            if (results != null) {
+                return results;
+            }
+            // build recorded before the results file was introduced
+            Run<?, ?> run = job.getBuildByNumber(buildNumber);
+            PerformanceJobReportAction action = run == null ? null : run.getAction(PerformanceJobReportAction.class);
+            return action == null ? null : action.getLrResultBuildDataset();
+        }
+    }
+
+    /**
+     * Keeps the index in sync with the build history.
+     */
+    @Extension
+    public static class RunListenerImpl extends RunListener<Run> {
+
+        @Override
+        public void onCompleted(Run run, @Nonnull TaskListener listener) {
+            append(run);
+        }
+
+        @Override
+        public void onDeleted(Run run) {
+            if (run.getAction(PerformanceJobReportAction.class) != null) {
+                remove(run);
+            }
+        }
+    }
+}
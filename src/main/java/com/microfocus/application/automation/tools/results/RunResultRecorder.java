@@ -67,6 +67,7 @@ import javax.annotation.Nonnull;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -111,6 +112,11 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
     private static final String PARALLEL_RESULT_FILE = "parallelrun_results.html";
     private static final String REPORT_ARCHIVE_SUFFIX = "_Report.zip";
 	private static final String EXTERNAL_REPORT_FOLDER = "StRes";
+	/**
+	 * RunReport.xml files from this size on are parsed with {@link RunReportStreamParser}.
+	 */
+	static final long STREAMING_PARSER_THRESHOLD =
+			Long.getLong(RunResultRecorder.class.getName() + ".streamingParserThreshold", 10L * 1024 * 1024);
 
 	private final ResultsPublisherModel _resultsPublisherModel;
 	private List<FilePath> runReportList;
@@ -351,8 +357,9 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 
 		// add previous report names for aggregation when using pipelines.
 		PerformanceJobReportAction performanceJobReportAction = build.getAction(PerformanceJobReportAction.class);
-		if (performanceJobReportAction != null) {
-			reportNames.addAll(performanceJobReportAction.getLrResultBuildDataset().getLrScenarioResults().keySet());
+		LrJobResults previousResults = performanceJobReportAction == null ? null : performanceJobReportAction.getLrResultBuildDataset();
+		if (previousResults != null) {
+			reportNames.addAll(previousResults.getLrScenarioResults().keySet());
 		}
 		EnvVars env = build.getEnvironment(listener);
 		hudson.model.Node node =  Jenkins.get().getNode(env.get("NODE_NAME"));
@@ -1224,12 +1231,28 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 
 	private JobLrScenarioResult parseScenarioResults(FilePath slaFilePath)
 			throws ParserConfigurationException, SAXException, IOException, InterruptedException {
+		// large reports (long soak tests) are streamed instead of being loaded as a DOM
+		if (slaFilePath.length() >= STREAMING_PARSER_THRESHOLD) {
+			try (InputStream is = slaFilePath.read()) {
+				return RunReportStreamParser.parse(slaFilePath.getBaseName(), is);
+			} catch (XMLStreamException e) {
+				throw new SAXException(e);
+			}
+		}
+		return parseScenarioResultsWithDom(slaFilePath);
+	}
+
+	private JobLrScenarioResult parseScenarioResultsWithDom(FilePath slaFilePath)
+			throws ParserConfigurationException, SAXException, IOException, InterruptedException {
 		JobLrScenarioResult jobLrScenarioResult = new JobLrScenarioResult(slaFilePath.getBaseName());
 
 		DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
 		DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
 
-		Document doc = dBuilder.parse(slaFilePath.read());
+		Document doc;
+		try (InputStream is = slaFilePath.read()) {
+			doc = dBuilder.parse(is);
+		}
 
 		processSLA(jobLrScenarioResult, doc);
 		processLrScenarioStats(jobLrScenarioResult, doc);
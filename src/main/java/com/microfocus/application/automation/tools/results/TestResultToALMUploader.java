@@ -298,20 +298,21 @@ public class TestResultToALMUploader extends Recorder implements Serializable, M
         } else {
         	logger.log("INFO: "+ ds.getIncludedFilesCount() +" test result file found.");
         	String[] files = ds.getIncludedFiles();
+        	AlmRestInfo loginInfo = new AlmRestInfo(
+        			serverUrl,
+        			Util.replaceMacro(uploadTestResultToAlmModel.getAlmDomain(), varResolver),
+        			clientType,
+        			Util.replaceMacro(uploadTestResultToAlmModel.getAlmProject(), varResolver),
+        			uploadTestResultToAlmModel.getAlmUserName(),
+        			uploadTestResultToAlmModel.getAlmPassword(),
+        			Util.replaceMacro(uploadTestResultToAlmModel.getAlmTestSetFolder(), varResolver)
+        	);
+        	// One session and folder lookup serve all the files
+        	AlmRestTool u = new AlmRestTool(loginInfo, logger);
+        	IExternalEntityUploadService service = new DefaultExternalEntityUploadServiceImpl(u, workspace, logger);
         	for(String fileName : files) {
         		String fullpath = root.getAbsolutePath() + File.separator + fileName;
-    			AlmRestInfo loginInfo = new AlmRestInfo(
-    					serverUrl,
-    					Util.replaceMacro(uploadTestResultToAlmModel.getAlmDomain(), varResolver),
-                        clientType,
-    					Util.replaceMacro(uploadTestResultToAlmModel.getAlmProject(), varResolver),
-    					uploadTestResultToAlmModel.getAlmUserName(),
-    					uploadTestResultToAlmModel.getAlmPassword(),
-                        Util.replaceMacro(uploadTestResultToAlmModel.getAlmTestSetFolder(), varResolver)
-                );
-    			AlmRestTool u = new AlmRestTool(loginInfo, logger);
     			logger.log("INFO: Start to upload "+fullpath);
-    			IExternalEntityUploadService service = new DefaultExternalEntityUploadServiceImpl(u, workspace, logger);
     			try {
 	    			service.UploadExternalTestSet(loginInfo,
 	    					fullpath,
@@ -329,6 +330,7 @@ public class TestResultToALMUploader extends Recorder implements Serializable, M
     				build.setResult(Result.UNSTABLE);
     			}
         	}
+        	logger.log("INFO: " + u.getRestClient().getMetrics().getSummary());
         }
         logger.log("INFO: 'Upload test result to ALM' Completed.");
     }
@@ -31,7 +31,14 @@ package com.microfocus.application.automation.tools.results.parser;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import com.microfocus.application.automation.tools.results.parser.antjunit.AntJUnitReportParserImpl;
 import com.microfocus.application.automation.tools.results.parser.jenkinsjunit.JenkinsJUnitReportParserImpl;
@@ -47,6 +54,23 @@ public class ReportParserManager {
 	
 	private static ReportParserManager instance = new ReportParserManager();
 
+	private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+	/**
+	 * Root element of each known report format mapped to the parser that understands it.
+	 * NUnit 2 reports ("test-results") also go to the NUnit3 parser first, since its xsl covers both formats.
+	 */
+	private static final Map<String, Class<? extends ReportParser>> PARSER_BY_ROOT_ELEMENT = new HashMap<>();
+
+	static {
+		PARSER_BY_ROOT_ELEMENT.put("result", JenkinsJUnitReportParserImpl.class);
+		PARSER_BY_ROOT_ELEMENT.put("testsuite", MavenSureFireReportParserImpl.class);
+		PARSER_BY_ROOT_ELEMENT.put("testng-results", TestNGXmlReportParserImpl.class);
+		PARSER_BY_ROOT_ELEMENT.put("test-run", NUnit3ReportParserImpl.class);
+		PARSER_BY_ROOT_ELEMENT.put("test-results", NUnit3ReportParserImpl.class);
+		PARSER_BY_ROOT_ELEMENT.put("testsuites", AntJUnitReportParserImpl.class);
+	}
+
 	private List<ReportParser> parserList;
 	private FilePath workspace;
 	private Logger logger;
@@ -65,11 +89,20 @@ public class ReportParserManager {
 
 	public List<AlmTestSet> parseTestSets(String reportFilePath, String testingFramework, String testingTool) {
 		init();
+		String rootElement = null;
+		try (InputStream in = new FileInputStream(reportFilePath)) {
+			rootElement = detectRootElement(in);
+		} catch (Exception e) {
+			logger.log("WARN: Failed to read the root element of: " + reportFilePath);
+		}
+
 		List<AlmTestSet> testsets = null;
-		for (ReportParser reportParser : parserList) {
-			try {
-				InputStream in = new FileInputStream(reportFilePath);
+		for (ReportParser reportParser : getParsersFor(rootElement)) {
+			long start = System.currentTimeMillis();
+			try (InputStream in = new FileInputStream(reportFilePath)) {
 				testsets = reportParser.parseTestSets(in, testingFramework, testingTool);
+				logger.log(String.format("INFO: Parsed file with %s in %d ms.",
+						reportParser.getClass().getSimpleName(), System.currentTimeMillis() - start));
 				break;
 			} catch (Exception e) {
 				logger.log("Failed to parse file with: " + reportParser.getClass().getName());
@@ -78,6 +111,53 @@ public class ReportParserManager {
 		return testsets;
 	}
 
+	/**
+	 * Returns the parsers to try for a report with the given root element: the matching parser first,
+	 * then all the others in the default order in case the report is not what its root element suggests.
+	 */
+	List<ReportParser> getParsersFor(String rootElement) {
+		init();
+		Class<? extends ReportParser> preferred = rootElement == null ? null : PARSER_BY_ROOT_ELEMENT.get(rootElement);
+		if (preferred == null) {
+			return parserList;
+		}
+
+		List<ReportParser> parsers = new ArrayList<ReportParser>(parserList.size());
+		for (ReportParser parser : parserList) {
+			if (preferred.isInstance(parser)) {
+				parsers.add(0, parser);
+			} else {
+				parsers.add(parser);
+			}
+		}
+		return parsers;
+	}
+
+	/**
+	 * Reads the report only up to its first element and returns that element's local name,
+	 * or null if the stream holds no element.
+	 */
+	static String detectRootElement(InputStream in) throws XMLStreamException {
+		XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+					return reader.getLocalName();
+				}
+			}
+			return null;
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static XMLInputFactory createXmlInputFactory() {
+		XMLInputFactory xmlFactory = XMLInputFactory.newInstance();
+		xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return xmlFactory;
+	}
+
 	private void init() {
 		if (parserList == null) {
 			parserList = new ArrayList<ReportParser>();
@@ -64,7 +64,7 @@ public class JenkinsJUnitReportParserImpl implements ReportParser {
 	}	
 	
 	private Result parseFromJenkinsPluginJUnitReport(InputStream reportInputStream) throws JAXBException {
-		JAXBContext jaxbContext = JAXBContext.newInstance(Result.class);
+		JAXBContext jaxbContext = ParserUtil.getJAXBContext(Result.class);
 		Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
 		return (Result)unmarshaller.unmarshal(reportInputStream);		
 	}
@@ -34,7 +34,9 @@ import com.microfocus.application.automation.tools.results.parser.antjunit.AntJU
 import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
 import hudson.FilePath;
 
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
@@ -55,6 +57,8 @@ public class NUnit3ReportParserImpl implements ReportParser {
     private static final String TEMP_JUNIT_FILE_SUFFIX = ".xml";
     private static final String NUNIT_TO_JUNIT_XSLFILE = "nunit-to-junit.xsl";
 
+    private static Templates nunitToJunitTemplates;
+
     private FilePath workspace;
 
     public NUnit3ReportParserImpl(FilePath workspace) {
@@ -71,15 +75,17 @@ public class NUnit3ReportParserImpl implements ReportParser {
 
         FileOutputStream fileOutputStream = null;
         try {
-            TransformerFactory transformerFactory = TransformerFactory.newInstance();
-            Transformer nunitTransformer = transformerFactory.newTransformer(
-                        new StreamSource(this.getClass().getResourceAsStream(NUNIT_TO_JUNIT_XSLFILE)));
+            Transformer nunitTransformer = getNunitToJunitTemplates().newTransformer();
             File junitTargetFile = new File(workspace.createTempFile(TEMP_JUNIT_FILE_PREFIX, TEMP_JUNIT_FILE_SUFFIX).toURI());
             fileOutputStream = new FileOutputStream(junitTargetFile);
             nunitTransformer.transform(new StreamSource(reportInputStream), new StreamResult(fileOutputStream));
 
-            InputStream in = new FileInputStream(junitTargetFile);
-            return new AntJUnitReportParserImpl().parseTestSets(in, testingFramework, testingTool);
+            fileOutputStream.close();
+            fileOutputStream = null;
+
+            try (InputStream in = new FileInputStream(junitTargetFile)) {
+                return new AntJUnitReportParserImpl().parseTestSets(in, testingFramework, testingTool);
+            }
 
         } catch (Exception e) {
             throw new ReportParseException(e);
@@ -102,4 +108,15 @@ public class NUnit3ReportParserImpl implements ReportParser {
             }
         }
     }
+
+    /**
+     * The compiled xsl is thread safe and reused for every report, only the transformer is created per parse.
+     */
+    private static synchronized Templates getNunitToJunitTemplates() throws TransformerConfigurationException {
+        if (nunitToJunitTemplates == null) {
+            nunitToJunitTemplates = TransformerFactory.newInstance().newTemplates(
+                    new StreamSource(NUnit3ReportParserImpl.class.getResourceAsStream(NUNIT_TO_JUNIT_XSLFILE)));
+        }
+        return nunitToJunitTemplates;
+    }
 }
@@ -30,8 +30,11 @@ package com.microfocus.application.automation.tools.results.parser.util;
 
 import java.io.StringWriter;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 
 import com.microfocus.application.automation.tools.results.parser.ReportParser;
@@ -45,6 +48,21 @@ public class ParserUtil {
 	public static char[] testNameInvalidChars = new char[] { '\\', '/', ':', '"', '?', '\'', '<', '>', '|', '*', '%' };
 	public static char[] testSetNameInvalidChars = new char[] { '\\', '^', ',', '"', '*' };
 
+	private static final Map<Class, JAXBContext> jaxbContexts = new ConcurrentHashMap<Class, JAXBContext>();
+
+	/**
+	 * Returns a shared JAXBContext for the class. Creating a context is expensive and contexts are thread safe,
+	 * so each one is created once and reused by every parse and marshal.
+	 */
+	public static JAXBContext getJAXBContext(Class c) throws JAXBException {
+		JAXBContext context = jaxbContexts.get(c);
+		if (context == null) {
+			context = JAXBContext.newInstance(c);
+			jaxbContexts.put(c, context);
+		}
+		return context;
+	}
+
 	public static String repaceInvalidChars(char[] invalidChars, char newChar, String source)
     {
 		StringBuffer temp = new StringBuffer(source);
@@ -98,7 +116,7 @@ public class ParserUtil {
 	public static String marshallerObject(Class c, Object o){
 		String s = "<?xml version=\"1.0\" ?>";
 		try {
-			JAXBContext jaxbContext = JAXBContext.newInstance(c);
+			JAXBContext jaxbContext = getJAXBContext(c);
 			Marshaller marshaller =  jaxbContext.createMarshaller();
 			marshaller.setProperty(Marshaller.JAXB_ENCODING,"utf-8");
 			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
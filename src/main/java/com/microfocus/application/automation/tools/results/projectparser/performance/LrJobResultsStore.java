@@ -0,0 +1,420 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.projectparser.performance;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact binary storage of the LoadRunner results of a build.
+ * All the strings (scenario, transaction and SLA names) are written once in a string table and referenced by index,
+ * transaction states and SLA time ranges are written as primitive columns. The file is gzip compressed.
+ */
+public class LrJobResultsStore {
+
+    private static final int FORMAT_MAGIC = 0x4C524A52; // "LRJR"
+    private static final int FORMAT_VERSION = 1;
+    private static final int NO_STRING = -1;
+    private static final int NO_VALUE = Integer.MIN_VALUE;
+
+    private static final byte WHOLE_RUN = 0;
+    private static final byte PERCENTILE_TRANSACTION = 1;
+    private static final byte TIME_RANGE = 2;
+    private static final byte AVG_TRANSACTION = 3;
+
+    private LrJobResultsStore() {
+    }
+
+    /**
+     * Writes the results to the given file, replacing it atomically.
+     *
+     * @param file    the target file
+     * @param results the results
+     * @throws IOException if the file could not be written
+     */
+    public static void write(File file, LrJobResults results) throws IOException {
+        StringTable strings = new StringTable();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream bodyOut = new DataOutputStream(body);
+        writeResults(bodyOut, results, strings);
+        bodyOut.flush();
+
+        File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(
+                Files.newOutputStream(tmpFile.toPath()))))) {
+            out.writeInt(FORMAT_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(strings.values.size());
+            for (String value : strings.values) {
+                out.writeUTF(value);
+            }
+            body.writeTo(out);
+        }
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the results from the given file.
+     *
+     * @param file the file written by {@link #write(File, LrJobResults)}
+     * @return the results
+     * @throws IOException if the file is missing or corrupted
+     */
+    public static LrJobResults read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(
+                Files.newInputStream(file.toPath()))))) {
+            if (in.readInt() != FORMAT_MAGIC) {
+                throw new IOException("Not a LoadRunner results file: " + file);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported LoadRunner results file version " + version + ": " + file);
+            }
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+            return readResults(in, strings);
+        }
+    }
+
+    private static void writeResults(DataOutputStream out, LrJobResults results, StringTable strings)
+            throws IOException {
+        writeRunResults(out, results);
+        out.writeInt(results.getLrScenarioResults().size());
+        for (JobLrScenarioResult scenario : results.getLrScenarioResults().values()) {
+            out.writeInt(strings.indexOf(scenario.getScenarioName()));
+            writeRunResults(out, scenario);
+            out.writeLong(scenario.getScenarioDuration());
+            out.writeInt(scenario.getConnectionMax());
+            writeCounters(out, scenario.vUserSum, strings);
+            writeCounters(out, scenario.transactionSum, strings);
+            writeTransactions(out, scenario.transactionData, strings);
+            out.writeInt(scenario.scenarioSlaResults.size());
+            for (GoalResult goalResult : scenario.scenarioSlaResults) {
+                writeGoalResult(out, goalResult, strings);
+            }
+        }
+    }
+
+    private static LrJobResults readResults(DataInputStream in, String[] strings) throws IOException {
+        LrJobResults results = new LrJobResults();
+        readRunResults(in, results);
+        int scenarioCount = in.readInt();
+        for (int i = 0; i < scenarioCount; i++) {
+            JobLrScenarioResult scenario = new JobLrScenarioResult(string(strings, in.readInt()));
+            readRunResults(in, scenario);
+            scenario.setScenarioDuration(in.readLong());
+            scenario.setConnectionMax(in.readInt());
+            readCounters(in, scenario.vUserSum, strings);
+            readCounters(in, scenario.transactionSum, strings);
+            readTransactions(in, scenario.transactionData, strings);
+            int goalCount = in.readInt();
+            scenario.scenarioSlaResults.ensureCapacity(goalCount);
+            for (int j = 0; j < goalCount; j++) {
+                scenario.scenarioSlaResults.add(readGoalResult(in, strings));
+            }
+            // addScenario would count the scenario errors twice, put it directly
+            results.getLrScenarioResults().put(scenario.getScenarioName(), scenario);
+        }
+        return results;
+    }
+
+    private static void writeRunResults(DataOutputStream out, LrRunResults runResults) throws IOException {
+        out.writeInt(runResults.getTotalFailures());
+        out.writeInt(runResults.getTotalErrors());
+        out.writeDouble(runResults.getTime());
+    }
+
+    private static void readRunResults(DataInputStream in, LrRunResults runResults) throws IOException {
+        runResults.setTotalFailures(in.readInt());
+        runResults.setTotalErrors(in.readInt());
+        runResults.setTime(in.readDouble());
+    }
+
+    private static void writeCounters(DataOutputStream out, Map<String, Integer> counters, StringTable strings)
+            throws IOException {
+        out.writeInt(counters.size());
+        for (Map.Entry<String, Integer> counter : counters.entrySet()) {
+            out.writeInt(strings.indexOf(counter.getKey()));
+            out.writeInt(counter.getValue());
+        }
+    }
+
+    private static void readCounters(DataInputStream in, Map<String, Integer> counters, String[] strings)
+            throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            counters.put(string(strings, in.readInt()), in.readInt());
+        }
+    }
+
+    /**
+     * Transactions are written as a name column followed by one value column per transaction state (Pass, Fail...).
+     */
+    private static void writeTransactions(DataOutputStream out, TreeMap<String, TreeMap<String, Integer>> transactions,
+                                          StringTable strings) throws IOException {
+        Set<String> states = new LinkedHashSet<String>();
+        for (TreeMap<String, Integer> transactionStates : transactions.values()) {
+            states.addAll(transactionStates.keySet());
+        }
+        out.writeInt(transactions.size());
+        for (String transactionName : transactions.keySet()) {
+            out.writeInt(strings.indexOf(transactionName));
+        }
+        out.writeInt(states.size());
+        for (String state : states) {
+            out.writeInt(strings.indexOf(state));
+            for (TreeMap<String, Integer> transactionStates : transactions.values()) {
+                Integer value = transactionStates.get(state);
+                out.writeInt(value == null ? NO_VALUE : value);
+            }
+        }
+    }
+
+    private static void readTransactions(DataInputStream in, TreeMap<String, TreeMap<String, Integer>> transactions,
+                                         String[] strings) throws IOException {
+        List<TreeMap<String, Integer>> rows = new ArrayList<TreeMap<String, Integer>>();
+        int transactionCount = in.readInt();
+        for (int i = 0; i < transactionCount; i++) {
+            TreeMap<String, Integer> transactionStates = new TreeMap<String, Integer>();
+            transactions.put(string(strings, in.readInt()), transactionStates);
+            rows.add(transactionStates);
+        }
+        int stateCount = in.readInt();
+        for (int i = 0; i < stateCount; i++) {
+            String state = string(strings, in.readInt());
+            for (TreeMap<String, Integer> transactionStates : rows) {
+                int value = in.readInt();
+                if (value != NO_VALUE) {
+                    transactionStates.put(state, value);
+                }
+            }
+        }
+    }
+
+    private static void writeGoalResult(DataOutputStream out, GoalResult goalResult, StringTable strings)
+            throws IOException {
+        byte kind;
+        if (goalResult instanceof PercentileTransactionWholeRun) {
+            kind = PERCENTILE_TRANSACTION;
+        } else if (goalResult instanceof WholeRunResult) {
+            kind = WHOLE_RUN;
+        } else if (goalResult instanceof AvgTransactionResponseTime) {
+            kind = AVG_TRANSACTION;
+        } else if (goalResult instanceof TimeRangeResult) {
+            kind = TIME_RANGE;
+        } else {
+            throw new IOException("Unsupported SLA goal result " + goalResult.getClass().getName());
+        }
+        out.writeByte(kind);
+        out.writeByte(goalResult.getSlaGoal() == null ? -1 : goalResult.getSlaGoal().ordinal());
+        out.writeByte(goalResult.getStatus() == null ? -1 : goalResult.getStatus().ordinal());
+        out.writeInt(strings.indexOf(goalResult.getFullName()));
+        out.writeDouble(goalResult.getDuration());
+
+        switch (kind) {
+            case PERCENTILE_TRANSACTION:
+                PercentileTransactionWholeRun percentile = (PercentileTransactionWholeRun) goalResult;
+                out.writeInt(strings.indexOf(percentile.getName()));
+                out.writeDouble(percentile.getPrecentage());
+                writeWholeRun(out, percentile);
+                break;
+            case WHOLE_RUN:
+                writeWholeRun(out, (WholeRunResult) goalResult);
+                break;
+            case AVG_TRANSACTION:
+                out.writeInt(strings.indexOf(((AvgTransactionResponseTime) goalResult).getName()));
+                writeTimeRanges(out, (TimeRangeResult) goalResult, strings);
+                break;
+            default:
+                writeTimeRanges(out, (TimeRangeResult) goalResult, strings);
+                break;
+        }
+    }
+
+    private static GoalResult readGoalResult(DataInputStream in, String[] strings) throws IOException {
+        byte kind = in.readByte();
+        byte slaGoal = in.readByte();
+        byte status = in.readByte();
+        String fullName = string(strings, in.readInt());
+        double duration = in.readDouble();
+
+        GoalResult goalResult;
+        switch (kind) {
+            case PERCENTILE_TRANSACTION:
+                PercentileTransactionWholeRun percentile = new PercentileTransactionWholeRun();
+                percentile.setName(string(strings, in.readInt()));
+                percentile.setPrecentage(in.readDouble());
+                readWholeRun(in, percentile);
+                goalResult = percentile;
+                break;
+            case WHOLE_RUN:
+                WholeRunResult wholeRunResult = new WholeRunResult();
+                readWholeRun(in, wholeRunResult);
+                goalResult = wholeRunResult;
+                break;
+            case AVG_TRANSACTION:
+                AvgTransactionResponseTime avgTransaction = new AvgTransactionResponseTime();
+                avgTransaction.setName(string(strings, in.readInt()));
+                readTimeRanges(in, avgTransaction, strings);
+                goalResult = avgTransaction;
+                break;
+            case TIME_RANGE:
+                TimeRangeResult timeRangeResult = new TimeRangeResult();
+                readTimeRanges(in, timeRangeResult, strings);
+                goalResult = timeRangeResult;
+                break;
+            default:
+                throw new IOException("Unknown SLA goal result kind " + kind);
+        }
+        goalResult.setSlaGoal(slaGoal < 0 ? null : LrTest.SLA_GOAL.values()[slaGoal]);
+        goalResult.setStatus(status < 0 ? null : LrTest.SLA_STATUS.values()[status]);
+        goalResult.setFullName(fullName);
+        goalResult.setDuration(duration);
+        return goalResult;
+    }
+
+    private static void writeWholeRun(DataOutputStream out, WholeRunResult wholeRunResult) throws IOException {
+        out.writeDouble(wholeRunResult.getActualValue());
+        out.writeDouble(wholeRunResult.getGoalValue());
+    }
+
+    private static void readWholeRun(DataInputStream in, WholeRunResult wholeRunResult) throws IOException {
+        wholeRunResult.setActualValue(in.readDouble());
+        wholeRunResult.setGoalValue(in.readDouble());
+    }
+
+    private static void writeTimeRanges(DataOutputStream out, TimeRangeResult timeRangeResult, StringTable strings)
+            throws IOException {
+        out.writeInt(strings.indexOf(timeRangeResult.getLoadThrashold()));
+        out.writeDouble(timeRangeResult.getGoalValue());
+        List<TimeRange> timeRanges = timeRangeResult.getTimeRanges();
+        out.writeInt(timeRanges.size());
+        for (TimeRange timeRange : timeRanges) {
+            out.writeDouble(timeRange.getActualValue());
+        }
+        for (TimeRange timeRange : timeRanges) {
+            out.writeDouble(timeRange.getGoalValue());
+        }
+        for (TimeRange timeRange : timeRanges) {
+            out.writeByte(timeRange.getSlaStatus() == null ? -1 : timeRange.getSlaStatus().ordinal());
+        }
+        for (TimeRange timeRange : timeRanges) {
+            out.writeInt(timeRange.getLoadAmount());
+        }
+        for (TimeRange timeRange : timeRanges) {
+            out.writeDouble(timeRange.getStartTime());
+        }
+        for (TimeRange timeRange : timeRanges) {
+            out.writeDouble(timeRange.getEndTime());
+        }
+    }
+
+    private static void readTimeRanges(DataInputStream in, TimeRangeResult timeRangeResult, String[] strings)
+            throws IOException {
+        timeRangeResult.setLoadThrashold(string(strings, in.readInt()));
+        timeRangeResult.setGoalValue(in.readDouble());
+        int size = in.readInt();
+        double[] actualValues = readDoubles(in, size);
+        double[] goalValues = readDoubles(in, size);
+        byte[] statuses = new byte[size];
+        in.readFully(statuses);
+        int[] loadValues = new int[size];
+        for (int i = 0; i < size; i++) {
+            loadValues[i] = in.readInt();
+        }
+        double[] startTimes = readDoubles(in, size);
+        double[] endTimes = readDoubles(in, size);
+
+        List<TimeRange> timeRanges = timeRangeResult.getTimeRanges();
+        for (int i = 0; i < size; i++) {
+            LrTest.SLA_STATUS status = statuses[i] < 0 ? null : LrTest.SLA_STATUS.values()[statuses[i]];
+            timeRangeResult.incActualValue(actualValues[i]);
+            timeRanges.add(new TimeRange(actualValues[i], goalValues[i], status, loadValues[i], startTimes[i],
+                    endTimes[i]));
+        }
+    }
+
+    private static double[] readDoubles(DataInputStream in, int size) throws IOException {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+
+    private static String string(String[] strings, int index) throws IOException {
+        if (index == NO_STRING) {
+            return null;
+        }
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("Corrupted LoadRunner results file, bad string index " + index);
+        }
+        return strings[index];
+    }
+
+    /**
+     * Interns the strings written to a results file.
+     */
+    private static class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+        private final List<String> values = new ArrayList<String>();
+
+        int indexOf(String value) {
+            if (value == null) {
+                return NO_STRING;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = values.size();
+                indexes.put(value, index);
+                values.add(value);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.projectparser.performance;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.TreeMap;
+
+/**
+ * Single pass StAX reader of a LoadRunner RunReport.xml.
+ * Produces the same {@link JobLrScenarioResult} as the DOM based parsing in RunResultRecorder without holding
+ * the whole document in memory, which matters for long runs with a large number of SLA time ranges.
+ */
+public class RunReportStreamParser {
+
+    private static final String SLA_ACTUAL_VALUE_LABEL = "ActualValue";
+    private static final String SLA_GOAL_VALUE_LABEL = "GoalValue";
+    private static final String SLA_FULL_NAME = "FullName";
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private final JobLrScenarioResult jobLrScenarioResult;
+
+    // SLA rule currently being read and the text read directly under it
+    private GoalResult currentGoal;
+    private StringBuilder currentGoalText;
+
+    private RunReportStreamParser(String scenarioName) {
+        jobLrScenarioResult = new JobLrScenarioResult(scenarioName);
+    }
+
+    /**
+     * Parses a RunReport.xml stream into the scenario results.
+     *
+     * @param scenarioName the scenario name
+     * @param is           the RunReport.xml content, not closed by this method
+     * @return the scenario results
+     * @throws XMLStreamException if the report is not well formed
+     */
+    public static JobLrScenarioResult parse(String scenarioName, InputStream is) throws XMLStreamException {
+        RunReportStreamParser parser = new RunReportStreamParser(scenarioName);
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(is);
+        try {
+            parser.read(reader);
+        } finally {
+            reader.close();
+        }
+        return parser.jobLrScenarioResult;
+    }
+
+    private void read(XMLStreamReader reader) throws XMLStreamException {
+        // depth of the current element: Runs = 1, General / SLA = 2, their children = 3
+        int depth = 0;
+        String section = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    String name = reader.getLocalName();
+                    if (depth == 2) {
+                        section = name;
+                    } else if (depth == 3 && "General".equalsIgnoreCase(section)) {
+                        if (readGeneralElement(reader, name)) {
+                            depth--;
+                        }
+                    } else if (depth == 3 && "SLA".equalsIgnoreCase(section)) {
+                        startSlaRule(reader);
+                    } else if (depth > 3 && currentGoal != null) {
+                        // only the text after the last child element holds the rule status
+                        currentGoalText.setLength(0);
+                        if ("TimeRangeInfo".equals(name) && currentGoal instanceof TimeRangeResult) {
+                            readTimeRange(reader, (TimeRangeResult) currentGoal);
+                            depth--;
+                        }
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                    if (depth == 3 && currentGoal != null) {
+                        currentGoalText.append(reader.getText());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (depth == 3 && currentGoal != null) {
+                        endSlaRule();
+                    } else if (depth == 2) {
+                        section = null;
+                    }
+                    depth--;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Reads a child of the General element.
+     *
+     * @return true if the whole element, including its end tag, was consumed
+     */
+    private boolean readGeneralElement(XMLStreamReader reader, String name) throws XMLStreamException {
+        if ("Time".equalsIgnoreCase(name)) {
+            jobLrScenarioResult.setScenarioDuration(Long.valueOf(attribute(reader, "Duration")));
+        } else if ("Connections".equalsIgnoreCase(name)) {
+            jobLrScenarioResult.setConnectionMax(Integer.valueOf(attribute(reader, "MaxCount")));
+        } else if ("VUsers".equalsIgnoreCase(name)) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                jobLrScenarioResult.vUserSum.put(reader.getAttributeLocalName(i),
+                        Integer.valueOf(reader.getAttributeValue(i)));
+            }
+        } else if ("Transactions".equalsIgnoreCase(name)) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                jobLrScenarioResult.transactionSum.put(reader.getAttributeLocalName(i),
+                        Integer.valueOf(reader.getAttributeValue(i)));
+            }
+            readTransactions(reader);
+            return true;
+        }
+        return false;
+    }
+
+    private void readTransactions(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                if (depth == 2) {
+                    TreeMap<String, Integer> transactionData = new TreeMap<String, Integer>();
+                    transactionData.put("Pass", Integer.valueOf(attribute(reader, "Pass")));
+                    transactionData.put("Fail", Integer.valueOf(attribute(reader, "Fail")));
+                    transactionData.put("Stop", Integer.valueOf(attribute(reader, "Stop")));
+                    jobLrScenarioResult.transactionData.put(attribute(reader, "Name"), transactionData);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private void startSlaRule(XMLStreamReader reader) {
+        LrTest.SLA_GOAL slaGoal = LrTest.SLA_GOAL.checkGoal(attribute(reader, "Measurement"));
+        switch (slaGoal) {
+            case AverageThroughput:
+            case TotalThroughput:
+            case AverageHitsPerSecond:
+            case TotalHits:
+                WholeRunResult wholeRunResult = new WholeRunResult();
+                readWholeRunValues(reader, wholeRunResult);
+                currentGoal = wholeRunResult;
+                break;
+            case PercentileTRT:
+                PercentileTransactionWholeRun percentileTransactionWholeRun = new PercentileTransactionWholeRun();
+                percentileTransactionWholeRun.setName(attribute(reader, "TransactionName"));
+                readWholeRunValues(reader, percentileTransactionWholeRun);
+                percentileTransactionWholeRun.setPrecentage(Double.valueOf(attribute(reader, "Percentile")));
+                currentGoal = percentileTransactionWholeRun;
+                break;
+            case ErrorsPerSecond:
+            case AverageTRT:
+                AvgTransactionResponseTime transactionTimeRange = new AvgTransactionResponseTime();
+                if (slaGoal == LrTest.SLA_GOAL.AverageTRT) {
+                    transactionTimeRange.setName(attribute(reader, "TransactionName"));
+                }
+                transactionTimeRange.setLoadThrashold(attribute(reader, "SLALoadThresholdValue"));
+                currentGoal = transactionTimeRange;
+                break;
+            default:
+                currentGoal = null;
+                return;
+        }
+        currentGoal.setSlaGoal(slaGoal);
+        currentGoal.setFullName(attribute(reader, SLA_FULL_NAME));
+        currentGoalText = new StringBuilder();
+    }
+
+    private static void readWholeRunValues(XMLStreamReader reader, WholeRunResult wholeRunResult) {
+        wholeRunResult.setActualValue(Double.valueOf(attribute(reader, SLA_ACTUAL_VALUE_LABEL)));
+        wholeRunResult.setGoalValue(Double.valueOf(attribute(reader, SLA_GOAL_VALUE_LABEL)));
+    }
+
+    private void endSlaRule() {
+        currentGoal.setStatus(LrTest.SLA_STATUS.checkStatus(currentGoalText.toString().trim()));
+        jobLrScenarioResult.scenarioSlaResults.add(currentGoal);
+        currentGoal = null;
+        currentGoalText = null;
+    }
+
+    private static void readTimeRange(XMLStreamReader reader, TimeRangeResult timeRangeResult)
+            throws XMLStreamException {
+        double actualValue = Double.parseDouble(attribute(reader, SLA_ACTUAL_VALUE_LABEL));
+        double goalValue = Double.parseDouble(attribute(reader, SLA_GOAL_VALUE_LABEL));
+        int loadValue = Integer.parseInt(attribute(reader, "LoadValue"));
+        double startTime = Double.parseDouble(attribute(reader, "StartTime"));
+        double endTime = Double.parseDouble(attribute(reader, "EndTime"));
+        // consumes the element up to and including its end tag
+        LrTest.SLA_STATUS slaStatus = LrTest.SLA_STATUS.checkStatus(reader.getElementText());
+
+        // the goal of the first time range is taken as the goal of the whole rule
+        if (timeRangeResult.getTimeRanges().isEmpty()) {
+            timeRangeResult.setGoalValue(goalValue);
+        }
+        timeRangeResult.incActualValue(actualValue);
+        timeRangeResult.getTimeRanges().add(new TimeRange(actualValue, goalValue, slaStatus, loadValue, startTime,
+                endTime));
+    }
+
+    private static String attribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value == null ? "" : value;
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory xmlFactory = XMLInputFactory.newInstance();
+        xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        xmlFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return xmlFactory;
+    }
+}
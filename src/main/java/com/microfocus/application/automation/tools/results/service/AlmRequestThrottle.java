@@ -0,0 +1,93 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.service;
+
+import java.util.concurrent.Semaphore;
+
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+
+/**
+ * Limits the number of requests sent to ALM at the same time during a parallel upload.
+ * A server error takes one permit away, successful responses slowly give it back.
+ */
+public class AlmRequestThrottle {
+
+	/** Times an idempotent request is retried after a server error. */
+	public static final int MAX_RETRIES = 3;
+
+	private static final int RECOVER_AFTER_SUCCESSES = 20;
+	private static final long BASE_BACKOFF_MILLIS = 500;
+	private static final long MAX_BACKOFF_MILLIS = 30000;
+
+	private final Semaphore permits;
+	private final int maxLimit;
+	private int limit;
+	private int successes;
+
+	public AlmRequestThrottle(int maxLimit) {
+		this.maxLimit = Math.max(1, maxLimit);
+		this.limit = this.maxLimit;
+		this.permits = new Semaphore(this.maxLimit, true);
+	}
+
+	public void acquire() throws InterruptedException {
+		permits.acquire();
+	}
+
+	/**
+	 * Give back the permit taken by {@link #acquire()}, adjusting the limit by the response.
+	 */
+	public synchronized void release(Response response) {
+		if (isServerError(response)) {
+			successes = 0;
+			if (limit > 1) {
+				// Keep the permit, so one request less is in flight from now on
+				limit--;
+				return;
+			}
+		} else if (limit < maxLimit && ++successes >= RECOVER_AFTER_SUCCESSES) {
+			successes = 0;
+			limit++;
+			permits.release();
+		}
+		permits.release();
+	}
+
+	public synchronized int getLimit() {
+		return limit;
+	}
+
+	public static boolean isServerError(Response response) {
+		return response != null && response.getStatusCode() >= 500;
+	}
+
+	public static long getBackoffMillis(int attempt) {
+		return Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt, 16));
+	}
+}
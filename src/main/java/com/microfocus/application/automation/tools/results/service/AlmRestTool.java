@@ -46,12 +46,14 @@ import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
 import com.microfocus.application.automation.tools.sse.sdk.authenticator.AuthenticationTool;
 import com.microfocus.application.automation.tools.sse.sdk.authenticator.RestAuthenticator;
+import com.microfocus.application.automation.tools.sse.sdk.request.GeneralRequest;
 
 public class AlmRestTool {
 	
 	private Logger _logger ;
 	private RestClient restClient;
 	private AlmRestInfo almLoginInfo;
+	private AlmRequestThrottle throttle;
 
 	private final String USERNAMEPRETAG = "<Username>";
 	private final String USERNAMESUBTAG = "</Username>";
@@ -75,6 +77,49 @@ public class AlmRestTool {
 		return this.restClient;
 	}
 
+	/**
+	 * Send entity requests through the throttle, used when uploading in parallel.
+	 */
+	public void setThrottle(AlmRequestThrottle throttle) {
+		this.throttle = throttle;
+	}
+
+	/**
+	 * Send a request, through the throttle if there is one.
+	 * Idempotent requests are retried with backoff when ALM answers with a server error.
+	 */
+	private Response send(GeneralRequest request, boolean idempotent) {
+		if (throttle == null) {
+			return request.execute();
+		}
+		for (int attempt = 0; ; attempt++) {
+			Response response = null;
+			try {
+				throttle.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return new Response(e);
+			}
+			try {
+				response = request.execute();
+			} finally {
+				throttle.release(response);
+			}
+			if (!idempotent || attempt >= AlmRequestThrottle.MAX_RETRIES
+					|| !AlmRequestThrottle.isServerError(response)) {
+				return response;
+			}
+			_logger.log(String.format("INFO: ALM server error %d, retry in %d ms.",
+					response.getStatusCode(), AlmRequestThrottle.getBackoffMillis(attempt)));
+			try {
+				Thread.sleep(AlmRequestThrottle.getBackoffMillis(attempt));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return response;
+			}
+		}
+	}
+
 	public boolean login() {
         return AuthenticationTool.getInstance().authenticate(restClient, almLoginInfo.getUserName(),
 				almLoginInfo.getPassword(), almLoginInfo.getServerUrl(), almLoginInfo.getClientType(), _logger);
@@ -197,7 +242,7 @@ public class AlmRestTool {
 		try {
 			AlmEntity entity = entityClass.newInstance();
 			GetAlmEntityRequest getRequest = new GetAlmEntityRequest(entity, getRestClient(), getEntityUnderParentFolderQuery);
-			Response response = getRequest.perform();
+			Response response = send(getRequest, true);
 			if(response.isOk() ) {
 				List<Map<String, String>> entities2 = XPathUtils.toEntities(response.toString());
 				List<E> entities = getAlmEntityList(entities2, entityClass);
@@ -227,7 +272,7 @@ public class AlmRestTool {
 		
 		try {
 			GetAlmEntityRequest getRequest = new GetAlmEntityRequest(entity, getRestClient(), queryString);
-			Response response = getRequest.perform();
+			Response response = send(getRequest, true);
 			if(response.isOk() && !response.toString().equals("")) {
 				List<Map<String, String>> entities2 = XPathUtils.toEntities(response.toString());
 				List entities = getAlmEntityList(entities2, entity.getClass());
@@ -250,7 +295,7 @@ public class AlmRestTool {
 	public <E extends AlmEntity> E createAlmEntity (E entity, String[] fieldsForCreation) throws ExternalEntityUploadException {
 		
 		CreateAlmEntityRequest createRequest = new CreateAlmEntityRequest(getRestClient(), entity, getPairListForAlmEntityFields(entity, fieldsForCreation) );
-		Response response = createRequest.perform();	
+		Response response = send(createRequest, false);	
 		if(response.isOk() && !response.toString().equals("")){
 			List<Map<String, String>> entities2 = XPathUtils.toEntities(response.toString());
 			List entities = getAlmEntityList(entities2, entity.getClass());
@@ -275,7 +320,7 @@ public class AlmRestTool {
 	public <E extends AlmEntity> void updateAlmEntity (E entity, String[] fieldsForUpdate) {
 		
 		UpdateAlmEntityRequest updateRequest = new UpdateAlmEntityRequest(getRestClient(), entity, getMapListForAlmEntityFields(entity, fieldsForUpdate)) ;
-		Response response = updateRequest.execute();
+		Response response = send(updateRequest, true);
 		
 		if(!response.isOk()) {
 			_logger.log("Failed to update entity:" + entity.toString());
@@ -35,7 +35,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.microfocus.application.automation.tools.common.utils.ThreadPools;
 import com.microfocus.application.automation.tools.results.parser.ReportParserManager;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmCommonProperties;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmEntity;
@@ -60,14 +67,37 @@ import hudson.FilePath;
 public class DefaultExternalEntityUploadServiceImpl implements
 		IExternalEntityUploadService {
 
+	/**
+	 * Number of tests uploaded at the same time. 1 uploads them one by one.
+	 */
+	public static final int DEFAULT_PARALLELISM =
+			Integer.getInteger(DefaultExternalEntityUploadServiceImpl.class.getName() + ".parallelism", 1);
+
 	Logger logger;
 	private AlmRestTool restTool;
 	private FilePath workspace;
+	private int parallelism;
+
+	// The service may upload several files with one session, these are kept between them.
+	private String actualUser;
+	private final Map<String, AlmTestFolder> testFolders = new HashMap<String, AlmTestFolder>();
+	private final Map<String, AlmTestSetFolder> testsetFolders = new HashMap<String, AlmTestSetFolder>();
+	// Tests with the same class and method in a folder are imported one at a time,
+	// so two workers never create the same test or test instance.
+	private final ConcurrentMap<String, Object> testLocks = new ConcurrentHashMap<String, Object>();
 	
 	public DefaultExternalEntityUploadServiceImpl(AlmRestTool restTool, FilePath workspace, Logger logger) {
+		this(restTool, workspace, logger, DEFAULT_PARALLELISM);
+	}
+
+	public DefaultExternalEntityUploadServiceImpl(AlmRestTool restTool, FilePath workspace, Logger logger, int parallelism) {
 		this.restTool = restTool;
 		this.logger = logger;
 		this.workspace = workspace;
+		this.parallelism = Math.max(1, parallelism);
+		if (this.parallelism > 1) {
+			restTool.setThrottle(new AlmRequestThrottle(this.parallelism));
+		}
 	}
 
 	private String [] getTestCreationFields() {
@@ -385,24 +415,26 @@ public class DefaultExternalEntityUploadServiceImpl implements
 			logger.log("INFO: No testset to upload.");
 			return;
 		}
-		logger.log("INFO: Start to login to ALM Server.");
-
 		try {
-			if(!restTool.login()) {
-				throw new ExternalEntityUploadException("Failed to login to ALM Server.");
-			}
+			if (actualUser == null) {
+				logger.log("INFO: Start to login to ALM Server.");
+				if(!restTool.login()) {
+					throw new ExternalEntityUploadException("Failed to login to ALM Server.");
+				}
 
-			// Get the username again if logged in with API key.
-			String actualUser = restTool.getActualUsername();
-			if (actualUser == null || actualUser.length() == 0) {
-				throw new ExternalEntityUploadException("Failed to get actual login user.");
+				// Get the username again if logged in with API key.
+				String user = restTool.getActualUsername();
+				if (user == null || user.length() == 0) {
+					throw new ExternalEntityUploadException("Failed to get actual login user.");
+				}
+				actualUser = user;
 			}
 
 			logger.log("INFO: Checking test folder...");
-			AlmTestFolder testFolder = createTestFolderPath(2, testFolderPath);
+			AlmTestFolder testFolder = getTestFolder(testFolderPath);
 
 			logger.log("INFO: Checking testset folder...");
-			AlmTestSetFolder testsetFolder = createTestSetFolderPath (0, testsetFolderPath);
+			AlmTestSetFolder testsetFolder = getTestSetFolder(testsetFolderPath);
 
 			if(testFolder != null && testsetFolder != null) {
 				logger.log("INFO: Uploading ALM Entities...");
@@ -420,13 +452,35 @@ public class DefaultExternalEntityUploadServiceImpl implements
 			throw new ExternalEntityUploadException(e);
 		}
 	}
+
+	private synchronized AlmTestFolder getTestFolder(String path) throws ExternalEntityUploadException {
+		AlmTestFolder testFolder = testFolders.get(path);
+		if (testFolder == null) {
+			testFolder = createTestFolderPath(2, path);
+			if (testFolder != null) {
+				testFolders.put(path, testFolder);
+			}
+		}
+		return testFolder;
+	}
+
+	private synchronized AlmTestSetFolder getTestSetFolder(String path) throws ExternalEntityUploadException {
+		AlmTestSetFolder testsetFolder = testsetFolders.get(path);
+		if (testsetFolder == null) {
+			testsetFolder = createTestSetFolderPath(0, path);
+			if (testsetFolder != null) {
+				testsetFolders.put(path, testsetFolder);
+			}
+		}
+		return testsetFolder;
+	}
 	
 	
-	private void importExternalTestSet(List<AlmTestSet> testsets, String tester, int testsetFolderId, int testFolderId, String testingTool, String subversion, String jobName, String buildUrl ) throws ExternalEntityUploadException{
+	private void importExternalTestSet(List<AlmTestSet> testsets, final String tester, int testsetFolderId, final int testFolderId, final String testingTool, final String subversion, final String jobName, final String buildUrl ) throws ExternalEntityUploadException{
 
-		
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
 		for (AlmTestSet testset : testsets){
-			AlmTestSet importedTestSet = importTestSet(testset, testsetFolderId);
+			final AlmTestSet importedTestSet = importTestSet(testset, testsetFolderId);
 			if(importedTestSet == null ) {
 				continue;
 			}
@@ -435,44 +489,103 @@ public class DefaultExternalEntityUploadServiceImpl implements
 				continue;
 			}
 
-			for(AlmEntity testinstanceEntity: testinstances){
-				AlmTestInstance testInstance = (AlmTestInstance) testinstanceEntity;
-				List<AlmEntity> tests = testInstance.getRelatedEntities().get(EntityRelation.TEST_TO_TESTINSTANCE_REALIZATION_RELATION);
-				if(tests == null || tests.size() <= 0) {
-					continue;
-				}
+			for(final AlmEntity testinstanceEntity: testinstances){
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws ExternalEntityUploadException {
+						importTestInstanceAndRun((AlmTestInstance) testinstanceEntity, importedTestSet, tester,
+								testFolderId, testingTool, subversion, jobName, buildUrl);
+						return null;
+					}
+				});
+			}
+		}
 
-				AlmTest test = (AlmTest) tests.get(0);
-				AlmTest importedTest = importTest(test, testFolderId, testingTool, tester);
-				if(importedTest == null) {
-					continue;
-				}
-				
-				AlmTestConfig mainTestConfig = getMainTestConfig(importedTest);
-				if(mainTestConfig == null) {
-					continue;
+		if (parallelism <= 1 || tasks.size() <= 1) {
+			for (Callable<Void> task : tasks) {
+				try {
+					task.call();
+				} catch (ExternalEntityUploadException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new ExternalEntityUploadException(e);
 				}
+			}
+		} else {
+			runInParallel(tasks);
+		}
+	}
 
-				AlmTestInstance importedTestInstance = importTestInstance(testInstance, importedTestSet.getId(), importedTest.getId(), mainTestConfig.getId(), tester);
-				List<AlmEntity> runs = testInstance.getRelatedEntities().get(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION);
-				if(runs == null || runs.size() <= 0) {
-					continue;
-				}
-				
-				AlmRun run = (AlmRun) runs.get(0);
-				generateRun(tester, 
-							run,  
-							importedTestSet.getId(),
-							importedTest.getId(), 
-							importedTestInstance.getId(), 
-							mainTestConfig.getId(), 
-							subversion,
-							jobName,
-							buildUrl
-							);
+	private void runInParallel(List<Callable<Void>> tasks) throws ExternalEntityUploadException {
+		logger.log(String.format("INFO: Uploading %d tests with %d workers.", tasks.size(), parallelism));
+		ExecutorService executor = ThreadPools.newFixedThreadPool(Math.min(parallelism, tasks.size()), "ALM test results upload");
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (Callable<Void> task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			// Stop at the first failure, the same as a sequential upload does.
+			for (Future<Void> future : futures) {
+				future.get();
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ExternalEntityUploadException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof ExternalEntityUploadException) {
+				throw (ExternalEntityUploadException) e.getCause();
+			}
+			throw new ExternalEntityUploadException(e.getCause());
+		} finally {
+			executor.shutdownNow();
 		}
-		
+	}
+
+	private void importTestInstanceAndRun(AlmTestInstance testInstance, AlmTestSet importedTestSet, String tester, int testFolderId, String testingTool, String subversion, String jobName, String buildUrl) throws ExternalEntityUploadException {
+		List<AlmEntity> tests = testInstance.getRelatedEntities().get(EntityRelation.TEST_TO_TESTINSTANCE_REALIZATION_RELATION);
+		if(tests == null || tests.size() <= 0) {
+			return;
+		}
+
+		AlmTest test = (AlmTest) tests.get(0);
+		AlmTest importedTest;
+		AlmTestConfig mainTestConfig;
+		AlmTestInstance importedTestInstance;
+		synchronized (getTestLock(test, testFolderId)) {
+			importedTest = importTest(test, testFolderId, testingTool, tester);
+			if(importedTest == null) {
+				return;
+			}
+
+			mainTestConfig = getMainTestConfig(importedTest);
+			if(mainTestConfig == null) {
+				return;
+			}
+
+			importedTestInstance = importTestInstance(testInstance, importedTestSet.getId(), importedTest.getId(), mainTestConfig.getId(), tester);
+		}
+		List<AlmEntity> runs = testInstance.getRelatedEntities().get(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION);
+		if(runs == null || runs.size() <= 0) {
+			return;
+		}
+
+		AlmRun run = (AlmRun) runs.get(0);
+		generateRun(tester,
+					run,
+					importedTestSet.getId(),
+					importedTest.getId(),
+					importedTestInstance.getId(),
+					mainTestConfig.getId(),
+					subversion,
+					jobName,
+					buildUrl
+					);
+	}
+
+	private Object getTestLock(AlmTest test, int testFolderId) {
+		String key = String.format("%d|%s|%s", testFolderId,
+				test.getFieldValue(AlmTest.TS_UT_CLASS_NAME), test.getFieldValue(AlmTest.TS_UT_METHOD_NAME));
+		return testLocks.computeIfAbsent(key, k -> new Object());
 	}
 	
 }
@@ -32,8 +32,10 @@
 package com.microfocus.application.automation.tools.run;
 
 import com.microfocus.adm.performancecenter.plugins.common.pcentities.*;
+import com.microfocus.application.automation.tools.common.utils.ThreadPools;
 import com.microfocus.application.automation.tools.pc.PcClient;
 import com.microfocus.application.automation.tools.pc.PcModel;
+import com.microfocus.application.automation.tools.pc.PcRunMonitor;
 import com.microfocus.application.automation.tools.pc.helper.DateFormatter;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Error;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Failure;
@@ -60,6 +62,7 @@ import org.apache.http.client.ClientProtocolException;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 
 import javax.annotation.Nonnull;
@@ -69,6 +72,13 @@ import java.lang.reflect.Method;
 import java.text.Format;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import com.thoughtworks.xstream.XStream;
 
@@ -93,6 +103,10 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
     public static final String pcReportArchiveName = "Reports.zip";
     public static final String pcReportFileName = "Report.html";
     private static final String RUNID_BUILD_VARIABLE = "PC_RUN_ID";
+    private static final int DEFAULT_MAX_PARALLEL_RUNS = 4;
+    private static final int RUN_MIN_POLLING_INTERVAL = 5000;
+    // LRE publishes the runs added to a trend report one at a time
+    private static final ConcurrentMap<String, ReentrantLock> trendReportLocks = new ConcurrentHashMap<>();
 
     public static final String    TRENDED         = "Trended";
     public static final String    PENDING         = "Pending";
@@ -100,9 +114,6 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
     public static final String    ERROR           = "Error";
 
     private PcModel pcModel;
-    public static UsernamePasswordCredentials usernamePCPasswordCredentials;
-    public static UsernamePasswordCredentials usernamePCPasswordCredentialsForProxy;
-    private transient static Run<?, ?> _run;
 
     private final String timeslotDurationHours;
     private final String timeslotDurationMinutes;
@@ -128,12 +139,16 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
     private String retryDelay;
     private String retryOccurrences;
     private boolean authenticateWithToken;
+    private int maxParallelRuns;
 
+    // set on the builders running one of several tests of a step, whose reports and results are kept apart
+    private transient boolean oneOfSeveralTests;
     private int runId;
     private String testName;
     private FilePath pcReportFile;
     private String junitResultsFileName;
-    private static PrintStream logger;
+    // console of the build running this step, each execution of the step has its own builder
+    private transient PrintStream logger;
     private File WorkspacePath;
     private FilePath Workspace;
     private DateFormatter dateFormatter = new DateFormatter("");
@@ -242,20 +257,6 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
         return credentialsProxyId;
     }
 
-    public static UsernamePasswordCredentials getCredentialsId(String credentialsId)
-    {
-        if(credentialsId!=null && _run != null )
-            return getCredentialsById(credentialsId, _run, logger);
-        return null;
-    }
-
-    public static UsernamePasswordCredentials getCredentialsProxyId(String credentialsProxyId)
-    {
-        if(credentialsProxyId!=null && _run != null )
-            return getCredentialsById(credentialsProxyId, _run, logger);
-        return null;
-    }
-
 
     public  void setCredentialsId(String newCredentialsId)
     {
@@ -389,25 +390,18 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
 
     private Testsuites execute(PcClient pcClient, Run<?, ?> build)
             throws InterruptedException,NullPointerException {
-        _run = build;
         try {
-            String version = getVersion();
-            if(!(version == null || version.equals("unknown")))
-                logger.println(String.format("%s - %s '%s'",
-                        dateFormatter.getDate(),
-                        Messages.PluginVersionIs(),
-                        version));
-            if((getPcModel() !=null) && (build != null) && (build instanceof AbstractBuild))
-                setPcModelBuildParameters((AbstractBuild) build, null);
-            if (!StringUtils.isBlank(getPcModel().getDescription()))
-                logger.println(String.format("%s - %s: %s",
-                        dateFormatter.getDate(),
-                        Messages.TestDescription(),
-                        getPcModel().getDescription()));
-            if (!beforeRun(pcClient))
+            if (!startRun(pcClient, build))
                 return null;
-
-            return run(pcClient, build);
+            PcRunResponse response = null;
+            try {
+                response = pcClient.waitForRunCompletion(runId);
+            } catch (PcException e) {
+                logger.println(String.format("%s - Error: %s",
+                        dateFormatter.getDate(),
+                        e.getMessage()));
+            }
+            return completeRun(pcClient, build, response);
 
         } catch (InterruptedException e) {
             build.setResult(Result.ABORTED);
@@ -428,19 +422,219 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
         return null;
     }
 
-    private Testsuites run(PcClient pcClient, Run<?, ?> build)
+    /**
+     * Runs several tests with one LRE session: at most {@link #getMaxParallelRuns()} runs at a time,
+     * their states polled from a single thread, each test with its own reports and results file.
+     */
+    private void executeTests(PcClient pcClient, Run<?, ?> build, FilePath workspace, List<String> testIds)
+            throws InterruptedException {
+        int parallelRuns = Math.min(getMaxParallelRuns(), testIds.size());
+        logger.println(String.format("%s - Running %s tests, up to %s at a time: %s",
+                dateFormatter.getDate(),
+                testIds.size(),
+                parallelRuns,
+                StringUtils.join(testIds, ", ")));
+        if ("MANUAL".equals(autoTestInstanceID))
+            logger.println(String.format("%s - The test instances are selected automatically when running several tests",
+                    dateFormatter.getDate()));
+
+        List<ParallelTestRun> runs = new ArrayList<>();
+        ExecutorService pool = ThreadPools.newFixedThreadPool(parallelRuns, "LRE test run");
+        ScheduledExecutorService scheduler = ThreadPools.newSingleThreadScheduledExecutor("LRE run poller");
+        try {
+            if (!pcClient.login()) {
+                publishRunResults(build, workspace, null);
+                return;
+            }
+            Semaphore slots = new Semaphore(parallelRuns);
+            for (String id : testIds) {
+                slots.acquire();
+                PcBuilder builder = forTest(id);
+                ParallelTestRun run = new ParallelTestRun(builder, pcClient.withModel(builder.getPcModel()),
+                        build, workspace, pool, scheduler, slots);
+                runs.add(run);
+                pool.execute(run::start);
+            }
+            // every run releases its slot once its results are published
+            slots.acquire(parallelRuns);
+        } catch (InterruptedException e) {
+            build.setResult(Result.ABORTED);
+            for (ParallelTestRun run : runs)
+                run.abort();
+            throw e;
+        } finally {
+            pool.shutdownNow();
+            scheduler.shutdownNow();
+            pcClient.logout();
+            List<String> resultsFileNames = new ArrayList<>();
+            for (ParallelTestRun run : runs) {
+                if (run.builder.getRunResultsFileName() != null)
+                    resultsFileNames.add(run.builder.getRunResultsFileName());
+            }
+            // the results publisher accepts several comma separated files
+            if (!resultsFileNames.isEmpty())
+                junitResultsFileName = StringUtils.join(resultsFileNames, ",");
+        }
+    }
+
+    private List<String> getTestIds() {
+        Set<String> testIds = new LinkedHashSet<>();
+        for (String id : testId.split(",")) {
+            if (!id.trim().isEmpty())
+                testIds.add(id.trim());
+        }
+        return new ArrayList<>(testIds);
+    }
+
+    PcBuilder forTest(String testId) {
+        PcBuilder builder = new PcBuilder(serverAndPort, pcServerName, credentialsId, almDomain, almProject,
+                testId, testInstanceId, "AUTO", timeslotDurationHours, timeslotDurationMinutes, postRunAction,
+                vudsMode, statusBySLA, description, addRunToTrendReport, trendReportId, HTTPSProtocol, proxyOutURL,
+                credentialsProxyId, retry, retryDelay, retryOccurrences, authenticateWithToken);
+        builder.oneOfSeveralTests = true;
+        builder.logger = logger;
+        builder.Workspace = Workspace;
+        builder.WorkspacePath = WorkspacePath;
+        return builder;
+    }
+
+    // one of the tests of executeTests: started and completed on the pool, polled on the scheduler
+    private static final class ParallelTestRun {
+
+        private final PcBuilder builder;
+        private final PcClient pcClient;
+        private final Run<?, ?> build;
+        private final FilePath workspace;
+        private final ExecutorService pool;
+        private final ScheduledExecutorService scheduler;
+        private final Semaphore slots;
+        private PcRunMonitor monitor;
+        private volatile boolean finished;
+
+        ParallelTestRun(PcBuilder builder, PcClient pcClient, Run<?, ?> build, FilePath workspace,
+                        ExecutorService pool, ScheduledExecutorService scheduler, Semaphore slots) {
+            this.builder = builder;
+            this.pcClient = pcClient;
+            this.build = build;
+            this.workspace = workspace;
+            this.pool = pool;
+            this.scheduler = scheduler;
+            this.slots = slots;
+        }
+
+        void start() {
+            try {
+                if (builder.startRun(pcClient, build)) {
+                    monitor = pcClient.createRunMonitor(builder.getRunId(), RUN_MIN_POLLING_INTERVAL);
+                    scheduler.execute(this::poll);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                // the step is aborted
+                return;
+            } catch (Exception e) {
+                logError(e);
+            }
+            finish(null);
+        }
+
+        private void poll() {
+            long delay;
+            try {
+                delay = monitor.poll();
+            } catch (Exception e) {
+                logError(e);
+                finish(null);
+                return;
+            }
+            if (delay < 0)
+                pool.execute(this::complete);
+            else
+                scheduler.schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void complete() {
+            Testsuites testsuites = null;
+            try {
+                testsuites = builder.completeRun(pcClient, build, monitor.getResponse());
+            } catch (InterruptedException e) {
+                // the step is aborted
+                return;
+            } catch (Exception e) {
+                logError(e);
+            }
+            finish(testsuites);
+        }
+
+        private void finish(Testsuites testsuites) {
+            try {
+                builder.publishRunResults(build, workspace, testsuites);
+            } finally {
+                finished = true;
+                slots.release();
+            }
+        }
+
+        void abort() {
+            if (!finished)
+                builder.abortRun(pcClient, build);
+        }
+
+        private void logError(Exception e) {
+            builder.logger.println(String.format("%s - %s",
+                    builder.dateFormatter.getDate(),
+                    e.getMessage()));
+        }
+    }
+
+    /**
+     * Creates the client of the LRE server configured in this step, with the logger and credentials of the build.
+     * The credentials are resolved once here and kept by the client, which logs in again with them when needed.
+     */
+    public PcClient createPcClient(Run<?, ?> build, TaskListener listener) throws IOException, InterruptedException {
+        logger = listener.getLogger();
+        // the credentials may be given by build parameters
+        if (build instanceof AbstractBuild)
+            setPcModelBuildParameters((AbstractBuild) build, null);
+        PcModel model = getPcModel();
+        UsernamePasswordCredentials credentials = getCredentialsById(model.getCredentialsId(true), build, logger);
+        UsernamePasswordCredentials proxyCredentials = getCredentialsById(model.getCredentialsProxyId(true), build, logger);
+        return newPcClient(model, credentials, proxyCredentials);
+    }
+
+    PcClient newPcClient(PcModel pcModel, UsernamePasswordCredentials credentials, UsernamePasswordCredentials proxyCredentials) {
+        return new PcClient(pcModel, logger, credentials, proxyCredentials);
+    }
+
+    /**
+     * Logs in and starts the run of the test; the run is then followed with {@link PcClient#createRunMonitor(int, int)}
+     * or {@link PcClient#waitForRunCompletion(int)} and completed with {@link #completeRun(PcClient, Run, PcRunResponse)}.
+     *
+     * @return false if the run was not started
+     */
+    public boolean startRun(PcClient pcClient, Run<?, ?> build)
             throws InterruptedException, ClientProtocolException,
             IOException, PcException {
+        String version = getVersion();
+        if(!(version == null || version.equals("unknown")))
+            logger.println(String.format("%s - %s '%s'",
+                    dateFormatter.getDate(),
+                    Messages.PluginVersionIs(),
+                    version));
         if((getPcModel() !=null) && (build != null) && (build instanceof AbstractBuild))
             setPcModelBuildParameters((AbstractBuild) build, null);
-        PcRunResponse response = null;
-        String errorMessage = "";
-        String eventLogString = "";
-        boolean trendReportReady = false;
+        if (!StringUtils.isBlank(getPcModel().getDescription()))
+            logger.println(String.format("%s - %s: %s",
+                    dateFormatter.getDate(),
+                    Messages.TestDescription(),
+                    getPcModel().getDescription()));
+        if (!beforeRun(pcClient))
+            return false;
+
         try {
             runId = pcClient.startRun();
             if (runId == 0)
-                return null;
+                return false;
         } catch (NumberFormatException|ClientProtocolException|PcException ex) {
             logger.println(String.format("%s - %s. %s: %s",
                     dateFormatter.getDate(),
@@ -478,28 +672,54 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
                     ex.getMessage()));
         }
 
-        try {
-            List<ParameterValue> parameters = new ArrayList<>();
-            parameters.add(new StringParameterValue(RUNID_BUILD_VARIABLE, "" + runId));
-            // This allows a user to access the runId from within Jenkins using a build variable.
-            build.addAction(new AdditionalParametersAction(parameters));
-            logger.print(String.format("%s - %s: %s = %s \n",
-                    dateFormatter.getDate(),
-                    Messages.SetEnvironmentVariable(),
-                    RUNID_BUILD_VARIABLE,
-                    runId));
-            response = pcClient.waitForRunCompletion(runId);
+        List<ParameterValue> parameters = new ArrayList<>();
+        parameters.add(new StringParameterValue(RUNID_BUILD_VARIABLE, "" + runId));
+        // This allows a user to access the runId from within Jenkins using a build variable.
+        build.addAction(new AdditionalParametersAction(parameters));
+        logger.print(String.format("%s - %s: %s = %s \n",
+                dateFormatter.getDate(),
+                Messages.SetEnvironmentVariable(),
+                RUNID_BUILD_VARIABLE,
+                runId));
+        return true;
+    }
 
+    /**
+     * Logs in again to follow the run started by {@link #startRun(PcClient, Run)} before a restart of the controller.
+     *
+     * @return false if the login failed
+     */
+    public boolean resumeRun(PcClient pcClient, Run<?, ?> build) {
+        logger.println(String.format("%s - Resuming the monitoring of the Run (ID=%s) after a restart",
+                dateFormatter.getDate(),
+                runId));
+        return pcClient.login();
+    }
+
+    /**
+     * Publishes the reports of the run once it reached the state awaited by its post run action.
+     *
+     * @param response last state of the run received from LRE, null if none was received
+     * @return the results of the run
+     */
+    public Testsuites completeRun(PcClient pcClient, Run<?, ?> build, PcRunResponse response)
+            throws InterruptedException, IOException, PcException {
+        String errorMessage = "";
+        String eventLogString = "";
+        boolean trendReportReady = false;
+        try {
             if (response != null && RunState.get(response.getRunState()) == FINISHED && getPcModel().getPostRunAction() != PostRunAction.DO_NOTHING) {
                 pcReportFile = pcClient.publishRunReport(runId, getReportDirectory(build));
 
                 // Adding the trend report section if ID has been set or if the Associated Trend report is selected.
                 if(((("USE_ID").equals(getPcModel().getAddRunToTrendReport()) && getPcModel().getTrendReportId(true) != null) || ("ASSOCIATED").equals(getPcModel().getAddRunToTrendReport())) && RunState.get(response.getRunState()) != RUN_FAILURE){
-                    Thread.sleep(5000);
-                    pcClient.addRunToTrendReport(this.runId, getPcModel().getTrendReportId(true));
-                    pcClient.waitForRunToPublishOnTrendReport(this.runId, getPcModel().getTrendReportId(true));
-                    pcClient.downloadTrendReportAsPdf(getPcModel().getTrendReportId(true), getTrendReportsDirectory(build));
-                    trendReportReady = true;
+                    ReentrantLock trendReportLock = getTrendReportLock();
+                    trendReportLock.lockInterruptibly();
+                    try {
+                        trendReportReady = publishOnTrendReport(pcClient, build);
+                    } finally {
+                        trendReportLock.unlock();
+                    }
                 }
 
             } else if (response != null && RunState.get(response.getRunState()).ordinal() > FINISHED.ordinal()) {
@@ -525,6 +745,42 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
 
         return ret;
     }
+
+    /**
+     * Adds the run to the trend report and downloads the report once the run is published on it;
+     * called while holding the lock of the trend report, LRE publishes one run at a time on a trend report.
+     *
+     * @return true once the trend report is downloaded
+     */
+    boolean publishOnTrendReport(PcClient pcClient, Run<?, ?> build)
+            throws InterruptedException, IOException, PcException {
+        Thread.sleep(5000);
+        pcClient.addRunToTrendReport(this.runId, getPcModel().getTrendReportId(true));
+        pcClient.waitForRunToPublishOnTrendReport(this.runId, getPcModel().getTrendReportId(true));
+        return pcClient.downloadTrendReportAsPdf(getPcModel().getTrendReportId(true), getTrendReportsDirectory(build));
+    }
+
+    /**
+     * Stops the run started by {@link #startRun(PcClient, Run)} and marks the build as aborted.
+     */
+    public void abortRun(PcClient pcClient, Run<?, ?> build) {
+        build.setResult(Result.ABORTED);
+        if (runId > 0)
+            pcClient.stopRun(runId);
+    }
+
+    public int getRunId() {
+        return runId;
+    }
+
+    private ReentrantLock getTrendReportLock() {
+        String trendReport = String.format("%s/%s/%s/%s",
+                getPcModel().getPcServerName(true),
+                getPcModel().getAlmDomain(true),
+                getPcModel().getAlmProject(true),
+                getPcModel().getTrendReportId(true));
+        return trendReportLocks.computeIfAbsent(trendReport, key -> new ReentrantLock());
+    }
     
     private String buildEventLogString(PcRunEventLog eventLog) {
         
@@ -537,14 +793,19 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
     }
 
     private boolean beforeRun(PcClient pcClient) {
-        return validatePcForm() && pcClient.login();
+        return validatePcForm() && (pcClient.isLoggedIn() || pcClient.login());
     }
     
     private String getReportDirectory(Run<?, ?> build) {
-        return String.format(
+        String reportDirectory = String.format(
                 runReportStructure,
                 build.getRootDir().getPath(),
                 artifactsDirectoryName);
+        return oneOfSeveralTests ? reportDirectory + "/" + getTestDirectoryName() : reportDirectory;
+    }
+
+    private String getTestDirectoryName() {
+        return "TestId_" + getPcModel().getTestId(true).replaceAll("[^\\w-]", "_");
     }
 
     private String getTrendReportsDirectory(Run<?, ?> build) {
@@ -682,7 +943,8 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
 
             // Updating all CSV files for plot plugin
             // this helps to show the transaction of each result
-            if (isPluginActive("Plot plugin")) {
+            // (the files are written to the workspace, which the pcLoadTest step may not have)
+            if (isPluginActive("Plot plugin") && Workspace != null) {
                 logger.println(String.format("%s %s.",
                         dateFormatter.getDate(),
                         Messages.UpdatingCsvFilesForTrendingCharts()));
@@ -884,7 +1146,7 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
     private String getOutputForReportLinks(Run<?, ?> build) {
         String urlPattern = getArtifactsUrlPattern(build);
         String viewUrl = String.format(urlPattern + "/%s", pcReportFileName);
-        String downloadUrl = String.format(urlPattern + "/%s", "*zip*/pcRun");
+        String downloadUrl = String.format(urlPattern + "/%s", "*zip*/" + (oneOfSeveralTests ? getTestDirectoryName() : "pcRun"));
         logger.println(String.format("%s - %s", dateFormatter.getDate(), HyperlinkNote.encodeTo(viewUrl, Messages.ViewAnalysisReportOfRun() + " " + runId)));
 
         return String.format("%s: %s" +
@@ -898,9 +1160,10 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
     private String getArtifactsUrlPattern(Run<?, ?> build) {
 
         String runReportUrlTemp = runReportStructure.replaceFirst("%s/", "");
-        return String.format(
+        String urlPattern = String.format(
                 runReportUrlTemp,
                 artifactsResourceName);
+        return oneOfSeveralTests ? urlPattern + "/" + getTestDirectoryName() : urlPattern;
     }
     
     private void provideStepResultStatus(Result resultStatus, Run<?, ?> build) {
@@ -962,7 +1225,9 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
     private String getJunitResultsFileName() {
         Format formatter = new SimpleDateFormat("ddMMyyyyHHmmssSSS");
         String time = formatter.format(new Date());
-        junitResultsFileName = String.format("Results%s.xml", time);
+        junitResultsFileName = oneOfSeveralTests
+                ? String.format("Results%s_%s.xml", time, getTestDirectoryName())
+                : String.format("Results%s.xml", time);
         return junitResultsFileName;
     }
 
@@ -971,14 +1236,13 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
                         @Nonnull TaskListener listener) throws InterruptedException, IOException {
         Workspace = workspace;
         WorkspacePath = new File(workspace.toURI());
-        Result resultStatus = Result.FAILURE;
         //trendReportReady = false;
-        logger = listener.getLogger();
-        if(credentialsId != null)
-            usernamePCPasswordCredentials = getCredentialsById(credentialsId, build, logger);
-        if(credentialsProxyId != null && !credentialsProxyId.isEmpty())
-            usernamePCPasswordCredentialsForProxy = getCredentialsById(credentialsProxyId, build, logger);
-        PcClient pcClient = new PcClient(getPcModel(), logger);
+        PcClient pcClient = createPcClient(build, listener);
+        List<String> testIds = getTestIds();
+        if (testIds.size() > 1) {
+            executeTests(pcClient, build, workspace, testIds);
+            return;
+        }
         Testsuites testsuites = execute(pcClient, build);
 
 //        // Create Trend Report
@@ -989,9 +1253,7 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
 //        }
 //        // End Create Trend Report
 
-        FilePath resultsFilePath = workspace.child(getJunitResultsFileName());
-        resultStatus = createRunResults(resultsFilePath, testsuites);
-        provideStepResultStatus(resultStatus, build);
+        Result resultStatus = publishRunResults(build, workspace, testsuites);
 
         if (!Result.SUCCESS.equals(resultStatus) && !Result.FAILURE.equals(resultStatus)) {
             return;
@@ -1003,6 +1265,19 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
 
     }
 
+    /**
+     * Writes the results of the run as a JUnit file and sets the result of the build accordingly.
+     *
+     * @param workspace directory of the results file, the results are kept in the build directory when null
+     */
+    public Result publishRunResults(Run<?, ?> build, FilePath workspace, Testsuites testsuites) {
+        FilePath directory = workspace != null ? workspace : new FilePath(build.getRootDir());
+        FilePath resultsFilePath = directory.child(getJunitResultsFileName());
+        Result resultStatus = createRunResults(resultsFilePath, testsuites);
+        provideStepResultStatus(resultStatus, build);
+        return resultStatus;
+    }
+
     public String getServerAndPort()
     {
         return getPcModel().getserverAndPort();
@@ -1088,6 +1363,15 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
         return getPcModel().httpsProtocol();
     }
 
+    public int getMaxParallelRuns() {
+        return maxParallelRuns > 0 ? maxParallelRuns : DEFAULT_MAX_PARALLEL_RUNS;
+    }
+
+    @DataBoundSetter
+    public void setMaxParallelRuns(int maxParallelRuns) {
+        this.maxParallelRuns = maxParallelRuns;
+    }
+
     public boolean isStatusBySLA() {
         return statusBySLA;
     }
@@ -1135,8 +1419,23 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
         }
         
         public FormValidation doCheckTestId(@QueryParameter String value) {
-            
-            return validateHigherThanInt(value, "Test ID", 0, true);
+
+            // several tests are separated by commas
+            for (String id : value.split(",", -1)) {
+                FormValidation ret = validateHigherThanInt(id, "Test ID", 0, true);
+                if (ret.kind != FormValidation.Kind.OK)
+                    return ret;
+            }
+            return FormValidation.ok();
+        }
+
+        public FormValidation doCheckMaxParallelRuns(@QueryParameter String value) {
+
+            if (StringUtils.isBlank(value))
+                return FormValidation.ok();
+            if (!value.trim().matches("[0-9]{1,9}") || Integer.parseInt(value.trim()) <= 0)
+                return FormValidation.error(" " + Messages.MustBeHigherThan() + " 0");
+            return FormValidation.ok();
         }
 
         public FormValidation doCheckRetryDelay(@QueryParameter String value) {
@@ -63,6 +63,7 @@ import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 
+import com.microfocus.application.automation.tools.AgentToolsCache;
 import com.microfocus.application.automation.tools.AlmToolsUtils;
 import com.microfocus.application.automation.tools.EncryptionUtils;
 import com.microfocus.application.automation.tools.run.AlmRunTypes.RunType;
@@ -324,8 +325,8 @@ public class RunFromAlmBuilder extends Builder implements SimpleBuildStep {
             // create a file for the properties file, and save the properties
             propsFileName.copyFrom(propsStream);
 
-            // Copy the script to the project workspace
-            CmdLineExe.copyFrom(cmdExeUrl);
+            // Copy the script to the project workspace, through the tools cache of the node
+            AgentToolsCache.install(cmdExeUrl, CmdLineExe);
         } catch (IOException e1) {
             build.setResult(Result.FAILURE);
             // TODO Auto-generated catch block
@@ -28,6 +28,7 @@
 
 package com.microfocus.application.automation.tools.run;
 
+import com.microfocus.application.automation.tools.AgentToolsCache;
 import com.microfocus.application.automation.tools.AlmToolsUtils;
 import com.microfocus.application.automation.tools.EncryptionUtils;
 import com.microfocus.application.automation.tools.Messages;
@@ -801,10 +802,10 @@ public class RunFromFileBuilder extends Builder implements SimpleBuildStep {
                    // create a file for the properties file, and save the properties
                    propsFileName.copyFrom(propsStream);
 
-                   // Copy the script to the project workspace
-                   CmdLineExe.copyFrom(cmdExeUrl);
+                   // Copy the script to the project workspace, through the tools cache of the node
+                   AgentToolsCache.install(cmdExeUrl, CmdLineExe);
 
-                   CmdLineExe2.copyFrom(cmdExe2Url);
+                   AgentToolsCache.install(cmdExe2Url, CmdLineExe2);
 
                } catch (IOException | InterruptedException e) {
                    build.setResult(Result.FAILURE);
@@ -43,6 +43,7 @@ import com.microfocus.application.automation.tools.model.AlmServerSettingsModel;
 import com.microfocus.application.automation.tools.model.CdaDetails;
 import com.microfocus.application.automation.tools.model.EnumDescription;
 import com.microfocus.application.automation.tools.model.SseModel;
+import com.microfocus.application.automation.tools.rest.RestClientMetrics;
 import com.microfocus.application.automation.tools.settings.AlmServerSettingsGlobalConfiguration;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Testcase;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Testsuite;
@@ -169,6 +170,19 @@ public class SseBuilder extends Builder implements SimpleBuildStep {
 
         PrintStream logger = listener.getLogger();
 
+        createSseModel(build, logger);
+
+        VariableResolver<String> varResolver = new VariableResolver.ByMap<String>(build.getEnvironment(listener));
+        Testsuites testsuites = execute(build, logger, varResolver);
+
+        publishRunResults(build, workspace, testsuites, logger);
+    }
+
+    /**
+     * Resolve the credentials and build the model of the run, the password is never kept outside of it.
+     */
+    public SseModel createSseModel(Run<?, ?> build, PrintStream logger) {
+
         UsernamePasswordCredentials credentials = getCredentialsById(credentialsId, build, logger);
 
     	_sseModel = new SseModel(
@@ -188,12 +202,22 @@ public class SseBuilder extends Builder implements SimpleBuildStep {
 
 
         _sseModel.setAlmServerUrl(getServerUrl(_sseModel.getAlmServerName()));
+        return _sseModel;
+    }
 
-        VariableResolver<String> varResolver = new VariableResolver.ByMap<String>(build.getEnvironment(listener));
-        Testsuites testsuites = execute(build, logger, varResolver);
-
-        FilePath resultsFilePath = workspace.child(getFileName());
-        Result resultStatus = createRunResults(resultsFilePath, testsuites, logger);
+    /**
+     * Write the results of a finished run to the workspace and set the build result accordingly.
+     */
+    public void publishRunResults(Run<?, ?> build, FilePath workspace, Testsuites testsuites, PrintStream logger) {
+
+        Result resultStatus;
+        if (workspace != null) {
+            FilePath resultsFilePath = workspace.child(getFileName());
+            resultStatus = createRunResults(resultsFilePath, testsuites, logger);
+        } else {
+            logger.println("No workspace available, run results file is not created");
+            resultStatus = testsuites == null || containsErrors(testsuites.getTestsuite()) ? Result.UNSTABLE : Result.SUCCESS;
+        }
         provideStepResultStatus(resultStatus, build, logger);
     }
 
@@ -254,11 +278,21 @@ public class SseBuilder extends Builder implements SimpleBuildStep {
         } catch (Exception cause) {
             build.setResult(Result.FAILURE);
             logger.print(String.format("Failed to execute test, Exception: %s", cause.getMessage()));
+        } finally {
+            printRequestMetrics(performer, logger);
         }
 
         return ret;
     }
 
+    public static void printRequestMetrics(SSEBuilderPerformer performer, PrintStream logger) {
+
+        RestClientMetrics metrics = performer == null ? null : performer.getRequestMetrics();
+        if (metrics != null && metrics.getRequestCount() > 0) {
+            logger.println(metrics.getSummary());
+        }
+    }
+
     private Result createRunResults(FilePath filePath, Testsuites testsuites, PrintStream logger) {
 
         Result ret = Result.SUCCESS;
@@ -327,7 +361,12 @@ public class SseBuilder extends Builder implements SimpleBuildStep {
             VariableResolver<String> buildVariableResolver) throws InterruptedException,
             IOException {
 
-        return performer.start(_sseModel, new Logger() {
+        return performer.start(_sseModel, toSseLogger(logger), buildVariableResolver);
+    }
+
+    public static Logger toSseLogger(final PrintStream logger) {
+
+        return new Logger() {
 
             @Override
             public void log(String message) {
@@ -339,7 +378,7 @@ public class SseBuilder extends Builder implements SimpleBuildStep {
             public void error(String message) {
                 log(message);
             }
-        }, buildVariableResolver);
+        };
     }
 
     public String getServerUrl(String almServerName) {
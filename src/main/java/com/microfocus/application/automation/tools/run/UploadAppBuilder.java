@@ -28,6 +28,8 @@
 
 package com.microfocus.application.automation.tools.run;
 
+import com.microfocus.application.automation.tools.common.utils.ThreadPools;
+import com.microfocus.application.automation.tools.mc.Constants;
 import com.microfocus.application.automation.tools.mc.JobConfigurationProxy;
 import com.microfocus.application.automation.tools.model.MCServerSettingsModel;
 import com.microfocus.application.automation.tools.model.ProxySettings;
@@ -43,17 +45,27 @@ import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.BuildListener;
 import hudson.model.Result;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Builder;
+import jenkins.MasterToSlaveFileCallable;
 import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
 import org.apache.commons.io.FilenameUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -66,6 +78,11 @@ import java.util.regex.Pattern;
  */
 public class UploadAppBuilder extends Builder {
 
+    //copy apps of remote workspaces to the controller before uploading them, for agents that can not reach UFT Mobile
+    private static final boolean UPLOAD_FROM_CONTROLLER = Boolean.getBoolean(UploadAppBuilder.class.getName() + ".uploadFromController");
+    private static final int PARALLEL_UPLOADS = Math.max(1, Integer.getInteger(UploadAppBuilder.class.getName() + ".parallelUploads", 4));
+    private static final int UPLOAD_RETRIES = Integer.getInteger(UploadAppBuilder.class.getName() + ".uploadRetries", 2);
+
     private final UploadAppModel uploadAppModel;
 
     @DataBoundConstructor
@@ -84,8 +101,6 @@ public class UploadAppBuilder extends Builder {
             throws InterruptedException, IOException {
         // get the UFT Mobile server settings
         MCServerSettingsModel mcServerSettingsModel = getMCServerSettingsModel();
-        JobConfigurationProxy job = JobConfigurationProxy.getInstance();
-        JSONObject app = null;
         String mcServerUrl = "";
         PrintStream out = listener.getLogger();
         List<UploadAppPathModel> paths = null;
@@ -101,104 +116,209 @@ public class UploadAppBuilder extends Builder {
             out.println(String.format("There are %d apps to be uploaded.", paths.size()));
             String workspace = build.getWorkspace() == null ? "" : build.getWorkspace().toURI().getPath();
 
-            for(int i=1; i<=paths.size(); i++){
-                String path = paths.get(i-1).getMcAppPath();
-                String originPath = path;
-                if(StringUtils.isNullOrEmpty(path)){
-                    out.println(String.format("ignore the empty app %d upload", i));
-                    continue;
-                }
-                //case insensitive replace of workspace to its real path
-                if (path.toUpperCase(Locale.ENGLISH).startsWith("${WORKSPACE}")){
-                    path = path.replaceAll("(?i)"+ Pattern.quote("${WORKSPACE}"), Matcher.quoteReplacement(workspace));
-                    if (!FilenameUtils.normalize(path).startsWith(FilenameUtils.normalize(workspace))){
-                        out.println(String.format("Failed to upload app, Cause invalid application file: %s", path));
-                        build.setResult(Result.FAILURE);
-                        allSuccess = false;
+            List<AppUpload> uploads = new ArrayList<>();
+            List<File> tempFiles = new ArrayList<>();
+            try {
+                for(int i=1; i<=paths.size(); i++){
+                    String path = paths.get(i-1).getMcAppPath();
+                    String originPath = path;
+                    if(StringUtils.isNullOrEmpty(path)){
+                        out.println(String.format("ignore the empty app %d upload", i));
                         continue;
                     }
-                }
-                FilePath filePath = new FilePath(build.getWorkspace().getChannel(), path);
-                File tempFile = null;
-                if (filePath.isRemote()){
-                    tempFile = File.createTempFile("uftm", "." + FilenameUtils.getExtension(path));
-                    try (OutputStream outputStream = new FileOutputStream(tempFile)) {
-                        filePath.copyTo(outputStream);
-                        path = tempFile.getCanonicalPath();
-                    } catch (NoSuchFileException noSuchFileException){
-                        out.println(String.format("Failed to upload app, Cause cannot find application file: %s", path));
-                        build.setResult(Result.FAILURE);
-                        allSuccess = false;
-                        continue;
-                    } catch (Exception e){
-                        out.println(String.format("Failed to upload app, Cause failed to copy application file: %s", path));
-                        build.setResult(Result.FAILURE);
-                        allSuccess = false;
-                        continue;
+                    //case insensitive replace of workspace to its real path
+                    if (path.toUpperCase(Locale.ENGLISH).startsWith("${WORKSPACE}")){
+                        path = path.replaceAll("(?i)"+ Pattern.quote("${WORKSPACE}"), Matcher.quoteReplacement(workspace));
+                        if (!FilenameUtils.normalize(path).startsWith(FilenameUtils.normalize(workspace))){
+                            out.println(String.format("Failed to upload app, Cause invalid application file: %s", path));
+                            allSuccess = false;
+                            continue;
+                        }
                     }
+                    FilePath filePath = new FilePath(build.getWorkspace().getChannel(), path);
+                    if (filePath.isRemote() && UPLOAD_FROM_CONTROLLER){
+                        File tempFile = File.createTempFile("uftm", "." + FilenameUtils.getExtension(path));
+                        tempFiles.add(tempFile);
+                        try (OutputStream outputStream = new FileOutputStream(tempFile)) {
+                            filePath.copyTo(outputStream);
+                            path = tempFile.getCanonicalPath();
+                            filePath = new FilePath(tempFile);
+                        } catch (NoSuchFileException noSuchFileException){
+                            out.println(String.format("Failed to upload app, Cause cannot find application file: %s", path));
+                            allSuccess = false;
+                            continue;
+                        } catch (Exception e){
+                            out.println(String.format("Failed to upload app, Cause failed to copy application file: %s", path));
+                            allSuccess = false;
+                            continue;
+                        }
+                    }
+                    uploads.add(new AppUpload(i, originPath, path, filePath));
+                }
+
+                if (!uploads.isEmpty() && !uploadApps(mcServerUrl, uploads, listener)) {
+                    allSuccess = false;
+                }
+            } catch (InterruptedException e) {
+                build.setResult(Result.ABORTED);
+                return false;
+            } finally {
+                for (File tempFile : tempFiles) {
+                    Files.deleteIfExists(tempFile.toPath());
                 }
+            }
+        }
+        if (!allSuccess) {
+            build.setResult(Result.FAILURE);
+        }
+        return allSuccess;
+    }
+
+    /**
+     * uploads the apps concurrently with the session of one login, the apps that failed to upload are retried
+     * in the next round with a new login
+     * @return true if all the apps were uploaded without error
+     */
+    boolean uploadApps(String mcServerUrl, List<AppUpload> uploads, BuildListener listener) throws InterruptedException {
+        PrintStream out = listener.getLogger();
+        boolean allSuccess = true;
 
-                try{
-                    out.println(String.format("starting to upload app %d %s", i, originPath));
-                    if(uploadAppModel.getProxySettings() == null){
-                        app = job.upload(mcServerUrl, uploadAppModel.getMcUserName(),uploadAppModel.getMcPassword(), uploadAppModel.getMcTenantId(), null, null, null, path);
-                    }else{
-                        app = job.upload(mcServerUrl, uploadAppModel.getMcUserName(),uploadAppModel.getMcPassword(), uploadAppModel.getMcTenantId(), uploadAppModel.getProxySettings().getFsProxyAddress(),uploadAppModel.getProxySettings().getFsProxyUserName(), uploadAppModel.getProxySettings().getFsProxyPassword(),path);
+        List<AppUpload> pending = uploads;
+        for (int round = 0; ; round++) {
+            List<AppUpload> failed = new ArrayList<>();
+            JSONObject loginJson = login(mcServerUrl);
+            if (loginJson.get(Constants.JSESSIONID) == null) {
+                out.println("Failed to login to UFT Mobile server");
+                failed.addAll(pending);
+            } else {
+                ExecutorService executor = ThreadPools.newFixedThreadPool(Math.min(PARALLEL_UPLOADS, pending.size()), "UFT Mobile app upload");
+                try {
+                    Map<AppUpload, Future<String>> results = new LinkedHashMap<>();
+                    for (AppUpload upload : pending) {
+                        out.println(String.format("starting to upload app %d %s", upload.index, upload.originPath));
+                        results.put(upload, executor.submit(() -> uploadApp(mcServerUrl, loginJson, upload.filePath, listener)));
                     }
-                    if(app == null){
-                        if(uploadAppModel.isUseProxy()){
-                            out.println(String.format("Failed to upload app, Cause UFT Mobile connection info is incorrect. url:%s, username:%s, Proxy url:%s",
-                                    mcServerUrl, uploadAppModel.getMcUserName(), uploadAppModel.getProxySettings().getFsProxyAddress()));
-                        }else if(uploadAppModel.isUseAuthentication()){
-                            out.println(String.format("Failed to upload app, Cause UFT Mobile connection info is incorrect. url:%s, username:%s, Proxy url:%s, proxy userName:%s",
-                                    mcServerUrl, uploadAppModel.getMcUserName(), uploadAppModel.getProxySettings().getFsProxyAddress(), uploadAppModel.getProxySettings().getFsProxyUserName()));
-                        }else{
-                            out.println(String.format("Failed to upload app, Cause UFT Mobile connection info is incorrect. url:%s, username:%s,",
-                                    mcServerUrl, uploadAppModel.getMcUserName()));
+                    for (Map.Entry<AppUpload, Future<String>> result : results.entrySet()) {
+                        AppUpload upload = result.getKey();
+                        try {
+                            String appJson = result.getValue().get();
+                            JSONObject app = appJson == null ? null : (JSONObject) JSONValue.parse(appJson);
+                            if (app == null) {
+                                failed.add(upload);
+                                continue;
+                            }
+                            if ((Boolean) app.get("error")) {
+                                out.println("Job failed because got error message during the application uploading. " + app.toJSONString());
+                                allSuccess = false;
+                            }
+                            out.println("uploaded app info: " + app.toJSONString());
+                        } catch (ExecutionException e) {
+                            Throwable cause = e.getCause();
+                            if (cause instanceof FileNotFoundException) {
+                                out.println(String.format("Failed to upload app to UFT Mobile server. Cause: File: %s is not found.", upload.path));
+                                allSuccess = false;
+                            } else {
+                                if (cause instanceof IOException) {
+                                    Util.displayIOException((IOException) cause, listener);
+                                }
+                                out.println(String.format("Failed to upload app %d %s, Cause: %s", upload.index, upload.originPath, cause));
+                                failed.add(upload);
+                            }
                         }
-                        build.setResult(Result.FAILURE);
-                        return false;
-                    }
-                    if((Boolean)app.get("error")){
-                        out.println("Job failed because got error message during the application uploading. " + app.toJSONString());
-                        allSuccess = false;
-                        build.setResult(Result.FAILURE);
-                    }
-                    out.println("uploaded app info: " + app.toJSONString());
-                } catch(FileNotFoundException fnf){
-                    out.println(String.format("Failed to upload app to UFT Mobile server. Cause: File: %s is not found.", path));
-                    build.setResult(Result.FAILURE);
-                    allSuccess = false;
-                    continue;
-                } catch (IOException ioe) {
-                    Util.displayIOException(ioe, listener);
-                    build.setResult(Result.FAILURE);
-                    allSuccess = false;
-                    continue;
-                } catch (InterruptedException e) {
-                    build.setResult(Result.ABORTED);
-                    return false;
-                } catch (Exception e){
-                    if(uploadAppModel.isUseProxy()){
-                        out.println(String.format("Failed to upload app, Cause UFT Mobile connection info is incorrect. url:%s, username:%s, Proxy url:%s",
-                                mcServerUrl, uploadAppModel.getMcUserName(), uploadAppModel.getProxySettings().getFsProxyAddress()));
-                    }else if(uploadAppModel.isUseAuthentication()){
-                        out.println(String.format("Failed to upload app, Cause UFT Mobile connection info is incorrect. url:%s, username:%s, Proxy url:%s, proxy userName:%s",
-                                mcServerUrl, uploadAppModel.getMcUserName(), uploadAppModel.getProxySettings().getFsProxyAddress(), uploadAppModel.getProxySettings().getFsProxyUserName()));
-                    }else{
-                        out.println(String.format("Failed to upload app, Cause UFT Mobile connection info is incorrect. url:%s, username:%s,",
-                                mcServerUrl, uploadAppModel.getMcUserName()));
                     }
-                    build.setResult(Result.FAILURE);
-                    return false;
                 } finally {
-                    if (tempFile != null) {
-                        Files.delete(tempFile.toPath());
-                    }
+                    executor.shutdownNow();
                 }
             }
+
+            if (failed.isEmpty()) {
+                return allSuccess;
+            }
+            if (round >= UPLOAD_RETRIES) {
+                printConnectionError(out, mcServerUrl);
+                return false;
+            }
+            out.println(String.format("retrying the upload of %d apps", failed.size()));
+            pending = failed;
+        }
+    }
+
+    JSONObject login(String mcServerUrl) {
+        ProxySettings proxySettings = uploadAppModel.getProxySettings();
+        return JobConfigurationProxy.getInstance().loginToMC(mcServerUrl, uploadAppModel.getMcUserName(),
+                uploadAppModel.getMcPassword(), uploadAppModel.getMcTenantId(),
+                proxySettings == null ? null : proxySettings.getFsProxyAddress(),
+                proxySettings == null ? null : proxySettings.getFsProxyUserName(),
+                proxySettings == null ? null : proxySettings.getFsProxyPassword());
+    }
+
+    /**
+     * the app is streamed to UFT Mobile from the machine that holds it
+     * @return the app info json, null if the upload failed
+     */
+    String uploadApp(String mcServerUrl, JSONObject loginJson, FilePath app, TaskListener listener) throws IOException, InterruptedException {
+        ProxySettings proxySettings = uploadAppModel.getProxySettings();
+        return app.act(new UploadAppCallable(mcServerUrl, loginJson,
+                proxySettings == null ? null : proxySettings.getFsProxyAddress(),
+                proxySettings == null ? null : proxySettings.getFsProxyUserName(),
+                proxySettings == null ? null : proxySettings.getFsProxyPassword(), listener));
+    }
+
+    private void printConnectionError(PrintStream out, String mcServerUrl) {
+        if(uploadAppModel.isUseProxy()){
+            out.println(String.format("Failed to upload app, Cause UFT Mobile connection info is incorrect. url:%s, username:%s, Proxy url:%s",
+                    mcServerUrl, uploadAppModel.getMcUserName(), uploadAppModel.getProxySettings().getFsProxyAddress()));
+        }else if(uploadAppModel.isUseAuthentication()){
+            out.println(String.format("Failed to upload app, Cause UFT Mobile connection info is incorrect. url:%s, username:%s, Proxy url:%s, proxy userName:%s",
+                    mcServerUrl, uploadAppModel.getMcUserName(), uploadAppModel.getProxySettings().getFsProxyAddress(), uploadAppModel.getProxySettings().getFsProxyUserName()));
+        }else{
+            out.println(String.format("Failed to upload app, Cause UFT Mobile connection info is incorrect. url:%s, username:%s,",
+                    mcServerUrl, uploadAppModel.getMcUserName()));
+        }
+    }
+
+    static final class AppUpload {
+        private final int index;
+        private final String originPath;
+        private final String path;
+        private final FilePath filePath;
+
+        AppUpload(int index, String originPath, String path, FilePath filePath) {
+            this.index = index;
+            this.originPath = originPath;
+            this.path = path;
+            this.filePath = filePath;
+        }
+    }
+
+    /**
+     * uploads the app file on the machine that holds it, and returns the app info json
+     */
+    private static final class UploadAppCallable extends MasterToSlaveFileCallable<String> {
+        private static final long serialVersionUID = 1L;
+        private final String mcUrl;
+        private final JSONObject loginJson;
+        private final String proxyAddress;
+        private final String proxyUserName;
+        private final String proxyPassword;
+        private final TaskListener listener;
+
+        private UploadAppCallable(String mcUrl, JSONObject loginJson,
+                                  String proxyAddress, String proxyUserName, String proxyPassword, TaskListener listener) {
+            this.mcUrl = mcUrl;
+            this.loginJson = loginJson;
+            this.proxyAddress = proxyAddress;
+            this.proxyUserName = proxyUserName;
+            this.proxyPassword = proxyPassword;
+            this.listener = listener;
+        }
+
+        @Override
+        public String invoke(File appFile, VirtualChannel channel) throws IOException {
+            JSONObject app = JobConfigurationProxy.getInstance().upload(mcUrl, loginJson,
+                    proxyAddress, proxyUserName, proxyPassword, appFile.getPath(), listener.getLogger());
+            return app == null ? null : app.toJSONString();
         }
-        return allSuccess;
     }
 
     public MCServerSettingsModel getMCServerSettingsModel() {
@@ -30,10 +30,12 @@ package com.microfocus.application.automation.tools.sse;
 
 import com.microfocus.application.automation.tools.model.SseModel;
 import com.microfocus.application.automation.tools.rest.RestClient;
+import com.microfocus.application.automation.tools.rest.RestClientMetrics;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Testsuites;
 import com.microfocus.application.automation.tools.sse.sdk.Args;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.RunManager;
+import com.microfocus.application.automation.tools.sse.sdk.handler.PollHandler;
 import hudson.util.VariableResolver;
 
 /***
@@ -45,6 +47,8 @@ import hudson.util.VariableResolver;
 public class SSEBuilderPerformer {
     
     private final RunManager _runManager = new RunManager();
+    private Args _args;
+    private RestClient _restClient;
     
     public Testsuites start(
             SseModel model,
@@ -53,19 +57,71 @@ public class SSEBuilderPerformer {
         
         Testsuites ret;
 
-        Args args = new ArgsFactory().createResolved(model, buildVariableResolver);
-
-        RestClient restClient;
-
-        restClient = new RestClient(args.getUrl(),
-                args.getDomain(),
-                args.getProject(),
-                args.getUsername());
-
-        ret = _runManager.execute(restClient, args, logger);
+        init(model, buildVariableResolver);
+        ret = _runManager.execute(_restClient, _args, logger);
         return ret;
     }
     
+    /**
+     * Starts the run and returns without polling, see {@link #pollOnce()}
+     */
+    public boolean startRun(SseModel model, Logger logger, VariableResolver<String> buildVariableResolver) {
+        
+        init(model, buildVariableResolver);
+        return _runManager.startRun(_restClient, _args, logger);
+    }
+    
+    public boolean resumeRun(
+            SseModel model,
+            Logger logger,
+            VariableResolver<String> buildVariableResolver,
+            String runId,
+            String timeslotId) {
+        
+        init(model, buildVariableResolver);
+        return _runManager.resumeRun(_restClient, _args, logger, runId, timeslotId);
+    }
+    
+    public boolean preparePoll() {
+        return _runManager.preparePoll();
+    }
+    
+    public PollHandler.PollStatus pollOnce() {
+        return _runManager.pollOnce();
+    }
+    
+    public Testsuites publishResults() {
+        return _runManager.publishResults(_restClient, _args);
+    }
+    
+    public String getRunId() {
+        return _runManager.getRunId();
+    }
+    
+    public String getTimeslotId() {
+        return _runManager.getTimeslotId();
+    }
+    
+    public int getPollInterval() {
+        return _runManager.getPollInterval();
+    }
+    
+    /**
+     * Requests sent to ALM so far, null before the run was started
+     */
+    public RestClientMetrics getRequestMetrics() {
+        return _restClient == null ? null : _restClient.getMetrics();
+    }
+    
+    private void init(SseModel model, VariableResolver<String> buildVariableResolver) {
+        
+        _args = new ArgsFactory().createResolved(model, buildVariableResolver);
+        _restClient = new RestClient(_args.getUrl(),
+                _args.getDomain(),
+                _args.getProject(),
+                _args.getUsername());
+    }
+    
     public void stop() {
         _runManager.stop();
     }
@@ -34,8 +34,9 @@ import com.microfocus.application.automation.tools.sse.autenvironment.request.ge
 import com.microfocus.application.automation.tools.sse.autenvironment.request.get.GetAutEnvironmentByIdRequest;
 import com.microfocus.application.automation.tools.sse.autenvironment.request.get.GetAutEnvironmentConfigurationByIdRequest;
 import com.microfocus.application.automation.tools.sse.autenvironment.request.post.CreateAutEnvConfRequest;
+import com.microfocus.application.automation.tools.sse.common.AlmEntity;
+import com.microfocus.application.automation.tools.sse.common.AlmEntityReader;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
@@ -43,7 +44,6 @@ import com.microfocus.application.automation.tools.sse.sdk.Response;
 import java.net.HttpURLConnection;
 import java.util.Calendar;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Created by barush on 03/11/2014.
@@ -73,14 +73,14 @@ public class AUTEnvironmentManager {
             response = new GetAutEnvironmentByIdOldApiRequest(client, autEnvironmentId).execute();
         }
         try {
-            List<Map<String, String>> entities = XPathUtils.toEntities(response.toString());
+            List<AlmEntity> entities = AlmEntityReader.readEntities(response.getData());
             if (!response.isOk() || entities.size() != 1) {
                 throw new SSEException(String.format(
                         "Failed to get AUT Environment with ID: [%s]",
                         autEnvironmentId), response.getFailure());
             }
             
-            Map<String, String> autEnvironment = entities.get(0);
+            AlmEntity autEnvironment = entities.get(0);
             parametersRootFolderId =
                     autEnvironment == null ? null : autEnvironment.get("root-app-param-folder-id");
         } catch (Throwable e) {
@@ -119,9 +119,7 @@ public class AUTEnvironmentManager {
         }
         try {
             newAutEnvironmentConfigurationId =
-                    XPathUtils.getAttributeValue(
-                            response.toString(),
-                            ALM_AUT_ENVIRONMENT_CONFIGURATION_ID_FIELD);
+                    AlmEntityReader.readEntity(response.getData()).get(ALM_AUT_ENVIRONMENT_CONFIGURATION_ID_FIELD);
         } catch (Throwable e) {
             logger.log(String.format("Failed to parse response: %s", response));
         }
@@ -140,7 +138,7 @@ public class AUTEnvironmentManager {
         
         Response response =
                 new GetAutEnvironmentConfigurationByIdRequest(client, existingAutEnvConfId).execute();
-        if (!response.isOk() || XPathUtils.toEntities(response.toString()).size() != 1) {
+        if (!response.isOk() || AlmEntityReader.readEntities(response.getData()).size() != 1) {
             logger.log(String.format(
                     "Failed to get AUT Environment Configuration with ID: [%s]. Will try to create a new one",
                     existingAutEnvConfId));
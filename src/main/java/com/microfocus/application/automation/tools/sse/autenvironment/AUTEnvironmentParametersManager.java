@@ -33,9 +33,10 @@ import com.microfocus.application.automation.tools.model.AutEnvironmentParameter
 import com.microfocus.application.automation.tools.sse.autenvironment.request.get.GetAutEnvFoldersByIdRequest;
 import com.microfocus.application.automation.tools.sse.autenvironment.request.get.GetParametersByAutEnvConfIdRequest;
 import com.microfocus.application.automation.tools.sse.autenvironment.request.put.PutAutEnvironmentParametersBulkRequest;
+import com.microfocus.application.automation.tools.sse.common.AlmEntity;
+import com.microfocus.application.automation.tools.sse.common.AlmEntityReader;
 import com.microfocus.application.automation.tools.sse.common.JsonHandler;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
@@ -125,9 +126,9 @@ public class AUTEnvironmentParametersManager {
                     response.getFailure());
         }
 
-        List<Map<String, String>> parameters = XPathUtils.toEntities(response.toString());
+        List<AlmEntity> parameters = AlmEntityReader.readEntities(response.getData());
 
-        for (Map<String, String> parameter : parameters) {
+        for (AlmEntity parameter : parameters) {
 
             String id = parameter.get(AUTEnvironmnentParameter.ALM_PARAMETER_ID_FIELD);
             AUTEnvironmnentParameter param =
@@ -163,9 +164,9 @@ public class AUTEnvironmentParametersManager {
                     response.getFailure());
         }
 
-        List<Map<String, String>> folders = XPathUtils.toEntities(response.toString());
+        List<AlmEntity> folders = AlmEntityReader.readEntities(response.getData());
 
-        for (Map<String, String> folder : folders) {
+        for (AlmEntity folder : folders) {
 
             String folderId = folder.get(AUTEnvironmentFolder.ALM_PARAMETER_FOLDER_ID_FIELD);
             if (!parametersFolders.containsKey(folderId)) {
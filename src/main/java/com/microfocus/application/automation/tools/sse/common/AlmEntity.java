@@ -0,0 +1,106 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.common;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fields of a single ALM REST entity, read once by {@link AlmEntityReader} and queried many times.
+ * Field names and values are kept in two parallel arrays instead of a map per entity.
+ */
+public class AlmEntity {
+
+    private final String _type;
+    private String[] _names = new String[16];
+    private String[] _values = new String[16];
+    private int _size = 0;
+
+    public AlmEntity(String type) {
+
+        _type = type;
+    }
+
+    void add(String name, String value) {
+
+        if (_size == _names.length) {
+            _names = Arrays.copyOf(_names, _size * 2);
+            _values = Arrays.copyOf(_values, _size * 2);
+        }
+        _names[_size] = name;
+        _values[_size] = value;
+        ++_size;
+    }
+
+    public String getType() {
+
+        return _type;
+    }
+
+    /**
+     * @return value of the field, null if the field is missing or has no value
+     */
+    public String get(String name) {
+
+        for (int i = 0; i < _size; i++) {
+            if (_names[i].equals(name)) {
+                return _values[i];
+            }
+        }
+
+        return null;
+    }
+
+    public boolean contains(String name) {
+
+        for (int i = 0; i < _size; i++) {
+            if (_names[i].equals(name)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public int size() {
+
+        return _size;
+    }
+
+    public Map<String, String> toMap() {
+
+        Map<String, String> ret = new HashMap<String, String>();
+        for (int i = 0; i < _size; i++) {
+            ret.put(_names[i], _values[i]);
+        }
+
+        return ret;
+    }
+}
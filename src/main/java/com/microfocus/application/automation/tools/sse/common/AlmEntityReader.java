@@ -0,0 +1,254 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.microfocus.application.automation.tools.common.SSEException;
+
+/**
+ * Single pass StAX reader of ALM REST entity XML (Entities/Entity/Fields/Field/Value).
+ */
+public class AlmEntityReader {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private AlmEntityReader() {
+        
+    }
+
+    public static List<AlmEntity> readEntities(byte[] xml) {
+
+        try {
+            return readEntities(XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(xml)));
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        }
+    }
+
+    public static List<AlmEntity> readEntities(InputStream xml) {
+
+        try {
+            return readEntities(XML_INPUT_FACTORY.createXMLStreamReader(xml));
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        }
+    }
+
+    public static List<AlmEntity> readEntities(String xml) {
+
+        try {
+            return readEntities(XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml)));
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        }
+    }
+
+    /**
+     * Read a single entity response (root element Entity), stops reading once the entity is closed.
+     *
+     * @return the entity, an entity without fields if the root element is not an Entity
+     */
+    public static AlmEntity readEntity(byte[] xml) {
+
+        try {
+            return toEntity(readEntities(XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(xml)), true));
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        }
+    }
+
+    public static AlmEntity readEntity(String xml) {
+
+        try {
+            return toEntity(readEntities(XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml)), true));
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        }
+    }
+
+    /**
+     * Map keyAttribute to valueAttribute of every element with the given name,
+     * e.g. Label to Name of customization fields.
+     */
+    public static Map<String, String> readAttributeMap(
+            String xml,
+            String elementName,
+            String keyAttribute,
+            String valueAttribute) {
+
+        Map<String, String> ret = new HashMap<String, String>();
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && elementName.equals(reader.getLocalName())) {
+                    String key = reader.getAttributeValue(null, keyAttribute);
+                    String value = reader.getAttributeValue(null, valueAttribute);
+                    ret.put(key == null ? StringUtils.EMPTY_STRING : key, value == null ? StringUtils.EMPTY_STRING : value);
+                }
+            }
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        } finally {
+            close(reader);
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return text of the first element with the given name, null if there is none
+     */
+    public static String readElementText(String xml, String elementName) {
+
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && elementName.equals(reader.getLocalName())) {
+                    return reader.getElementText();
+                }
+            }
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        } finally {
+            close(reader);
+        }
+
+        return null;
+    }
+
+    private static AlmEntity toEntity(List<AlmEntity> entities) {
+
+        return entities.isEmpty() ? new AlmEntity(null) : entities.get(0);
+    }
+
+    private static List<AlmEntity> readEntities(XMLStreamReader reader) throws XMLStreamException {
+
+        return readEntities(reader, false);
+    }
+
+    private static List<AlmEntity> readEntities(XMLStreamReader reader, boolean rootOnly) throws XMLStreamException {
+
+        List<AlmEntity> ret = new ArrayList<AlmEntity>();
+        List<AlmEntity> open = new ArrayList<AlmEntity>();
+        String fieldName = null;
+        boolean hasValue = false;
+        int valueDepth = 0;
+        StringBuilder value = new StringBuilder();
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        String name = reader.getLocalName();
+                        if (rootOnly && open.isEmpty() && !"Entity".equals(name)) {
+                            return ret;
+                        }
+                        if (valueDepth > 0) {
+                            ++valueDepth;
+                        } else if ("Entity".equals(name)) {
+                            AlmEntity entity = new AlmEntity(reader.getAttributeValue(null, "Type"));
+                            ret.add(entity);
+                            open.add(entity);
+                        } else if ("Field".equals(name) && !open.isEmpty()) {
+                            fieldName = reader.getAttributeValue(null, "Name");
+                            hasValue = false;
+                        } else if ("Value".equals(name) && fieldName != null && !hasValue) {
+                            valueDepth = 1;
+                            value.setLength(0);
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if (valueDepth == 1) {
+                            value.append(reader.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (valueDepth > 1) {
+                            --valueDepth;
+                        } else if (valueDepth == 1) {
+                            valueDepth = 0;
+                            hasValue = true;
+                            open.get(open.size() - 1).add(fieldName, value.length() > 0 ? value.toString() : null);
+                        } else if ("Field".equals(reader.getLocalName()) && fieldName != null) {
+                            if (!hasValue) {
+                                open.get(open.size() - 1).add(fieldName, null);
+                            }
+                            fieldName = null;
+                        } else if ("Entity".equals(reader.getLocalName())) {
+                            open.remove(open.size() - 1);
+                            if (rootOnly && open.isEmpty()) {
+                                return ret;
+                            }
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            close(reader);
+        }
+
+        return ret;
+    }
+
+    private static void close(XMLStreamReader reader) {
+
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
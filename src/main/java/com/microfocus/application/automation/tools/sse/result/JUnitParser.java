@@ -35,6 +35,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.microfocus.application.automation.tools.common.SSEException;
+import com.microfocus.application.automation.tools.sse.common.AlmEntity;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Error;
 import com.microfocus.application.automation.tools.sse.result.model.junit.JUnitTestCaseStatus;
@@ -47,7 +48,7 @@ public class JUnitParser {
     private String entityId;
     
     public Testsuites toModel(
-            List<Map<String, String>> testInstanceRuns,
+            List<AlmEntity> testInstanceRuns,
             String entityId,
             String entityName,
             String runEntityId,
@@ -80,7 +81,7 @@ public class JUnitParser {
     }
     
     private void addTestcases(
-            List<Map<String, String>> testInstanceRuns,
+            List<AlmEntity> testInstanceRuns,
             Map<String, Testsuite> testSetIdToTestsuite,
             String bvsName,
             String runEntityId,
@@ -88,7 +89,7 @@ public class JUnitParser {
             String domain,
             String project) {
         
-        for (Map<String, String> currEntity : testInstanceRuns) {
+        for (AlmEntity currEntity : testInstanceRuns) {
             addTestcase(
                     testSetIdToTestsuite,
                     currEntity,
@@ -102,7 +103,7 @@ public class JUnitParser {
     
     private void addTestcase(
             Map<String, Testsuite> testSetIdToTestsuite,
-            Map<String, String> currEntity,
+            AlmEntity currEntity,
             String bvsName,
             String runEntityId,
             String url,
@@ -114,7 +115,7 @@ public class JUnitParser {
     }
     
     private Testcase getTestcase(
-            Map<String, String> entity,
+            AlmEntity entity,
             String bvsName,
             String runEntityId,
             String url,
@@ -131,7 +132,7 @@ public class JUnitParser {
         return ret;
     }
 
-    private String getTestSetName(Map<String, String> entity, String bvsName, String runEntityId) {
+    private String getTestSetName(AlmEntity entity, String bvsName, String runEntityId) {
         String ret = String.format("%s.(Unnamed test set)", bvsName);
         String testSetName = entity.get("testset-name");
         if (!StringUtils.isNullOrEmpty(testSetName)) {
@@ -140,7 +141,7 @@ public class JUnitParser {
         return ret;
     }
 
-    private String getTestName(Map<String, String> entity) {
+    private String getTestName(AlmEntity entity) {
         
         String testName = entity.get("test-config-name");
         if (StringUtils.isNullOrEmpty(testName)) {
@@ -150,7 +151,7 @@ public class JUnitParser {
         return String.format("%s", testName);
     }
     
-    private String getTime(Map<String, String> entity) {
+    private String getTime(AlmEntity entity) {
         
         String ret = entity.get("duration");
         if (StringUtils.isNullOrEmpty(ret)) {
@@ -162,10 +163,10 @@ public class JUnitParser {
         return ret;
     }
     
-    private Map<String, Testsuite> getTestSets(List<Map<String, String>> testInstanceRuns) {
+    private Map<String, Testsuite> getTestSets(List<AlmEntity> testInstanceRuns) {
         
         Map<String, Testsuite> ret = new HashMap<String, Testsuite>();
-        for (Map<String, String> currEntity : testInstanceRuns) {
+        for (AlmEntity currEntity : testInstanceRuns) {
             
             String testSetId = getTestSetId(currEntity);
             if (!ret.containsKey(testSetId)) {
@@ -176,7 +177,7 @@ public class JUnitParser {
         return ret;
     }
     
-    private String getTestSetId(Map<String, String> entity) {
+    private String getTestSetId(AlmEntity entity) {
         
         return entity.get("testcycl-id");
     }
@@ -185,7 +186,7 @@ public class JUnitParser {
         
         public void update(
                 Testcase testcase,
-                Map<String, String> entity,
+                AlmEntity entity,
                 String url,
                 String domain,
                 String project) {
@@ -206,7 +207,7 @@ public class JUnitParser {
         }
         
         private String getTestInstanceRunLink(
-                Map<String, String> entity,
+                AlmEntity entity,
                 String url,
                 String domain,
                 String project) {
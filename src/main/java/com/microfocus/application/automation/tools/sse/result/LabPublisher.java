@@ -28,7 +28,7 @@
 
 package com.microfocus.application.automation.tools.sse.result;
 
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
+import com.microfocus.application.automation.tools.sse.common.AlmEntityReader;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
@@ -55,7 +55,7 @@ public class LabPublisher extends Publisher {
         try {
             Response response = getEntityName(nameSuffix);
             if (response.isOk() && !response.toString().equals("")) {
-                ret = XPathUtils.getAttributeValue(response.toString(), "name");
+                ret = AlmEntityReader.readEntity(response.getData()).get("name");
             } else {
                 Throwable failure = response.getFailure();
                 logger.log(String.format(
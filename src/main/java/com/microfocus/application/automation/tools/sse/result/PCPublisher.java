@@ -28,7 +28,8 @@
 
 package com.microfocus.application.automation.tools.sse.result;
 
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
+import com.microfocus.application.automation.tools.sse.common.AlmEntity;
+import com.microfocus.application.automation.tools.sse.common.AlmEntityReader;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
@@ -54,9 +55,10 @@ public class PCPublisher extends Publisher {
         try {
             Response response = getEntityName(nameSuffix);
             if (response.isOk() && !response.toString().equals("")) {
-                String runId = XPathUtils.getAttributeValue(response.toString(), "id");
-                String testId = XPathUtils.getAttributeValue(response.toString(), "testcycl-id");
-                String testSetId = XPathUtils.getAttributeValue(response.toString(), "cycle-id");
+                AlmEntity runEntity = AlmEntityReader.readEntity(response.getData());
+                String runId = runEntity.get("id");
+                String testId = runEntity.get("testcycl-id");
+                String testSetId = runEntity.get("cycle-id");
                 ret =
                         String.format(
                                 "PC Test ID: %s, Run ID: %s, Test Set ID: %s",
@@ -28,15 +28,18 @@
 
 package com.microfocus.application.automation.tools.sse.result;
 
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
+import com.microfocus.application.automation.tools.sse.common.AlmEntity;
+import com.microfocus.application.automation.tools.sse.common.AlmEntityReader;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Testsuites;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
+import com.microfocus.application.automation.tools.sse.sdk.ResponseBodyConsumer;
 import com.microfocus.application.automation.tools.sse.sdk.handler.Handler;
 import com.microfocus.application.automation.tools.sse.sdk.request.GetRequest;
 import com.microfocus.application.automation.tools.sse.sdk.request.GetRunEntityNameRequest;
@@ -57,8 +60,7 @@ public abstract class Publisher extends Handler {
         
         Testsuites ret = null;
         GetRequest testSetRunsRequest = getRunEntityTestSetRunsRequest(_client, _runId);
-        Response response = testSetRunsRequest.execute();
-        List<Map<String, String>> testInstanceRun = getTestInstanceRun(response, logger);
+        List<AlmEntity> testInstanceRun = getTestInstanceRun(testSetRunsRequest, logger);
         String entityName = getEntityName(nameSuffix, logger);
         if (testInstanceRun != null && testInstanceRun.size() > 0) {
             ret =
@@ -80,24 +82,31 @@ public abstract class Publisher extends Handler {
         return new GetRunEntityNameRequest(_client, nameSuffix, _entityId).execute();
     }
     
-    protected List<Map<String, String>> getTestInstanceRun(Response response, Logger logger) {
+    /**
+     * Test instance runs are read while the response is received, a test set run can return thousands of them
+     */
+    protected List<AlmEntity> getTestInstanceRun(GetRequest testSetRunsRequest, Logger logger) {
         
-        List<Map<String, String>> ret = null;
-        try {
-            if (!StringUtils.isNullOrEmpty(response.toString())) {
-                ret = XPathUtils.toEntities(response.toString());
+        final List<AlmEntity> ret = new ArrayList<AlmEntity>();
+        Response response = testSetRunsRequest.execute(new ResponseBodyConsumer() {
+            
+            @Override
+            public void consume(InputStream body) {
+                
+                ret.addAll(AlmEntityReader.readEntities(body));
             }
-
-            if (ret ==null || ret.size() == 0) {
-                logger.log(String.format(
-                        "Parse TestInstanceRuns from response XML got no result. Response: %s",
-                        response.toString()));
-            }
-        } catch (Throwable cause) {
+        });
+        if (response.getFailure() != null) {
             logger.log(String.format(
                     "Failed to parse TestInstanceRuns response XML. Exception: %s, XML: %s",
-                    cause.getMessage(),
-                    response.toString()));
+                    response.getFailure().getMessage(),
+                    response.getData() == null ? StringUtils.EMPTY_STRING : response.toString()));
+            return null;
+        }
+        if (ret.isEmpty()) {
+            logger.log(String.format(
+                    "Parse TestInstanceRuns from response XML got no result. Response status: %d",
+                    response.getStatusCode()));
         }
         
         return ret;
@@ -44,6 +44,16 @@ public interface Client {
             Map<String, String> headers,
             ResourceAccessLevel resourceAccessLevel);
 
+    /**
+     * Get whose successful response body is passed to the body consumer while it is received
+     */
+    Response httpGet(
+            String url,
+            String queryString,
+            Map<String, String> headers,
+            ResourceAccessLevel resourceAccessLevel,
+            ResponseBodyConsumer bodyConsumer);
+
     Response httpPost(
             String url,
             byte[] data,
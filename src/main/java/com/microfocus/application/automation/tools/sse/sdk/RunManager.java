@@ -57,29 +57,96 @@ public class RunManager {
     public Testsuites execute(RestClient client, Args args, Logger logger)
             throws InterruptedException {
         Testsuites ret = null;
+        if (startRun(client, args, logger)) {
+            if (poll()) {
+                ret = publishResults(client, args);
+            }
+            _polling = false;
+        }
+        return ret;
+    }
+
+    /**
+     * Authenticate and start the run without waiting for it, the caller polls with {@link #pollOnce()}
+     */
+    public boolean startRun(RestClient client, Args args, Logger logger) {
         _logger = logger;
         _running = true;
         if (AuthenticationTool.getInstance().authenticate(client, args.getUsername(), args.getPassword(), args.getUrl(), args.getClientType(), logger)) {
             initialize(args, client);
             if (start(args)) {
                 _polling = true;
-                if (poll()) {
-                    ret =
-                            new PublisherFactory().create(
-                                    client,
-                                    args.getRunType(),
-                                    args.getEntityId(),
-                                    _runHandler.getRunId()).publish(
-                                    _runHandler.getNameSuffix(),
-                                    args.getUrl(),
-                                    args.getDomain(),
-                                    args.getProject(),
-                                    logger);
-                }
-                _polling = false;
+                return true;
             }
         }
-        return ret;
+        return false;
+    }
+
+    /**
+     * Re-attach to a run started earlier (e.g. before a controller restart)
+     */
+    public boolean resumeRun(RestClient client, Args args, Logger logger, String runId, String timeslotId) {
+        _logger = logger;
+        _running = true;
+        if (AuthenticationTool.getInstance().authenticate(client, args.getUsername(), args.getPassword(), args.getUrl(), args.getClientType(), logger)) {
+            initialize(args, client);
+            _runHandler.setRunId(runId);
+            _pollHandler.setRunId(runId);
+            _pollHandler.setTimeslotId(timeslotId);
+            _polling = true;
+            _logger.log(String.format("Resuming polling of run ID: %s", runId));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Prepare polling, must be called once after {@link #startRun} or {@link #resumeRun}
+     */
+    public boolean preparePoll() {
+        return _pollHandler.preparePoll(_logger);
+    }
+
+    /**
+     * Poll once
+     */
+    public PollHandler.PollStatus pollOnce() {
+        if (!_polling) {
+            return PollHandler.PollStatus.FAILED;
+        }
+        PollHandler.PollStatus status = _pollHandler.pollOnce(_logger);
+        if (status != PollHandler.PollStatus.RUNNING) {
+            _polling = false;
+        }
+        return status;
+    }
+
+    /**
+     * Publish results of a finished run
+     */
+    public Testsuites publishResults(RestClient client, Args args) {
+        return new PublisherFactory().create(
+                client,
+                args.getRunType(),
+                args.getEntityId(),
+                _runHandler.getRunId()).publish(
+                _runHandler.getNameSuffix(),
+                args.getUrl(),
+                args.getDomain(),
+                args.getProject(),
+                _logger);
+    }
+
+    public String getRunId() {
+        return _runHandler != null ? _runHandler.getRunId() : null;
+    }
+
+    public String getTimeslotId() {
+        return _pollHandler != null ? _pollHandler.getTimeslotId() : null;
+    }
+
+    public int getPollInterval() {
+        return _pollHandler.getInterval();
     }
 
     /**
@@ -28,8 +28,9 @@
 
 package com.microfocus.application.automation.tools.sse.sdk;
 
+import com.microfocus.application.automation.tools.sse.common.AlmEntity;
+import com.microfocus.application.automation.tools.sse.common.AlmEntityReader;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 
 /***
  * 
@@ -44,9 +45,9 @@ public class RunResponse {
     
     public void initialize(Response response) {
         
-        String xml = response.toString();
-        _successStatus = XPathUtils.getAttributeValue(xml, "SuccessStaus");
-        _runId = parseRunId(XPathUtils.getAttributeValue(xml, "info"));
+        AlmEntity entity = AlmEntityReader.readEntity(response.getData());
+        _successStatus = entity.get("SuccessStaus");
+        _runId = parseRunId(entity.get("info"));
     }
     
     protected String parseRunId(String runIdResponse) {
@@ -29,10 +29,11 @@
 package com.microfocus.application.automation.tools.sse.sdk.handler;
 
 import java.util.List;
-import java.util.Map;
 
+import com.microfocus.application.automation.tools.common.SSEException;
+import com.microfocus.application.automation.tools.sse.common.AlmEntity;
+import com.microfocus.application.automation.tools.sse.common.AlmEntityReader;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
@@ -40,6 +41,11 @@ import com.microfocus.application.automation.tools.sse.sdk.request.EventLogReque
 
 public class EventLogHandler extends Handler {
     
+    private static final int PAGE_SIZE =
+            Integer.getInteger(EventLogHandler.class.getName() + ".pageSize", 100);
+    private static final int MAX_EVENTS_PER_POLL =
+            Integer.getInteger(EventLogHandler.class.getName() + ".maxEventsPerPoll", 500);
+    
     private String _timeslotId = StringUtils.EMPTY_STRING;
     private int _lastRead = -1;
     
@@ -49,20 +55,37 @@ public class EventLogHandler extends Handler {
         _timeslotId = timeslotId;
     }
     
+    /**
+     * Print the events added since the previous call, at most maxEventsPerPoll of them;
+     * the rest are printed on the next call.
+     */
     public boolean log(Logger logger) {
         
         boolean ret = false;
         Response eventLog = null;
         try {
-            eventLog = getEventLog();
-            String xml = eventLog.toString();
-            List<Map<String, String>> entities = XPathUtils.toEntities(xml);
-            for (Map<String, String> currEntity : entities) {
-                if (isNew(currEntity)) {
-                    logger.log(String.format(
-                            "%s:%s",
-                            currEntity.get("creation-time"),
-                            currEntity.get("description")));
+            int printed = 0;
+            while (printed < MAX_EVENTS_PER_POLL) {
+                int pageSize = Math.min(PAGE_SIZE, MAX_EVENTS_PER_POLL - printed);
+                eventLog = getEventLog(pageSize);
+                if (!eventLog.isOk()) {
+                    throw new SSEException(String.format("Event log request failed with status %d", eventLog.getStatusCode()), eventLog.getFailure());
+                }
+                List<AlmEntity> entities = AlmEntityReader.readEntities(eventLog.getData());
+                int added = 0;
+                for (AlmEntity currEntity : entities) {
+                    if (isNew(currEntity)) {
+                        logger.log(String.format(
+                                "%s:%s",
+                                currEntity.get("creation-time"),
+                                currEntity.get("description")));
+                        ++added;
+                    }
+                }
+                printed += added;
+                // a short page is the last one; no new events means the server ignored the id filter
+                if (entities.size() < pageSize || added == 0) {
+                    break;
                 }
             }
             ret = true;
@@ -78,7 +101,7 @@ public class EventLogHandler extends Handler {
         return ret;
     }
     
-    private boolean isNew(Map<String, String> currEntity) {
+    private boolean isNew(AlmEntity currEntity) {
         
         boolean ret = false;
         int currEvent = Integer.parseInt(currEntity.get("id"));
@@ -90,9 +113,9 @@ public class EventLogHandler extends Handler {
         return ret;
     }
     
-    private Response getEventLog() {
+    private Response getEventLog(int pageSize) {
         
-        return new EventLogRequest(_client, _timeslotId).execute();
+        return new EventLogRequest(_client, _timeslotId, _lastRead, pageSize).execute();
     }
     
 }
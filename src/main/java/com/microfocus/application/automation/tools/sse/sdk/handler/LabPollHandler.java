@@ -28,8 +28,9 @@
 
 package com.microfocus.application.automation.tools.sse.sdk.handler;
 
+import com.microfocus.application.automation.tools.sse.common.AlmEntity;
+import com.microfocus.application.automation.tools.sse.common.AlmEntityReader;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
@@ -57,20 +58,18 @@ public class LabPollHandler extends PollHandler {
     }
     
     @Override
-    protected boolean doPoll(Logger logger) throws InterruptedException {
+    public boolean preparePoll(Logger logger) {
         
-        boolean ret = false;
-        
-        Response runEntityResponse = getRunEntityData();
-        if (isOk(runEntityResponse, logger)) {
-            setTimeslotId(runEntityResponse, logger);
-            _eventLogHandler = new EventLogHandler(_client, _timeslotId);
-            if (!StringUtils.isNullOrEmpty(_timeslotId)) {
-                ret = super.doPoll(logger);
+        if (StringUtils.isNullOrEmpty(_timeslotId)) {
+            Response runEntityResponse = getRunEntityData();
+            if (!isOk(runEntityResponse, logger)) {
+                return false;
             }
+            setTimeslotId(runEntityResponse, logger);
         }
-        return ret;
+        _eventLogHandler = new EventLogHandler(_client, _timeslotId);
         
+        return !StringUtils.isNullOrEmpty(_timeslotId);
     }
     
     @Override
@@ -90,11 +89,11 @@ public class LabPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String endTime = XPathUtils.getAttributeValue(xml, "end-time");
+            AlmEntity runEntity = AlmEntityReader.readEntity(response.getData());
+            String endTime = runEntity.get("end-time");
             if (!StringUtils.isNullOrEmpty(endTime)) {
-                String startTime = XPathUtils.getAttributeValue(xml, "start-time");
-                String currentRunState = XPathUtils.getAttributeValue(xml, "state");
+                String startTime = runEntity.get("start-time");
+                String currentRunState = runEntity.get("state");
                 logger.log(String.format(
                         "Timeslot %s is %s.\nRun start time: %s, Run end time: %s",
                         _timeslotId,
@@ -116,10 +115,9 @@ public class LabPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String state = XPathUtils.getAttributeValue(xml, "state");
-            String completedSuccessfully =
-                    XPathUtils.getAttributeValue(xml, "completed-successfully");
+            AlmEntity runEntity = AlmEntityReader.readEntity(response.getData());
+            String state = runEntity.get("state");
+            String completedSuccessfully = runEntity.get("completed-successfully");
             logger.log(String.format(
                     "Run state of %s: %s, Completed successfully: %s",
                     _runId,
@@ -151,8 +149,7 @@ public class LabPollHandler extends PollHandler {
         
         String ret = StringUtils.EMPTY_STRING;
         try {
-            String xml = response.toString();
-            ret = XPathUtils.getAttributeValue(xml, "reservation-id");
+            ret = AlmEntityReader.readEntity(response.getData()).get("reservation-id");
         } catch (Throwable cause) {
             logger.log(String.format("Failed to parse response for timeslot ID: %s", response));
         }
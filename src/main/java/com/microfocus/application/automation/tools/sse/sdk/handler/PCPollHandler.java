@@ -31,8 +31,9 @@ package com.microfocus.application.automation.tools.sse.sdk.handler;
 import java.util.Arrays;
 import java.util.List;
 
+import com.microfocus.application.automation.tools.sse.common.AlmEntity;
+import com.microfocus.application.automation.tools.sse.common.AlmEntityReader;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
@@ -69,9 +70,9 @@ public class PCPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String pcEndTime = XPathUtils.getAttributeValue(xml, "pc-end-time");
-            String status = XPathUtils.getAttributeValue(xml, "status");
+            AlmEntity runEntity = AlmEntityReader.readEntity(response.getData());
+            String pcEndTime = runEntity.get("pc-end-time");
+            String status = runEntity.get("status");
             if (!StringUtils.isNullOrEmpty(pcEndTime)) {
                 logger.log(String.format("PC test end time: %s", pcEndTime));
                 ret = true;
@@ -93,9 +94,9 @@ public class PCPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String status = XPathUtils.getAttributeValue(xml, "status");
-            String state = XPathUtils.getAttributeValue(xml, "state");
+            AlmEntity runEntity = AlmEntityReader.readEntity(response.getData());
+            String status = runEntity.get("status");
+            String state = runEntity.get("state");
             logger.log(String.format("Run status of %s: %s, State: %s", _runId, status, state));
             ret = true;
             
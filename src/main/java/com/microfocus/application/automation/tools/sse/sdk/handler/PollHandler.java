@@ -52,6 +52,10 @@ public abstract class PollHandler extends Handler {
         super(client, entityId, runId);
     }
 
+    public enum PollStatus { RUNNING, FINISHED, FAILED }
+
+    private int _failures = 0;
+
     public boolean poll(Logger logger) throws InterruptedException {
 
         logger.log(String.format("Polling... Run ID: %s", _runId));
@@ -62,27 +66,48 @@ public abstract class PollHandler extends Handler {
     protected boolean doPoll(Logger logger) throws InterruptedException {
         
         boolean ret = false;
-        int failures = 0;
-        while (failures < 3) {
-            Response response = getResponse();
-            if (isOk(response, logger)) {
-                log(logger);
-                if (isFinished(response, logger)) {
-                    ret = true;
-                    logRunEntityResults(getRunEntityResultsResponse(), logger);
-                    break;
-                }
-            } else {
-                ++failures;
-            }
-            if (sleep(logger)) { // interrupted
-                break;
+        if (preparePoll(logger)) {
+            PollStatus status = pollOnce(logger);
+            while (status == PollStatus.RUNNING && !sleep(logger)) {
+                status = pollOnce(logger);
             }
+            ret = status == PollStatus.FINISHED;
         }
         
         return ret;
     }
     
+    /**
+     * Called once before the first poll, returns false if the run can not be polled
+     */
+    public boolean preparePoll(Logger logger) {
+        
+        return true;
+    }
+    
+    /**
+     * Single poll of the run state, lets the caller decide when to poll again instead of sleeping between polls
+     */
+    public PollStatus pollOnce(Logger logger) {
+        
+        Response response = getResponse();
+        if (isOk(response, logger)) {
+            log(logger);
+            if (isFinished(response, logger)) {
+                logRunEntityResults(getRunEntityResultsResponse(), logger);
+                return PollStatus.FINISHED;
+            }
+            return PollStatus.RUNNING;
+        }
+        
+        return ++_failures < 3 ? PollStatus.RUNNING : PollStatus.FAILED;
+    }
+    
+    public int getInterval() {
+        
+        return _interval;
+    }
+    
     protected abstract Response getRunEntityResultsResponse();
     
     protected abstract boolean logRunEntityResults(Response response, Logger logger);
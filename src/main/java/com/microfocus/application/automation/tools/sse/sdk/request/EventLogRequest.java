@@ -33,18 +33,39 @@ import com.microfocus.application.automation.tools.sse.sdk.Client;
 public class EventLogRequest extends GetRequest {
     
     private final String _timeslotId;
+    private final int _lastReadId;
+    private final int _pageSize;
     
     public EventLogRequest(Client client, String timeslotId) {
         
+        this(client, timeslotId, -1, 0);
+    }
+    
+    /**
+     * Request only the events newer than lastReadId, oldest first, at most pageSize of them (0 for no limit)
+     */
+    public EventLogRequest(Client client, String timeslotId, int lastReadId, int pageSize) {
+        
         super(client, timeslotId);
         _timeslotId = timeslotId;
+        _lastReadId = lastReadId;
+        _pageSize = pageSize;
     }
     
     @Override
     protected String getSuffix() {
         
-        return String.format(
-                "event-log-reads?query={context[\"*Timeslot:%%20%s%%3B*\"]}&fields=id,event-type,creation-time,action,description",
-                _timeslotId);
+        StringBuilder ret = new StringBuilder(String.format(
+                "event-log-reads?query={context[\"*Timeslot:%%20%s%%3B*\"]",
+                _timeslotId));
+        if (_lastReadId >= 0) {
+            ret.append(String.format(";id[%%3E%d]", _lastReadId));
+        }
+        ret.append("}&fields=id,event-type,creation-time,action,description&order-by={id[ASC]}");
+        if (_pageSize > 0) {
+            ret.append("&page-size=").append(_pageSize);
+        }
+        
+        return ret.toString();
     }
-}
\ No newline at end of file
+}
@@ -31,6 +31,7 @@ package com.microfocus.application.automation.tools.sse.sdk.request;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
+import com.microfocus.application.automation.tools.sse.sdk.ResponseBodyConsumer;
 
 /**
  * Created by barush on 29/10/2014.
@@ -46,6 +47,26 @@ public abstract class GeneralGetRequest extends GeneralRequest {
         return null;
     }
     
+    /**
+     * Execute, streaming a successful response body to the body consumer
+     */
+    public final Response execute(ResponseBodyConsumer bodyConsumer) {
+        
+        Response ret = new Response();
+        try {
+            ret = _client.httpGet(
+                    getUrl(),
+                    getQueryString(),
+                    getHeaders(),
+                    ResourceAccessLevel.PROTECTED,
+                    bodyConsumer);
+        } catch (Throwable cause) {
+            ret.setFailure(cause);
+        }
+        
+        return ret;
+    }
+    
     @Override
     public Response perform() {
         
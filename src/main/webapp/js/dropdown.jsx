@@ -206,15 +206,26 @@ function isMultipleTransactionGraph(graphKey) {
     return false;
 };
 
+/**
+ * Maximal number of transactions shown in the transaction graphs (the ones with the highest response times),
+ * 0 shows all of them.
+ */
+const GRAPH_TOP_TRANSACTIONS = 25;
+
+/**
+ * Maximal number of builds shown on the graphs, 0 shows all of them.
+ */
+const GRAPH_MAX_BUILDS = 0;
+
 /**
  * Updates the graph view per scenario key
  * @param scenarioKey - the selected scenario
  */
 function updateGraphs(scenarioKey)
 {
-    instance.getGraphData(function(t)
+    instance.getScenarioGraphData(scenarioKey, GRAPH_TOP_TRANSACTIONS, GRAPH_MAX_BUILDS, function(t)
     {
-        let graphsData = (t.responseObject())[scenarioKey];
+        let graphsData = t.responseObject();
         ReactDOM.render(<ChartDashboard graphsData = {graphsData.scenarioData} dataProcessFunc = {isMultipleTransactionGraph}/>
             ,document.querySelector('.graphCon'));
         // ReactDOM.render(<ScenarioTable scenName = {scenarioKey} scenData = {graphsData.scenarioStats}/>,
@@ -0,0 +1,114 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class AgentToolsCacheTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testDownloadCommittedAndCopied() throws Exception {
+		byte[] tool = "tool version 2".getBytes(StandardCharsets.UTF_8);
+		String hash = AgentToolsCache.computeHash(new ByteArrayInputStream(tool));
+		File cache = tmp.newFolder("toolsCache", "HpToolsLauncher.exe");
+		File oldVersion = new File(new File(cache, "0123"), "HpToolsLauncher.exe");
+		Assert.assertTrue(oldVersion.getParentFile().mkdirs());
+		Files.write(oldVersion.toPath(), "tool version 1".getBytes(StandardCharsets.UTF_8));
+
+		File entry = new File(new File(cache, hash), "HpToolsLauncher.exe");
+		File target = new File(tmp.newFolder("workspace"), "HpToolsLauncher.exe");
+		Assert.assertFalse(new AgentToolsCache.CopyCallable(entry.getPath(), null, hash).invoke(target, null));
+
+		Assert.assertTrue(entry.getParentFile().mkdirs());
+		File download = new File(entry.getParentFile(), "download.tmp");
+		Files.write(download.toPath(), tool);
+		Assert.assertTrue(new AgentToolsCache.CopyCallable(entry.getPath(), download.getPath(), hash).invoke(target, null));
+
+		Assert.assertArrayEquals(tool, Files.readAllBytes(target.toPath()));
+		Assert.assertArrayEquals(tool, Files.readAllBytes(entry.toPath()));
+		Assert.assertFalse(download.exists());
+		Assert.assertFalse("the workspace has its own copy", Files.isSameFile(target.toPath(), entry.toPath()));
+		Assert.assertFalse("tool of the previous plugin version is dropped", oldVersion.getParentFile().exists());
+
+		// next build of the node
+		Files.delete(target.toPath());
+		Assert.assertTrue(new AgentToolsCache.CopyCallable(entry.getPath(), null, hash).invoke(target, null));
+		Assert.assertArrayEquals(tool, Files.readAllBytes(target.toPath()));
+	}
+
+	@Test
+	public void testLinkedToolReplacedByCopy() throws Exception {
+		byte[] tool = "tool".getBytes(StandardCharsets.UTF_8);
+		String hash = AgentToolsCache.computeHash(new ByteArrayInputStream(tool));
+		File entry = new File(tmp.newFolder("toolsCache", "HpToolsAborter.exe", hash), "HpToolsAborter.exe");
+		Files.write(entry.toPath(), tool);
+		// linked into the workspace by a previous plugin version
+		File target = new File(tmp.newFolder("workspace"), "HpToolsAborter.exe");
+		Files.createLink(target.toPath(), entry.toPath());
+
+		Assert.assertTrue(new AgentToolsCache.CopyCallable(entry.getPath(), null, hash).invoke(target, null));
+
+		Assert.assertFalse(Files.isSameFile(target.toPath(), entry.toPath()));
+		Assert.assertArrayEquals(tool, Files.readAllBytes(target.toPath()));
+		Assert.assertArrayEquals(tool, Files.readAllBytes(entry.toPath()));
+	}
+
+	@Test
+	public void testCorruptedEntryDiscarded() throws Exception {
+		byte[] tool = "tool".getBytes(StandardCharsets.UTF_8);
+		String hash = AgentToolsCache.computeHash(new ByteArrayInputStream(tool));
+		File entry = new File(tmp.newFolder("toolsCache", "LRAnalysisLauncher.exe", hash), "LRAnalysisLauncher.exe");
+		Files.write(entry.toPath(), "truncated".getBytes(StandardCharsets.UTF_8));
+		File target = new File(tmp.newFolder("workspace"), "LRAnalysisLauncher.exe");
+
+		Assert.assertFalse(new AgentToolsCache.CopyCallable(entry.getPath(), null, hash).invoke(target, null));
+		Assert.assertFalse(entry.exists());
+		Assert.assertFalse(target.exists());
+
+		File download = new File(entry.getParentFile(), "download.tmp");
+		Files.write(download.toPath(), "other".getBytes(StandardCharsets.UTF_8));
+		try {
+			new AgentToolsCache.CopyCallable(entry.getPath(), download.getPath(), hash).invoke(target, null);
+			Assert.fail("a download that does not match the tool must not be cached");
+		} catch (java.io.IOException e) {
+			Assert.assertFalse(entry.exists());
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.commonResultUpload.service;
+
+import com.microfocus.application.automation.tools.commonResultUpload.CommonUploadLogger;
+import com.microfocus.application.automation.tools.commonResultUpload.uploader.MockAlmRestClient;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class RestServiceTest {
+
+    private static final int ENTITY_COUNT = 25;
+
+    private MockAlmRestClient client;
+    private CommonUploadLogger logger;
+    private RestService restService;
+
+    @Before
+    public void setUp() {
+        client = new MockAlmRestClient();
+        logger = new CommonUploadLogger(null);
+        CustomizationService cs = new CustomizationService(client, logger);
+        restService = new RestService(client, logger, new UDFTranslator(cs, logger), 10, 2);
+    }
+
+    @Test
+    public void testCreateBulkSendsOneRequestPerPage() {
+        List<Map<String, String>> results = restService.createBulk("tests", buildTests());
+
+        assertEquals(ENTITY_COUNT, results.size());
+        for (Map<String, String> result : results) {
+            assertNotNull(result);
+        }
+        assertEquals(ENTITY_COUNT, client.getEntities("tests").size());
+        assertEquals(3, client.getRequestCount("POST"));
+    }
+
+    @Test
+    public void testCreateBulkFallsBackToSingleRequestsIfBulkIsNotSupported() {
+        client.setBulkStatus(HttpURLConnection.HTTP_UNSUPPORTED_TYPE);
+
+        List<Map<String, String>> results = restService.createBulk("tests", buildTests());
+
+        for (Map<String, String> result : results) {
+            assertNotNull(result);
+        }
+        assertEquals(ENTITY_COUNT, client.getEntities("tests").size());
+        assertEquals(0, logger.getErrorCount());
+    }
+
+    @Test
+    public void testCreateBulkDoesNotResendFailedPage() {
+        client.setBulkStatus(HttpURLConnection.HTTP_INTERNAL_ERROR);
+
+        List<Map<String, String>> results = restService.createBulk("tests", buildTests());
+
+        assertEquals(ENTITY_COUNT, results.size());
+        for (Map<String, String> result : results) {
+            assertNull(result);
+        }
+        assertEquals(3, client.getRequestCount("POST"));
+        assertEquals(0, client.getEntities("tests").size());
+    }
+
+    @Test
+    public void testCreateBulkDoesNotResendPartialPage() {
+        client.setBulkResultLimit(5);
+
+        List<Map<String, String>> results = restService.createBulk("tests", buildTests());
+
+        // The full pages were created but returned half of their entities
+        for (int i = 0; i < ENTITY_COUNT; i++) {
+            if (i < 20) {
+                assertNull(results.get(i));
+            } else {
+                assertNotNull(results.get(i));
+            }
+        }
+        assertEquals(ENTITY_COUNT, client.getEntities("tests").size());
+        assertEquals(3, client.getRequestCount("POST"));
+    }
+
+    private static List<Map<String, String>> buildTests() {
+        List<Map<String, String>> tests = new ArrayList<>();
+        for (int i = 0; i < ENTITY_COUNT; i++) {
+            Map<String, String> test = new HashMap<>();
+            test.put("name", "test" + i);
+            test.put("subtype-id", "MANUAL");
+            tests.add(test);
+        }
+        return tests;
+    }
+}
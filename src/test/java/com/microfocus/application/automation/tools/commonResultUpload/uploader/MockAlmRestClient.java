@@ -0,0 +1,274 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.commonResultUpload.uploader;
+
+import com.microfocus.adm.performancecenter.plugins.common.rest.RESTConstants;
+import com.microfocus.application.automation.tools.rest.RestClient;
+import com.microfocus.application.automation.tools.sse.common.XPathUtils;
+import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import org.apache.commons.lang3.StringEscapeUtils;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory ALM which keeps the entities created through it and counts the requests it gets.
+ */
+public class MockAlmRestClient extends RestClient {
+
+    private static final String ENTITIES_PREFIX = "rest/domains/DOMAIN/projects/PROJECT/";
+
+    private final Map<String, List<Map<String, String>>> entities = new HashMap<>();
+    private final Map<String, Integer> requestCounts = new HashMap<>();
+    private int nextId = 1000;
+    private int bulkStatus = HttpURLConnection.HTTP_OK;
+    private int bulkResultLimit = Integer.MAX_VALUE;
+
+    public MockAlmRestClient() {
+        super("http://localhost:8080/qcbin", "DOMAIN", "PROJECT", "sa");
+    }
+
+    public synchronized Map<String, String> addEntity(String restPrefix, Map<String, String> fields) {
+        Map<String, String> entity = new HashMap<>(fields);
+        entity.put("id", String.valueOf(nextId++));
+        getEntities(restPrefix).add(entity);
+        // ALM creates a default test configuration for every new test
+        if ("tests".equals(restPrefix)) {
+            Map<String, String> testconfig = new HashMap<>();
+            testconfig.put("id", String.valueOf(nextId++));
+            testconfig.put("name", entity.get("name"));
+            testconfig.put("parent-id", entity.get("id"));
+            getEntities("test-configs").add(testconfig);
+        }
+        return entity;
+    }
+
+    /**
+     * Collection requests fail with this status, without changing any entity.
+     */
+    public synchronized void setBulkStatus(int bulkStatus) {
+        this.bulkStatus = bulkStatus;
+    }
+
+    /**
+     * Collection requests change all entities but return at most this many of them.
+     */
+    public synchronized void setBulkResultLimit(int bulkResultLimit) {
+        this.bulkResultLimit = bulkResultLimit;
+    }
+
+    public synchronized List<Map<String, String>> getEntities(String restPrefix) {
+        if (!entities.containsKey(restPrefix)) {
+            entities.put(restPrefix, new ArrayList<Map<String, String>>());
+        }
+        return entities.get(restPrefix);
+    }
+
+    public synchronized int getRequestCount() {
+        int count = 0;
+        for (Integer requestCount : requestCounts.values()) {
+            count += requestCount;
+        }
+        return count;
+    }
+
+    public synchronized int getRequestCount(String method) {
+        Integer count = requestCounts.get(method);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public synchronized Response httpGet(String url, String queryString, Map<String, String> headers,
+                                         ResourceAccessLevel resourceAccessLevel) {
+        count(RESTConstants.GET);
+        String suffix = getSuffix(url);
+        if (suffix.startsWith("customization/entities/")) {
+            if (suffix.endsWith("/types")) {
+                return ok("<types><type name=\"MANUAL\" id=\"MANUAL\"/></types>");
+            }
+            return ok("<EntityResourceDescriptor><SupportsVC>false</SupportsVC></EntityResourceDescriptor>");
+        }
+
+        Map<String, String> params = getParams(queryString);
+        Map<String, List<String>> criteria = getCriteria(params.get("query"));
+        List<Map<String, String>> found = new ArrayList<>();
+        for (Map<String, String> entity : getEntities(suffix)) {
+            if (matches(entity, criteria)) {
+                found.add(entity);
+            }
+        }
+        int startIndex = params.containsKey("start-index") ? Integer.parseInt(params.get("start-index")) : 1;
+        int pageSize = params.containsKey("page-size") ? Integer.parseInt(params.get("page-size")) : 100;
+        int from = Math.min(startIndex - 1, found.size());
+        return ok(toXml(found.subList(from, Math.min(from + pageSize, found.size())), true));
+    }
+
+    @Override
+    public synchronized Response httpPost(String url, byte[] data, Map<String, String> headers,
+                                          ResourceAccessLevel resourceAccessLevel) {
+        count(RESTConstants.POST);
+        String suffix = getSuffix(url);
+        if (suffix.contains("/versions/")) {
+            return ok("");
+        }
+        if (isBulk(headers) && bulkStatus != HttpURLConnection.HTTP_OK) {
+            return status(bulkStatus);
+        }
+        List<Map<String, String>> created = new ArrayList<>();
+        for (Map<String, String> fields : XPathUtils.toEntities(new String(data))) {
+            created.add(addEntity(suffix, fields));
+        }
+        return ok(toXml(limit(created, headers), isBulk(headers)));
+    }
+
+    @Override
+    public synchronized Response httpPut(String url, byte[] data, Map<String, String> headers,
+                                         ResourceAccessLevel resourceAccessLevel) {
+        count(RESTConstants.PUT);
+        String suffix = getSuffix(url);
+        String restPrefix = suffix.contains("/") ? suffix.substring(0, suffix.indexOf('/')) : suffix;
+        if (isBulk(headers) && !suffix.contains("/") && bulkStatus != HttpURLConnection.HTTP_OK) {
+            return status(bulkStatus);
+        }
+        List<Map<String, String>> updated = new ArrayList<>();
+        for (Map<String, String> fields : XPathUtils.toEntities(new String(data))) {
+            String id = fields.containsKey("id") ? fields.get("id") : suffix.substring(suffix.indexOf('/') + 1);
+            for (Map<String, String> entity : getEntities(restPrefix)) {
+                if (id.equals(entity.get("id"))) {
+                    entity.putAll(fields);
+                    updated.add(entity);
+                }
+            }
+        }
+        return ok(toXml(limit(updated, headers), isBulk(headers)));
+    }
+
+    private List<Map<String, String>> limit(List<Map<String, String>> entities, Map<String, String> headers) {
+        return isBulk(headers) && entities.size() > bulkResultLimit ? entities.subList(0, bulkResultLimit) : entities;
+    }
+
+    private void count(String method) {
+        requestCounts.put(method, getRequestCount(method) + 1);
+    }
+
+    private static boolean isBulk(Map<String, String> headers) {
+        return headers != null && RESTConstants.APP_XML_BULK.equals(headers.get(RESTConstants.CONTENT_TYPE));
+    }
+
+    private static String getSuffix(String url) {
+        return url.substring(url.indexOf(ENTITIES_PREFIX) + ENTITIES_PREFIX.length());
+    }
+
+    private static Map<String, String> getParams(String queryString) {
+        Map<String, String> params = new HashMap<>();
+        if (queryString != null) {
+            for (String param : queryString.split("&")) {
+                int index = param.indexOf('=');
+                params.put(param.substring(0, index), param.substring(index + 1));
+            }
+        }
+        return params;
+    }
+
+    private static Map<String, List<String>> getCriteria(String query) {
+        Map<String, List<String>> criteria = new LinkedHashMap<>();
+        if (query == null) {
+            return criteria;
+        }
+        for (String item : query.substring(1, query.length() - 1).split(";")) {
+            if (item.isEmpty()) {
+                continue;
+            }
+            String values = decode(item.substring(item.indexOf('[') + 1, item.lastIndexOf(']')));
+            List<String> valueList = new ArrayList<>();
+            for (String value : Arrays.asList(values.split(" OR "))) {
+                valueList.add(value.replace("\"", ""));
+            }
+            criteria.put(item.substring(0, item.indexOf('[')), valueList);
+        }
+        return criteria;
+    }
+
+    private static boolean matches(Map<String, String> entity, Map<String, List<String>> criteria) {
+        for (Map.Entry<String, List<String>> criterion : criteria.entrySet()) {
+            if (!criterion.getValue().contains(entity.get(criterion.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toXml(List<Map<String, String>> entities, boolean collection) {
+        StringBuilder builder = new StringBuilder();
+        if (collection) {
+            builder.append("<Entities TotalResults=\"").append(entities.size()).append("\">");
+        }
+        for (Map<String, String> entity : entities) {
+            builder.append("<Entity><Fields>");
+            for (Map.Entry<String, String> field : entity.entrySet()) {
+                builder.append("<Field Name=\"").append(field.getKey()).append("\"><Value>")
+                        .append(StringEscapeUtils.escapeXml10(field.getValue()))
+                        .append("</Value></Field>");
+            }
+            builder.append("</Fields></Entity>");
+        }
+        if (collection) {
+            builder.append("</Entities>");
+        }
+        return builder.toString();
+    }
+
+    private static Response ok(String data) {
+        return new Response(new HashMap<String, List<String>>(), data.getBytes(), null, HttpURLConnection.HTTP_OK);
+    }
+
+    // like the transports of RestClient, a failure is set for every error status
+    private static Response status(int statusCode) {
+        return new Response(new HashMap<String, List<String>>(),
+                "<QCRestException><Title>Bulk request failed</Title></QCRestException>".getBytes(),
+                new IOException(String.format("Server returned HTTP response code: %d", statusCode)), statusCode);
+    }
+}
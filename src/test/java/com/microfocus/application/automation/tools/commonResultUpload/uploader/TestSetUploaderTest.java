@@ -0,0 +1,171 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.commonResultUpload.uploader;
+
+import com.microfocus.application.automation.tools.commonResultUpload.CommonUploadLogger;
+import com.microfocus.application.automation.tools.commonResultUpload.ParamConstant;
+import com.microfocus.application.automation.tools.commonResultUpload.service.CustomizationService;
+import com.microfocus.application.automation.tools.commonResultUpload.service.FolderService;
+import com.microfocus.application.automation.tools.commonResultUpload.service.RestService;
+import com.microfocus.application.automation.tools.commonResultUpload.service.UDFTranslator;
+import com.microfocus.application.automation.tools.commonResultUpload.service.VersionControlService;
+import com.microfocus.application.automation.tools.commonResultUpload.xmlreader.model.XmlResultEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestSetUploaderTest {
+
+    private static final int TEST_COUNT = 500;
+    private static final int EXIST_TEST_COUNT = 150;
+
+    private MockAlmRestClient client;
+    private CommonUploadLogger logger;
+    private FolderService folderService;
+    private TestSetUploader testSetUploader;
+
+    @Before
+    public void setUp() {
+        client = new MockAlmRestClient();
+        logger = new CommonUploadLogger(null);
+
+        Map<String, String> params = new HashMap<>();
+        params.put(ParamConstant.ALM_TEST_FOLDER, "Jenkins\\Results");
+        params.put(ParamConstant.ALM_TESTSET_FOLDER, "");
+        params.put(ParamConstant.ACTUAL_USER, "sa");
+
+        CustomizationService cs = new CustomizationService(client, logger);
+        VersionControlService vs = new VersionControlService(client, logger);
+        RestService rs = new RestService(client, logger, new UDFTranslator(cs, logger), 100, 4);
+        folderService = new FolderService(rs);
+        RunUploader runu = new RunUploader(logger, params, rs, cs, Collections.<String, String>emptyMap());
+        TestInstanceUploader tiu = new TestInstanceUploader(logger, params, rs, runu, cs);
+        TestUploader testu = new TestUploader(logger, params, rs, folderService, tiu, cs, vs);
+        testSetUploader = new TestSetUploader(logger, params, rs, folderService, testu);
+    }
+
+    @Test
+    public void testUploadUsesPagedAndBulkRequests() {
+        // Some of the tests already exist, part of them in a sub folder
+        Map<String, String> folder = addFolder("2", "Jenkins");
+        folder = addFolder(folder.get("id"), "Results");
+        Map<String, String> subFolder = addFolder(folder.get("id"), "Old");
+        for (int i = 0; i < EXIST_TEST_COUNT; i++) {
+            Map<String, String> test = new HashMap<>();
+            test.put("name", "test" + i);
+            test.put("subtype-id", "MANUAL");
+            test.put("parent-id", i % 2 == 0 ? folder.get("id") : subFolder.get("id"));
+            client.addEntity("tests", test);
+        }
+
+        testSetUploader.upload(Collections.singletonList(buildTestSet("Nightly", TEST_COUNT)));
+
+        assertEquals(0, logger.getErrorCount());
+        assertEquals(TEST_COUNT, client.getEntities("tests").size());
+        assertEquals(TEST_COUNT, client.getEntities("test-instances").size());
+        assertEquals(TEST_COUNT, client.getEntities("runs").size());
+        Set<String> testIds = new HashSet<>();
+        for (Map<String, String> run : client.getEntities("runs")) {
+            assertEquals("Passed", run.get("status"));
+            testIds.add(run.get("test-id"));
+        }
+        assertEquals(TEST_COUNT, testIds.size());
+
+        // Uploading a test at a time takes more than ten requests for each test
+        assertTrue("Too many requests: " + client.getRequestCount(), client.getRequestCount() < 60);
+        assertEquals(5, client.getRequestCount("PUT"));
+    }
+
+    @Test
+    public void testUploadAgainReusesTestsAndInstances() {
+        testSetUploader.upload(Collections.singletonList(buildTestSet("Nightly", TEST_COUNT)));
+        testSetUploader.upload(Collections.singletonList(buildTestSet("Nightly", TEST_COUNT)));
+
+        assertEquals(0, logger.getErrorCount());
+        assertEquals(1, client.getEntities("test-sets").size());
+        assertEquals(TEST_COUNT, client.getEntities("tests").size());
+        assertEquals(TEST_COUNT, client.getEntities("test-instances").size());
+        assertEquals(TEST_COUNT * 2, client.getEntities("runs").size());
+    }
+
+    @Test
+    public void testFolderLookupsAreCachedAcrossTestSets() {
+        testSetUploader.upload(Arrays.asList(
+                buildTestSet("Nightly", TEST_COUNT), buildTestSet("Weekly", TEST_COUNT)));
+
+        assertEquals(0, logger.getErrorCount());
+        assertEquals(2, client.getEntities("test-sets").size());
+        assertEquals(TEST_COUNT, client.getEntities("tests").size());
+        assertEquals(TEST_COUNT * 2, client.getEntities("test-instances").size());
+        assertEquals("Folder cache: 2 hits, 2 misses. Folder tree cache: 1 hits, 1 misses.",
+                folderService.getCacheStatistics());
+    }
+
+    private Map<String, String> addFolder(String parentId, String name) {
+        Map<String, String> folder = new HashMap<>();
+        folder.put("name", name);
+        folder.put("parent-id", parentId);
+        return client.addEntity("test-folders", folder);
+    }
+
+    private static XmlResultEntity buildTestSet(String name, int testCount) {
+        List<XmlResultEntity> tests = new ArrayList<>();
+        for (int i = 0; i < testCount; i++) {
+            Map<String, String> run = new HashMap<>();
+            run.put("status", "Passed");
+            run.put("duration", "1.5");
+            Map<String, String> test = new HashMap<>();
+            test.put("name", "test" + i);
+            test.put("subtype-id", "MANUAL");
+            tests.add(newEntity(test, Collections.singletonList(newEntity(run, new ArrayList<XmlResultEntity>()))));
+        }
+        Map<String, String> testset = new HashMap<>();
+        testset.put("name", name);
+        testset.put("subtype-id", "hp.qc.test-set.default");
+        return newEntity(testset, tests);
+    }
+
+    private static XmlResultEntity newEntity(Map<String, String> valueMap, List<XmlResultEntity> subEntities) {
+        XmlResultEntity entity = new XmlResultEntity();
+        entity.setValueMap(valueMap);
+        entity.setSubEntities(subEntities);
+        return entity;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResultQueueTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testBatchHandsOutOneItemPerProject() throws IOException {
+		TestQueue queue = new TestQueue(new File(tmp.getRoot(), "queue.dat"), 3);
+		queue.add("p1", 1);
+		queue.add("p1", 2);
+		queue.add("p2", 1);
+
+		List<ResultQueue.QueueItem> items = queue.peekBatch(10);
+		assertEquals(2, items.size());
+		assertEquals("p1", items.get(0).getProjectName());
+		assertEquals(1, items.get(0).getBuildNumber());
+		assertEquals("p2", items.get(1).getProjectName());
+		assertTrue(queue.peekBatch(10).isEmpty());
+
+		queue.remove(items.get(0));
+		List<ResultQueue.QueueItem> next = queue.peekBatch(10);
+		assertEquals(1, next.size());
+		assertEquals(2, next.get(0).getBuildNumber());
+		assertEquals(2, queue.size());
+		queue.close();
+	}
+
+	@Test
+	public void testFailedItemWaitsForRetry() throws IOException {
+		TestQueue queue = new TestQueue(new File(tmp.getRoot(), "queue.dat"), 3);
+		queue.add("p1", 1);
+		queue.add("p2", 1);
+
+		List<ResultQueue.QueueItem> items = queue.peekBatch(10);
+		assertTrue(queue.failed(items.get(0)));
+		queue.remove(items.get(1));
+
+		assertTrue(queue.peekBatch(10).isEmpty());
+		assertNull(queue.peekFirst());
+		assertEquals(1, queue.size());
+		assertEquals(1, queue.getMetrics().get("waitingForRetry"));
+		queue.close();
+	}
+
+	@Test
+	public void testFailedItemDroppedAfterRetries() throws IOException {
+		TestQueue queue = new TestQueue(new File(tmp.getRoot(), "queue.dat"), 1);
+		queue.add("p1", 1);
+
+		ResultQueue.QueueItem item = queue.peekFirst();
+		assertTrue(queue.failed());
+		assertFalse(queue.failed(item));
+		assertEquals(0, queue.size());
+		queue.close();
+	}
+
+	@Test
+	public void testReleasedItemIsHandedOutAgain() throws IOException {
+		TestQueue queue = new TestQueue(new File(tmp.getRoot(), "queue.dat"), 3);
+		queue.add("p1", 1);
+
+		ResultQueue.QueueItem item = queue.peekBatch(10).get(0);
+		assertTrue(queue.peekBatch(10).isEmpty());
+		queue.release(item);
+
+		List<ResultQueue.QueueItem> items = queue.peekBatch(10);
+		assertEquals(1, items.size());
+		assertEquals(0, items.get(0).getFailCount());
+		assertEquals(1, queue.size());
+		queue.close();
+	}
+
+	@Test
+	public void testItemsArePersisted() throws IOException {
+		File file = new File(tmp.getRoot(), "queue.dat");
+		TestQueue queue = new TestQueue(file, 3);
+		queue.add("p1", 1);
+		queue.add("p2", 1);
+		queue.add("p3", 1);
+
+		List<ResultQueue.QueueItem> items = queue.peekBatch(10);
+		queue.failed(items.get(0));
+		queue.remove(items.get(1));
+		queue.close();
+
+		TestQueue reopened = new TestQueue(file, 3);
+		assertEquals(2, reopened.size());
+		List<ResultQueue.QueueItem> pending = reopened.peekBatch(10);
+		assertEquals(2, pending.size());
+		for (ResultQueue.QueueItem item : pending) {
+			assertFalse("p2".equals(item.getProjectName()));
+			assertEquals("p1".equals(item.getProjectName()) ? 1 : 0, item.getFailCount());
+		}
+		reopened.close();
+	}
+
+	private static class TestQueue extends AbstractResultQueueImpl {
+
+		private TestQueue(File file, int maxRetries) throws IOException {
+			super(maxRetries);
+			init(file);
+		}
+	}
+}
@@ -0,0 +1,287 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.events;
+
+import com.hp.octane.integrations.OctaneClient;
+import com.hp.octane.integrations.dto.DTOFactory;
+import com.hp.octane.integrations.dto.events.CIEvent;
+import com.hp.octane.integrations.dto.events.CIEventType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OctaneEventDispatcherTest {
+	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
+
+	private final List<CIEvent> published = Collections.synchronizedList(new ArrayList<>());
+	private final List<String> publishingThreads = Collections.synchronizedList(new ArrayList<>());
+	private final CountDownLatch firstEventStarted = new CountDownLatch(1);
+	private final CountDownLatch releaseFirstEvent = new CountDownLatch(1);
+	private final AtomicBoolean firstEvent = new AtomicBoolean(true);
+	private OctaneClient client;
+	private OctaneEventDispatcher.ClientDispatcher dispatcher;
+	private OctaneEventDispatcher.EventProcessor processor;
+	private final List<OctaneEventDispatcher.PendingEvent> processed = Collections.synchronizedList(new ArrayList<>());
+
+	@Before
+	public void setUp() {
+		client = Mockito.mock(OctaneClient.class, Mockito.RETURNS_DEEP_STUBS);
+		Mockito.when(client.getInstanceId()).thenReturn("test-client");
+		//the first event blocks the dispatcher thread until it is released
+		Mockito.doAnswer(invocation -> {
+			if (firstEvent.compareAndSet(true, false)) {
+				firstEventStarted.countDown();
+				releaseFirstEvent.await(10, TimeUnit.SECONDS);
+			}
+			published.add((CIEvent) invocation.getArguments()[0]);
+			publishingThreads.add(Thread.currentThread().getName());
+			return null;
+		}).when(client.getEventsService()).publishEvent(Matchers.any(CIEvent.class));
+	}
+
+	@After
+	public void tearDown() {
+		releaseFirstEvent.countDown();
+		if (dispatcher != null) {
+			dispatcher.stop();
+		}
+		if (processor != null) {
+			processor.stop();
+		}
+	}
+
+	@Test
+	public void testEventsArePublishedInOrder() throws InterruptedException {
+		dispatcher = new OctaneEventDispatcher.ClientDispatcher(client, 100, 0);
+		List<CIEvent> events = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			CIEvent event = newEvent(CIEventType.STARTED, "job" + i);
+			events.add(event);
+			dispatcher.enqueue(new OctaneEventDispatcher.PendingEvent(null, event));
+		}
+		releaseFirstEvent.countDown();
+		waitForPublished(50);
+
+		assertEquals(events, new ArrayList<>(published));
+		assertTrue(publishingThreads.get(0).startsWith("Octane event dispatcher - test-client"));
+		assertEquals(50L, dispatcher.getMetrics().get("dispatchedEvents"));
+		assertEquals(0L, dispatcher.getMetrics().get("publishedInlineEvents"));
+	}
+
+	@Test
+	public void testWaitingStageStartedEventIsCoalesced() throws InterruptedException {
+		dispatcher = new OctaneEventDispatcher.ClientDispatcher(client, 100, TimeUnit.MINUTES.toMillis(1));
+		dispatcher.enqueue(new OctaneEventDispatcher.PendingEvent(null, newEvent(CIEventType.STARTED, "pipeline")));
+		assertTrue(firstEventStarted.await(10, TimeUnit.SECONDS));
+
+		CIEvent stageFinished = newEvent(CIEventType.FINISHED, "stage");
+		dispatcher.enqueue(new OctaneEventDispatcher.PendingEvent("run#1", newEvent(CIEventType.STARTED, "stage")));
+		dispatcher.enqueue(new OctaneEventDispatcher.PendingEvent("run#1", stageFinished));
+		releaseFirstEvent.countDown();
+		waitForPublished(2);
+
+		assertEquals(stageFinished, published.get(1));
+		assertEquals(1L, dispatcher.getMetrics().get("coalescedEvents"));
+	}
+
+	@Test
+	public void testStageStartedEventIsKeptOutsideCoalesceWindow() throws InterruptedException {
+		dispatcher = new OctaneEventDispatcher.ClientDispatcher(client, 100, -1);
+		dispatcher.enqueue(new OctaneEventDispatcher.PendingEvent(null, newEvent(CIEventType.STARTED, "pipeline")));
+		assertTrue(firstEventStarted.await(10, TimeUnit.SECONDS));
+
+		dispatcher.enqueue(new OctaneEventDispatcher.PendingEvent("run#1", newEvent(CIEventType.STARTED, "stage")));
+		dispatcher.enqueue(new OctaneEventDispatcher.PendingEvent("run#1", newEvent(CIEventType.FINISHED, "stage")));
+		releaseFirstEvent.countDown();
+		waitForPublished(3);
+
+		assertEquals(0L, dispatcher.getMetrics().get("coalescedEvents"));
+	}
+
+	@Test
+	public void testEventIsPublishedOnCallerThreadWhenQueueIsFull() throws InterruptedException {
+		dispatcher = new OctaneEventDispatcher.ClientDispatcher(client, 1, 0);
+		dispatcher.enqueue(new OctaneEventDispatcher.PendingEvent(null, newEvent(CIEventType.STARTED, "job1")));
+		assertTrue(firstEventStarted.await(10, TimeUnit.SECONDS));
+
+		dispatcher.enqueue(new OctaneEventDispatcher.PendingEvent(null, newEvent(CIEventType.STARTED, "job2")));
+		CIEvent overflow = newEvent(CIEventType.STARTED, "job3");
+		dispatcher.enqueue(new OctaneEventDispatcher.PendingEvent(null, overflow));
+
+		assertEquals(Collections.singletonList(overflow), new ArrayList<>(published));
+		assertEquals(Thread.currentThread().getName(), publishingThreads.get(0));
+		assertEquals(1L, dispatcher.getMetrics().get("publishedInlineEvents"));
+
+		releaseFirstEvent.countDown();
+		waitForPublished(3);
+	}
+
+	@Test
+	public void testStopPublishesWaitingEvents() throws InterruptedException {
+		dispatcher = new OctaneEventDispatcher.ClientDispatcher(client, 100, 0);
+		dispatcher.enqueue(new OctaneEventDispatcher.PendingEvent(null, newEvent(CIEventType.STARTED, "job1")));
+		assertTrue(firstEventStarted.await(10, TimeUnit.SECONDS));
+		for (int i = 2; i <= 10; i++) {
+			dispatcher.enqueue(new OctaneEventDispatcher.PendingEvent(null, newEvent(CIEventType.STARTED, "job" + i)));
+		}
+
+		releaseFirstEvent.countDown();
+		dispatcher.stop();
+		assertEquals(10, published.size());
+		assertEquals(0, dispatcher.getMetrics().get("queueSize"));
+
+		//after stop the events are published on the caller thread
+		dispatcher.enqueue(new OctaneEventDispatcher.PendingEvent(null, newEvent(CIEventType.FINISHED, "job1")));
+		assertEquals(11, published.size());
+		assertEquals(Thread.currentThread().getName(), publishingThreads.get(10));
+	}
+
+	@Test
+	public void testSlowBuildDoesNotDelayOtherBuilds() throws InterruptedException {
+		processor = new OctaneEventDispatcher.EventProcessor(2, processed::add);
+		CountDownLatch slowStarted = new CountDownLatch(1);
+		CountDownLatch releaseSlow = new CountDownLatch(1);
+		OctaneEventDispatcher.PendingEvent slowStart = newPendingEvent(CIEventType.STARTED, "slow");
+		OctaneEventDispatcher.PendingEvent slowFinish = newPendingEvent(CIEventType.FINISHED, "slow");
+		OctaneEventDispatcher.PendingEvent otherFinish = newPendingEvent(CIEventType.FINISHED, "other");
+
+		processor.process("slow#1", slowStart, event -> {
+			slowStarted.countDown();
+			await(releaseSlow);
+		});
+		assertTrue(slowStarted.await(10, TimeUnit.SECONDS));
+		processor.process("slow#1", slowFinish, event -> {
+		});
+		processor.process("other#1", otherFinish, event -> {
+		});
+		waitForProcessed(1);
+		assertEquals(Collections.singletonList(otherFinish), new ArrayList<>(processed));
+
+		releaseSlow.countDown();
+		waitForProcessed(3);
+		assertEquals(Arrays.asList(otherFinish, slowStart, slowFinish), new ArrayList<>(processed));
+	}
+
+	@Test
+	public void testEventsOfBuildAreDispatchedInOrder() throws InterruptedException {
+		processor = new OctaneEventDispatcher.EventProcessor(4, processed::add);
+		List<OctaneEventDispatcher.PendingEvent> events = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			OctaneEventDispatcher.PendingEvent pendingEvent = newPendingEvent(CIEventType.STARTED, "stage" + i);
+			events.add(pendingEvent);
+			//the earlier events take longer to complete
+			long sleep = 20 - i;
+			processor.process("pipeline#1", pendingEvent, event -> sleep(sleep));
+		}
+		waitForProcessed(20);
+
+		assertEquals(events, new ArrayList<>(processed));
+	}
+
+	@Test
+	public void testEventIsCompletedOffCallerThreadAndDispatchedWhenCompletionFails() throws InterruptedException {
+		processor = new OctaneEventDispatcher.EventProcessor(1, processed::add);
+		List<String> completingThreads = Collections.synchronizedList(new ArrayList<>());
+		OctaneEventDispatcher.PendingEvent pendingEvent = newPendingEvent(CIEventType.FINISHED, "job");
+
+		processor.process("job#1", pendingEvent, event -> {
+			completingThreads.add(Thread.currentThread().getName());
+			throw new IllegalStateException("test results processing failed");
+		});
+		waitForProcessed(1);
+
+		assertEquals(pendingEvent, processed.get(0));
+		assertTrue(completingThreads.get(0).startsWith("Octane event processor"));
+	}
+
+	@Test
+	public void testEventIsCompletedOnCallerThreadAfterStop() throws InterruptedException {
+		processor = new OctaneEventDispatcher.EventProcessor(1, processed::add);
+		processor.stop();
+		List<String> completingThreads = new ArrayList<>();
+
+		processor.process("job#1", newPendingEvent(CIEventType.FINISHED, "job"), event -> completingThreads.add(Thread.currentThread().getName()));
+
+		assertEquals(1, processed.size());
+		assertEquals(Collections.singletonList(Thread.currentThread().getName()), completingThreads);
+	}
+
+	private void waitForProcessed(int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+		while (processed.size() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(count, processed.size());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static OctaneEventDispatcher.PendingEvent newPendingEvent(CIEventType eventType, String project) {
+		return new OctaneEventDispatcher.PendingEvent(null, newEvent(eventType, project));
+	}
+
+	private void waitForPublished(int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+		while (published.size() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(count, published.size());
+	}
+
+	private static CIEvent newEvent(CIEventType eventType, String project) {
+		return dtoFactory.newDTO(CIEvent.class).setEventType(eventType).setProject(project);
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import com.hp.octane.integrations.dto.causes.CIEventCause;
+import com.hp.octane.integrations.dto.causes.CIEventCauseType;
+import hudson.model.Cause;
+import hudson.model.Run;
+import hudson.triggers.TimerTrigger;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CIEventCausesFactoryTest {
+
+	@Test
+	public void testCausesOfRunningBuildAreCached() {
+		Run run = mockRun("job#1", true);
+		long misses = getMetric("cacheMisses");
+		long hits = getMetric("cacheHits");
+
+		List<CIEventCause> causes = CIEventCausesFactory.processCauses(run);
+		causes.clear();
+		List<CIEventCause> cachedCauses = CIEventCausesFactory.processCauses(run);
+
+		assertEquals(1, cachedCauses.size());
+		assertEquals(CIEventCauseType.TIMER, cachedCauses.get(0).getType());
+		assertEquals(misses + 1, getMetric("cacheMisses"));
+		assertEquals(hits + 1, getMetric("cacheHits"));
+		Mockito.verify(run, Mockito.times(1)).getCauses();
+	}
+
+	@Test
+	public void testCausesAreServedFromCacheForFinishedEvent() {
+		Run run = mockRun("job#2", true);
+		//  STARTED event
+		CIEventCausesFactory.processCauses(run);
+		long hits = getMetric("cacheHits");
+
+		//  the FINISHED event is sent after the run completed
+		Mockito.when(run.isBuilding()).thenReturn(false);
+		List<CIEventCause> causes = CIEventCausesFactory.processCauses(run);
+
+		assertEquals(1, causes.size());
+		assertEquals(hits + 1, getMetric("cacheHits"));
+		Mockito.verify(run, Mockito.times(1)).getCauses();
+	}
+
+	@Test
+	public void testCausesOfCompletedBuildAreCached() {
+		Run run = mockRun("job#3", false);
+		long misses = getMetric("cacheMisses");
+
+		CIEventCausesFactory.processCauses(run);
+		CIEventCausesFactory.processCauses(run);
+
+		assertEquals(misses + 1, getMetric("cacheMisses"));
+		Mockito.verify(run, Mockito.times(1)).getCauses();
+	}
+
+	@Test
+	public void testCausesAreDroppedWhenBuildIsDeleted() {
+		Run run = mockRun("job#4", false);
+		CIEventCausesFactory.processCauses(run);
+		long cachedChains = getMetric("cachedChains");
+
+		new CIEventCausesFactory.RunListenerImpl().onDeleted(run);
+
+		assertEquals(cachedChains - 1, getMetric("cachedChains"));
+		CIEventCausesFactory.processCauses(run);
+		Mockito.verify(run, Mockito.times(2)).getCauses();
+	}
+
+	private static Run mockRun(String externalizableId, boolean building) {
+		Run run = Mockito.mock(Run.class);
+		Mockito.when(run.getExternalizableId()).thenReturn(externalizableId);
+		Mockito.when(run.isBuilding()).thenReturn(building);
+		Mockito.when(run.getCauses()).thenReturn(Collections.<Cause>singletonList(new TimerTrigger.TimerTriggerCause()));
+		return run;
+	}
+
+	private static long getMetric(String name) {
+		return ((Number) CIEventCausesFactory.getCacheMetrics().get(name)).longValue();
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model.processors.scm;
+
+import com.hp.octane.integrations.dto.scm.impl.RevisionsMap;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class GitBlameCacheTest {
+
+	private static final ObjectId BLOB_ID = ObjectId.fromString("0123456789abcdef0123456789abcdef01234567");
+	private static final ObjectId OTHER_BLOB_ID = ObjectId.fromString("76543210fedcba9876543210fedcba9876543210");
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testBlameKeyedByBlobAndPath() throws Exception {
+		GitBlameCache cache = GitBlameCache.forRepository(tmp.newFolder("repo", ".git"));
+		RevisionsMap revisions = new RevisionsMap();
+
+		cache.put("src/a.txt", BLOB_ID, revisions);
+
+		assertSame(revisions, cache.get("src/a.txt", BLOB_ID));
+		assertNull("same content at another path", cache.get("src/b.txt", BLOB_ID));
+		assertNull("other content at the same path", cache.get("src/a.txt", OTHER_BLOB_ID));
+	}
+
+	@Test
+	public void testCachePerRepository() throws Exception {
+		File repoDir = tmp.newFolder("first", ".git");
+		GitBlameCache cache = GitBlameCache.forRepository(repoDir);
+		cache.put("a.txt", BLOB_ID, new RevisionsMap());
+
+		assertSame(cache, GitBlameCache.forRepository(new File(repoDir.getPath())));
+		GitBlameCache otherCache = GitBlameCache.forRepository(tmp.newFolder("second", ".git"));
+		assertNotSame(cache, otherCache);
+		assertNull(otherCache.get("a.txt", BLOB_ID));
+	}
+}
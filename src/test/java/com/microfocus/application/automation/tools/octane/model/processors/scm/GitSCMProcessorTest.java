@@ -0,0 +1,152 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model.processors.scm;
+
+import com.hp.octane.integrations.dto.DTOFactory;
+import com.hp.octane.integrations.dto.scm.SCMChange;
+import com.hp.octane.integrations.dto.scm.SCMCommit;
+import com.hp.octane.integrations.dto.scm.SCMData;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class GitSCMProcessorTest {
+	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File workspace;
+	private Git git;
+
+	@Before
+	public void setUp() throws Exception {
+		workspace = tmp.newFolder("workspace");
+		git = Git.init().setDirectory(workspace).call();
+		writeFile("a.txt", "1\n2\n3\n");
+		writeFile("b.txt", "b\n");
+		commit("initial");
+	}
+
+	@After
+	public void tearDown() {
+		git.close();
+	}
+
+	@Test
+	public void testLinesEnrichedInParallel() throws Exception {
+		writeFile("a.txt", "1\nchanged\n3\n4\n");
+		writeFile("c.txt", "c\n");
+		RevCommit second = commit("second");
+		writeFile("b.txt", "b\nb2\n");
+		RevCommit third = commit("third");
+		SCMChange editedA = newChange("edit", "a.txt");
+		SCMChange addedC = newChange("add", "c.txt");
+		SCMChange editedB = newChange("edit", "b.txt");
+		SCMData scmData = dtoFactory.newDTO(SCMData.class).setCommits(Arrays.asList(
+				newCommit(second, editedA, addedC),
+				newCommit(third, editedB)));
+
+		SCMData enriched = new GitSCMProcessor.LineEnricherCallable("", scmData).invoke(workspace, null);
+
+		assertEquals(3, enriched.getFileBlameList().size());
+		assertFalse(editedA.getAddedLines().isEmpty());
+		assertFalse(editedA.getDeletedLines().isEmpty());
+		assertFalse(addedC.getAddedLines().isEmpty());
+		assertFalse(editedB.getAddedLines().isEmpty());
+		//  the blame of each file is cached by the content of the file at HEAD
+		GitBlameCache cache = GitBlameCache.forRepository(new File(workspace, ".git"));
+		for (String file : Arrays.asList("a.txt", "b.txt", "c.txt")) {
+			assertNotNull(file, cache.get(file, getBlobId(third, file)));
+		}
+	}
+
+	@Test
+	public void testFailedDiffDoesNotStopTheOthers() throws Exception {
+		writeFile("a.txt", "1\n2\n3\n4\n");
+		RevCommit second = commit("second");
+		SCMChange editedA = newChange("edit", "a.txt");
+		SCMCommit missingCommit = dtoFactory.newDTO(SCMCommit.class)
+				.setRevId("0123456789abcdef0123456789abcdef01234567")
+				.setChanges(new ArrayList<>(Arrays.asList(newChange("edit", "b.txt"))));
+		SCMData scmData = dtoFactory.newDTO(SCMData.class).setCommits(Arrays.asList(
+				missingCommit,
+				newCommit(second, editedA)));
+
+		SCMData enriched = new GitSCMProcessor.LineEnricherCallable("", scmData).invoke(workspace, null);
+
+		assertFalse(editedA.getAddedLines().isEmpty());
+		assertTrue(missingCommit.getChanges().get(0).getAddedLines() == null || missingCommit.getChanges().get(0).getAddedLines().isEmpty());
+		assertEquals(2, enriched.getFileBlameList().size());
+	}
+
+	private void writeFile(String name, String content) throws Exception {
+		Files.write(new File(workspace, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private RevCommit commit(String message) throws Exception {
+		git.add().addFilepattern(".").call();
+		return git.commit().setMessage(message).setAuthor("user", "user@example.com").call();
+	}
+
+	private ObjectId getBlobId(RevCommit commit, String file) throws Exception {
+		try (TreeWalk treeWalk = TreeWalk.forPath(git.getRepository(), file, commit.getTree())) {
+			return treeWalk.getObjectId(0);
+		}
+	}
+
+	private static SCMChange newChange(String type, String file) {
+		return dtoFactory.newDTO(SCMChange.class).setType(type).setFile(file);
+	}
+
+	private static SCMCommit newCommit(RevCommit commit, SCMChange... changes) {
+		return dtoFactory.newDTO(SCMCommit.class)
+				.setRevId(commit.getName())
+				.setParentRevId(commit.getParent(0).getName())
+				.setChanges(new ArrayList<>(Arrays.asList(changes)));
+	}
+}
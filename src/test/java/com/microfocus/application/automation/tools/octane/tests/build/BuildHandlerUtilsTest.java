@@ -36,13 +36,26 @@ import hudson.maven.MavenModuleSetBuild;
 import hudson.model.FreeStyleBuild;
 import hudson.model.FreeStyleProject;
 import hudson.tasks.Maven;
+import org.jenkinsci.plugins.workflow.actions.WorkspaceAction;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.graph.FlowGraphWalker;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.junit.Assert;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.ToolInstallations;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 
 @SuppressWarnings({"squid:S2699", "squid:S3658", "squid:S2259", "squid:S1872", "squid:S2925", "squid:S109", "squid:S1607", "squid:S2701"})
 public class BuildHandlerUtilsTest {
@@ -103,4 +116,74 @@ public class BuildHandlerUtilsTest {
 		Assert.assertEquals("", descriptor.getSubType());
 		Assert.assertEquals("freestyle-project", BuildHandlerUtils.getProjectFullName(build));
 	}
+
+	@Test
+	public void testWorkspaceNodesIndexedAndSaved() throws Exception {
+		WorkflowRun run = runPipeline("indexed-pipeline", "node { ws('second') { } }");
+		List<FlowNode> workspaceNodes = indexWorkspaceNodes(run);
+		Assert.assertEquals(2, workspaceNodes.size());
+
+		WorkspaceNodesAction index = run.getAction(WorkspaceNodesAction.class);
+		Assert.assertNotNull(index);
+		Assert.assertEquals(getIds(workspaceNodes), index.getFlowNodeIds());
+
+		//  recorded in build.xml, to be found after a restart
+		String buildXml = new String(Files.readAllBytes(new File(run.getRootDir(), "build.xml").toPath()), StandardCharsets.UTF_8);
+		Assert.assertTrue(buildXml.contains(WorkspaceNodesAction.class.getName()));
+		for (FlowNode workspaceNode : workspaceNodes) {
+			Assert.assertTrue(buildXml.contains("<string>" + workspaceNode.getId() + "</string>"));
+		}
+
+		//  indexing again does not record a node twice
+		indexWorkspaceNodes(run);
+		Assert.assertEquals(getIds(workspaceNodes), run.getAction(WorkspaceNodesAction.class).getFlowNodeIds());
+	}
+
+	@Test
+	public void testLookupIndexedWorkspaceAction() throws Exception {
+		WorkflowRun run = runPipeline("lookup-pipeline", "node { ws('second') { } }");
+		FlowExecution execution = run.getExecution();
+		Assert.assertNull("runs that predate the index are not found", BuildHandlerUtils.lookupIndexedWorkspaceAction(run, execution));
+
+		List<FlowNode> workspaceNodes = indexWorkspaceNodes(run);
+		WorkspaceAction latest = workspaceNodes.get(1).getAction(WorkspaceAction.class);
+		Assert.assertSame(latest, BuildHandlerUtils.lookupIndexedWorkspaceAction(run, execution));
+		Assert.assertEquals(latest.getWorkspace(), BuildHandlerUtils.getWorkspace(run));
+
+		//  nodes that can't be loaded are skipped
+		run.getAction(WorkspaceNodesAction.class).addFlowNodeId("999999");
+		Assert.assertSame(latest, BuildHandlerUtils.lookupIndexedWorkspaceAction(run, execution));
+	}
+
+	private WorkflowRun runPipeline(String name, String script) throws Exception {
+		WorkflowJob job = jenkins.createProject(WorkflowJob.class, name);
+		job.setDefinition(new CpsFlowDefinition(script, true));
+		return jenkins.assertBuildStatusSuccess(job.scheduleBuild2(0));
+	}
+
+	//  the index is recorded by the flow listener only when connected to Octane, so the new heads are replayed here
+	private static List<FlowNode> indexWorkspaceNodes(WorkflowRun run) {
+		List<FlowNode> nodes = new ArrayList<>();
+		for (FlowNode node : new FlowGraphWalker(run.getExecution())) {
+			nodes.add(node);
+		}
+		nodes.sort(Comparator.comparingInt(node -> Integer.parseInt(node.getId())));
+
+		List<FlowNode> workspaceNodes = new ArrayList<>();
+		for (FlowNode node : nodes) {
+			BuildHandlerUtils.indexWorkspaceNode(node);
+			if (node.getAction(WorkspaceAction.class) != null) {
+				workspaceNodes.add(node);
+			}
+		}
+		return workspaceNodes;
+	}
+
+	private static List<String> getIds(List<FlowNode> nodes) {
+		List<String> ids = new ArrayList<>();
+		for (FlowNode node : nodes) {
+			ids.add(node.getId());
+		}
+		return ids;
+	}
 }
@@ -0,0 +1,172 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.build;
+
+import hudson.FilePath;
+import hudson.model.Run;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings({"squid:S2699", "squid:S3658", "squid:S2259", "squid:S1872", "squid:S2925", "squid:S109", "squid:S1607", "squid:S2701"})
+public class WorkspaceFilesIndexTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testAllPatternsIndexedInOneWalk() throws Exception {
+		File root = tmp.getRoot();
+		createFile(root, "module1/target/surefire-reports/TEST-a.xml", "<testsuite/>");
+		createFile(root, "module1/target/surefire-reports/testng-results.xml", "<testng-results/>");
+		createFile(root, "module1/target/site/jacoco/jacoco.xml", "<report/>");
+		createFile(root, "ui/coverage/lcov.info", "");
+		createFile(root, "reports/features/OctaneGherkinResults.xml", "<features/>");
+		createFile(root, "reports/other.txt", "other");
+
+		String junitPattern = "**/surefire-reports/TEST-*.xml";
+		String coveragePattern = "**/target/site/*/jacoco.xml, **/coverage/lcov.info";
+		String reportsPattern = "reports/";
+		WorkspaceFilesIndex.IndexResult result = new WorkspaceFilesIndex.IndexCallable(Arrays.asList(junitPattern, coveragePattern, reportsPattern))
+				.invoke(root, null);
+
+		Assert.assertEquals(toSet("module1/target/surefire-reports/TEST-a.xml"), toSet(result.files.get(junitPattern)));
+		Assert.assertEquals(toSet("module1/target/site/jacoco/jacoco.xml", "ui/coverage/lcov.info"), toSet(result.files.get(coveragePattern)));
+		Assert.assertEquals(toSet("reports/features/OctaneGherkinResults.xml", "reports/other.txt"), toSet(result.files.get(reportsPattern)));
+		Assert.assertEquals(Long.valueOf(0), result.fileSizes.get(path("ui/coverage/lcov.info")));
+		Assert.assertEquals(Long.valueOf(9), result.fileSizes.get(path("module1/target/site/jacoco/jacoco.xml")));
+	}
+
+	@Test
+	public void testDefaultExcludesAndMissingWorkspace() throws Exception {
+		File root = tmp.getRoot();
+		createFile(root, ".git/reports/OctaneGherkinResults.xml", "<features/>");
+		createFile(root, "OctaneGherkinResults.xml", "<features/>");
+
+		String pattern = "**/*OctaneGherkinResults.xml";
+		WorkspaceFilesIndex.IndexResult result = new WorkspaceFilesIndex.IndexCallable(Arrays.asList(pattern)).invoke(root, null);
+		Assert.assertEquals(toSet("OctaneGherkinResults.xml"), toSet(result.files.get(pattern)));
+
+		result = new WorkspaceFilesIndex.IndexCallable(Arrays.asList(pattern)).invoke(new File(root, "missing"), null);
+		Assert.assertEquals(0, result.files.get(pattern).length);
+	}
+
+	@Test
+	public void testIndexReusedUntilWorkspaceChanges() throws Exception {
+		File root = tmp.getRoot();
+		createFile(root, "features/first/OctaneGherkinResults.xml", "<features/>");
+		Run<?, ?> run = mockRun("job#1");
+		FilePath workspace = new FilePath(root);
+		String pattern = "**/*OctaneGherkinResults.xml";
+
+		Assert.assertEquals(toSet("features/first/OctaneGherkinResults.xml"), toSet(WorkspaceFilesIndex.get(run, workspace).getFiles(pattern)));
+		// a file created in a folder that keeps its modification time is not seen: the first walk is reused
+		File second = new File(root, "features/first/second-OctaneGherkinResults.xml");
+		FileTime folderTime = Files.getLastModifiedTime(second.getParentFile().toPath());
+		Files.write(second.toPath(), "<features/>".getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(second.getParentFile().toPath(), folderTime);
+		Assert.assertEquals(1, WorkspaceFilesIndex.get(run, workspace).getFiles(pattern).length);
+
+		// the workspace is walked again once a folder changed
+		createFile(root, "features/third/OctaneGherkinResults.xml", "<features/>");
+		Assert.assertEquals(toSet("features/first/OctaneGherkinResults.xml", "features/first/second-OctaneGherkinResults.xml", "features/third/OctaneGherkinResults.xml"),
+				toSet(WorkspaceFilesIndex.get(run, workspace).getFiles(pattern)));
+	}
+
+	@Test
+	public void testRewrittenResultFileIsSeen() throws Exception {
+		File root = tmp.getRoot();
+		createFile(root, "coverage/lcov.info", "");
+		Run<?, ?> run = mockRun("job#2");
+		FilePath workspace = new FilePath(root);
+		String pattern = "**/coverage/lcov.info";
+
+		WorkspaceFilesIndex index = WorkspaceFilesIndex.get(run, workspace);
+		Assert.assertEquals(1, index.getFiles(pattern).length);
+		Assert.assertEquals(0, index.getFileSize(path("coverage/lcov.info")));
+
+		File file = new File(root, "coverage/lcov.info");
+		Files.write(file.toPath(), "TN:".getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(file.lastModified() + 1000));
+		index = WorkspaceFilesIndex.get(run, workspace);
+		Assert.assertEquals(1, index.getFiles(pattern).length);
+		Assert.assertEquals(3, index.getFileSize(path("coverage/lcov.info")));
+	}
+
+	@Test
+	public void testWorkspacesOfRunIndexedSeparately() throws Exception {
+		File first = tmp.newFolder("first");
+		File second = tmp.newFolder("second");
+		createFile(first, "reports/OctaneGherkinResults.xml", "<features/>");
+		Run<?, ?> run = mockRun("job#3");
+		String pattern = "**/*OctaneGherkinResults.xml";
+
+		WorkspaceFilesIndex firstIndex = WorkspaceFilesIndex.get(run, new FilePath(first));
+		Assert.assertEquals(1, firstIndex.getFiles(pattern).length);
+		// another branch of the run, on another workspace, keeps the index of the first one
+		Assert.assertEquals(0, WorkspaceFilesIndex.get(run, new FilePath(second)).getFiles(pattern).length);
+		Assert.assertSame(firstIndex, WorkspaceFilesIndex.get(run, new FilePath(first)));
+	}
+
+	private static Run<?, ?> mockRun(String externalizableId) {
+		Run<?, ?> run = mock(Run.class);
+		when(run.getExternalizableId()).thenReturn(externalizableId);
+		return run;
+	}
+
+	private static void createFile(File root, String path, String content) throws Exception {
+		File file = new File(root, path);
+		Assert.assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String path(String path) {
+		return path.replace('/', File.separatorChar);
+	}
+
+	private static Set<String> toSet(String... paths) {
+		Set<String> ret = new HashSet<>();
+		for (String path : paths) {
+			ret.add(path(path));
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import com.cloudbees.plugins.credentials.common.UsernamePasswordCredentials;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcException;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.RunState;
+import com.microfocus.adm.performancecenter.plugins.common.rest.PcRestProxy;
+import hudson.util.Secret;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PcRunMonitorTest {
+
+    private static final int RUN_ID = Integer.parseInt(PcTestBase.RUN_ID_WAIT);
+    private static final PcException POLL_FAILURE = new PcException("Error code: 1300");
+    // logs in with the credentials given to the client
+    private static final PcModel MODEL = new MockPcModel(PcTestBase.SERVER_AND_PORT, PcTestBase.PC_SERVER_NAME, null,
+            PcTestBase.ALM_DOMAIN, PcTestBase.ALM_PROJECT, PcTestBase.TEST_ID, PcTestBase.TESTINSTANCEID, PcTestBase.TEST_INSTANCE_ID,
+            PcTestBase.TIMESLOT_DURATION_HOURS, PcTestBase.TIMESLOT_DURATION_MINUTES, PcTestBase.POST_RUN_ACTION,
+            PcTestBase.VUDS_MODE, PcTestBase.DESCRIPTION, PcTestBase.IS_HTTPS, PcTestBase.RETRY, PcTestBase.RETRYDELAY,
+            PcTestBase.RETRYOCCURRENCES, PcTestBase.AUTHENTICATE_WITH_TOKEN);
+
+    // answers of LRE to the polls of the run: a state or a failure
+    private final Queue<Object> answers = new ConcurrentLinkedQueue<>();
+    private final PrintStream logger = new PrintStream(new ByteArrayOutputStream());
+    private final AtomicInteger logins = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+    private PcClient pcClient;
+
+    @Before
+    public void setUp() throws Exception {
+        UsernamePasswordCredentials credentials = mock(UsernamePasswordCredentials.class);
+        when(credentials.getUsername()).thenReturn("user");
+        when(credentials.getPassword()).thenReturn(Secret.fromString(""));
+        PcRestProxy proxy = new MockPcRestProxy(PcTestBase.WEB_PROTOCOL, PcTestBase.PC_SERVER_NAME, PcTestBase.AUTHENTICATE_WITH_TOKEN,
+                PcTestBase.ALM_DOMAIN, PcTestBase.ALM_PROJECT, PcTestBase.LOGGER) {
+            @Override
+            protected HttpResponse executeRequest(HttpRequestBase request) throws PcException, ClientProtocolException, IOException {
+                if (requests.incrementAndGet() > 1) {
+                    concurrentRequests.incrementAndGet();
+                }
+                try {
+                    return respond(request);
+                } finally {
+                    requests.decrementAndGet();
+                }
+            }
+
+            private HttpResponse respond(HttpRequestBase request) throws PcException, ClientProtocolException, IOException {
+                try {
+                    // gives the requests of the other threads the time to overlap
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                String requestUrl = request.getURI().toString();
+                if (requestUrl.equals(String.format(AUTHENTICATION_LOGIN_URL, PcTestBase.WEB_PROTOCOL, PcTestBase.PC_SERVER_NAME))) {
+                    logins.incrementAndGet();
+                }
+                if (!requestUrl.equals(String.format(getBaseURL() + "/%s/%s", RUNS_RESOURCE_NAME, RUN_ID))) {
+                    return super.executeRequest(request);
+                }
+                Object answer = answers.remove();
+                if (answer instanceof PcException) {
+                    throw (PcException) answer;
+                }
+                HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+                response.setEntity(new StringEntity(PcTestBase.runResponseEntity.replace("*", ((RunState) answer).value())));
+                return response;
+            }
+        };
+        pcClient = new PcClient(MODEL, logger, proxy, credentials);
+    }
+
+    @Test
+    public void testPollsUntilCompletionState() throws Exception {
+        answer(RunState.INITIALIZING, RunState.RUNNING, RunState.RUNNING, RunState.COLLATING_RESULTS,
+                RunState.CREATING_ANALYSIS_DATA, RunState.FINISHED);
+        PcRunMonitor monitor = new PcRunMonitor(pcClient, RUN_ID, RunState.FINISHED, 10, logger);
+
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue("Monitoring should go on before the completion state", monitor.poll() >= 0);
+        }
+        Assert.assertEquals(-1, monitor.poll());
+        Assert.assertEquals(RunState.FINISHED.value(), monitor.getResponse().getRunState());
+        Assert.assertEquals(0, logins.get());
+    }
+
+    @Test
+    public void testStopsAfterThreeFailedPolls() throws Exception {
+        answer(RunState.RUNNING, POLL_FAILURE, POLL_FAILURE, POLL_FAILURE);
+        PcRunMonitor monitor = new PcRunMonitor(pcClient, RUN_ID, RunState.FINISHED, 10, logger);
+
+        Assert.assertTrue(monitor.poll() >= 0);
+        Assert.assertTrue(monitor.poll() >= 0);
+        Assert.assertTrue(monitor.poll() >= 0);
+        Assert.assertEquals(-1, monitor.poll());
+        // logged in again before each poll following a failed one
+        Assert.assertEquals(2, logins.get());
+        Assert.assertEquals(RunState.RUNNING.value(), monitor.getResponse().getRunState());
+    }
+
+    @Test
+    public void testRecoversAfterFailedPolls() throws Exception {
+        answer(POLL_FAILURE, POLL_FAILURE, RunState.RUNNING, RunState.RUNNING, RunState.FINISHED);
+        PcRunMonitor monitor = new PcRunMonitor(pcClient, RUN_ID, RunState.FINISHED, 10, logger);
+
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(monitor.poll() >= 0);
+        }
+        Assert.assertEquals(-1, monitor.poll());
+        Assert.assertEquals(2, logins.get());
+    }
+
+    @Test
+    public void testStopsWhenWaitingStateTimesOut() throws Exception {
+        answer(RunState.RUNNING, RunState.BEFORE_COLLATING_RESULTS, RunState.BEFORE_COLLATING_RESULTS, RunState.BEFORE_COLLATING_RESULTS);
+        PcRunMonitor monitor = new PcRunMonitor(pcClient, RUN_ID, RunState.FINISHED, 10, 500, logger);
+
+        Assert.assertTrue(monitor.poll() >= 0);
+        Assert.assertTrue(monitor.poll() >= 0);
+        // still within the timeout
+        Assert.assertTrue(monitor.poll() >= 0);
+        Thread.sleep(700);
+        Assert.assertEquals(-1, monitor.poll());
+        Assert.assertEquals(RunState.BEFORE_COLLATING_RESULTS.value(), monitor.getResponse().getRunState());
+    }
+
+    @Test
+    public void testLogsInOnceAfterAFailureSeenByTheRunsOfASession() throws Exception {
+        answer(POLL_FAILURE, POLL_FAILURE, RunState.FINISHED, RunState.FINISHED);
+        PcRunMonitor monitor = new PcRunMonitor(pcClient, RUN_ID, RunState.FINISHED, 10, logger);
+        PcRunMonitor otherMonitor = new PcRunMonitor(pcClient.withModel(MODEL), RUN_ID, RunState.FINISHED, 10, logger);
+
+        Assert.assertTrue(monitor.poll() >= 0);
+        Assert.assertTrue(otherMonitor.poll() >= 0);
+        Assert.assertEquals(-1, monitor.poll());
+        // the session was logged in again since the failure of the other run
+        Assert.assertEquals(-1, otherMonitor.poll());
+        Assert.assertEquals(1, logins.get());
+    }
+
+    @Test
+    public void testRunsOfASessionSendOneRequestAtATime() throws Exception {
+        int runs = 4;
+        int pollsPerRun = 10;
+        for (int i = 0; i < runs * pollsPerRun; i++) {
+            answer(RunState.RUNNING);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(runs);
+        try {
+            List<Future<?>> polls = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                PcClient client = pcClient.withModel(MODEL);
+                PcRunMonitor monitor = new PcRunMonitor(client, RUN_ID, RunState.FINISHED, 10, logger);
+                polls.add(pool.submit(() -> {
+                    for (int poll = 0; poll < pollsPerRun; poll++) {
+                        Assert.assertTrue(monitor.poll() >= 0);
+                        // another request of the session between two polls
+                        client.stopRun(Integer.parseInt(PcTestBase.RUN_ID));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> poll : polls) {
+                poll.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        Assert.assertEquals(0, concurrentRequests.get());
+        Assert.assertTrue(answers.isEmpty());
+    }
+
+    private void answer(Object... pollAnswers) {
+        for (Object pollAnswer : pollAnswers) {
+            answers.add(pollAnswer);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+
+package com.microfocus.application.automation.tools.pc.helper;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class AdaptivePollingIntervalTest {
+
+    @Test
+    public void testBacksOffWhileStateDoesNotChange() {
+        AdaptivePollingInterval interval = new AdaptivePollingInterval(2000, 10000, new Random(1));
+        long previous = 0;
+        for (int i = 0; i < 3; i++) {
+            long delay = interval.next(false, false);
+            Assert.assertTrue("Delay should grow while the state does not change", delay > previous);
+            previous = delay;
+        }
+        for (int i = 0; i < 10; i++) {
+            long delay = interval.next(false, false);
+            Assert.assertTrue("Delay should not exceed the maximum interval with its jitter", delay <= 12000);
+            Assert.assertTrue("Delay should stay close to the maximum interval", delay >= 8000);
+        }
+    }
+
+    @Test
+    public void testDropsToMinimumWhenStateChanges() {
+        AdaptivePollingInterval interval = new AdaptivePollingInterval(2000, 10000, new Random(1));
+        for (int i = 0; i < 10; i++) {
+            interval.next(false, false);
+        }
+        long delay = interval.next(true, false);
+        Assert.assertTrue(delay >= 1600 && delay <= 2400);
+    }
+
+    @Test
+    public void testPollsFastWhenChangeIsImminent() {
+        AdaptivePollingInterval interval = new AdaptivePollingInterval(5000, 60000, new Random(1));
+        long delay = interval.next(false, true);
+        Assert.assertTrue(delay >= 800 && delay <= 1200);
+        delay = interval.next(false, true);
+        Assert.assertTrue(delay >= 800 && delay <= 1200);
+    }
+
+    @Test
+    public void testJitterSpreadsDelays() {
+        AdaptivePollingInterval first = new AdaptivePollingInterval(5000, 60000, new Random(1));
+        AdaptivePollingInterval second = new AdaptivePollingInterval(5000, 60000, new Random(2));
+        Assert.assertNotEquals(first.next(true, false), second.next(true, false));
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pipelineSteps;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcRunResponse;
+import com.microfocus.application.automation.tools.pc.PcClient;
+import com.microfocus.application.automation.tools.pc.PcRunMonitor;
+import com.microfocus.application.automation.tools.run.PcBuilder;
+import com.microfocus.application.automation.tools.sse.result.model.junit.Testsuites;
+import hudson.AbortException;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PcLoadTestStepExecutionTest {
+
+    private static final long TIMEOUT = 5000;
+    private static final int RUN_ID = 42;
+
+    private StepContext context;
+    private Run run;
+    private PcBuilder pcBuilder;
+    private PcClient pcClient;
+    private PcRunMonitor monitor;
+    private PcLoadTestStep step;
+    // threads of the calls to LRE
+    private final List<String> threads = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        context = Mockito.mock(StepContext.class);
+        run = Mockito.mock(Run.class);
+        TaskListener listener = Mockito.mock(TaskListener.class);
+        Mockito.when(listener.getLogger()).thenReturn(new PrintStream(new ByteArrayOutputStream()));
+        FlowNode flowNode = Mockito.mock(FlowNode.class);
+        Mockito.when(flowNode.getId()).thenReturn("7");
+        Mockito.when(context.get(Run.class)).thenReturn(run);
+        Mockito.when(context.get(TaskListener.class)).thenReturn(listener);
+        Mockito.when(context.get(FlowNode.class)).thenReturn(flowNode);
+
+        pcClient = Mockito.mock(PcClient.class);
+        monitor = Mockito.mock(PcRunMonitor.class);
+        Mockito.when(pcClient.createRunMonitor(Matchers.eq(RUN_ID), Matchers.anyInt())).thenReturn(monitor);
+        pcBuilder = Mockito.mock(PcBuilder.class);
+        Mockito.when(pcBuilder.getTestId()).thenReturn("1");
+        Mockito.when(pcBuilder.getRunId()).thenReturn(RUN_ID);
+        Mockito.when(pcBuilder.startRun(pcClient, run)).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return true;
+        });
+        Mockito.when(pcBuilder.completeRun(Matchers.eq(pcClient), Matchers.eq(run), Matchers.any(PcRunResponse.class)))
+                .thenAnswer(invocation -> {
+                    threads.add(Thread.currentThread().getName());
+                    return new Testsuites();
+                });
+        step = Mockito.mock(PcLoadTestStep.class);
+        Mockito.when(step.getPcBuilder()).thenReturn(pcBuilder);
+    }
+
+    @Test
+    public void testRunStartedPolledAndCompletedOnStepThreads() throws Exception {
+        Mockito.when(monitor.poll()).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return threads.size() < 3 ? 10L : -1L;
+        });
+
+        assertFalse(newExecution().start());
+
+        Mockito.verify(context, Mockito.timeout(TIMEOUT)).onSuccess(null);
+        // start, 2 polls, complete
+        Mockito.verify(monitor, Mockito.times(2)).poll();
+        for (String thread : threads) {
+            assertTrue(thread, thread.startsWith("LRE load test step"));
+        }
+        Mockito.verify(run, Mockito.atLeastOnce()).addAction(Matchers.any(PcRunStateAction.class));
+        Mockito.verify(pcBuilder).publishRunResults(Matchers.eq(run), Matchers.any(), Matchers.any(Testsuites.class));
+    }
+
+    @Test
+    public void testStopAbortsTheRun() throws Exception {
+        Mockito.when(monitor.poll()).thenReturn(10L);
+        PcLoadTestStepExecution execution = newExecution();
+        execution.start();
+        Mockito.verify(monitor, Mockito.timeout(TIMEOUT).atLeast(2)).poll();
+
+        Exception cause = new Exception("aborted");
+        execution.stop(cause);
+
+        Mockito.verify(context).onFailure(cause);
+        Mockito.verify(pcBuilder, Mockito.timeout(TIMEOUT)).abortRun(pcClient, run);
+        Mockito.verify(pcClient, Mockito.timeout(TIMEOUT)).logout();
+        Mockito.verify(context, Mockito.never()).onSuccess(Matchers.any());
+    }
+
+    @Test(expected = AbortException.class)
+    public void testSeveralTestsRejected() throws Exception {
+        Mockito.when(pcBuilder.getTestId()).thenReturn("1,2");
+        try {
+            newExecution().start();
+        } finally {
+            Mockito.verify(pcBuilder, Mockito.never()).startRun(Matchers.any(), Matchers.any());
+        }
+    }
+
+    @Test
+    public void testResumeWithoutRunStateFails() throws Exception {
+        newExecution().resume();
+
+        Mockito.verify(context, Mockito.timeout(TIMEOUT)).onFailure(Matchers.any(AbortException.class));
+        Mockito.verify(pcBuilder, Mockito.never()).resumeRun(Matchers.any(), Matchers.any());
+    }
+
+    @Test
+    public void testResumeFollowsTheSavedRun() throws Exception {
+        PcRunStateAction state = new PcRunStateAction();
+        state.put("7", pcBuilder);
+        Mockito.when(run.getAction(PcRunStateAction.class)).thenReturn(state);
+        Mockito.when(pcBuilder.resumeRun(pcClient, run)).thenReturn(true);
+        Mockito.when(monitor.poll()).thenReturn(-1L);
+
+        newExecution().resume();
+
+        Mockito.verify(context, Mockito.timeout(TIMEOUT)).onSuccess(null);
+        Mockito.verify(pcBuilder, Mockito.never()).startRun(Matchers.any(), Matchers.any());
+        Mockito.verify(pcBuilder).completeRun(Matchers.eq(pcClient), Matchers.eq(run), Matchers.any(PcRunResponse.class));
+        // the state of the completed run is removed from the build
+        assertNull(state.getBuilder("7"));
+    }
+
+    private PcLoadTestStepExecution newExecution() {
+        return new PcLoadTestStepExecution(context, step) {
+            @Override
+            PcClient createPcClient(Run<?, ?> build) {
+                return pcClient;
+            }
+        };
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pipelineSteps;
+
+import com.microfocus.application.automation.tools.run.SseBuilder;
+import com.microfocus.application.automation.tools.sse.SSEBuilderPerformer;
+import com.microfocus.application.automation.tools.sse.sdk.handler.PollHandler;
+import hudson.AbortException;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.util.VariableResolver;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SseBuilderPublishResultStepExecutionTest {
+
+    private static final long TIMEOUT = 5000;
+
+    private StepContext context;
+    private Run run;
+    private SSEBuilderPerformer performer;
+    private SseBuildAndPublishStep step;
+    private final AtomicReference<String> startThread = new AtomicReference<>();
+
+    @Before
+    public void setUp() throws Exception {
+        context = Mockito.mock(StepContext.class);
+        run = Mockito.mock(Run.class);
+        TaskListener listener = Mockito.mock(TaskListener.class);
+        Mockito.when(listener.getLogger()).thenReturn(new PrintStream(new ByteArrayOutputStream()));
+        FlowNode flowNode = Mockito.mock(FlowNode.class);
+        Mockito.when(flowNode.getId()).thenReturn("7");
+        Mockito.when(context.get(Run.class)).thenReturn(run);
+        Mockito.when(context.get(TaskListener.class)).thenReturn(listener);
+        Mockito.when(context.get(FlowNode.class)).thenReturn(flowNode);
+        step = Mockito.mock(SseBuildAndPublishStep.class);
+
+        performer = Mockito.mock(SSEBuilderPerformer.class);
+        Mockito.when(performer.startRun(Matchers.any(), Matchers.any(), Matchers.<VariableResolver<String>>any()))
+                .thenAnswer(invocation -> {
+                    startThread.set(Thread.currentThread().getName());
+                    return true;
+                });
+        Mockito.when(performer.preparePoll()).thenReturn(true);
+        Mockito.when(performer.getPollInterval()).thenReturn(10);
+        Mockito.when(performer.getRunId()).thenReturn("42");
+        Mockito.when(performer.getTimeslotId()).thenReturn("1001");
+    }
+
+    @Test
+    public void testStartReturnsBeforeTheRunIsStarted() throws Exception {
+        Mockito.when(performer.pollOnce()).thenReturn(PollHandler.PollStatus.RUNNING, PollHandler.PollStatus.FINISHED);
+
+        assertFalse(newExecution().start());
+
+        Mockito.verify(context, Mockito.timeout(TIMEOUT)).onSuccess(null);
+        assertNotEquals(Thread.currentThread().getName(), startThread.get());
+        assertTrue(startThread.get().startsWith("ALM Lab Management step"));
+        Mockito.verify(performer, Mockito.times(2)).pollOnce();
+        Mockito.verify(performer).publishResults();
+        Mockito.verify(run, Mockito.atLeastOnce()).addAction(Matchers.any(SseRunStateAction.class));
+    }
+
+    @Test
+    public void testStopAbortsTheRunAndStopsPolling() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        Mockito.when(performer.pollOnce()).thenAnswer(invocation -> {
+            polls.incrementAndGet();
+            return PollHandler.PollStatus.RUNNING;
+        });
+        SseBuilderPublishResultStepExecution execution = newExecution();
+        execution.start();
+        Mockito.verify(performer, Mockito.timeout(TIMEOUT).atLeast(2)).pollOnce();
+
+        Exception cause = new Exception("aborted");
+        execution.stop(cause);
+
+        Mockito.verify(performer).stop();
+        Mockito.verify(run).setResult(Result.ABORTED);
+        Mockito.verify(context).onFailure(cause);
+        // a poll already running when the step was stopped may still complete, no other poll is scheduled
+        Thread.sleep(100);
+        int pollsAfterStop = polls.get();
+        Thread.sleep(100);
+        assertEquals(pollsAfterStop, polls.get());
+        Mockito.verify(performer, Mockito.never()).publishResults();
+        Mockito.verify(context, Mockito.never()).onSuccess(Matchers.any());
+    }
+
+    @Test
+    public void testResumeWithoutRunStateFails() throws Exception {
+        newExecution().resume();
+
+        Mockito.verify(context, Mockito.timeout(TIMEOUT)).onFailure(Matchers.any(AbortException.class));
+        Mockito.verify(performer, Mockito.never()).resumeRun(Matchers.any(), Matchers.any(),
+                Matchers.<VariableResolver<String>>any(), Matchers.anyString(), Matchers.anyString());
+    }
+
+    @Test
+    public void testResumeContinuesPollingTheSavedRun() throws Exception {
+        SseRunStateAction state = new SseRunStateAction();
+        state.put("7", "42", "1001");
+        Mockito.when(run.getAction(SseRunStateAction.class)).thenReturn(state);
+        Mockito.when(performer.resumeRun(Matchers.any(), Matchers.any(), Matchers.<VariableResolver<String>>any(),
+                Matchers.eq("42"), Matchers.eq("1001"))).thenReturn(true);
+        Mockito.when(performer.pollOnce()).thenReturn(PollHandler.PollStatus.FINISHED);
+
+        newExecution().resume();
+
+        Mockito.verify(context, Mockito.timeout(TIMEOUT)).onSuccess(null);
+        Mockito.verify(performer, Mockito.never()).startRun(Matchers.any(), Matchers.any(),
+                Matchers.<VariableResolver<String>>any());
+        Mockito.verify(performer).publishResults();
+        // the state of the finished run is removed from the build
+        assertNull(state.getRunId("7"));
+    }
+
+    private SseBuilderPublishResultStepExecution newExecution() {
+        return new SseBuilderPublishResultStepExecution(context, step) {
+            @Override
+            SseBuilder createSseBuilder() {
+                return Mockito.mock(SseBuilder.class);
+            }
+
+            @Override
+            SSEBuilderPerformer createPerformer() {
+                return performer;
+            }
+        };
+    }
+}
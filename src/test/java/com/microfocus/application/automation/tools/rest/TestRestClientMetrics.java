@@ -0,0 +1,64 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.rest;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestRestClientMetrics {
+
+    @Test
+    public void testEndpointsGroupIds() {
+
+        RestClientMetrics metrics = new RestClientMetrics();
+        metrics.record("GET", "/rest/procedure-runs/1008", 1000000, 0, 2048, false);
+        metrics.record("GET", "/rest/procedure-runs/1009", 3000000, 0, 2048, true);
+        metrics.record("POST", "/rest/test-sets/1/startrun", 1000000, 1024, 0, false);
+
+        Assert.assertEquals(3, metrics.getRequestCount());
+        String summary = metrics.getSummary();
+        Assert.assertTrue(summary, summary.startsWith("ALM REST requests: 3"));
+        Assert.assertTrue(
+                summary,
+                summary.contains("GET /rest/procedure-runs/{id}: 2 requests (1 failed), avg 2 ms, max 3 ms, sent 0 KB, received 4 KB"));
+        Assert.assertTrue(summary, summary.contains("POST /rest/test-sets/{id}/startrun: 1 requests"));
+    }
+
+    @Test
+    public void testEndpointsAreBounded() {
+
+        RestClientMetrics metrics = new RestClientMetrics();
+        for (int i = 0; i < 300; i++) {
+            metrics.record("GET", "/rest/entity-" + i, 0, 0, 0, false);
+        }
+
+        Assert.assertEquals(300, metrics.getRequestCount());
+        Assert.assertTrue(metrics.getSummary().contains("(other): 100 requests"));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LrGraphUtilsTest {
+
+    @Test
+    public void testLimitGraphKeepsTopSeries() {
+        JSONObject graph = createGraph(3, 3);
+
+        LrGraphUtils.limitGraph(graph, 2, 0);
+
+        JSONArray series = graph.getJSONArray(LrGraphUtils.SERIES);
+        assertEquals(2, series.size());
+        assertEquals("transaction_2", series.getJSONObject(0).getString("name"));
+        assertEquals("transaction_1", series.getJSONObject(1).getString("name"));
+        assertEquals(1, graph.getInt("hiddenSeries"));
+    }
+
+    @Test
+    public void testLimitGraphDownsamplesBuilds() {
+        JSONObject graph = createGraph(2, 10);
+
+        LrGraphUtils.limitGraph(graph, 0, 4);
+
+        JSONArray labels = graph.getJSONArray("labels");
+        assertEquals(4, labels.size());
+        assertEquals(1, labels.getInt(0));
+        assertEquals(10, labels.getInt(3));
+        JSONArray data = graph.getJSONArray(LrGraphUtils.SERIES).getJSONObject(1).getJSONArray("data");
+        assertEquals(4, data.size());
+        assertEquals(10.0, data.getDouble(3), 0);
+    }
+
+    private static JSONObject createGraph(int seriesCount, int buildCount) {
+        JSONArray labels = new JSONArray();
+        for (int build = 1; build <= buildCount; build++) {
+            labels.add(build);
+        }
+        JSONArray series = new JSONArray();
+        for (int i = 0; i < seriesCount; i++) {
+            JSONArray data = new JSONArray();
+            for (int build = 1; build <= buildCount; build++) {
+                data.add((double) build * i);
+            }
+            JSONObject dataset = new JSONObject();
+            dataset.put("name", "transaction_" + i);
+            dataset.put("data", data);
+            series.add(dataset);
+        }
+        JSONObject graph = new JSONObject();
+        graph.put("labels", labels);
+        graph.put(LrGraphUtils.SERIES, series);
+        return graph;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.RunReportStreamParser;
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.FreeStyleProject;
+import net.sf.json.JSONObject;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class PerformanceProjectActionTest {
+
+    private static final String SCENARIO_NAME = "RunReport.xml";
+
+    @ClassRule
+    public static final JenkinsRule jenkins = new JenkinsRule();
+
+    @Test
+    public void testGraphDataFollowsNewBuilds() throws Exception {
+        FreeStyleProject project = jenkins.createFreeStyleProject("PerformanceProjectActionTest.testGraphDataFollowsNewBuilds");
+        project.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
+                    throws InterruptedException, IOException {
+                build.addAction(new PerformanceJobReportAction(build, readResults()));
+                return true;
+            }
+        });
+        jenkins.buildAndAssertSuccess(project);
+
+        PerformanceProjectAction action = new PerformanceProjectAction(project);
+        action.getUpdatedData();
+        JSONObject firstGraphs = action.getScenarioGraphData(SCENARIO_NAME, 0, 0);
+        Assert.assertFalse(firstGraphs.isEmpty());
+
+        jenkins.buildAndAssertSuccess(project);
+        JSONObject secondGraphs = action.getScenarioGraphData(SCENARIO_NAME, 0, 0);
+
+        Assert.assertNotEquals("The graphs should include the new build", firstGraphs.toString(), secondGraphs.toString());
+        Assert.assertEquals(secondGraphs.toString(),
+                new PerformanceProjectAction(project).getScenarioGraphData(SCENARIO_NAME, 0, 0).toString());
+    }
+
+    private LrJobResults readResults() throws IOException {
+        LrJobResults results = new LrJobResults();
+        try (InputStream is = getClass().getResourceAsStream(SCENARIO_NAME)) {
+            results.addScenario(RunReportStreamParser.parse(SCENARIO_NAME, is));
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+        return results;
+    }
+}
@@ -28,8 +28,15 @@
 
 package com.microfocus.application.automation.tools.results;
 
+import com.microfocus.application.automation.tools.results.projectparser.performance.AvgTransactionResponseTime;
+import com.microfocus.application.automation.tools.results.projectparser.performance.GoalResult;
 import com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult;
 import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.PercentileTransactionWholeRun;
+import com.microfocus.application.automation.tools.results.projectparser.performance.RunReportStreamParser;
+import com.microfocus.application.automation.tools.results.projectparser.performance.TimeRange;
+import com.microfocus.application.automation.tools.results.projectparser.performance.TimeRangeResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.WholeRunResult;
 import com.microfocus.application.automation.tools.model.ResultsPublisherModel;
 import hudson.FilePath;
 import org.junit.After;
@@ -37,6 +44,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -442,6 +450,78 @@ public void testParseScenarioResults() throws Exception {
 
 } 
 
+/**
+*
+* Method: RunReportStreamParser.parse(String scenarioName, InputStream is) against parseScenarioResultsWithDom(FilePath slaFilePath)
+*
+*/
+@Test
+public void testStreamParserMatchesDomParser() throws Exception {
+    RunResultRecorder runResultRecorder = new RunResultRecorder(ResultsPublisherModel.CreateHtmlReportResults.getValue());
+    Method domParser = runResultRecorder.getClass().getDeclaredMethod("parseScenarioResultsWithDom", FilePath.class);
+    domParser.setAccessible(true);
+
+    for (String reportName : new String[]{"RunReport.xml", "RunReport_sc5.xml"}) {
+        FilePath runReportPath = new FilePath(new File(getClass().getResource(reportName).getPath()));
+        JobLrScenarioResult domResult = (JobLrScenarioResult) domParser.invoke(runResultRecorder, runReportPath);
+        JobLrScenarioResult streamResult;
+        try (InputStream is = runReportPath.read()) {
+            streamResult = RunReportStreamParser.parse(runReportPath.getBaseName(), is);
+        }
+
+        assertEquals(reportName, domResult.getScenarioName(), streamResult.getScenarioName());
+        assertEquals(reportName, domResult.getScenarioDuration(), streamResult.getScenarioDuration());
+        assertEquals(reportName, domResult.getConnectionMax(), streamResult.getConnectionMax());
+        assertEquals(reportName, domResult.vUserSum, streamResult.vUserSum);
+        assertEquals(reportName, domResult.transactionSum, streamResult.transactionSum);
+        assertEquals(reportName, domResult.transactionData, streamResult.transactionData);
+        assertEquals(reportName, domResult.scenarioSlaResults.size(), streamResult.scenarioSlaResults.size());
+        for (int i = 0; i < domResult.scenarioSlaResults.size(); i++) {
+            assertSameGoalResult(reportName + " SLA rule " + i, domResult.scenarioSlaResults.get(i),
+                    streamResult.scenarioSlaResults.get(i));
+        }
+    }
+}
+
+private static void assertSameGoalResult(String message, GoalResult expected, GoalResult actual) {
+    assertEquals(message, expected.getClass(), actual.getClass());
+    assertEquals(message, expected.getSlaGoal(), actual.getSlaGoal());
+    assertEquals(message, expected.getStatus(), actual.getStatus());
+    assertEquals(message, expected.getFullName(), actual.getFullName());
+    if (expected instanceof WholeRunResult) {
+        assertEquals(message, ((WholeRunResult) expected).getActualValue(), ((WholeRunResult) actual).getActualValue(), 0);
+        assertEquals(message, ((WholeRunResult) expected).getGoalValue(), ((WholeRunResult) actual).getGoalValue(), 0);
+    }
+    if (expected instanceof PercentileTransactionWholeRun) {
+        assertEquals(message, ((PercentileTransactionWholeRun) expected).getName(),
+                ((PercentileTransactionWholeRun) actual).getName());
+        assertEquals(message, ((PercentileTransactionWholeRun) expected).getPrecentage(),
+                ((PercentileTransactionWholeRun) actual).getPrecentage(), 0);
+    }
+    if (expected instanceof TimeRangeResult) {
+        TimeRangeResult expectedRanges = (TimeRangeResult) expected;
+        TimeRangeResult actualRanges = (TimeRangeResult) actual;
+        assertEquals(message, expectedRanges.getGoalValue(), actualRanges.getGoalValue(), 0);
+        assertEquals(message, expectedRanges.getActualValueAvg(), actualRanges.getActualValueAvg(), 0);
+        assertEquals(message, expectedRanges.getLoadThrashold(), actualRanges.getLoadThrashold());
+        assertEquals(message, expectedRanges.getTimeRanges().size(), actualRanges.getTimeRanges().size());
+        for (int i = 0; i < expectedRanges.getTimeRanges().size(); i++) {
+            TimeRange expectedRange = expectedRanges.getTimeRanges().get(i);
+            TimeRange actualRange = actualRanges.getTimeRanges().get(i);
+            assertEquals(message, expectedRange.getSlaStatus(), actualRange.getSlaStatus());
+            assertEquals(message, expectedRange.getActualValue(), actualRange.getActualValue(), 0);
+            assertEquals(message, expectedRange.getGoalValue(), actualRange.getGoalValue(), 0);
+            assertEquals(message, expectedRange.getLoadAmount(), actualRange.getLoadAmount());
+            assertEquals(message, expectedRange.getStartTime(), actualRange.getStartTime(), 0);
+            assertEquals(message, expectedRange.getEndTime(), actualRange.getEndTime(), 0);
+        }
+    }
+    if (expected instanceof AvgTransactionResponseTime) {
+        assertEquals(message, ((AvgTransactionResponseTime) expected).getName(),
+                ((AvgTransactionResponseTime) actual).getName());
+    }
+}
+
 /** 
 * 
 * Method: processScenarioStats(JobLrScenarioResult jobLrScenarioResult, Document doc) 
@@ -0,0 +1,78 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+
+package com.microfocus.application.automation.tools.results.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.microfocus.application.automation.tools.results.parser.jenkinsjunit.JenkinsJUnitReportParserImpl;
+import com.microfocus.application.automation.tools.results.parser.mavensurefire.MavenSureFireReportParserImpl;
+import com.microfocus.application.automation.tools.results.parser.nunit3.NUnit3ReportParserImpl;
+import com.microfocus.application.automation.tools.results.parser.testngxml.TestNGXmlReportParserImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestReportParserManager {
+
+	@Test
+	public void testDetectRootElement() throws Exception {
+		Assert.assertEquals("testng-results", ReportParserManager.detectRootElement(
+				toStream("<?xml version=\"1.0\"?>\n<!-- report -->\n<testng-results total=\"1\"><suite/></testng-results>")));
+		Assert.assertEquals("test-run", ReportParserManager.detectRootElement(
+				toStream("<test-run xmlns=\"http://nunit.org\" id=\"2\"/>")));
+		Assert.assertNull(ReportParserManager.detectRootElement(toStream("<?xml version=\"1.0\"?>")));
+	}
+
+	@Test
+	public void testMatchingParserIsTriedFirst() {
+		ReportParserManager manager = ReportParserManager.getInstance(null, null);
+
+		assertFirstParser(JenkinsJUnitReportParserImpl.class, manager.getParsersFor("result"));
+		assertFirstParser(MavenSureFireReportParserImpl.class, manager.getParsersFor("testsuite"));
+		assertFirstParser(TestNGXmlReportParserImpl.class, manager.getParsersFor("testng-results"));
+		assertFirstParser(NUnit3ReportParserImpl.class, manager.getParsersFor("test-results"));
+
+		List<ReportParser> parsers = manager.getParsersFor("testsuites");
+		Assert.assertEquals(6, parsers.size());
+		Assert.assertEquals("AntJUnitReportParserImpl", parsers.get(0).getClass().getSimpleName());
+		Assert.assertEquals(6, manager.getParsersFor("unknown").size());
+		assertFirstParser(JenkinsJUnitReportParserImpl.class, manager.getParsersFor(null));
+	}
+
+	private static void assertFirstParser(Class<? extends ReportParser> expected, List<ReportParser> parsers) {
+		Assert.assertEquals(expected, parsers.get(0).getClass());
+	}
+
+	private static InputStream toStream(String xml) {
+		return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+	}
+}
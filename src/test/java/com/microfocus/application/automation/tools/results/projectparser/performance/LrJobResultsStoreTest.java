@@ -0,0 +1,74 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.projectparser.performance;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class LrJobResultsStoreTest {
+
+    private static final String RESOURCES = "/com/microfocus/application/automation/tools/results/";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndReadBack() throws Exception {
+        LrJobResults results = new LrJobResults();
+        for (String reportName : new String[]{"RunReport.xml", "RunReport_sc5.xml"}) {
+            try (InputStream is = getClass().getResourceAsStream(RESOURCES + reportName)) {
+                results.addScenario(RunReportStreamParser.parse(reportName, is));
+            }
+        }
+
+        File resultsFile = new File(tmp.getRoot(), "lrJobResults.bin");
+        LrJobResultsStore.write(resultsFile, results);
+        LrJobResults readResults = LrJobResultsStore.read(resultsFile);
+        assertEquals(results.getLrScenarioResults().keySet(), readResults.getLrScenarioResults().keySet());
+
+        // everything the store writes must be read back: writing the read results gives the same file
+        File rewrittenFile = new File(tmp.getRoot(), "rewritten.bin");
+        LrJobResultsStore.write(rewrittenFile, readResults);
+        assertArrayEquals(Files.readAllBytes(resultsFile.toPath()), Files.readAllBytes(rewrittenFile.toPath()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsForeignFile() throws Exception {
+        LrJobResultsStore.read(tmp.newFile("build.xml"));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.service;
+
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AlmRequestThrottleTest {
+
+	@Test
+	public void testServerErrorsLowerTheLimitAndSuccessesRestoreIt() throws InterruptedException {
+		AlmRequestThrottle throttle = new AlmRequestThrottle(4);
+
+		for (int i = 0; i < 5; i++) {
+			throttle.acquire();
+			throttle.release(response(503));
+		}
+		assertEquals(1, throttle.getLimit());
+
+		for (int i = 0; i < 60; i++) {
+			throttle.acquire();
+			throttle.release(response(200));
+		}
+		assertEquals(4, throttle.getLimit());
+
+		// All the permits are back
+		for (int i = 0; i < 4; i++) {
+			throttle.acquire();
+		}
+	}
+
+	@Test
+	public void testBackoffGrowsUpToTheMaximum() {
+		assertEquals(500, AlmRequestThrottle.getBackoffMillis(0));
+		assertEquals(1000, AlmRequestThrottle.getBackoffMillis(1));
+		assertEquals(30000, AlmRequestThrottle.getBackoffMillis(100));
+		assertTrue(AlmRequestThrottle.isServerError(response(500)));
+	}
+
+	private static Response response(int statusCode) {
+		return new Response(null, new byte[0], null, statusCode);
+	}
+}
@@ -0,0 +1,356 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.run;
+
+import com.cloudbees.plugins.credentials.common.UsernamePasswordCredentials;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcException;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PostRunAction;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.RunState;
+import com.microfocus.adm.performancecenter.plugins.common.rest.PcRestProxy;
+import com.microfocus.application.automation.tools.pc.MockPcRestProxy;
+import com.microfocus.application.automation.tools.pc.PcClient;
+import com.microfocus.application.automation.tools.pc.PcModel;
+import com.microfocus.application.automation.tools.pc.PcTestBase;
+import com.microfocus.application.automation.tools.sse.result.model.junit.Testsuites;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.util.Secret;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PcBuilderTest {
+
+    private static final long TIMEOUT = 5000;
+    private static final int PARALLEL_RUNS = 2;
+    // the run of a test has the ID of the test plus this offset
+    private static final int RUN_ID_OFFSET = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final PrintStream logger = new PrintStream(new ByteArrayOutputStream());
+    private TaskListener listener;
+    private Launcher launcher;
+    private Run build;
+    private FilePath workspace;
+    private UsernamePasswordCredentials credentials;
+
+    // state of the runs answered by LRE
+    private volatile RunState runState = RunState.FINISHED;
+    private final Set<String> failingTests = ConcurrentHashMap.newKeySet();
+    private final List<String> startedTests = new CopyOnWriteArrayList<>();
+    private final Set<Integer> polledRuns = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> stoppedRuns = ConcurrentHashMap.newKeySet();
+    // tests between the start of their run and the publication of their results
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final AtomicInteger publishing = new AtomicInteger();
+    private final AtomicInteger maxPublishing = new AtomicInteger();
+    private final AtomicInteger publishedOnTrendReport = new AtomicInteger();
+    // when set, each run has an analysis report, downloaded once the reports of all the parallel runs are downloading
+    private volatile CountDownLatch downloadingReports;
+    private final AtomicBoolean downloadTimedOut = new AtomicBoolean();
+
+    @Before
+    public void setUp() throws Exception {
+        listener = Mockito.mock(TaskListener.class);
+        Mockito.when(listener.getLogger()).thenReturn(logger);
+        launcher = Mockito.mock(Launcher.class);
+        build = Mockito.mock(Run.class);
+        Mockito.when(build.getRootDir()).thenReturn(folder.newFolder("build"));
+        workspace = new FilePath(folder.newFolder("workspace"));
+        credentials = Mockito.mock(UsernamePasswordCredentials.class);
+        Mockito.when(credentials.getUsername()).thenReturn("user");
+        Mockito.when(credentials.getPassword()).thenReturn(Secret.fromString(""));
+    }
+
+    @Test
+    public void testRunsLimitedToParallelRuns() throws Exception {
+        PcBuilder builder = createBuilder("1,2,3,4");
+
+        builder.perform(build, workspace, launcher, listener);
+
+        assertEquals(new HashSet<>(Arrays.asList("1", "2", "3", "4")), new HashSet<>(startedTests));
+        assertEquals(PARALLEL_RUNS, maxRunning.get());
+        assertEquals(0, running.get());
+    }
+
+    @Test
+    public void testResultsFilePerTest() throws Exception {
+        PcBuilder builder = createBuilder("1,2,3");
+
+        builder.perform(build, workspace, launcher, listener);
+
+        String[] resultsFileNames = builder.getRunResultsFileName().split(",");
+        assertEquals(3, resultsFileNames.length);
+        for (int i = 0; i < resultsFileNames.length; i++) {
+            assertTrue(resultsFileNames[i], resultsFileNames[i].endsWith("_TestId_" + (i + 1) + ".xml"));
+            assertTrue(resultsFileNames[i], workspace.child(resultsFileNames[i]).length() > 0);
+        }
+        Mockito.verify(build, Mockito.never()).setResult(Result.FAILURE);
+    }
+
+    @Test
+    public void testFailedTestDoesNotStopTheOthers() throws Exception {
+        failingTests.add("2");
+        PcBuilder builder = createBuilder("1,2,3");
+
+        builder.perform(build, workspace, launcher, listener);
+
+        assertEquals(new HashSet<>(Arrays.asList("1", "2", "3")), new HashSet<>(startedTests));
+        assertEquals(new HashSet<>(Arrays.asList(101, 103)), polledRuns);
+        Mockito.verify(build).setResult(Result.FAILURE);
+        for (String resultsFileName : builder.getRunResultsFileName().split(",")) {
+            // the failed test has no results to write
+            assertEquals(resultsFileName, !resultsFileName.endsWith("_TestId_2.xml"), workspace.child(resultsFileName).exists());
+        }
+        assertEquals(2, publishedOnTrendReport.get());
+    }
+
+    @Test
+    public void testAbortStopsTheRunningTests() throws Exception {
+        runState = RunState.RUNNING;
+        PcBuilder builder = createBuilder("1,2,3");
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread step = new Thread(() -> {
+            try {
+                builder.perform(build, workspace, launcher, listener);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        step.start();
+        waitFor(() -> polledRuns.size() == PARALLEL_RUNS);
+
+        step.interrupt();
+        step.join(TIMEOUT);
+
+        assertFalse(step.isAlive());
+        assertTrue(String.valueOf(failure.get()), failure.get() instanceof InterruptedException);
+        // the third test waited for a free slot
+        assertEquals(new HashSet<>(Arrays.asList("1", "2")), new HashSet<>(startedTests));
+        assertEquals(new HashSet<>(Arrays.asList(101, 102)), stoppedRuns);
+        Mockito.verify(build, Mockito.atLeastOnce()).setResult(Result.ABORTED);
+        assertEquals(0, publishedOnTrendReport.get());
+    }
+
+    @Test
+    public void testTrendReportPublishedOneRunAtATime() throws Exception {
+        PcBuilder builder = createBuilder("1,2,3,4");
+
+        builder.perform(build, workspace, launcher, listener);
+
+        assertEquals(4, publishedOnTrendReport.get());
+        assertEquals(1, maxPublishing.get());
+    }
+
+    @Test
+    public void testSlowDownloadDoesNotBlockTheOtherRuns() throws Exception {
+        downloadingReports = new CountDownLatch(PARALLEL_RUNS);
+        PcBuilder builder = createBuilder("1,2");
+
+        builder.perform(build, workspace, launcher, listener);
+
+        assertFalse("A download waited for another one", downloadTimedOut.get());
+        assertEquals(0, downloadingReports.getCount());
+        assertEquals(new HashSet<>(Arrays.asList(101, 102)), polledRuns);
+        Mockito.verify(build, Mockito.never()).setResult(Result.FAILURE);
+    }
+
+    private PcBuilder createBuilder(String testIds) throws Exception {
+        PcBuilder builder = Mockito.spy(new PcBuilder(PcTestBase.SERVER_AND_PORT, PcTestBase.PC_SERVER_NAME, null,
+                PcTestBase.ALM_DOMAIN, PcTestBase.ALM_PROJECT, testIds, PcTestBase.TEST_INSTANCE_ID, "AUTO",
+                PcTestBase.TIMESLOT_DURATION_HOURS, PcTestBase.TIMESLOT_DURATION_MINUTES, PostRunAction.COLLATE_AND_ANALYZE,
+                false, false, PcTestBase.DESCRIPTION, "USE_ID", "5", false, "", null,
+                PcTestBase.RETRY, PcTestBase.RETRYDELAY, PcTestBase.RETRYOCCURRENCES, false));
+        builder.setMaxParallelRuns(PARALLEL_RUNS);
+        PcClient pcClient = new PcClient(builder.getPcModel(), logger, createProxy(), credentials);
+        Mockito.doReturn(pcClient).when(builder).newPcClient(Matchers.any(PcModel.class),
+                Matchers.any(UsernamePasswordCredentials.class), Matchers.any(UsernamePasswordCredentials.class));
+        Mockito.doAnswer(invocation -> followTest((PcBuilder) invocation.callRealMethod()))
+                .when(builder).forTest(Matchers.anyString());
+        return builder;
+    }
+
+    // the run of each test is started without LRE and published on the trend report without LRE
+    private PcBuilder followTest(PcBuilder testBuilder) throws Exception {
+        PcBuilder builder = Mockito.spy(testBuilder);
+        String testId = builder.getTestId();
+        Mockito.doAnswer(invocation -> {
+            startedTests.add(testId);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(100);
+            if (failingTests.contains(testId)) {
+                throw new PcException("Failed to start the run of test " + testId);
+            }
+            setRunId(builder, RUN_ID_OFFSET + Integer.parseInt(testId));
+            return true;
+        }).when(builder).startRun(Matchers.any(PcClient.class), Matchers.any(Run.class));
+        Mockito.doAnswer(invocation -> {
+            try {
+                return invocation.callRealMethod();
+            } finally {
+                running.decrementAndGet();
+            }
+        }).when(builder).publishRunResults(Matchers.any(Run.class), Matchers.any(FilePath.class), Matchers.any(Testsuites.class));
+        Mockito.doAnswer(invocation -> {
+            maxPublishing.accumulateAndGet(publishing.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } finally {
+                publishing.decrementAndGet();
+            }
+            publishedOnTrendReport.incrementAndGet();
+            return false;
+        }).when(builder).publishOnTrendReport(Matchers.any(PcClient.class), Matchers.any(Run.class));
+        return builder;
+    }
+
+    private static void setRunId(PcBuilder builder, int runId) throws ReflectiveOperationException {
+        Field field = PcBuilder.class.getDeclaredField("runId");
+        field.setAccessible(true);
+        field.setInt(builder, runId);
+    }
+
+    // answers the polls, results and stop of the runs
+    private PcRestProxy createProxy() throws PcException {
+        return new MockPcRestProxy(PcTestBase.WEB_PROTOCOL, PcTestBase.PC_SERVER_NAME, PcTestBase.AUTHENTICATE_WITH_TOKEN,
+                PcTestBase.ALM_DOMAIN, PcTestBase.ALM_PROJECT, PcTestBase.LOGGER) {
+            @Override
+            protected HttpResponse executeRequest(HttpRequestBase request) throws PcException, ClientProtocolException, IOException {
+                String runsUrl = String.format(getBaseURL() + "/%s/", RUNS_RESOURCE_NAME);
+                String requestUrl = request.getURI().toString();
+                if (!requestUrl.startsWith(runsUrl)) {
+                    return super.executeRequest(request);
+                }
+                String[] path = requestUrl.substring(runsUrl.length()).split("/");
+                int runId = Integer.parseInt(path[0]);
+                HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+                if (path.length == 1) {
+                    polledRuns.add(runId);
+                    response.setEntity(new StringEntity(PcTestBase.runResponseEntity.replace("*", runState.value())));
+                } else if (RESULTS_RESOURCE_NAME.equals(path[1]) && path.length == 2) {
+                    // no report to publish, unless the reports are downloaded
+                    response.setEntity(new StringEntity(downloadingReports == null ? PcTestBase.emptyResultsEntity : PcTestBase.runResultsEntity));
+                } else if (RESULTS_RESOURCE_NAME.equals(path[1])) {
+                    response.setEntity(new InputStreamEntity(slowReport(), ContentType.DEFAULT_BINARY));
+                } else if (PcTestBase.STOP_MODE.equals(path[1])) {
+                    stoppedRuns.add(runId);
+                } else {
+                    return super.executeRequest(request);
+                }
+                return response;
+            }
+        };
+    }
+
+    // the analysis report, read once the reports of all the parallel runs are downloading
+    private InputStream slowReport() {
+        CountDownLatch downloading = downloadingReports;
+        return new FilterInputStream(MockPcRestProxy.class.getResourceAsStream(PcBuilder.pcReportArchiveName)) {
+            private boolean started;
+
+            @Override
+            public int read() throws IOException {
+                awaitDownloads();
+                return super.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                awaitDownloads();
+                return super.read(b, off, len);
+            }
+
+            private void awaitDownloads() throws IOException {
+                if (started) {
+                    return;
+                }
+                started = true;
+                downloading.countDown();
+                try {
+                    if (!downloading.await(TIMEOUT, TimeUnit.MILLISECONDS)) {
+                        downloadTimedOut.set(true);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+        };
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + TIMEOUT;
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out", System.currentTimeMillis() < end);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.run;
+
+import com.microfocus.application.automation.tools.mc.Constants;
+import hudson.FilePath;
+import hudson.model.BuildListener;
+import hudson.model.TaskListener;
+import net.minidev.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class UploadAppBuilderTest {
+
+    private static final String MC_URL = "http://mc:8080";
+    private static final String APP_JSON = "{\"error\":false,\"name\":\"app\"}";
+
+    private BuildListener listener;
+    private final AtomicInteger logins = new AtomicInteger();
+    private final List<JSONObject> sessions = new CopyOnWriteArrayList<>();
+    // uploads of each app, in the order of the rounds
+    private final Map<String, List<JSONObject>> uploads = new ConcurrentHashMap<>();
+
+    @Before
+    public void setUp() {
+        listener = Mockito.mock(BuildListener.class);
+        Mockito.when(listener.getLogger()).thenReturn(new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void testAppsUploadedWithOneLogin() throws Exception {
+        UploadAppBuilder builder = createBuilder((app, round) -> APP_JSON);
+
+        assertTrue(builder.uploadApps(MC_URL, createUploads("a.apk", "b.apk", "c.ipa"), listener));
+        assertEquals(1, logins.get());
+        assertEquals(3, uploads.size());
+        for (List<JSONObject> appSessions : uploads.values()) {
+            assertEquals(1, appSessions.size());
+            assertSame(sessions.get(0), appSessions.get(0));
+        }
+    }
+
+    @Test
+    public void testFailedAppsRetriedWithNewLogin() throws Exception {
+        // b.apk fails in the first round only
+        UploadAppBuilder builder = createBuilder((app, round) -> "b.apk".equals(app) && round == 1 ? null : APP_JSON);
+
+        assertTrue(builder.uploadApps(MC_URL, createUploads("a.apk", "b.apk"), listener));
+        assertEquals(2, logins.get());
+        assertEquals(1, uploads.get("a.apk").size());
+        assertEquals(Arrays.asList(sessions.get(0), sessions.get(1)), uploads.get("b.apk"));
+    }
+
+    @Test
+    public void testRetriesLimited() throws Exception {
+        UploadAppBuilder builder = createBuilder((app, round) -> {
+            throw new IOException("connection reset");
+        });
+
+        assertFalse(builder.uploadApps(MC_URL, createUploads("a.apk"), listener));
+        // first round and 2 retries
+        assertEquals(3, logins.get());
+        assertEquals(3, uploads.get("a.apk").size());
+    }
+
+    @Test
+    public void testMissingAppNotRetried() throws Exception {
+        UploadAppBuilder builder = createBuilder((app, round) -> {
+            if ("missing.apk".equals(app)) {
+                throw new FileNotFoundException(app);
+            }
+            return APP_JSON;
+        });
+
+        assertFalse(builder.uploadApps(MC_URL, createUploads("missing.apk", "a.apk"), listener));
+        assertEquals(1, logins.get());
+        assertEquals(1, uploads.get("missing.apk").size());
+        assertEquals(1, uploads.get("a.apk").size());
+    }
+
+    private interface Upload {
+        String upload(String app, int round) throws IOException;
+    }
+
+    private UploadAppBuilder createBuilder(Upload upload) {
+        return new UploadAppBuilder("mc", "user", null, null, null, Collections.emptyList()) {
+            @Override
+            JSONObject login(String mcServerUrl) {
+                JSONObject loginJson = new JSONObject();
+                loginJson.put(Constants.JSESSIONID, "session" + logins.incrementAndGet());
+                sessions.add(loginJson);
+                return loginJson;
+            }
+
+            @Override
+            String uploadApp(String mcServerUrl, JSONObject loginJson, FilePath app, TaskListener listener) throws IOException {
+                assertEquals(MC_URL, mcServerUrl);
+                String name = app.getName();
+                uploads.computeIfAbsent(name, key -> new CopyOnWriteArrayList<>()).add(loginJson);
+                return upload.upload(name, sessions.indexOf(loginJson) + 1);
+            }
+        };
+    }
+
+    private static List<UploadAppBuilder.AppUpload> createUploads(String... apps) {
+        List<UploadAppBuilder.AppUpload> ret = new ArrayList<>();
+        for (String app : apps) {
+            File file = new File(app);
+            ret.add(new UploadAppBuilder.AppUpload(ret.size() + 1, app, file.getPath(), new FilePath(file)));
+        }
+        return ret;
+    }
+}
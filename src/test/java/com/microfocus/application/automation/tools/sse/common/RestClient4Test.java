@@ -28,7 +28,15 @@
 
 package com.microfocus.application.automation.tools.sse.common;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+
 import com.microfocus.application.automation.tools.rest.RestClient;
+import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import com.microfocus.application.automation.tools.sse.sdk.ResponseBodyConsumer;
+import com.microfocus.application.automation.tools.sse.sdk.SSEException;
 
 public class RestClient4Test extends RestClient {
 	private final static String AUTH_INFO_FRONT = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><AuthenticationInfo><Username>";
@@ -38,6 +46,29 @@ public class RestClient4Test extends RestClient {
 		super(url, domain, project, username);
 	}
 
+	/**
+	 * Mocks only override the buffered get, stream its data to the body consumer
+	 */
+	@Override
+	public Response httpGet(
+			String url,
+			String queryString,
+			Map<String, String> headers,
+			ResourceAccessLevel resourceAccessLevel,
+			ResponseBodyConsumer bodyConsumer) {
+
+		Response ret = httpGet(url, queryString, headers, resourceAccessLevel);
+		if (bodyConsumer != null && ret.isOk() && ret.getData() != null) {
+			try {
+				bodyConsumer.consume(new ByteArrayInputStream(ret.getData()));
+			} catch (IOException cause) {
+				throw new SSEException(cause);
+			}
+		}
+
+		return ret;
+	}
+
     public byte[] getExpectAuthInfo() {
     	
     	String authInfo = AUTH_INFO_FRONT + getUsername() + AUTH_INFO_BACK;
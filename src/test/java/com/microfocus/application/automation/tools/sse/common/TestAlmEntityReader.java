@@ -0,0 +1,182 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+package com.microfocus.application.automation.tools.sse.common;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+public class TestAlmEntityReader extends TestCase {
+    
+    @Test
+    public void testReadEntities() {
+        
+        List<AlmEntity> entities = AlmEntityReader.readEntities(EVENT_LOG_DATA);
+        Assert.assertEquals(7, entities.size());
+        Assert.assertEquals("event-log-read", entities.get(0).getType());
+        Assert.assertEquals("1798", entities.get(0).get("id"));
+        Assert.assertEquals("Timeslot ID '1005' was closed", entities.get(6).get("description"));
+    }
+    
+    @Test
+    public void testReadEntity() {
+        
+        AlmEntity entity = AlmEntityReader.readEntity(FINISHED_DATA);
+        Assert.assertEquals("Finished", entity.get("current-run-state"));
+        Assert.assertTrue(entity.contains("linked-lt-id"));
+        Assert.assertNull(entity.get("linked-lt-id"));
+        Assert.assertNull(entity.get("description"));
+        Assert.assertNull(entity.get("fail-reason"));
+        Assert.assertFalse(entity.contains("no-such-field"));
+        
+        Assert.assertEquals(0, AlmEntityReader.readEntity(EVENT_LOG_DATA).size());
+    }
+    
+    @Test
+    public void testSameAsDom() {
+        
+        String xml = createTestInstanceRuns(50);
+        List<Map<String, String>> expected = toEntitiesWithDom(xml);
+        List<AlmEntity> actual = AlmEntityReader.readEntities(xml);
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i), actual.get(i).toMap());
+        }
+        Assert.assertEquals(
+                "RuntimeOperations/RunStart.aspx?pcRunID=363&qcRunID=42",
+                XPathUtils.getAttributeValue(new String(PC_RUN_ENTITY_DATA_FORMAT), "pc-run-url"));
+        Assert.assertEquals(StringUtils.EMPTY_STRING, XPathUtils.getAttributeValue(new String(PC_RUN_ENTITY_DATA_FORMAT), "missing"));
+    }
+    
+    @Test
+    public void testAllocatesLessThanDom() {
+        
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        String xml = createTestInstanceRuns(500);
+        long threadId = Thread.currentThread().getId();
+        // once before measuring, to leave out the loading of the parsers
+        AlmEntityReader.readEntities(xml);
+        toEntitiesWithDom(xml);
+        
+        long start = threads.getThreadAllocatedBytes(threadId);
+        AlmEntityReader.readEntities(xml);
+        long read = threads.getThreadAllocatedBytes(threadId);
+        toEntitiesWithDom(xml);
+        long readWithDom = threads.getThreadAllocatedBytes(threadId);
+        
+        Assert.assertTrue(
+                String.format("%d bytes allocated, %d with DOM", read - start, readWithDom - read),
+                read - start < readWithDom - read);
+    }
+    
+    @Test
+    public void testReadAttributeMap() {
+        
+        String xml = "<Fields><Field Label=\"Test Name\" Name=\"name\"/><Field Label=\"My UDF\" Name=\"user-01\"/></Fields>";
+        Map<String, String> fields = AlmEntityReader.readAttributeMap(xml, "Field", "Label", "Name");
+        Assert.assertEquals(2, fields.size());
+        Assert.assertEquals("user-01", fields.get("My UDF"));
+        Assert.assertEquals("true", AlmEntityReader.readElementText("<Entity><SupportsVC>true</SupportsVC></Entity>", "SupportsVC"));
+    }
+    
+    private String createTestInstanceRuns(int count) {
+        
+        StringBuilder ret = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+        ret.append(String.format("<Entities TotalResults=\"%d\">", count));
+        for (int i = 0; i < count; i++) {
+            ret.append("<Entity Type=\"testcycl\"><Fields>");
+            appendField(ret, "id", String.valueOf(i));
+            appendField(ret, "run-id", String.valueOf(1000 + i));
+            appendField(ret, "testcycl-id", String.valueOf(i % 10));
+            appendField(ret, "testset-name", "Test Set " + i % 10);
+            appendField(ret, "test-config-name", "Test " + i);
+            appendField(ret, "test-subtype", "hp.qc.test-instance.MANUAL");
+            appendField(ret, "status", i % 7 == 0 ? "Failed" : "Passed");
+            appendField(ret, "duration", String.valueOf(i % 60));
+            appendField(ret, "exec-date", "2013-04-09");
+            appendField(ret, "exec-time", "15:52:53");
+            appendField(ret, "owner", "sa");
+            appendField(ret, "host", "host" + i % 5);
+            appendField(ret, "comments", null);
+            appendField(ret, "attachment", null);
+            appendField(ret, "os-name", "Windows");
+            appendField(ret, "last-modified", "2013-04-09 15:52:53");
+            ret.append("</Fields><RelatedEntities/></Entity>");
+        }
+        ret.append("</Entities>");
+        
+        return ret.toString();
+    }
+    
+    private void appendField(StringBuilder xml, String name, String value) {
+        
+        if (value == null) {
+            xml.append(String.format("<Field Name=\"%s\"/>", name));
+        } else {
+            xml.append(String.format("<Field Name=\"%s\"><Value>%s</Value></Field>", name, value));
+        }
+    }
+    
+    /**
+     * The DOM based XPathUtils.toEntities this reader replaced, the reference of testSameAsDom and testAllocatesLessThanDom.
+     */
+    private List<Map<String, String>> toEntitiesWithDom(String xml) {
+        
+        Document document = XPathUtils.getDocument(xml);
+        List<Map<String, String>> ret = new ArrayList<Map<String, String>>();
+        NodeList entities = document.getElementsByTagName("Entity");
+        for (int i = 0; i < entities.getLength(); i++) {
+            Map<String, String> currEntity = new HashMap<String, String>();
+            NodeList fields = ((Element) entities.item(i)).getElementsByTagName("Field");
+            for (int j = 0; j < fields.getLength(); j++) {
+                Node item = fields.item(j);
+                String value = null;
+                Node child = item.getFirstChild();
+                if (child != null && child.getFirstChild() != null) {
+                    value = child.getFirstChild().getNodeValue();
+                }
+                currEntity.put(item.getAttributes().item(0).getNodeValue(), value);
+            }
+            ret.add(currEntity);
+        }
+        
+        return ret;
+    }
+}
@@ -29,13 +29,18 @@
 package com.microfocus.application.automation.tools.sse.sdk;
 
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.microfocus.application.automation.tools.sse.common.TestCase;
 import com.microfocus.application.automation.tools.sse.sdk.handler.EventLogHandler;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.microfocus.application.automation.tools.sse.common.ConsoleLogger;
 import com.microfocus.application.automation.tools.sse.common.RestClient4Test;
 
 @SuppressWarnings({"squid:S2699","squid:S3658","squid:S2259","squid:S1872","squid:S2925","squid:S109"})
@@ -49,7 +54,7 @@ public class TestEventLogHandler extends TestCase {
                     + PROJECT
                     + "/event-log-reads?query={context[\"*Timeslot:%20"
                     + TIMESLOT_ID
-                    + "%3B*\"]}&fields=id,event-type,creation-time,action,description";
+                    + "%3B*\"]}&fields=id,event-type,creation-time,action,description&order-by={id[ASC]}&page-size=100";
     
     @Test
     public void testLog() {
@@ -60,6 +65,62 @@ public class TestEventLogHandler extends TestCase {
         Assert.assertTrue(isOk);
     }
     
+    @Test
+    public void testLogRequestsOnlyNewEvents() {
+        
+        MockRestClientNewEvents client = new MockRestClientNewEvents(URL, DOMAIN, PROJECT, USER);
+        EventLogHandler eventLogHandler = new EventLogHandler(client, TIMESLOT_ID);
+        Assert.assertTrue(eventLogHandler.log(new ConsoleLogger()));
+        Assert.assertTrue(eventLogHandler.log(new ConsoleLogger()));
+        Assert.assertEquals(2, client._calls);
+    }
+    
+    @Test
+    public void testLogReadsPagesUpToMaxEventsPerPoll() {
+        
+        MockRestClientPagedEvents client = new MockRestClientPagedEvents(URL, DOMAIN, PROJECT, USER, 1200);
+        EventLogHandler eventLogHandler = new EventLogHandler(client, TIMESLOT_ID);
+        List<String> printed = new ArrayList<String>();
+        Logger logger = new Logger() {
+            
+            @Override
+            public void log(String message) {
+                
+                printed.add(message);
+            }
+            
+            @Override
+            public void error(String message) {
+                
+                printed.add(message);
+            }
+        };
+        
+        // 5 pages of 100 events, the rest is left for the next polls
+        Assert.assertTrue(eventLogHandler.log(logger));
+        Assert.assertEquals(500, printed.size());
+        Assert.assertEquals("time 1:event 1", printed.get(0));
+        Assert.assertEquals("time 500:event 500", printed.get(499));
+        Assert.assertEquals(_expectedEventLogUrl, client._urls.get(0));
+        for (int page = 1; page < 5; page++) {
+            Assert.assertTrue(client._urls.get(page).contains(";id[%3E" + page * 100 + "]}"));
+            Assert.assertTrue(client._urls.get(page).endsWith("&page-size=100"));
+        }
+        Assert.assertEquals(5, client._urls.size());
+        
+        Assert.assertTrue(eventLogHandler.log(logger));
+        Assert.assertEquals(1000, printed.size());
+        Assert.assertEquals("time 1000:event 1000", printed.get(999));
+        Assert.assertEquals(10, client._urls.size());
+        
+        // 2 full pages, then a short (empty) one ends the poll
+        Assert.assertTrue(eventLogHandler.log(logger));
+        Assert.assertEquals(1200, printed.size());
+        Assert.assertEquals("time 1200:event 1200", printed.get(1199));
+        Assert.assertEquals(13, client._urls.size());
+        Assert.assertTrue(client._urls.get(12).contains(";id[%3E1200]}"));
+    }
+    
     @Test
     public void testLogBadTimeslot() {
         
@@ -130,6 +191,74 @@ public class TestEventLogHandler extends TestCase {
         }
     }
     
+    private class MockRestClientNewEvents extends RestClient4Test {
+        
+        private int _calls = 0;
+        
+        public MockRestClientNewEvents(String url, String domain, String project, String username) {
+            
+            super(url, domain, project, username);
+        }
+        
+        @Override
+        public Response httpGet(
+                String url,
+                String queryString,
+                Map<String, String> headers,
+                ResourceAccessLevel resourceAccessLevel) {
+            
+            byte[] data;
+            if (++_calls == 1) {
+                Assert.assertEquals(_expectedEventLogUrl, url);
+                data = EVENT_LOG_DATA;
+            } else {
+                Assert.assertTrue(url.contains(";id[%3E1808]}"));
+                data = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><Entities TotalResults=\"0\"></Entities>".getBytes();
+            }
+            return new Response(null, data, null, HttpURLConnection.HTTP_OK);
+        }
+    }
+    
+    private class MockRestClientPagedEvents extends RestClient4Test {
+        
+        private final Pattern _lastReadPattern = Pattern.compile(";id\\[%3E(\\d+)\\]");
+        private final Pattern _pageSizePattern = Pattern.compile("&page-size=(\\d+)$");
+        private final int _events;
+        private final List<String> _urls = new ArrayList<String>();
+        
+        public MockRestClientPagedEvents(String url, String domain, String project, String username, int events) {
+            
+            super(url, domain, project, username);
+            _events = events;
+        }
+        
+        @Override
+        public Response httpGet(
+                String url,
+                String queryString,
+                Map<String, String> headers,
+                ResourceAccessLevel resourceAccessLevel) {
+            
+            _urls.add(url);
+            Matcher lastRead = _lastReadPattern.matcher(url);
+            Matcher pageSize = _pageSizePattern.matcher(url);
+            Assert.assertTrue(pageSize.find());
+            int first = lastRead.find() ? Integer.parseInt(lastRead.group(1)) + 1 : 1;
+            int last = Math.min(_events, first + Integer.parseInt(pageSize.group(1)) - 1);
+            StringBuilder data = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+            data.append(String.format("<Entities TotalResults=\"%d\">", Math.max(0, last - first + 1)));
+            for (int id = first; id <= last; id++) {
+                data.append(String.format(
+                        "<Entity Type=\"event-log-read\"><Fields><Field Name=\"id\"><Value>%d</Value></Field><Field Name=\"description\"><Value>event %d</Value></Field><Field Name=\"creation-time\"><Value>time %d</Value></Field></Fields><RelatedEntities/></Entity>",
+                        id,
+                        id,
+                        id));
+            }
+            data.append("</Entities>");
+            return new Response(null, data.toString().getBytes(), null, HttpURLConnection.HTTP_OK);
+        }
+    }
+    
     private class MockRestClientBadLogResponse extends RestClient4Test {
         
         public MockRestClientBadLogResponse(
@@ -159,6 +159,29 @@ public class TestPollHandler extends TestCase {
         Assert.assertTrue(isOk);
     }
     
+    @Test
+    public void testPollOnceBvsTwoPasses() {
+        
+        Client client = new MockRestClientBvsTwoPasses(URL, DOMAIN, PROJECT, USER);
+        PollHandler pollHandler = new PollHandlerFactory().create(client, "BVS", "12", 0);
+        pollHandler.setRunId("42");
+        Assert.assertTrue(pollHandler.preparePoll(new ConsoleLogger()));
+        Assert.assertEquals(TIMESLOT_ID, pollHandler.getTimeslotId());
+        Assert.assertEquals(PollHandler.PollStatus.RUNNING, pollHandler.pollOnce(new ConsoleLogger()));
+        Assert.assertEquals(PollHandler.PollStatus.FINISHED, pollHandler.pollOnce(new ConsoleLogger()));
+    }
+    
+    @Test
+    public void testPollOncePCThrowsException() {
+        
+        Client client = new MockRestClientThrowsException(URL, DOMAIN, PROJECT, USER);
+        PollHandler pollHandler = new PollHandlerFactory().create(client, "PC", "12", 0);
+        Assert.assertTrue(pollHandler.preparePoll(new ConsoleLogger()));
+        Assert.assertEquals(PollHandler.PollStatus.RUNNING, pollHandler.pollOnce(new ConsoleLogger()));
+        Assert.assertEquals(PollHandler.PollStatus.RUNNING, pollHandler.pollOnce(new ConsoleLogger()));
+        Assert.assertEquals(PollHandler.PollStatus.FAILED, pollHandler.pollOnce(new ConsoleLogger()));
+    }
+    
     private class MockRestClientBvsTwoPasses extends RestClient4Test {
         
         private int _calls = 0;